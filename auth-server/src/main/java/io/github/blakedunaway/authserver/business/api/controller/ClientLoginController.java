@@ -1,11 +1,9 @@
 package io.github.blakedunaway.authserver.business.api.controller;
 
-import io.github.blakedunaway.authserver.business.api.dto.response.ClientUserActivity;
 import io.github.blakedunaway.authserver.business.model.user.ClientRegisterDto;
+import io.github.blakedunaway.authserver.business.service.ClientUserActivityRecorder;
 import io.github.blakedunaway.authserver.business.service.UserService;
-import io.github.blakedunaway.authserver.config.redis.RedisStore;
 import io.github.blakedunaway.authserver.security.session.AuthSessionHandler;
-import io.github.blakedunaway.authserver.util.RedisUtility;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -29,8 +27,6 @@ import org.springframework.web.util.UriComponents;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
-import java.time.Duration;
-import java.time.LocalDateTime;
 
 @RequiredArgsConstructor
 @Controller
@@ -45,7 +41,7 @@ public class ClientLoginController {
 
     private final AuthSessionHandler authSessionHandler;
 
-    private final RedisStore redisStore;
+    private final ClientUserActivityRecorder clientUserActivityRecorder;
 
     @Value("${auth-server.frontend.client-id}")
     private String platformClientId;
@@ -92,12 +88,7 @@ public class ClientLoginController {
             response.sendRedirect("/oauth-error?error=invalid_request&error_description=Missing%20client_id");
             return;
         }
-        redisStore.pushToList(RedisUtility.CLIENT_LOGIN_ATTRIBUTE + clientRegisterDto.getClientId(),
-                              ClientUserActivity.builder()
-                                                .email(clientRegisterDto.getEmail())
-                                                .activityTs(LocalDateTime.now())
-                                                .build(),
-                              Duration.ofMinutes(15));
+        clientUserActivityRecorder.recordLogin(clientRegisterDto.getClientId(), clientRegisterDto.getEmail());
         try {
             final Authentication result = authenticationManager.authenticate(clientRegisterDto.toAuthenticationToken());
             authSessionHandler.successfulAuthentication(request, response, result);
@@ -131,12 +122,7 @@ public class ClientLoginController {
                 return "redirect:/oauth-error?error=invalid_request&error_description=Missing%20client_id";
             }
             userService.signUpClientUser(clientRegisterDto);
-            redisStore.pushToList(RedisUtility.CLIENT_SIGNUP_ATTRIBUTE + clientRegisterDto.getClientId(),
-                                  ClientUserActivity.builder()
-                                                    .email(clientRegisterDto.getEmail())
-                                                    .activityTs(LocalDateTime.now())
-                                                    .build(),
-                                  Duration.ofMinutes(15));
+            clientUserActivityRecorder.recordSignup(clientRegisterDto.getClientId(), clientRegisterDto.getEmail());
             return "redirect:/login";
         } else {
             log.warn("Client sign up post for {} was received without a saved OAuth request.", clientRegisterDto.getEmail());
@@ -0,0 +1,32 @@
+package io.github.blakedunaway.authserver.business.api.controller;
+
+import io.github.blakedunaway.authserver.security.hashing.PasswordHashingUnavailableException;
+import io.github.blakedunaway.authserver.security.session.AuthSessionHandler;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import java.io.IOException;
+
+// Sign up and password changes hash outside the authentication manager, so shed requests are routed
+// to the same failure handler the login flows use.
+@Slf4j
+@RequiredArgsConstructor
+@ControllerAdvice(assignableTypes = {ClientLoginController.class, PlatformLoginController.class, CredentialsExpiredController.class})
+public class PasswordHashingExceptionAdvice {
+
+    private final AuthSessionHandler authSessionHandler;
+
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public void passwordHashingUnavailable(final HttpServletRequest request,
+                                           final HttpServletResponse response,
+                                           final PasswordHashingUnavailableException ex) throws ServletException, IOException {
+        log.warn("Password hashing capacity exhausted for {}: {}", request.getRequestURI(), ex.getMessage());
+        authSessionHandler.unsuccessfulAuthentication(request, response, ex);
+    }
+
+}
@@ -1,37 +1,59 @@
 package io.github.blakedunaway.authserver.business.api.controller;
 
+import io.github.blakedunaway.authserver.business.api.dto.request.AuthTokenSearchRequest;
 import io.github.blakedunaway.authserver.business.api.dto.request.ClientUserRequest;
 import io.github.blakedunaway.authserver.business.api.dto.request.RegisteredClientRequest;
 import io.github.blakedunaway.authserver.business.api.dto.response.AdminDashboardResponse;
+import io.github.blakedunaway.authserver.business.api.dto.response.AuthTokenPageResponse;
 import io.github.blakedunaway.authserver.business.api.dto.response.AuthTokenResponse;
 import io.github.blakedunaway.authserver.business.api.dto.response.ClientUserActivity;
 import io.github.blakedunaway.authserver.business.api.dto.response.ClientUserActivityResponse;
+import io.github.blakedunaway.authserver.business.api.dto.response.ClientUserImportEventResponse;
 import io.github.blakedunaway.authserver.business.api.dto.response.ClientUserResponse;
 import io.github.blakedunaway.authserver.business.api.dto.response.DemoAccessCodeDetailsResponse;
+import io.github.blakedunaway.authserver.business.api.dto.response.PlatformDashboardResponse;
 import io.github.blakedunaway.authserver.business.api.dto.response.PlatformUserDetailsReponse;
 import io.github.blakedunaway.authserver.business.api.dto.response.PlatformUserTierResponse;
 import io.github.blakedunaway.authserver.business.api.dto.response.RegisteredClientResponse;
-import io.github.blakedunaway.authserver.business.model.Authority;
+import io.github.blakedunaway.authserver.business.model.AuthTokenCursor;
+import io.github.blakedunaway.authserver.business.model.AuthTokenQuery;
+import io.github.blakedunaway.authserver.business.model.ClientUserCursor;
+import io.github.blakedunaway.authserver.business.model.ClientUserImportEvent;
 import io.github.blakedunaway.authserver.business.model.RegisteredClientModel;
+import io.github.blakedunaway.authserver.business.model.enums.ClientActivityType;
+import io.github.blakedunaway.authserver.business.model.enums.BulkDataFormat;
 import io.github.blakedunaway.authserver.business.model.user.ClientUser;
 import io.github.blakedunaway.authserver.business.model.user.PlatformUser;
+import io.github.blakedunaway.authserver.business.model.user.PlatformUserOwnership;
 import io.github.blakedunaway.authserver.business.service.AuthTokenService;
+import io.github.blakedunaway.authserver.business.service.ClientUserActivityService;
+import io.github.blakedunaway.authserver.business.service.ClientUserImportReader;
+import io.github.blakedunaway.authserver.business.service.ClientUserImportService;
 import io.github.blakedunaway.authserver.business.service.DemoAccessCodeService;
+import io.github.blakedunaway.authserver.business.service.PlatformDashboardService;
 import io.github.blakedunaway.authserver.business.service.PlatformUserTierService;
+import io.github.blakedunaway.authserver.business.service.RecordExportWriter;
 import io.github.blakedunaway.authserver.business.service.RegisteredClientService;
 import io.github.blakedunaway.authserver.business.service.UserService;
-import io.github.blakedunaway.authserver.config.redis.RedisStore;
+import io.github.blakedunaway.authserver.integration.repository.cache.DashboardVersions;
 import io.github.blakedunaway.authserver.mapper.DemoAccessCodeMapper;
 import io.github.blakedunaway.authserver.mapper.RegisteredClientMapper;
-import io.github.blakedunaway.authserver.util.RedisUtility;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -39,17 +61,30 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-
-import java.util.ArrayList;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/platform/api")
@@ -57,9 +92,16 @@ import java.util.stream.Collectors;
 @Slf4j
 public class PlatformApiController {
 
+    private static final List<String> CLIENT_USER_EXPORT_COLUMNS = List.of("id", "clientId", "email", "verified", "createdAt",
+                                                                           "updatedAt", "authorities", "roles", "locked",
+                                                                           "expired", "credentialsExpired", "cursor");
+
+    private static final List<String> TOKEN_EXPORT_COLUMNS = List.of("id", "kid", "tokenType", "subject", "issuedAt", "expiresAt",
+                                                                     "revokedAt", "cursor");
+
     private final DemoAccessCodeMapper demoAccessCodeMapper;
 
-    private final RedisStore redisStore;
+    private final ClientUserActivityService clientUserActivityService;
 
     private final UserService userService;
 
@@ -73,6 +115,42 @@ public class PlatformApiController {
 
     private final DemoAccessCodeService demoAccessCodeService;
 
+    private final PlatformDashboardService platformDashboardService;
+
+    private final DashboardVersions dashboardVersions;
+
+    private final ClientUserImportService clientUserImportService;
+
+    private final ObjectMapper objectMapper;
+
+    // The body is written after the handler returns, gzip compressed when the client accepts it.
+    private ResponseEntity<StreamingResponseBody> streamExport(final BulkDataFormat format,
+                                                               final String acceptEncoding,
+                                                               final List<String> csvColumns,
+                                                               final Consumer<RecordExportWriter> export) {
+        final boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        final StreamingResponseBody body = output -> {
+            final OutputStream target = gzip ? new GZIPOutputStream(output, true) : output;
+            final RecordExportWriter writer = new RecordExportWriter(target, format, objectMapper, csvColumns);
+            try {
+                export.accept(writer);
+            } catch (final UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+            writer.finish();
+            if (target instanceof GZIPOutputStream compressed) {
+                compressed.finish();
+            }
+        };
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                                                                  .contentType(MediaType.parseMediaType(format.mediaType()))
+                                                                  .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     private <T> ResponseEntity<T> unauthorized() {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
     }
@@ -81,7 +159,7 @@ public class PlatformApiController {
     @PreAuthorize("hasRole('PLATFORM_USER') and hasAuthority('PLATFORM_TIER_PAID')")
     public ResponseEntity<?> createClient(@AuthenticationPrincipal final Jwt jwt,
                                           @RequestBody final RegisteredClientRequest registeredClientRequest) {
-        final PlatformUser platformUser = userService.loadPlatformUserByEmail(jwt.getSubject());
+        final PlatformUser platformUser = userService.loadPlatformUserBySubject(jwt.getSubject());
         if (platformUser == null) {
             log.warn("Create client request rejected because the platform user {} could not be resolved.", jwt.getSubject());
             return unauthorized();
@@ -90,12 +168,7 @@ public class PlatformApiController {
             final RegisteredClientModel requestedRegisteredClient =
                     registeredClientMapper.registeredClientRequestToRegisteredClientModel(registeredClientRequest);
 
-            final Set<RegisteredClientModel> registeredClientModels =
-                    registeredClientService.findRegisteredClientsByIds(platformUser.getRegisteredClientIds());
-
-            registeredClientModels.add(requestedRegisteredClient);
-            userService.validatePlatformUserTierCompliance(platformUser,
-                                                           registeredClientModels);
+            userService.validatePlatformUserTierCompliance(platformUser, null, requestedRegisteredClient);
 
             final RegisteredClientModel model = registeredClientService.saveRegisteredClient(requestedRegisteredClient);
             userService.attachRegisteredClientToPlatformUser(jwt.getSubject(), model.getId());
@@ -112,33 +185,54 @@ public class PlatformApiController {
     @GetMapping("/dashboard")
     @PreAuthorize("hasRole('PLATFORM_USER')")
     public ResponseEntity<PlatformUserDetailsReponse> getDashboard(@AuthenticationPrincipal final Jwt jwt) {
-        final PlatformUser platformUser = userService.loadPlatformUserByEmail(jwt.getSubject());
+        final PlatformUser platformUser = userService.loadPlatformUserBySubject(jwt.getSubject());
         if (platformUser == null) {
             log.warn("Dashboard request rejected because the platform user {} could not be resolved.", jwt.getSubject());
             return unauthorized();
         }
 
-        final Set<UUID> registeredClientIds = platformUser.getRegisteredClientIds() == null
-                                              ? Collections.emptySet()
-                                              : platformUser.getRegisteredClientIds();
-
-        final Set<RegisteredClientResponse> registeredClients =
-                registeredClientService.findRegisteredClientsByIds(registeredClientIds)
-                                       .stream()
-                                       .map(RegisteredClientResponse::fromModel)
-                                       .collect(Collectors.toCollection(HashSet::new));
-
-        final PlatformUserDetailsReponse platformUserDetailsReponse =
-                PlatformUserDetailsReponse.from(registeredClients, platformUser.getTier())
-                                          .totalUsers(userService.getTotalUserCount(platformUser.getEmail()))
-                                          .isDemoUser(platformUser.isDemoUser())
-                                          .isAdmin(platformUser.getAuthorities() != null
-                                                   && platformUser.getAuthorities().stream()
-                                                                  .map(Authority::getName)
-                                                                  .collect(Collectors.toSet())
-                                                                  .containsAll(Set.of("ROLE_PLATFORM_ADMIN", "PLATFORM_ADMIN_ACCESS")))
-                                          .build();
-        return ResponseEntity.ok(platformUserDetailsReponse);
+        return ResponseEntity.ok(platformDashboardService.details(platformUser,
+                                                                  platformDashboardService.findOwnedClients(platformUser),
+                                                                  userService.getTotalUserCount(platformUser.getEmail())));
+    }
+
+    // The ETag comes from the change versions read before anything is loaded, so a matching If-None-Match is
+    // answered without touching the database. Activity is bucketed by minute and part of the tag along with the tier.
+    @GetMapping("/dashboard/composite")
+    @PreAuthorize("hasRole('PLATFORM_USER')")
+    public ResponseEntity<PlatformDashboardResponse> getCompositeDashboard(@AuthenticationPrincipal final Jwt jwt,
+                                                                           final Authentication authentication,
+                                                                           final WebRequest webRequest) {
+        final boolean paid = authentication.getAuthorities()
+                                           .stream()
+                                           .anyMatch(authority -> "PLATFORM_TIER_PAID".equals(authority.getAuthority()));
+        final Instant bucket = Instant.now().truncatedTo(ChronoUnit.MINUTES);
+        final DashboardVersions.Snapshot snapshot = dashboardVersions.read(jwt.getSubject());
+        final String eTag = snapshot == null ? null : ETag.quoteETagIfNecessary(snapshot.tag(paid + "|" + bucket.toEpochMilli()));
+        final CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (eTag != null && ETag.parse(Objects.requireNonNullElse(webRequest.getHeader(HttpHeaders.IF_NONE_MATCH), ""))
+                                .stream()
+                                .anyMatch(candidate -> candidate.isWildcard() || eTag.equals(candidate.formattedTag()))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+        }
+
+        final PlatformUser platformUser = userService.loadPlatformUserBySubject(jwt.getSubject());
+        if (platformUser == null) {
+            log.warn("Composite dashboard request rejected because the platform user {} could not be resolved.", jwt.getSubject());
+            return unauthorized();
+        }
+        final Set<RegisteredClientModel> ownedClients = platformDashboardService.findOwnedClients(platformUser);
+        final PlatformDashboardResponse dashboard = platformDashboardService.build(platformUser,
+                                                                                   ownedClients,
+                                                                                   paid,
+                                                                                   clientUserActivityService.windowStart(bucket));
+        final Set<String> clientIds = ownedClients.stream().map(RegisteredClientModel::getClientId).collect(Collectors.toSet());
+        if (eTag == null || !snapshot.clientIds().equals(clientIds)) {
+            // versions are tracked from here on, the next request can be answered conditionally
+            dashboardVersions.remember(jwt.getSubject(), clientIds);
+            return ResponseEntity.ok().cacheControl(cacheControl).body(dashboard);
+        }
+        return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl).body(dashboard);
     }
 
     @GetMapping("/tiers")
@@ -154,27 +248,56 @@ public class PlatformApiController {
     @PreAuthorize("hasRole('PLATFORM_USER') and hasAuthority('PLATFORM_TIER_PAID')")
     public ResponseEntity<Set<ClientUserResponse>> getClientUsers(@AuthenticationPrincipal final Jwt jwt,
                                                                   @RequestBody Set<UUID> registeredClientIds) {
-        final PlatformUser platformUser = userService.loadPlatformUserByEmail(jwt.getSubject());
-        if (platformUser == null) {
+        final PlatformUserOwnership ownership = userService.loadPlatformUserOwnershipBySubject(jwt.getSubject());
+        if (ownership == null) {
             log.warn("Client user lookup rejected because the platform user {} could not be resolved.", jwt.getSubject());
             return unauthorized();
         }
 
         return ResponseEntity.ok(userService.findClientUsersByRegisteredClientIds(
-                                                    userService.filterOwnedRegisteredClientIds(platformUser,
+                                                    userService.filterOwnedRegisteredClientIds(ownership,
                                                                                                registeredClientIds))
                                             .stream()
                                             .map(ClientUserResponse::fromModel)
                                             .collect(Collectors.toCollection(HashSet::new)));
     }
 
+    // Streams every user of the requested owned clients in id order. Each row carries the cursor to pass back to
+    // resume after it, so an interrupted export can continue where it stopped.
+    @PostMapping("/users/export")
+    @PreAuthorize("hasRole('PLATFORM_USER') and hasAuthority('PLATFORM_TIER_PAID')")
+    public ResponseEntity<?> exportClientUsers(@AuthenticationPrincipal final Jwt jwt,
+                                               @RequestBody final Set<UUID> registeredClientIds,
+                                               @RequestParam(defaultValue = "NDJSON") final BulkDataFormat format,
+                                               @RequestParam(required = false) final String cursor,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) final String acceptEncoding) {
+        final PlatformUserOwnership ownership = userService.loadPlatformUserOwnershipBySubject(jwt.getSubject());
+        if (ownership == null) {
+            log.warn("Client user export rejected because the platform user {} could not be resolved.", jwt.getSubject());
+            return unauthorized();
+        }
+
+        final ClientUserCursor resumeAfter;
+        try {
+            resumeAfter = StringUtils.isEmpty(cursor) ? null : ClientUserCursor.decode(cursor);
+        } catch (final IllegalArgumentException e) {
+            log.warn("Client user export request from platform user {} was invalid.", jwt.getSubject(), e);
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+
+        final Set<UUID> ownedRegisteredClientIds = userService.filterOwnedRegisteredClientIds(ownership, registeredClientIds);
+        return streamExport(format, acceptEncoding, CLIENT_USER_EXPORT_COLUMNS, writer ->
+                userService.exportClientUsers(ownedRegisteredClientIds, resumeAfter, clientUser ->
+                        writer.write(ClientUserResponse.fromModel(clientUser), new ClientUserCursor(clientUser.getId()).encode())));
+    }
+
     @PatchMapping("/users/{clientUserId}")
     @PreAuthorize("hasRole('PLATFORM_USER') and hasAuthority('PLATFORM_TIER_PAID')")
     public ResponseEntity<ClientUserResponse> updateClientUser(@AuthenticationPrincipal final Jwt jwt,
                                                                @PathVariable final UUID clientUserId,
                                                                @RequestBody final ClientUserRequest request) {
-        final PlatformUser platformUser = userService.loadPlatformUserByEmail(jwt.getSubject());
-        if (platformUser == null) {
+        final PlatformUserOwnership ownership = userService.loadPlatformUserOwnershipBySubject(jwt.getSubject());
+        if (ownership == null) {
             log.warn("Client user update rejected because the platform user {} could not be resolved.", jwt.getSubject());
             return unauthorized();
         }
@@ -182,7 +305,7 @@ public class PlatformApiController {
         final ClientUser updatedClientUser =
                 userService.updateClientUser(
                         clientUserId,
-                        platformUser.getRegisteredClientIds(),
+                        ownership.registeredClientIds(),
                         request
                 );
 
@@ -198,26 +321,94 @@ public class PlatformApiController {
     @PreAuthorize("hasRole('PLATFORM_USER') and hasAuthority('PLATFORM_TIER_PAID')")
     public ResponseEntity<Set<AuthTokenResponse>> getClientAuthTokens(@AuthenticationPrincipal final Jwt jwt,
                                                                       @RequestBody Set<UUID> registeredClientIds) {
-        final PlatformUser platformUser = userService.loadPlatformUserByEmail(jwt.getSubject());
-        if (platformUser == null) {
+        final PlatformUserOwnership ownership = userService.loadPlatformUserOwnershipBySubject(jwt.getSubject());
+        if (ownership == null) {
             log.warn("Token lookup rejected because the platform user {} could not be resolved.", jwt.getSubject());
             return unauthorized();
         }
 
         return ResponseEntity.ok(authTokenService.findAllByRegisteredClientIds(
-                                                         userService.filterOwnedRegisteredClientIds(platformUser,
+                                                         userService.filterOwnedRegisteredClientIds(ownership,
                                                                                                     registeredClientIds))
                                                  .stream()
                                                  .map(AuthTokenResponse::fromModel)
                                                  .collect(Collectors.toCollection(HashSet::new)));
     }
 
+    @PostMapping("/tokens/search")
+    @PreAuthorize("hasRole('PLATFORM_USER') and hasAuthority('PLATFORM_TIER_PAID')")
+    public ResponseEntity<?> searchClientAuthTokens(@AuthenticationPrincipal final Jwt jwt,
+                                                    @RequestBody final AuthTokenSearchRequest request) {
+        final PlatformUserOwnership ownership = userService.loadPlatformUserOwnershipBySubject(jwt.getSubject());
+        if (ownership == null) {
+            log.warn("Token search rejected because the platform user {} could not be resolved.", jwt.getSubject());
+            return unauthorized();
+        }
+
+        try {
+            final AuthTokenCursor cursor = StringUtils.isEmpty(request.getCursor()) ? null : AuthTokenCursor.decode(request.getCursor());
+            final AuthTokenQuery query = AuthTokenQuery.builder()
+                                                       .registeredClientIds(userService.filterOwnedRegisteredClientIds(ownership,
+                                                                                                                       request.getRegisteredClientIds()))
+                                                       .tokenType(request.getTokenType())
+                                                       .state(request.getState())
+                                                       .subject(StringUtils.trimToNull(request.getSubject()))
+                                                       .issuedFrom(request.getIssuedFrom())
+                                                       .issuedTo(request.getIssuedTo())
+                                                       .cursorIssuedAt(cursor == null ? null : cursor.issuedAt())
+                                                       .cursorId(cursor == null ? null : cursor.id())
+                                                       .limit(request.getLimit() == null ? AuthTokenService.DEFAULT_PAGE_SIZE : request.getLimit())
+                                                       .build();
+            return ResponseEntity.ok(AuthTokenPageResponse.fromModel(authTokenService.findPage(query)));
+        } catch (final IllegalArgumentException e) {
+            log.warn("Token search request from platform user {} was invalid.", jwt.getSubject(), e);
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // Takes the search filters and streams every matching token newest first, without the page limit. The cursor of
+    // the search request resumes after the row that carried it.
+    @PostMapping("/tokens/export")
+    @PreAuthorize("hasRole('PLATFORM_USER') and hasAuthority('PLATFORM_TIER_PAID')")
+    public ResponseEntity<?> exportClientAuthTokens(@AuthenticationPrincipal final Jwt jwt,
+                                                    @RequestBody final AuthTokenSearchRequest request,
+                                                    @RequestParam(defaultValue = "NDJSON") final BulkDataFormat format,
+                                                    @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) final String acceptEncoding) {
+        final PlatformUserOwnership ownership = userService.loadPlatformUserOwnershipBySubject(jwt.getSubject());
+        if (ownership == null) {
+            log.warn("Token export rejected because the platform user {} could not be resolved.", jwt.getSubject());
+            return unauthorized();
+        }
+
+        final AuthTokenQuery query;
+        try {
+            final AuthTokenCursor cursor = StringUtils.isEmpty(request.getCursor()) ? null : AuthTokenCursor.decode(request.getCursor());
+            query = AuthTokenQuery.builder()
+                                  .registeredClientIds(userService.filterOwnedRegisteredClientIds(ownership, request.getRegisteredClientIds()))
+                                  .tokenType(request.getTokenType())
+                                  .state(request.getState())
+                                  .subject(StringUtils.trimToNull(request.getSubject()))
+                                  .issuedFrom(request.getIssuedFrom())
+                                  .issuedTo(request.getIssuedTo())
+                                  .cursorIssuedAt(cursor == null ? null : cursor.issuedAt())
+                                  .cursorId(cursor == null ? null : cursor.id())
+                                  .build();
+        } catch (final IllegalArgumentException e) {
+            log.warn("Token export request from platform user {} was invalid.", jwt.getSubject(), e);
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+
+        return streamExport(format, acceptEncoding, TOKEN_EXPORT_COLUMNS, writer ->
+                authTokenService.export(query, authToken ->
+                        writer.write(AuthTokenResponse.fromModel(authToken), AuthTokenCursor.of(authToken).encode())));
+    }
+
     @PatchMapping("/{registeredClientId}/update")
     @PreAuthorize("hasRole('PLATFORM_USER') and hasAuthority('PLATFORM_TIER_PAID')")
     public ResponseEntity<?> updateRegisteredClient(@AuthenticationPrincipal final Jwt jwt,
                                                     @PathVariable final UUID registeredClientId,
                                                     @RequestBody final RegisteredClientRequest registeredClientRequest) {
-        final PlatformUser platformUser = userService.loadPlatformUserByEmail(jwt.getSubject());
+        final PlatformUser platformUser = userService.loadPlatformUserBySubject(jwt.getSubject());
         if (platformUser == null) {
             log.warn("Registered client update rejected because the platform user {} could not be resolved.", jwt.getSubject());
             return unauthorized();
@@ -236,13 +427,10 @@ public class PlatformApiController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
 
-        final Set<RegisteredClientModel> clients = new HashSet<>(
-                registeredClientService.findRegisteredClientsByIds(platformUser.getRegisteredClientIds())
-        );
-        final RegisteredClientModel existingRegisteredClient = clients.stream()
-                                                                      .filter(client -> registeredClientId.equals(client.getId()))
-                                                                      .findFirst()
-                                                                      .orElse(null);
+        final RegisteredClientModel existingRegisteredClient = registeredClientService.findRegisteredClientsByIds(Set.of(registeredClientId))
+                                                                              .stream()
+                                                                              .findFirst()
+                                                                              .orElse(null);
         if (existingRegisteredClient == null) {
             log.warn("Registered client {} could not be resolved for platform user {} during update.", registeredClientId, jwt.getSubject());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -256,15 +444,14 @@ public class PlatformApiController {
                 log.warn("Registered client {} preview update returned null for platform user {}.", registeredClientId, jwt.getSubject());
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
             }
-            clients.removeIf(client -> registeredClientId.equals(client.getId()));
-            clients.add(resolvedUpdatedRegisteredClient);
-            userService.validatePlatformUserTierCompliance(platformUser, clients);
+            userService.validatePlatformUserTierCompliance(platformUser, existingRegisteredClient, resolvedUpdatedRegisteredClient);
         } catch (final ValidationException e) {
             log.warn("Registered client {} update failed tier validation for platform user {}.", registeredClientId, jwt.getSubject(), e);
             return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         }
 
-        userService.removeRemovedRegisteredClientAuthorities(existingRegisteredClient, resolvedUpdatedRegisteredClient);
+        final int affectedUsers =
+                userService.removeRemovedRegisteredClientAuthorities(existingRegisteredClient, resolvedUpdatedRegisteredClient);
 
         final RegisteredClientModel savedUpdatedRegisteredClient =
                 registeredClientService.updateRegisteredClient(existingRegisteredClient, updated);
@@ -274,20 +461,71 @@ public class PlatformApiController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
 
-        return ResponseEntity.ok(RegisteredClientResponse.fromModel(savedUpdatedRegisteredClient));
+        return ResponseEntity.ok(RegisteredClientResponse.fromUpdatedModel(savedUpdatedRegisteredClient, affectedUsers));
+    }
+
+    // Streams the body in and the outcome out as NDJSON: an ERROR line per rejected row, PROGRESS after every batch
+    // and a closing SUMMARY. Answered on the request thread so long imports are not cut off by the async timeout.
+    @PostMapping(value = "/{registeredClientId}/users/import",
+                 consumes = {BulkDataFormat.NDJSON_VALUE, BulkDataFormat.CSV_VALUE},
+                 produces = BulkDataFormat.NDJSON_VALUE)
+    @PreAuthorize("hasRole('PLATFORM_USER') and hasAuthority('PLATFORM_TIER_PAID')")
+    public void importClientUsers(@AuthenticationPrincipal final Jwt jwt,
+                                  @PathVariable final UUID registeredClientId,
+                                  final HttpServletRequest request,
+                                  final HttpServletResponse response) throws IOException {
+        final PlatformUser platformUser = userService.loadPlatformUserBySubject(jwt.getSubject());
+        if (platformUser == null) {
+            log.warn("Client user import rejected because the platform user {} could not be resolved.", jwt.getSubject());
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            return;
+        }
+
+        final RegisteredClientModel registeredClient = CollectionUtils.emptyIfNull(platformUser.getRegisteredClientIds())
+                                                                      .contains(registeredClientId)
+                                                       ? registeredClientService.findRegisteredClientsByIds(Set.of(registeredClientId))
+                                                                                .stream()
+                                                                                .findFirst()
+                                                                                .orElse(null)
+                                                       : null;
+        if (registeredClient == null) {
+            log.warn("Platform user {} attempted to import users into unowned registered client {}.", jwt.getSubject(), registeredClientId);
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(BulkDataFormat.NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        final OutputStream output = response.getOutputStream();
+        try (ClientUserImportReader reader = new ClientUserImportReader(request.getInputStream(),
+                                                                        BulkDataFormat.fromContentType(request.getContentType()))) {
+            clientUserImportService.importClientUsers(platformUser, registeredClient, reader, event -> {
+                try {
+                    output.write(objectMapper.writeValueAsBytes(ClientUserImportEventResponse.fromModel(event)));
+                    output.write('\n');
+                    if (event.type() != ClientUserImportEvent.Type.ERROR) {
+                        output.flush();
+                    }
+                } catch (final IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
+        output.flush();
     }
 
     @PostMapping("/tokens/{authTokenId}/invalidate")
     @PreAuthorize("hasRole('PLATFORM_USER') and hasAuthority('PLATFORM_TIER_PAID')")
     public ResponseEntity<Void> invalidateClientAuthToken(@AuthenticationPrincipal final Jwt jwt,
                                                           @PathVariable final UUID authTokenId) {
-        final PlatformUser platformUser = userService.loadPlatformUserByEmail(jwt.getSubject());
-        if (platformUser == null) {
+        final PlatformUserOwnership ownership = userService.loadPlatformUserOwnershipBySubject(jwt.getSubject());
+        if (ownership == null) {
             log.warn("Token invalidate request rejected because the platform user {} could not be resolved.", jwt.getSubject());
             return unauthorized();
         }
 
-        return authTokenService.invalidateByIdAndRegisteredClientIds(authTokenId, platformUser.getRegisteredClientIds())
+        return authTokenService.invalidateByIdAndRegisteredClientIds(authTokenId, ownership.registeredClientIds())
                ? ResponseEntity.noContent().build()
                : logInvalidateTokenNotFound(authTokenId, jwt.getSubject());
     }
@@ -296,13 +534,13 @@ public class PlatformApiController {
     @PreAuthorize("hasRole('PLATFORM_USER') and hasAuthority('PLATFORM_TIER_PAID')")
     public ResponseEntity<Integer> invalidateRegisteredClientTokens(@AuthenticationPrincipal final Jwt jwt,
                                                                     @PathVariable final UUID registeredClientId) {
-        final PlatformUser platformUser = userService.loadPlatformUserByEmail(jwt.getSubject());
-        if (platformUser == null) {
+        final PlatformUserOwnership ownership = userService.loadPlatformUserOwnershipBySubject(jwt.getSubject());
+        if (ownership == null) {
             log.warn("Registered client token invalidate request rejected because the platform user {} could not be resolved.", jwt.getSubject());
             return unauthorized();
         }
 
-        if (CollectionUtils.isEmpty(platformUser.getRegisteredClientIds()) || !platformUser.getRegisteredClientIds().contains(registeredClientId)) {
+        if (!ownership.owns(registeredClientId)) {
             log.warn("Platform user {} attempted to invalidate tokens for unowned registered client {}.", jwt.getSubject(), registeredClientId);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
@@ -314,8 +552,8 @@ public class PlatformApiController {
     @PreAuthorize("hasRole('PLATFORM_USER') and hasAuthority('PLATFORM_TIER_PAID')")
     public ResponseEntity<ClientUserActivityResponse> getRecentUserActivity(@AuthenticationPrincipal final Jwt jwt,
                                                                             @RequestBody final Set<String> clientIds) {
-        final PlatformUser platformUser = userService.loadPlatformUserByEmail(jwt.getSubject());
-        if (platformUser == null) {
+        final PlatformUserOwnership ownership = userService.loadPlatformUserOwnershipBySubject(jwt.getSubject());
+        if (ownership == null) {
             log.warn("Recent user activity request rejected because the platform user {} could not be resolved.", jwt.getSubject());
             return unauthorized();
         }
@@ -328,38 +566,26 @@ public class PlatformApiController {
                                                                .build());
         }
 
-        final Set<UUID> ownedRegisteredClientIds = platformUser.getRegisteredClientIds() == null
-                                                   ? Collections.emptySet()
-                                                   : platformUser.getRegisteredClientIds();
-        final Set<RegisteredClientModel> ownedClients = registeredClientService.findRegisteredClientsByIds(ownedRegisteredClientIds);
+        final Set<RegisteredClientModel> ownedClients = registeredClientService.findRegisteredClientsByIds(ownership.registeredClientIds());
         if (CollectionUtils.isEmpty(ownedClients) || ownedClients.stream().map(RegisteredClientModel::getClientId).noneMatch(clientIds::contains)) {
             log.warn("Platform user {} requested recent activity for unowned or unknown client ids {}.", jwt.getSubject(), requestedClientIds);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
 
-        final List<ClientUserActivity> logins = new ArrayList<>();
-        final List<ClientUserActivity> signups = new ArrayList<>();
-
-        for (final String clientId : requestedClientIds) {
-            if (StringUtils.isEmpty(clientId)) {
-                continue;
-            }
-
-            logins.addAll(redisStore.getList(RedisUtility.CLIENT_LOGIN_ATTRIBUTE + clientId));
-            signups.addAll(redisStore.getList(RedisUtility.CLIENT_SIGNUP_ATTRIBUTE + clientId));
-        }
+        final Map<ClientActivityType, List<ClientUserActivity>> recent =
+                clientUserActivityService.findRecent(requestedClientIds.stream().filter(StringUtils::isNotEmpty).toList());
 
         return ResponseEntity.ok(ClientUserActivityResponse.builder()
-                                                           .logins(logins)
-                                                           .signups(signups)
+                                                           .logins(recent.get(ClientActivityType.LOGIN))
+                                                           .signups(recent.get(ClientActivityType.SIGNUP))
                                                            .build());
     }
 
     @PostMapping("/admin/dashboard")
     @PreAuthorize("hasRole('PLATFORM_ADMIN') and hasAuthority('PLATFORM_ADMIN_ACCESS')")
     public ResponseEntity<AdminDashboardResponse> getAdminDashboard(@AuthenticationPrincipal final Jwt jwt) {
-        final PlatformUser platformUser = userService.loadPlatformUserByEmail(jwt.getSubject());
-        if (platformUser == null) {
+        final PlatformUserOwnership ownership = userService.loadPlatformUserOwnershipBySubject(jwt.getSubject());
+        if (ownership == null) {
             return unauthorized();
         }
 
@@ -5,17 +5,16 @@ import com.stripe.exception.SignatureVerificationException;
 import com.stripe.exception.StripeException;
 import com.stripe.model.*;
 import com.stripe.model.checkout.Session;
-import com.stripe.net.Webhook;
-import com.stripe.param.SubscriptionListParams;
-import com.stripe.param.SubscriptionUpdateParams;
 import com.stripe.param.checkout.SessionCreateParams;
+import io.github.blakedunaway.authserver.business.model.PlatformUserSubscription;
 import io.github.blakedunaway.authserver.business.model.user.PlatformUser;
 import io.github.blakedunaway.authserver.business.model.user.PlatformUserTier;
+import io.github.blakedunaway.authserver.business.service.BillingWebhookService;
+import io.github.blakedunaway.authserver.business.service.PlatformUserSubscriptionService;
 import io.github.blakedunaway.authserver.business.service.PlatformUserTierService;
 import io.github.blakedunaway.authserver.business.service.UserService;
 import io.github.blakedunaway.authserver.config.redis.RedisStore;
 import io.github.blakedunaway.authserver.util.RedisUtility;
-import io.github.blakedunaway.authserver.util.StripeEventUtility;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
@@ -35,8 +34,6 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.time.Duration;
 import java.util.Map;
-import java.util.Objects;
-import java.util.UUID;
 
 @RestController
 @RequestMapping("/platform")
@@ -48,6 +45,10 @@ public class PlatformUserSubscriptionController {
 
     private final PlatformUserTierService platformUserTierService;
 
+    private final PlatformUserSubscriptionService platformUserSubscriptionService;
+
+    private final BillingWebhookService billingWebhookService;
+
     private final StripeClient stripeClient;
 
     private final RedisStore redisStore;
@@ -55,14 +56,11 @@ public class PlatformUserSubscriptionController {
     @Value("${auth-server.frontend.origin}")
     private String frontendOrigin;
 
-    @Value("${stripe.webhook-secret}")
-    private String stripeWebhookSecret;
-
     @PreAuthorize("hasRole('PLATFORM_USER')")
     @PostMapping("/subscription")
     public ResponseEntity<String> createCheckoutSession(@AuthenticationPrincipal final Jwt jwt,
                                                         @RequestBody final String stripePriceId) throws StripeException {
-        final PlatformUser platformUser = userService.loadPlatformUserByEmail(jwt.getSubject());
+        final PlatformUser platformUser = userService.loadPlatformUserBySubject(jwt.getSubject());
         if (platformUser == null || platformUser.isDemoUser()) {
             log.warn("Checkout session creation rejected because the platform user {} could not be resolved, or is a demo user.", jwt.getSubject());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -150,54 +148,16 @@ public class PlatformUserSubscriptionController {
             @RequestBody String payload,
             @RequestHeader("Stripe-Signature") String signatureHeader) {
         try {
-            final Event event = Webhook.constructEvent(payload, signatureHeader, stripeWebhookSecret);
-            if (StripeEventUtility.CHECKOUT_SESSION_COMPLETED.equals(event.getType())) {
-                final Session session = (Session) event.getDataObjectDeserializer().deserializeUnsafe();
-                if (session != null && !syncPlatformUserTier(session.getMetadata().get("platformUserId"),
-                                                             session.getMetadata().get("tierId"),
-                                                             null)) {
-                    log.error("Stripe checkout session webhook failed to sync a platform user tier for session {}.", session.getId());
-                    redisStore.put(RedisUtility.SUBSCRIPTION_CHECKOUT_STATUS + session.getId(), "failed", Duration.ofMinutes(30));
-                    return ResponseEntity.badRequest()
-                                         .body(Map.of("message", "An error occurred processing your subscription, support has been notified."));
-                }
-                if (session != null) {
-                    redisStore.put(RedisUtility.SUBSCRIPTION_CHECKOUT_STATUS + session.getId(), "completed", Duration.ofMinutes(30));
-                }
-            }
-
-            if (StripeEventUtility.CUSTOMER_SUBSCRIPTION_UPDATED.equals(event.getType())) {
-                final Subscription subscription = (Subscription) event.getDataObjectDeserializer().deserializeUnsafe();
-                if (subscription != null && !syncPlatformUserTier(subscription.getMetadata().get("platformUserId"),
-                                                                  subscription.getMetadata().get("tierId"),
-                                                                  subscription)) {
-                    log.error("Stripe subscription update webhook failed to sync a platform user tier for subscription {}.", subscription.getId());
-                    return ResponseEntity.badRequest()
-                                         .body(Map.of("message", "An error occurred processing your subscription, support has been notified."));
-                }
+            if (!billingWebhookService.receive(payload, signatureHeader)) {
+                return ResponseEntity.ok().body(Map.of("message", "Event already received."));
             }
-            return ResponseEntity.ok().body(Map.of("message", "User tier updated successfully."));
+            return ResponseEntity.ok().body(Map.of("message", "Event received."));
         } catch (Exception e) {
             log.error("Stripe billing webhook processing failed.", e);
             return ResponseEntity.badRequest().body(Map.of("message", "An error occurred processing your subscription, support has been notified."));
         }
     }
 
-    private Subscription findActiveSubscriptionByPlatformUserId(final UUID platformUserId) throws StripeException {
-        final SubscriptionListParams params = SubscriptionListParams.builder()
-                                                                   .setStatus(SubscriptionListParams.Status.ACTIVE)
-                                                                   .setLimit(100L)
-                                                                   .build();
-
-        for (final Subscription subscription : stripeClient.v1().subscriptions().list(params).autoPagingIterable()) {
-            if (subscription.getMetadata() != null
-                && Objects.equals(subscription.getMetadata().get("platformUserId"), platformUserId.toString())) {
-                return subscription;
-            }
-        }
-        return null;
-    }
-
     private SubscriptionChangeRequest resolveSubscriptionChangeRequest(final Jwt jwt,
                                                                       final String stripePriceId) throws StripeException {
         if (stripePriceId.isBlank()) {
@@ -208,7 +168,7 @@ public class PlatformUserSubscriptionController {
                                                  ResponseEntity.badRequest().body(Map.of("message", "A valid subscription tier is required.")));
         }
 
-        final PlatformUser platformUser = userService.loadPlatformUserByEmail(jwt.getSubject());
+        final PlatformUser platformUser = userService.loadPlatformUserBySubject(jwt.getSubject());
         if (platformUser == null) {
             log.warn("Subscription change rejected because the platform user {} could not be resolved.", jwt.getSubject());
             return new SubscriptionChangeRequest(null, null, null, ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
@@ -223,7 +183,7 @@ public class PlatformUserSubscriptionController {
                                                  ResponseEntity.badRequest().body(Map.of("message", "Invalid subscription tier.")));
         }
 
-        final Subscription subscription = findActiveSubscriptionByPlatformUserId(platformUser.getId());
+        final PlatformUserSubscription subscription = platformUserSubscriptionService.findChangeableSubscription(platformUser.getId());
         if (subscription == null) {
             log.warn("Subscription change rejected for platform user {} because no active Stripe subscription was found.", jwt.getSubject());
             return new SubscriptionChangeRequest(null,
@@ -232,80 +192,16 @@ public class PlatformUserSubscriptionController {
                                                  ResponseEntity.badRequest().body(Map.of("message", "No active Stripe subscription was found.")));
         }
 
-        final SubscriptionItem subscriptionItem = subscription.getItems() == null || subscription.getItems().getData().isEmpty()
-                                                  ? null
-                                                  : subscription.getItems().getData().getFirst();
-        if (subscriptionItem == null) {
-            log.warn("Subscription change rejected for platform user {} because no Stripe subscription item was found.", jwt.getSubject());
-            return new SubscriptionChangeRequest(null,
-                                                 null,
-                                                 null,
-                                                 ResponseEntity.badRequest().body(Map.of("message", "No active Stripe subscription item was found.")));
-        }
-
-        return new SubscriptionChangeRequest(platformUser, platformUserTier, subscriptionItem, null);
+        return new SubscriptionChangeRequest(platformUser, platformUserTier, subscription, null);
     }
 
     private void updateSubscriptionTier(final SubscriptionChangeRequest request) throws StripeException {
-        stripeClient.v1()
-                    .subscriptions()
-                    .update(
-                            request.subscriptionItem().getSubscription(),
-                            SubscriptionUpdateParams.builder()
-                                                    .addItem(
-                                                            SubscriptionUpdateParams.Item.builder()
-                                                                                         .setId(request.subscriptionItem().getId())
-                                                                                         .setPrice(request.platformUserTier().getStripePriceId())
-                                                                                         .build()
-                                                    )
-                                                    .setProrationBehavior(SubscriptionUpdateParams.ProrationBehavior.NONE)
-                                                    .putMetadata("platformUserId", request.platformUser().getId().toString())
-                                                    .putMetadata("tierId", request.platformUserTier().getId().toString())
-                                                    .build()
-                    );
-    }
-
-    private boolean syncPlatformUserTier(final String platformUserId,
-                                         final String tierId,
-                                         final Subscription subscription) {
-        if (platformUserId == null || platformUserId.isBlank()) {
-            return false;
-        }
-
-        final PlatformUser platformUser = userService.loadPlatformUserById(UUID.fromString(platformUserId));
-        final PlatformUserTier tier = resolvePlatformUserTier(tierId, subscription);
-        if (tier == null || platformUser == null) {
-            return false;
-        }
-
-        userService.savePlatformUser(PlatformUser.from(platformUser).tier(tier).build());
-        return true;
-    }
-
-    private PlatformUserTier resolvePlatformUserTier(final String tierId,
-                                                     final Subscription subscription) {
-        if (tierId != null && !tierId.isBlank()) {
-            final PlatformUserTier tier = platformUserTierService.findTierById(tierId);
-            if (tier != null) {
-                return tier;
-            }
-        }
-
-        if (subscription == null || subscription.getItems() == null || subscription.getItems().getData().isEmpty()) {
-            return null;
-        }
-
-        final SubscriptionItem subscriptionItem = subscription.getItems().getData().getFirst();
-        if (subscriptionItem == null || subscriptionItem.getPrice() == null || subscriptionItem.getPrice().getId() == null) {
-            return null;
-        }
-
-        return platformUserTierService.findTierByStripePriceId(subscriptionItem.getPrice().getId());
+        platformUserSubscriptionService.changeTier(request.subscription(), request.platformUserTier());
     }
 
     private record SubscriptionChangeRequest(PlatformUser platformUser,
                                              PlatformUserTier platformUserTier,
-                                             SubscriptionItem subscriptionItem,
+                                             PlatformUserSubscription subscription,
                                              ResponseEntity<Map<String, String>> failureResponse) {
     }
 
@@ -0,0 +1,32 @@
+package io.github.blakedunaway.authserver.business.api.dto.request;
+
+import io.github.blakedunaway.authserver.business.model.enums.TokenState;
+import io.github.blakedunaway.authserver.business.model.enums.TokenType;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+@Getter
+@Setter
+public class AuthTokenSearchRequest {
+
+    private Set<UUID> registeredClientIds;
+
+    private TokenType tokenType;
+
+    private TokenState state;
+
+    private String subject;
+
+    private Instant issuedFrom;
+
+    private Instant issuedTo;
+
+    private String cursor;
+
+    private Integer limit;
+
+}
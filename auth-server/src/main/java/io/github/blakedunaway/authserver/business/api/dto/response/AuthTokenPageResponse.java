@@ -0,0 +1,31 @@
+package io.github.blakedunaway.authserver.business.api.dto.response;
+
+import io.github.blakedunaway.authserver.business.model.AuthTokenCursor;
+import io.github.blakedunaway.authserver.business.model.AuthTokenPage;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Builder
+@Getter
+public class AuthTokenPageResponse {
+
+    private final List<AuthTokenResponse> tokens;
+
+    private final String nextCursor;
+
+    private final Long totalEstimate;
+
+    private final boolean totalExact;
+
+    public static AuthTokenPageResponse fromModel(final AuthTokenPage page) {
+        return AuthTokenPageResponse.builder()
+                                    .tokens(page.tokens().stream().map(AuthTokenResponse::fromModel).toList())
+                                    .nextCursor(page.hasMore() ? AuthTokenCursor.of(page.tokens().getLast()).encode() : null)
+                                    .totalEstimate(page.totalEstimate())
+                                    .totalExact(page.totalExact())
+                                    .build();
+    }
+
+}
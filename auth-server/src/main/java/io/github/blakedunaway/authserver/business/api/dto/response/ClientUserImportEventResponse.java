@@ -0,0 +1,48 @@
+package io.github.blakedunaway.authserver.business.api.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.github.blakedunaway.authserver.business.model.ClientUserImportEvent;
+import lombok.Builder;
+import lombok.Getter;
+
+// One NDJSON line of the import response, counts are left out of row errors and the line out of progress
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ClientUserImportEventResponse {
+
+    private final String type;
+
+    private final Long line;
+
+    private final String email;
+
+    private final String message;
+
+    private final Long processed;
+
+    private final Long imported;
+
+    private final Long failed;
+
+    private final String status;
+
+    public static ClientUserImportEventResponse fromModel(final ClientUserImportEvent event) {
+        if (event == null) {
+            return null;
+        }
+
+        final boolean counted = event.type() != ClientUserImportEvent.Type.ERROR;
+        return ClientUserImportEventResponse.builder()
+                                            .type(event.type().name())
+                                            .line(event.line())
+                                            .email(event.email())
+                                            .message(event.message())
+                                            .processed(counted ? event.processed() : null)
+                                            .imported(counted ? event.imported() : null)
+                                            .failed(counted ? event.failed() : null)
+                                            .status(event.status() == null ? null : event.status().name())
+                                            .build();
+    }
+
+}
@@ -0,0 +1,24 @@
+package io.github.blakedunaway.authserver.business.api.dto.response;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Set;
+
+// users, tokens and recentActivity are null for platform users without a paid tier
+@Builder
+@Getter
+public class PlatformDashboardResponse {
+
+    private final PlatformUserDetailsReponse details;
+
+    private final List<PlatformUserTierResponse> tiers;
+
+    private final Set<ClientUserResponse> users;
+
+    private final Set<AuthTokenResponse> tokens;
+
+    private final ClientUserActivityResponse recentActivity;
+
+}
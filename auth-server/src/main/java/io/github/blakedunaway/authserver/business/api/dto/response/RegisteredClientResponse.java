@@ -10,7 +10,7 @@ import java.util.Set;
 import java.util.UUID;
 
 @Getter
-@Builder
+@Builder(toBuilder = true)
 public class RegisteredClientResponse {
 
     private final UUID id;
@@ -41,6 +41,9 @@ public class RegisteredClientResponse {
 
     private final Map<String, Object> tokenSettings;
 
+    // only set on updates, the number of client users that lost removed authorities or roles
+    private final Integer affectedUsers;
+
     public static RegisteredClientResponse fromModel(final RegisteredClientModel model) {
         if (model == null) {
             return null;
@@ -64,6 +67,11 @@ public class RegisteredClientResponse {
                                        .build();
     }
 
+    public static RegisteredClientResponse fromUpdatedModel(final RegisteredClientModel model, final int affectedUsers) {
+        final RegisteredClientResponse response = fromModel(model);
+        return response == null ? null : response.toBuilder().affectedUsers(affectedUsers).build();
+    }
+
     public static RegisteredClientResponse fromCreatedModel(final RegisteredClientModel model) {
         if (model == null) {
             return null;
@@ -2,6 +2,7 @@ package io.github.blakedunaway.authserver.business.model;
 
 import io.github.blakedunaway.authserver.business.model.enums.TokenType;
 import io.github.blakedunaway.authserver.util.AuthenticationUtility;
+import io.github.blakedunaway.authserver.util.UuidUtility;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -214,7 +215,7 @@ public final class AuthToken {
             }
 
             return new AuthToken(
-                    this.getId() != null ? this.getId() : UUID.randomUUID(),
+                    this.getId() != null ? this.getId() : UuidUtility.timeOrdered(),
                     this.getKid(),
                     this.isNew(),
                     this.getIssuedAt(),
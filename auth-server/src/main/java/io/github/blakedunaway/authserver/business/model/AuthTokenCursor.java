@@ -0,0 +1,43 @@
+package io.github.blakedunaway.authserver.business.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+// Opaque page cursor handed to API callers, the (issuedAt, id) of the last token on the previous page.
+public record AuthTokenCursor(Instant issuedAt, UUID id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static AuthTokenCursor of(final AuthToken authToken) {
+        return new AuthTokenCursor(authToken.getIssuedAt(), authToken.getId());
+    }
+
+    public static AuthTokenCursor decode(final String cursor) {
+        final String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed token cursor", e);
+        }
+        final int separator = decoded.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Malformed token cursor");
+        }
+        try {
+            return new AuthTokenCursor(Instant.parse(decoded.substring(0, separator)),
+                                       UUID.fromString(decoded.substring(separator + 1)));
+        } catch (final DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed token cursor", e);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString((issuedAt.toString() + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+}
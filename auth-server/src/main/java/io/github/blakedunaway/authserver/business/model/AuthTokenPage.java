@@ -0,0 +1,8 @@
+package io.github.blakedunaway.authserver.business.model;
+
+import java.util.List;
+
+// totalEstimate is only computed for the first page and is capped, totalExact tells whether the cap was hit
+public record AuthTokenPage(List<AuthToken> tokens, boolean hasMore, Long totalEstimate, boolean totalExact) {
+
+}
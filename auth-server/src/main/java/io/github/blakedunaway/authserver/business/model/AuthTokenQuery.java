@@ -0,0 +1,39 @@
+package io.github.blakedunaway.authserver.business.model;
+
+import io.github.blakedunaway.authserver.business.model.enums.TokenState;
+import io.github.blakedunaway.authserver.business.model.enums.TokenType;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+// One page of tokens ordered by (issuedAt, id) descending; the cursor is the last row of the previous page.
+@Getter
+@Builder
+public class AuthTokenQuery {
+
+    private final Set<UUID> registeredClientIds;
+
+    private final TokenType tokenType;
+
+    private final TokenState state;
+
+    private final String subject;
+
+    private final Instant issuedFrom;
+
+    private final Instant issuedTo;
+
+    private final Instant cursorIssuedAt;
+
+    private final UUID cursorId;
+
+    private final int limit;
+
+    public boolean isFirstPage() {
+        return cursorIssuedAt == null || cursorId == null;
+    }
+
+}
@@ -0,0 +1,16 @@
+package io.github.blakedunaway.authserver.business.model;
+
+import java.util.List;
+import java.util.UUID;
+
+public record AuthorizationPurge(List<UUID> authorizationIds, int tokensPurged) {
+
+    public static AuthorizationPurge empty() {
+        return new AuthorizationPurge(List.of(), 0);
+    }
+
+    public boolean isEmpty() {
+        return authorizationIds.isEmpty();
+    }
+
+}
@@ -0,0 +1,15 @@
+package io.github.blakedunaway.authserver.business.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// A verified Stripe event waiting in the webhook inbox. platformUserId is the ordering key, null when the event does
+// not name one; attempts counts this claim.
+public record BillingWebhookEvent(String eventId,
+                                  String eventType,
+                                  UUID platformUserId,
+                                  String payload,
+                                  Instant eventCreatedAt,
+                                  int attempts) {
+
+}
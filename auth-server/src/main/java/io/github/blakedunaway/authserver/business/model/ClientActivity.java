@@ -0,0 +1,9 @@
+package io.github.blakedunaway.authserver.business.model;
+
+import io.github.blakedunaway.authserver.business.model.enums.ClientActivityType;
+
+import java.time.Instant;
+
+public record ClientActivity(ClientActivityType type, String clientId, String email, Instant occurredAt) {
+
+}
@@ -0,0 +1,23 @@
+package io.github.blakedunaway.authserver.business.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+// Opaque resume point of a client user export, the id of the last user written. Ids are time ordered, so users
+// created after the export started are picked up when it is resumed.
+public record ClientUserCursor(UUID id) {
+
+    public static ClientUserCursor decode(final String cursor) {
+        try {
+            return new ClientUserCursor(UUID.fromString(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)));
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed client user cursor", e);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,41 @@
+package io.github.blakedunaway.authserver.business.model;
+
+// Written to the import response as it runs: an error per rejected row, progress after every batch and a summary.
+public record ClientUserImportEvent(Type type,
+                                    Long line,
+                                    String email,
+                                    String message,
+                                    long processed,
+                                    long imported,
+                                    long failed,
+                                    Status status) {
+
+    public enum Type {
+        ERROR,
+        PROGRESS,
+        SUMMARY
+    }
+
+    public enum Status {
+        COMPLETED,
+        TIER_LIMIT_REACHED,
+        INVALID_INPUT
+    }
+
+    public static ClientUserImportEvent error(final long line, final String email, final String message) {
+        return new ClientUserImportEvent(Type.ERROR, line, email, message, 0, 0, 0, null);
+    }
+
+    public static ClientUserImportEvent progress(final long processed, final long imported, final long failed) {
+        return new ClientUserImportEvent(Type.PROGRESS, null, null, null, processed, imported, failed, null);
+    }
+
+    public static ClientUserImportEvent summary(final long processed,
+                                                final long imported,
+                                                final long failed,
+                                                final Status status,
+                                                final String message) {
+        return new ClientUserImportEvent(Type.SUMMARY, null, null, message, processed, imported, failed, status);
+    }
+
+}
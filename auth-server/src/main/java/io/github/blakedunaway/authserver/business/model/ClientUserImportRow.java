@@ -0,0 +1,15 @@
+package io.github.blakedunaway.authserver.business.model;
+
+import java.util.Map;
+import java.util.Set;
+
+// One client user as read from an import, either a plain password or an existing Argon2 or bcrypt hash.
+public record ClientUserImportRow(long line,
+                                  String email,
+                                  String password,
+                                  String passwordHash,
+                                  boolean verified,
+                                  Set<String> authorities,
+                                  Map<String, Object> attributes) {
+
+}
@@ -0,0 +1,39 @@
+package io.github.blakedunaway.authserver.business.model;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+// A platform user's Stripe subscription as last reported by Stripe. The item and price are unknown until a
+// subscription event or lookup has supplied them; eventCreatedAt orders the reports so a late one cannot win.
+public record PlatformUserSubscription(UUID platformUserId,
+                                       String subscriptionId,
+                                       String subscriptionItemId,
+                                       String priceId,
+                                       String status,
+                                       Instant eventCreatedAt) {
+
+    private static final Set<String> CHANGEABLE_STATUSES = Set.of("active", "trialing", "past_due");
+
+    public boolean isChangeable() {
+        return CHANGEABLE_STATUSES.contains(status);
+    }
+
+    public boolean hasItem() {
+        return subscriptionItemId != null && !subscriptionItemId.isBlank();
+    }
+
+    // keeps the known item and price when a report about the same subscription does not carry them
+    public PlatformUserSubscription mergedOnto(final PlatformUserSubscription existing) {
+        if (existing == null || hasItem() || !existing.subscriptionId().equals(subscriptionId)) {
+            return this;
+        }
+        return new PlatformUserSubscription(platformUserId,
+                                            subscriptionId,
+                                            existing.subscriptionItemId(),
+                                            existing.priceId(),
+                                            status,
+                                            eventCreatedAt);
+    }
+
+}
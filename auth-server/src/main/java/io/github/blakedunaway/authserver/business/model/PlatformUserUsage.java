@@ -0,0 +1,31 @@
+package io.github.blakedunaway.authserver.business.model;
+
+// What a platform user's tier allowances are checked against, and the totals shown on the dashboard.
+public record PlatformUserUsage(int registeredClients, int scopes, int authorities, int clientUsers) {
+
+    public static PlatformUserUsage empty() {
+        return new PlatformUserUsage(0, 0, 0, 0);
+    }
+
+    public static PlatformUserUsage of(final RegisteredClientModel registeredClient) {
+        if (registeredClient == null) {
+            return empty();
+        }
+        return new PlatformUserUsage(1, registeredClient.getScopes().size(), registeredClient.getAuthorities().size(), 0);
+    }
+
+    public PlatformUserUsage plus(final PlatformUserUsage other) {
+        return new PlatformUserUsage(registeredClients + other.registeredClients,
+                                     scopes + other.scopes,
+                                     authorities + other.authorities,
+                                     clientUsers + other.clientUsers);
+    }
+
+    public PlatformUserUsage minus(final PlatformUserUsage other) {
+        return new PlatformUserUsage(registeredClients - other.registeredClients,
+                                     scopes - other.scopes,
+                                     authorities - other.authorities,
+                                     clientUsers - other.clientUsers);
+    }
+
+}
@@ -0,0 +1,53 @@
+package io.github.blakedunaway.authserver.business.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.Instant;
+
+// The parts of a stored Stripe event that BillingWebhookEventHandler reads, parsed from the inbox payload with
+// Jackson. object is the event's data.object, a checkout session or a subscription for the events that are handled.
+public record StripeWebhookEvent(String id,
+                                 String type,
+                                 Instant created,
+                                 JsonNode object) {
+
+    public static StripeWebhookEvent parse(final ObjectMapper objectMapper, final String payload) throws JsonProcessingException {
+        final JsonNode event = objectMapper.readTree(payload);
+        return new StripeWebhookEvent(text(event, "id"),
+                                      text(event, "type"),
+                                      Instant.ofEpochSecond(event.path("created").asLong()),
+                                      event.path("data").path("object"));
+    }
+
+    public String objectId() {
+        return text(object, "id");
+    }
+
+    // an expandable field such as a checkout session's subscription reads as the id of the object it names
+    public String objectField(final String field) {
+        return text(object, field);
+    }
+
+    public String metadata(final String key) {
+        return text(object.path("metadata"), key);
+    }
+
+    public String firstItemId() {
+        return text(object.path("items").path("data").path(0), "id");
+    }
+
+    public String firstItemPriceId() {
+        return text(object.path("items").path("data").path(0).path("price"), "id");
+    }
+
+    private static String text(final JsonNode node, final String field) {
+        final JsonNode value = node.get(field);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        return value.isObject() ? text(value, "id") : value.asText();
+    }
+
+}
@@ -0,0 +1,14 @@
+package io.github.blakedunaway.authserver.business.model.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public enum BillingWebhookEventStatus {
+    PENDING("pending"),
+    PROCESSED("processed"),
+    FAILED("failed");
+
+    private final String string;
+}
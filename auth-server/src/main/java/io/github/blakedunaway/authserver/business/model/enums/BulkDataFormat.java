@@ -0,0 +1,32 @@
+package io.github.blakedunaway.authserver.business.model.enums;
+
+import org.springframework.http.MediaType;
+
+// Line oriented formats of the client user import and the export endpoints.
+public enum BulkDataFormat {
+    NDJSON,
+    CSV;
+
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+
+    public static final String CSV_VALUE = "text/csv";
+
+    public static BulkDataFormat fromContentType(final String contentType) {
+        if (contentType == null) {
+            throw new IllegalArgumentException("Content type is required");
+        }
+        final MediaType mediaType = MediaType.parseMediaType(contentType);
+        if (mediaType.isCompatibleWith(MediaType.parseMediaType(NDJSON_VALUE))) {
+            return NDJSON;
+        }
+        if (mediaType.isCompatibleWith(MediaType.parseMediaType(CSV_VALUE))) {
+            return CSV;
+        }
+        throw new IllegalArgumentException("Unsupported import content type " + contentType);
+    }
+
+    public String mediaType() {
+        return this == NDJSON ? NDJSON_VALUE : CSV_VALUE;
+    }
+
+}
@@ -0,0 +1,6 @@
+package io.github.blakedunaway.authserver.business.model.enums;
+
+public enum ClientActivityType {
+    LOGIN,
+    SIGNUP
+}
@@ -0,0 +1,7 @@
+package io.github.blakedunaway.authserver.business.model.enums;
+
+public enum TokenState {
+    ACTIVE,
+    REVOKED,
+    EXPIRED
+}
@@ -0,0 +1,5 @@
+package io.github.blakedunaway.authserver.business.model.event;
+
+public record RegisteredClientChangedEvent(String clientId) {
+
+}
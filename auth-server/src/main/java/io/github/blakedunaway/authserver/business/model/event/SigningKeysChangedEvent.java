@@ -0,0 +1,7 @@
+package io.github.blakedunaway.authserver.business.model.event;
+
+import java.util.Set;
+
+public record SigningKeysChangedEvent(Set<String> kids) {
+
+}
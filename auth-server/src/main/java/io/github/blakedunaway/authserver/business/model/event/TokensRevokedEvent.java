@@ -0,0 +1,8 @@
+package io.github.blakedunaway.authserver.business.model.event;
+
+import java.time.Instant;
+
+// subject is null when every token of the client was revoked
+public record TokensRevokedEvent(String clientId, String subject, Instant revokedAt) {
+
+}
@@ -2,6 +2,7 @@ package io.github.blakedunaway.authserver.business.model.user;
 
 import io.github.blakedunaway.authserver.business.model.Authority;
 import io.github.blakedunaway.authserver.business.validation.ValidEmail;
+import io.github.blakedunaway.authserver.security.hashing.ImportedHashPasswordEncoder;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -151,7 +152,7 @@ public class AbstractUser {
         protected void copyTo(final AbstractUser user) {
             Assert.hasText(this.email, "Email address must not be empty");
             Assert.hasText(this.passwordHash, "Password hash must not be empty");
-            Assert.isTrue(this.passwordHash.startsWith("$argon2"), "Password has not been hashed");
+            Assert.isTrue(ImportedHashPasswordEncoder.isSupported(this.passwordHash), "Password has not been hashed");
             Assert.notNull(this.authorities, "Authority must not be null");
             user.id = this.id;
             user.email = this.email;
@@ -1,5 +1,6 @@
 package io.github.blakedunaway.authserver.business.model.user;
 
+import io.github.blakedunaway.authserver.business.model.PlatformUserUsage;
 import io.github.blakedunaway.authserver.business.model.RegisteredClientModel;
 import jakarta.validation.ValidationException;
 import lombok.AccessLevel;
@@ -57,32 +58,33 @@ public class PlatformUser extends AbstractUser {
     }
 
     public void validateTierCompliance(final Set<RegisteredClientModel> registeredClients) {
+        final Set<RegisteredClientModel> resolvedRegisteredClients = registeredClients == null
+                                                                     ? Collections.emptySet()
+                                                                     : registeredClients;
+        validateTierCompliance(resolvedRegisteredClients.stream()
+                                                        .map(PlatformUserUsage::of)
+                                                        .reduce(PlatformUserUsage.empty(), PlatformUserUsage::plus));
+    }
+
+    public void validateTierCompliance(final PlatformUserUsage usage) {
         final PlatformUserTier resolvedTier = getTier();
         if (resolvedTier == null) {
             throw new ValidationException("Platform user tier is required");
         }
 
-        final Set<RegisteredClientModel> resolvedRegisteredClients = registeredClients == null
-                                                                     ? Collections.emptySet()
-                                                                     : registeredClients;
-        final int registeredClientCount = resolvedRegisteredClients.size();
-        final int totalScopes = resolvedRegisteredClients.stream()
-                                                         .mapToInt(registeredClient -> registeredClient.getScopes().size())
-                                                         .sum();
-        final int totalAuthorities = resolvedRegisteredClients.stream()
-                                                              .mapToInt(registeredClient -> registeredClient.getAuthorities().size())
-                                                              .sum();
-
         final List<String> errors = new java.util.ArrayList<>();
-        if (registeredClientCount > resolvedTier.getAllowedNumberOfRegisteredClients()) {
+        if (usage.registeredClients() > resolvedTier.getAllowedNumberOfRegisteredClients()) {
             errors.add("registered clients exceed tier allowance");
         }
-        if (totalScopes > resolvedTier.getAllowedNumberOfGlobalScopes()) {
+        if (usage.scopes() > resolvedTier.getAllowedNumberOfGlobalScopes()) {
             errors.add("scopes exceed tier allowance");
         }
-        if (totalAuthorities > resolvedTier.getAllowedNumberOfGlobalAuthorities()) {
+        if (usage.authorities() > resolvedTier.getAllowedNumberOfGlobalAuthorities()) {
             errors.add("authorities exceed tier allowance");
         }
+        if (usage.clientUsers() > resolvedTier.getAllowedNumberOfGlobalUsers()) {
+            errors.add("client users exceed tier allowance");
+        }
 
         if (!errors.isEmpty()) {
             throw new ValidationException("Platform user tier validation failed: " + String.join(", ", errors));
@@ -0,0 +1,30 @@
+package io.github.blakedunaway.authserver.business.model.user;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+// Who a platform user is and which registered clients they own, for handlers that only check ownership.
+public record PlatformUserOwnership(UUID platformUserId, String email, Set<UUID> registeredClientIds) {
+
+    public PlatformUserOwnership {
+        registeredClientIds = registeredClientIds == null ? Set.of() : Set.copyOf(registeredClientIds);
+    }
+
+    public static PlatformUserOwnership of(final PlatformUser platformUser) {
+        return new PlatformUserOwnership(platformUser.getId(), platformUser.getEmail(), platformUser.getRegisteredClientIds());
+    }
+
+    public boolean owns(final UUID registeredClientId) {
+        return registeredClientId != null && registeredClientIds.contains(registeredClientId);
+    }
+
+    public Set<UUID> filterOwned(final Set<UUID> requestedIds) {
+        if (requestedIds == null || requestedIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return requestedIds.stream().filter(this::owns).collect(Collectors.toSet());
+    }
+
+}
@@ -1,6 +1,9 @@
 package io.github.blakedunaway.authserver.business.service;
 
 import io.github.blakedunaway.authserver.business.model.AuthToken;
+import io.github.blakedunaway.authserver.business.model.AuthTokenPage;
+import io.github.blakedunaway.authserver.business.model.AuthTokenQuery;
+import io.github.blakedunaway.authserver.integration.repository.cache.DashboardVersions;
 import io.github.blakedunaway.authserver.integration.repository.gateway.AuthTokenRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -9,13 +12,20 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 public class AuthTokenService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final AuthTokenRepository authTokenRepository;
 
+    private final DashboardVersions dashboardVersions;
+
     public List<AuthToken> findAllByRegisteredClientIds(final Set<UUID> registeredClientIds) {
         if (registeredClientIds == null || registeredClientIds.isEmpty()) {
             return List.of();
@@ -23,16 +33,35 @@ public class AuthTokenService {
         return authTokenRepository.findAllByRegisteredClientIds(registeredClientIds);
     }
 
+    public AuthTokenPage findPage(final AuthTokenQuery query) {
+        if (query.getLimit() < 1 || query.getLimit() > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return authTokenRepository.findPage(query);
+    }
+
+    public void export(final AuthTokenQuery query, final Consumer<AuthToken> consumer) {
+        authTokenRepository.export(query, consumer);
+    }
+
     public boolean invalidateByIdAndRegisteredClientIds(final UUID authTokenId,
                                                         final Set<UUID> registeredClientIds) {
         if (registeredClientIds == null || registeredClientIds.isEmpty()) {
             return false;
         }
-        return authTokenRepository.invalidateByIdAndRegisteredClientIds(authTokenId, registeredClientIds, Instant.now());
+        final boolean invalidated = authTokenRepository.invalidateByIdAndRegisteredClientIds(authTokenId, registeredClientIds, Instant.now());
+        if (invalidated) {
+            dashboardVersions.registeredClientsChanged(registeredClientIds);
+        }
+        return invalidated;
     }
 
     public int invalidateAllByRegisteredClientId(final UUID registeredClientId) {
-        return authTokenRepository.invalidateAllByRegisteredClientId(registeredClientId, Instant.now());
+        final int invalidated = authTokenRepository.invalidateAllByRegisteredClientId(registeredClientId, Instant.now());
+        if (invalidated > 0) {
+            dashboardVersions.registeredClientsChanged(Set.of(registeredClientId));
+        }
+        return invalidated;
     }
 
 }
@@ -0,0 +1,108 @@
+package io.github.blakedunaway.authserver.business.service;
+
+import io.github.blakedunaway.authserver.business.model.AuthorizationPurge;
+import io.github.blakedunaway.authserver.config.redis.RedisStore;
+import io.github.blakedunaway.authserver.integration.repository.cache.DashboardVersions;
+import io.github.blakedunaway.authserver.integration.repository.gateway.AuthorizationRetentionRepository;
+import io.github.blakedunaway.authserver.util.RedisUtility;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "auth-server.retention.enabled", havingValue = "true", matchIfMissing = true)
+public class AuthorizationRetentionService {
+
+    private final AuthorizationRetentionRepository authorizationRetentionRepository;
+
+    private final RedisStore redisStore;
+
+    private final MeterRegistry meterRegistry;
+
+    private final DashboardVersions dashboardVersions;
+
+    @Value("${auth-server.retention.grace-period-ms:604800000}")
+    private long gracePeriodMillis;
+
+    @Value("${auth-server.retention.batch-size:500}")
+    private int batchSize;
+
+    @Value("${auth-server.retention.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    private Counter authorizationsPurged;
+
+    private Counter tokensPurged;
+
+    private Timer batchTimer;
+
+    @PostConstruct
+    void initialize() {
+        this.authorizationsPurged = Counter.builder("auth.retention.authorizations.purged")
+                                           .description("Expired or revoked authorizations deleted by the retention job")
+                                           .register(meterRegistry);
+        this.tokensPurged = Counter.builder("auth.retention.tokens.purged")
+                                   .description("Tokens deleted along with their purged authorizations")
+                                   .register(meterRegistry);
+        this.batchTimer = Timer.builder("auth.retention.batch.duration")
+                               .description("Time spent claiming and deleting one retention batch")
+                               .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${auth-server.retention.interval-ms:300000}",
+               initialDelayString = "${auth-server.retention.initial-delay-ms:60000}")
+    public void purgeExpiredAuthorizations() {
+        final Instant cutoff = Instant.now().minus(Duration.ofMillis(gracePeriodMillis));
+        int purged = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            final AuthorizationPurge purge = purgeBatch(cutoff);
+            purged += purge.authorizationIds().size();
+            if (purge.authorizationIds().size() < batchSize) {
+                break;
+            }
+        }
+        if (purged > 0) {
+            // purged tokens can belong to any client, so every dashboard is rebuilt once
+            dashboardVersions.everythingChanged();
+            log.info("Retention purged {} authorizations expired before {}.", purged, cutoff);
+        }
+    }
+
+    AuthorizationPurge purgeBatch(final Instant cutoff) {
+        final Timer.Sample sample = Timer.start(meterRegistry);
+        final AuthorizationPurge purge;
+        try {
+            purge = authorizationRetentionRepository.purgeExpired(cutoff, batchSize);
+        } finally {
+            sample.stop(batchTimer);
+        }
+        if (purge.isEmpty()) {
+            return purge;
+        }
+        authorizationsPurged.increment(purge.authorizationIds().size());
+        tokensPurged.increment(purge.tokensPurged());
+        try {
+            redisStore.delete(purge.authorizationIds()
+                                   .stream()
+                                   .map(id -> RedisUtility.AUTHORIZATION_ATTRIBUTES_CACHE + id)
+                                   .toList());
+        } catch (final RuntimeException ex) {
+            // the cached copies carry their own TTL, so a failed cleanup only delays their removal
+            log.warn("Unable to evict cached authorization attributes for {} purged authorizations.", purge.authorizationIds().size(), ex);
+        }
+        return purge;
+    }
+
+}
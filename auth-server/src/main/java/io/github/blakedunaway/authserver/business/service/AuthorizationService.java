@@ -1,79 +1,152 @@
 package io.github.blakedunaway.authserver.business.service;
 
 import io.github.blakedunaway.authserver.business.model.Authorization;
-import io.github.blakedunaway.authserver.business.model.AuthToken;
-import io.github.blakedunaway.authserver.business.model.enums.TokenType;
-import io.github.blakedunaway.authserver.config.redis.RedisStore;
 import io.github.blakedunaway.authserver.integration.repository.gateway.AuthorizationRepository;
+import io.github.blakedunaway.authserver.integration.repository.gateway.PendingAuthorizationRepository;
 import io.github.blakedunaway.authserver.mapper.AuthorizationMapper;
-import io.github.blakedunaway.authserver.util.RedisUtility;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
 import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Comparator;
-import java.util.Objects;
 import java.util.UUID;
 
+// With pending authorizations enabled, authorization code grants stay in Redis until the token endpoint mints
+// their first access token, only then is the authorization written to the database.
 @RequiredArgsConstructor
 @Service
 public class AuthorizationService implements OAuth2AuthorizationService {
 
+    private static final Duration MIN_PENDING_TTL = Duration.ofSeconds(1);
+
+    private static final String CLAIMED_CODE_ATTRIBUTE = AuthorizationService.class.getName() + ".claimedCode.";
 
     private final AuthorizationRepository authorizationRepository;
 
     private final AuthorizationMapper authorizationMapper;
 
-    private final RedisStore redisStore;
+    private final PendingAuthorizationRepository pendingAuthorizationRepository;
+
+    @Value("${auth-server.authorization.pending.enabled:true}")
+    private boolean pendingEnabled;
+
+    // how long an authorization waiting for consent is kept, ones with a code live as long as the code
+    @Value("${auth-server.authorization.pending.consent-ttl-ms:600000}")
+    private long consentTtlMillis;
 
     @Override
     public void save(final OAuth2Authorization src) {
-        final Authorization authorization = authorizationRepository.save(src);
-        redisStore.put(
-                RedisUtility.AUTHORIZATION_ATTRIBUTES + authorization.getId().toString(),
-                src.getAttributes(),
-                resolveAuthorizationAttributesTtl(authorization)
-        );
+        if (!pendingEnabled) {
+            authorizationRepository.save(src);
+            return;
+        }
+        if (isPending(src)) {
+            pendingAuthorizationRepository.save(src, resolvePendingTtl(src));
+            return;
+        }
+        // removed before the database write so a replayed code can only ever find the invalidated stored copy
+        if (!pendingAuthorizationRepository.remove(src) && isUnstoredCodeExchange(src)) {
+            throw new OAuth2AuthenticationException(OAuth2ErrorCodes.INVALID_GRANT);
+        }
+        authorizationRepository.save(src);
     }
 
     @Override
     public void remove(final OAuth2Authorization authorization) {
+        if (pendingEnabled && pendingAuthorizationRepository.remove(authorization)) {
+            return;
+        }
         authorizationRepository.remove(authorization.getId());
-        redisStore.consume(RedisUtility.AUTHORIZATION_ATTRIBUTES + authorization.getId());
     }
 
     @Override
     public OAuth2Authorization findById(final String id) {
         Assert.notNull(id, "id must not be null");
-        return authorizationMapper.authorizationToOAuth2Authorization(authorizationRepository.findById(UUID.fromString(id)));
+        if (pendingEnabled) {
+            final OAuth2Authorization pending = pendingAuthorizationRepository.findById(id);
+            if (pending != null) {
+                return pending;
+            }
+        }
+        final Authorization authorization = authorizationRepository.findById(UUID.fromString(id));
+        return authorization == null ? null : authorizationMapper.authorizationToOAuth2Authorization(authorization);
     }
 
     @Override
     public OAuth2Authorization findByToken(final String rawToken, final OAuth2TokenType tokenType) {
         Assert.hasText(rawToken, "token cannot be empty");
         final String tokenTypeValue = tokenType == null ? null : tokenType.getValue();
+        if (pendingEnabled) {
+            final OAuth2Authorization pending = findPendingByToken(rawToken, tokenTypeValue);
+            if (pending != null || OAuth2ParameterNames.STATE.equals(tokenTypeValue)) {
+                return pending;
+            }
+        }
         final Authorization authorization = authorizationRepository.findByToken(rawToken, tokenTypeValue);
         return authorization == null ? null : authorizationMapper.authorizationToOAuth2Authorization(authorization);
     }
 
-    private Duration resolveAuthorizationAttributesTtl(final Authorization authorization) {
-        final Instant now = Instant.now();
-
-        return authorization.getTokens()
-                            .stream()
-                            .filter(Objects::nonNull)
-                            .filter(token -> TokenType.ID_TOKEN.equals(token.getTokenType()))
-                            .map(AuthToken::getExpiresAt)
-                            .filter(Objects::nonNull)
-                            .max(Comparator.naturalOrder())
-                            .map(expiresAt -> Duration.between(now, expiresAt).plusMinutes(5))
-                            .filter(duration -> !duration.isNegative() && !duration.isZero())
-                            .orElse(Duration.ofHours(1));
+    private OAuth2Authorization findPendingByToken(final String rawToken, final String tokenTypeValue) {
+        if (tokenTypeValue == null) {
+            final OAuth2Authorization byCode = pendingAuthorizationRepository.findByCode(rawToken);
+            return byCode != null ? byCode : pendingAuthorizationRepository.findByState(rawToken);
+        }
+        return switch (tokenTypeValue) {
+            // only the code exchange asks for the code type, so this is where the code is claimed
+            case OAuth2ParameterNames.CODE -> claimCode(rawToken);
+            case OAuth2ParameterNames.STATE -> pendingAuthorizationRepository.findByState(rawToken);
+            default -> null;
+        };
+    }
+
+    // PKCE client authentication looks the code up before the grant provider does, both within one token request, so
+    // a claim is kept on the request and handed to the second lookup instead of being taken twice
+    private OAuth2Authorization claimCode(final String rawToken) {
+        final RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        final String attribute = CLAIMED_CODE_ATTRIBUTE + rawToken;
+        if (request != null && request.getAttribute(attribute, RequestAttributes.SCOPE_REQUEST) instanceof OAuth2Authorization claimed) {
+            return claimed;
+        }
+        final OAuth2Authorization claimed = pendingAuthorizationRepository.claimByCode(rawToken);
+        if (request != null && claimed != null) {
+            request.setAttribute(attribute, claimed, RequestAttributes.SCOPE_REQUEST);
+        }
+        return claimed;
+    }
+
+    private boolean isPending(final OAuth2Authorization authorization) {
+        return AuthorizationGrantType.AUTHORIZATION_CODE.equals(authorization.getAuthorizationGrantType())
+                && authorization.getAccessToken() == null
+                && authorization.getRefreshToken() == null
+                && authorization.getToken(OidcIdToken.class) == null;
+    }
+
+    // a code grant whose pending entry is gone and that was never stored has been redeemed by another request
+    private boolean isUnstoredCodeExchange(final OAuth2Authorization authorization) {
+        return authorization.getToken(OAuth2AuthorizationCode.class) != null
+                && authorizationRepository.findById(UUID.fromString(authorization.getId())) == null;
+    }
+
+    private Duration resolvePendingTtl(final OAuth2Authorization authorization) {
+        final OAuth2Authorization.Token<OAuth2AuthorizationCode> code = authorization.getToken(OAuth2AuthorizationCode.class);
+        if (code == null || code.getToken().getExpiresAt() == null) {
+            return Duration.ofMillis(consentTtlMillis);
+        }
+        final Duration untilExpiry = Duration.between(Instant.now(), code.getToken().getExpiresAt());
+        return untilExpiry.compareTo(MIN_PENDING_TTL) < 0 ? MIN_PENDING_TTL : untilExpiry;
     }
 
 }
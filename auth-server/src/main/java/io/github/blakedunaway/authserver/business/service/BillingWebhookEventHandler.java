@@ -0,0 +1,114 @@
+package io.github.blakedunaway.authserver.business.service;
+
+import io.github.blakedunaway.authserver.business.model.PlatformUserSubscription;
+import io.github.blakedunaway.authserver.business.model.StripeWebhookEvent;
+import io.github.blakedunaway.authserver.business.model.user.PlatformUser;
+import io.github.blakedunaway.authserver.business.model.user.PlatformUserTier;
+import io.github.blakedunaway.authserver.config.redis.RedisStore;
+import io.github.blakedunaway.authserver.util.RedisUtility;
+import io.github.blakedunaway.authserver.util.StripeEventUtility;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.UUID;
+
+// Applies one Stripe event taken from the webhook inbox, as parsed by StripeWebhookEvent. Failures are thrown so the
+// event is retried, abandon is called once the inbox gives up on it.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BillingWebhookEventHandler {
+
+    private final UserService userService;
+
+    private final PlatformUserTierService platformUserTierService;
+
+    private final PlatformUserSubscriptionService platformUserSubscriptionService;
+
+    private final RedisStore redisStore;
+
+    public void handle(final StripeWebhookEvent event) {
+        switch (event.type()) {
+            case StripeEventUtility.CHECKOUT_SESSION_COMPLETED -> checkoutSessionCompleted(event);
+            case StripeEventUtility.CUSTOMER_SUBSCRIPTION_UPDATED -> subscriptionUpdated(event);
+            case StripeEventUtility.CUSTOMER_SUBSCRIPTION_DELETED -> subscriptionDeleted(event);
+            default -> log.debug("Ignoring Stripe event {} of type {}.", event.id(), event.type());
+        }
+    }
+
+    public void abandon(final StripeWebhookEvent event) {
+        if (!StripeEventUtility.CHECKOUT_SESSION_COMPLETED.equals(event.type()) || event.objectId() == null) {
+            return;
+        }
+        try {
+            redisStore.put(RedisUtility.SUBSCRIPTION_CHECKOUT_STATUS + event.objectId(), "failed", Duration.ofMinutes(30));
+        } catch (final RuntimeException ex) {
+            log.warn("Unable to mark the checkout session of abandoned Stripe event {} as failed.", event.id(), ex);
+        }
+    }
+
+    private void checkoutSessionCompleted(final StripeWebhookEvent session) {
+        final UUID platformUserId = StripeEventUtility.platformUserId(session.metadata("platformUserId"));
+        if (!syncPlatformUserTier(platformUserId, session.metadata("tierId"), null)) {
+            throw new IllegalStateException("Checkout session " + session.objectId() + " did not resolve to a platform user and tier");
+        }
+        final String subscriptionId = session.objectField("subscription");
+        if (subscriptionId != null) {
+            recordSubscription(new PlatformUserSubscription(platformUserId, subscriptionId, null, null, "active", session.created()));
+        }
+        redisStore.put(RedisUtility.SUBSCRIPTION_CHECKOUT_STATUS + session.objectId(), "completed", Duration.ofMinutes(30));
+    }
+
+    private void subscriptionUpdated(final StripeWebhookEvent subscription) {
+        final UUID platformUserId = StripeEventUtility.platformUserId(subscription.metadata("platformUserId"));
+        if (!syncPlatformUserTier(platformUserId, subscription.metadata("tierId"), subscription.firstItemPriceId())) {
+            throw new IllegalStateException("Subscription " + subscription.objectId() + " did not resolve to a platform user and tier");
+        }
+        recordSubscription(StripeEventUtility.toPlatformUserSubscription(platformUserId, subscription));
+    }
+
+    private void subscriptionDeleted(final StripeWebhookEvent subscription) {
+        final UUID platformUserId = StripeEventUtility.platformUserId(subscription.metadata("platformUserId"));
+        if (subscription.objectId() != null && platformUserId != null) {
+            recordSubscription(StripeEventUtility.toPlatformUserSubscription(platformUserId, subscription));
+        }
+    }
+
+    private void recordSubscription(final PlatformUserSubscription reported) {
+        if (!platformUserSubscriptionService.record(reported)) {
+            log.info("Ignored an out of order report for Stripe subscription {}.", reported.subscriptionId());
+        }
+    }
+
+    private boolean syncPlatformUserTier(final UUID platformUserId,
+                                         final String tierId,
+                                         final String stripePriceId) {
+        if (platformUserId == null) {
+            return false;
+        }
+
+        final PlatformUser platformUser = userService.loadPlatformUserById(platformUserId);
+        final PlatformUserTier tier = resolvePlatformUserTier(tierId, stripePriceId);
+        if (tier == null || platformUser == null) {
+            return false;
+        }
+
+        userService.savePlatformUser(PlatformUser.from(platformUser).tier(tier).build());
+        return true;
+    }
+
+    private PlatformUserTier resolvePlatformUserTier(final String tierId,
+                                                     final String stripePriceId) {
+        if (tierId != null && !tierId.isBlank()) {
+            final PlatformUserTier tier = platformUserTierService.findTierById(tierId);
+            if (tier != null) {
+                return tier;
+            }
+        }
+
+        return stripePriceId == null ? null : platformUserTierService.findTierByStripePriceId(stripePriceId);
+    }
+
+}
@@ -0,0 +1,207 @@
+package io.github.blakedunaway.authserver.business.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.model.Event;
+import com.stripe.net.Webhook;
+import io.github.blakedunaway.authserver.business.model.BillingWebhookEvent;
+import io.github.blakedunaway.authserver.business.model.StripeWebhookEvent;
+import io.github.blakedunaway.authserver.integration.repository.gateway.BillingWebhookEventRepository;
+import io.github.blakedunaway.authserver.util.StripeEventUtility;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Stripe webhooks are verified and stored in the billing_webhook_event inbox, then acknowledged; a scheduled
+// dispatch claims due events and applies them on a worker pool. A redelivered event id is a no-op insert. Failed
+// events are retried with exponential backoff and hold back the later events of their platform user until they
+// succeed or are given up after max-attempts. Processed and failed events are deleted once retention-ms has passed,
+// which has to stay longer than the three days over which Stripe redelivers an event.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BillingWebhookService {
+
+    private final BillingWebhookEventRepository billingWebhookEventRepository;
+
+    private final BillingWebhookEventHandler billingWebhookEventHandler;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${stripe.webhook-secret}")
+    private String stripeWebhookSecret;
+
+    @Value("${auth-server.billing-webhook.workers:4}")
+    private int workers;
+
+    @Value("${auth-server.billing-webhook.batch-size:50}")
+    private int batchSize;
+
+    @Value("${auth-server.billing-webhook.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${auth-server.billing-webhook.lease-ms:300000}")
+    private long leaseMillis;
+
+    @Value("${auth-server.billing-webhook.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${auth-server.billing-webhook.initial-backoff-ms:2000}")
+    private long initialBackoffMillis;
+
+    @Value("${auth-server.billing-webhook.max-backoff-ms:3600000}")
+    private long maxBackoffMillis;
+
+    @Value("${auth-server.billing-webhook.retention-ms:2592000000}")
+    private long retentionMillis;
+
+    private ExecutorService workerPool;
+
+    private Counter receivedCounter;
+
+    private Counter duplicateCounter;
+
+    private Counter processedCounter;
+
+    private Counter retriedCounter;
+
+    private Counter failedCounter;
+
+    private Counter purgedCounter;
+
+    @PostConstruct
+    void initialize() {
+        this.workerPool = Executors.newFixedThreadPool(Math.max(1, workers),
+                                                       Thread.ofPlatform().name("billing-webhook-", 0).daemon(true).factory());
+        this.receivedCounter = Counter.builder("auth.billing.webhook.received")
+                                      .description("Stripe webhook events stored in the inbox")
+                                      .register(meterRegistry);
+        this.duplicateCounter = Counter.builder("auth.billing.webhook.duplicates")
+                                       .description("Stripe webhook deliveries of events already in the inbox")
+                                       .register(meterRegistry);
+        this.processedCounter = Counter.builder("auth.billing.webhook.processed")
+                                       .description("Stripe webhook events applied by the inbox workers")
+                                       .register(meterRegistry);
+        this.retriedCounter = Counter.builder("auth.billing.webhook.retried")
+                                     .description("Failed Stripe webhook event attempts scheduled for a retry")
+                                     .register(meterRegistry);
+        this.failedCounter = Counter.builder("auth.billing.webhook.failed")
+                                    .description("Stripe webhook events given up after the last attempt")
+                                    .register(meterRegistry);
+        this.purgedCounter = Counter.builder("auth.billing.webhook.purged")
+                                    .description("Processed or failed Stripe webhook events deleted from the inbox")
+                                    .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workerPool.shutdown();
+    }
+
+    // false for a redelivery of an event that is already in the inbox
+    public boolean receive(final String payload, final String signatureHeader) throws SignatureVerificationException {
+        final Event event = Webhook.constructEvent(payload, signatureHeader, stripeWebhookSecret);
+        final StripeWebhookEvent parsed;
+        try {
+            parsed = StripeWebhookEvent.parse(objectMapper, payload);
+        } catch (final JsonProcessingException ex) {
+            throw new IllegalArgumentException("Stripe event " + event.getId() + " is not valid JSON", ex);
+        }
+        final boolean stored = billingWebhookEventRepository.receive(new BillingWebhookEvent(event.getId(),
+                                                                                             event.getType(),
+                                                                                             StripeEventUtility.platformUserId(parsed.metadata("platformUserId")),
+                                                                                             payload,
+                                                                                             Instant.ofEpochSecond(event.getCreated()),
+                                                                                             0));
+        (stored ? receivedCounter : duplicateCounter).increment();
+        return stored;
+    }
+
+    @Scheduled(fixedDelayString = "${auth-server.billing-webhook.poll-interval-ms:1000}",
+               initialDelayString = "${auth-server.billing-webhook.initial-delay-ms:10000}")
+    public void dispatch() {
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            final Instant now = Instant.now();
+            final List<BillingWebhookEvent> events = billingWebhookEventRepository.claimDue(now,
+                                                                                            now.plusMillis(leaseMillis),
+                                                                                            batchSize);
+            if (events.isEmpty()) {
+                return;
+            }
+            try {
+                workerPool.invokeAll(events.stream()
+                                           .map(event -> (Callable<Void>) () -> {
+                                               process(event);
+                                               return null;
+                                           })
+                                           .toList());
+            } catch (final InterruptedException ex) {
+                // unfinished events become due again when their lease ends
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth-server.billing-webhook.purge-interval-ms:3600000}",
+               initialDelayString = "${auth-server.billing-webhook.purge-initial-delay-ms:120000}")
+    public void purgeFinishedEvents() {
+        final Instant cutoff = Instant.now().minusMillis(retentionMillis);
+        int purged = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            final int deleted = billingWebhookEventRepository.purgeFinished(cutoff, batchSize);
+            purged += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+        if (purged > 0) {
+            purgedCounter.increment(purged);
+            log.info("Purged {} Stripe webhook events finished before {}.", purged, cutoff);
+        }
+    }
+
+    void process(final BillingWebhookEvent event) {
+        StripeWebhookEvent stripeEvent = null;
+        try {
+            stripeEvent = StripeWebhookEvent.parse(objectMapper, event.payload());
+            billingWebhookEventHandler.handle(stripeEvent);
+            billingWebhookEventRepository.markProcessed(event.eventId());
+            processedCounter.increment();
+        } catch (final JsonProcessingException | RuntimeException ex) {
+            if (event.attempts() >= maxAttempts) {
+                log.error("Giving up on Stripe event {} of type {} after {} attempts.", event.eventId(), event.eventType(), event.attempts(), ex);
+                billingWebhookEventRepository.markFailed(event.eventId(), ex.toString());
+                if (stripeEvent != null) {
+                    billingWebhookEventHandler.abandon(stripeEvent);
+                }
+                failedCounter.increment();
+                return;
+            }
+            log.warn("Stripe event {} of type {} failed on attempt {}, retrying.", event.eventId(), event.eventType(), event.attempts(), ex);
+            billingWebhookEventRepository.scheduleRetry(event.eventId(), Instant.now().plusMillis(backoffMillis(event.attempts())), ex.toString());
+            retriedCounter.increment();
+        }
+    }
+
+    private long backoffMillis(final int attempts) {
+        final int doublings = Math.min(Math.max(attempts - 1, 0), 30);
+        return Math.min(maxBackoffMillis, initialBackoffMillis << doublings);
+    }
+
+}
@@ -0,0 +1,116 @@
+package io.github.blakedunaway.authserver.business.service;
+
+import io.github.blakedunaway.authserver.business.model.ClientActivity;
+import io.github.blakedunaway.authserver.business.model.enums.ClientActivityType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Login and sign up requests only enqueue their activity, a scheduled drain writes it to Redis in pipelined
+// batches. When Redis is slow or down the queue fills up and further activity is dropped and counted, the
+// login itself never waits on or fails because of the activity feed.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClientUserActivityRecorder {
+
+    private final ClientUserActivityService clientUserActivityService;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${auth-server.activity.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${auth-server.activity.batch-size:500}")
+    private int batchSize;
+
+    private final Queue<ClientActivity> queue = new ConcurrentLinkedQueue<>();
+
+    // ConcurrentLinkedQueue.size() walks the whole queue, so the bound is tracked separately
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private Counter recordedCounter;
+
+    private Counter queueFullCounter;
+
+    private Counter writeFailedCounter;
+
+    @PostConstruct
+    void initialize() {
+        this.recordedCounter = Counter.builder("auth.activity.recorded")
+                                      .description("Client user activity entries written to Redis")
+                                      .register(meterRegistry);
+        this.queueFullCounter = Counter.builder("auth.activity.dropped")
+                                       .description("Client user activity entries dropped before reaching Redis")
+                                       .tag("reason", "queue_full")
+                                       .register(meterRegistry);
+        this.writeFailedCounter = Counter.builder("auth.activity.dropped")
+                                         .description("Client user activity entries dropped before reaching Redis")
+                                         .tag("reason", "write_failed")
+                                         .register(meterRegistry);
+        Gauge.builder("auth.activity.queue.depth", queued, AtomicInteger::get).register(meterRegistry);
+    }
+
+    public void recordLogin(final String clientId, final String email) {
+        record(new ClientActivity(ClientActivityType.LOGIN, clientId, email, Instant.now()));
+    }
+
+    public void recordSignup(final String clientId, final String email) {
+        record(new ClientActivity(ClientActivityType.SIGNUP, clientId, email, Instant.now()));
+    }
+
+    private void record(final ClientActivity activity) {
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            queueFullCounter.increment();
+            return;
+        }
+        queue.offer(activity);
+    }
+
+    @Scheduled(fixedDelayString = "${auth-server.activity.flush-interval-ms:200}")
+    public void flush() {
+        List<ClientActivity> batch;
+        while (!(batch = nextBatch()).isEmpty()) {
+            try {
+                clientUserActivityService.write(batch);
+                recordedCounter.increment(batch.size());
+            } catch (final RuntimeException ex) {
+                writeFailedCounter.increment(batch.size());
+                log.warn("Dropped {} client user activity entries because they could not be written to Redis.", batch.size(), ex);
+                // leave the rest queued for the next run instead of failing every batch against a broken connection
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private List<ClientActivity> nextBatch() {
+        final List<ClientActivity> batch = new ArrayList<>(Math.min(batchSize, Math.max(queued.get(), 1)));
+        ClientActivity activity;
+        while (batch.size() < batchSize && (activity = queue.poll()) != null) {
+            queued.decrementAndGet();
+            batch.add(activity);
+        }
+        return batch;
+    }
+
+}
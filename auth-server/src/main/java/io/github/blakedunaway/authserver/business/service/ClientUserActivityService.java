@@ -0,0 +1,118 @@
+package io.github.blakedunaway.authserver.business.service;
+
+import io.github.blakedunaway.authserver.business.api.dto.response.ClientUserActivity;
+import io.github.blakedunaway.authserver.business.model.ClientActivity;
+import io.github.blakedunaway.authserver.business.model.enums.ClientActivityType;
+import io.github.blakedunaway.authserver.config.redis.RedisStore;
+import io.github.blakedunaway.authserver.integration.repository.cache.DashboardVersions;
+import io.github.blakedunaway.authserver.util.RedisUtility;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Recent login and sign up activity per client, kept in a Redis stream that is trimmed to roughly max-length
+// entries on every append. Reads only cover the recent window and never return more than read-limit entries.
+@Service
+@RequiredArgsConstructor
+public class ClientUserActivityService {
+
+    private static final String EMAIL_FIELD = "email";
+
+    // entries are written in batches after the fact, so the stream id is only the fallback for the activity time
+    private static final String OCCURRED_AT_FIELD = "at";
+
+    private final RedisStore redisStore;
+
+    private final DashboardVersions dashboardVersions;
+
+    @Value("${auth-server.activity.max-length:1000}")
+    private long maxLength;
+
+    @Value("${auth-server.activity.window-ms:900000}")
+    private long windowMillis;
+
+    @Value("${auth-server.activity.read-limit:500}")
+    private int readLimit;
+
+    public void write(final List<ClientActivity> activities) {
+        final Map<String, List<Map<String, String>>> entriesByKey = new LinkedHashMap<>();
+        final Set<String> touchedClientIds = new HashSet<>();
+        for (final ClientActivity activity : activities) {
+            // an entry nobody can attribute is dropped on its own instead of failing the whole batch
+            if (activity.type() == null || activity.clientId() == null || activity.email() == null) {
+                continue;
+            }
+            final Map<String, String> fields = new LinkedHashMap<>();
+            fields.put(EMAIL_FIELD, activity.email());
+            if (activity.occurredAt() != null) {
+                fields.put(OCCURRED_AT_FIELD, String.valueOf(activity.occurredAt().toEpochMilli()));
+            }
+            entriesByKey.computeIfAbsent(streamKey(activity.type(), activity.clientId()), key -> new ArrayList<>()).add(fields);
+            touchedClientIds.add(activity.clientId());
+        }
+        if (entriesByKey.isEmpty()) {
+            return;
+        }
+        // an idle client's stream expires once nothing in it is inside the read window any more
+        redisStore.appendToStreams(entriesByKey, maxLength, Duration.ofMillis(windowMillis));
+        dashboardVersions.clientsTouched(touchedClientIds);
+    }
+
+    // logins and sign ups of every requested client come back from a single pipelined round trip
+    public Map<ClientActivityType, List<ClientUserActivity>> findRecent(final Collection<String> clientIds) {
+        return findRecent(clientIds, windowStart(Instant.now()));
+    }
+
+    // activity from a fixed start up to now, for callers that pin the window to a point in time
+    public Map<ClientActivityType, List<ClientUserActivity>> findRecent(final Collection<String> clientIds, final Instant from) {
+        final Map<String, ClientActivityType> typesByKey = new LinkedHashMap<>();
+        for (final String clientId : clientIds) {
+            for (final ClientActivityType type : ClientActivityType.values()) {
+                typesByKey.put(streamKey(type, clientId), type);
+            }
+        }
+        final Instant now = Instant.now();
+        final Map<ClientActivityType, List<ClientUserActivity>> recent = new EnumMap<>(ClientActivityType.class);
+        for (final ClientActivityType type : ClientActivityType.values()) {
+            recent.put(type, new ArrayList<>());
+        }
+        redisStore.getStreamRanges(typesByKey.keySet(), from, now, readLimit)
+                  .forEach((key, records) -> records.forEach(record -> recent.get(typesByKey.get(key)).add(toActivity(record))));
+        return recent;
+    }
+
+    public Instant windowStart(final Instant end) {
+        return end.minusMillis(windowMillis);
+    }
+
+    private static String streamKey(final ClientActivityType type, final String clientId) {
+        return switch (type) {
+            case LOGIN -> RedisUtility.CLIENT_LOGIN_STREAM + clientId;
+            case SIGNUP -> RedisUtility.CLIENT_SIGNUP_STREAM + clientId;
+        };
+    }
+
+    private static ClientUserActivity toActivity(final MapRecord<String, String, String> record) {
+        final String occurredAt = record.getValue().get(OCCURRED_AT_FIELD);
+        final long occurredAtMillis = occurredAt == null ? record.getId().getTimestamp() : Long.parseLong(occurredAt);
+        return ClientUserActivity.builder()
+                                 .email(record.getValue().get(EMAIL_FIELD))
+                                 .activityTs(LocalDateTime.ofInstant(Instant.ofEpochMilli(occurredAtMillis), ZoneId.systemDefault()))
+                                 .build();
+    }
+
+}
@@ -0,0 +1,184 @@
+package io.github.blakedunaway.authserver.business.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.blakedunaway.authserver.business.model.ClientUserImportRow;
+import io.github.blakedunaway.authserver.business.model.enums.BulkDataFormat;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Reads import rows one line at a time so the request body is never held in memory. NDJSON rows are objects with
+// email, password or passwordHash, verified, authorities and attributes. CSV needs a header row with an email column
+// and may add password, password_hash, verified, authorities separated by '|' and attributes as a JSON object;
+// quoted fields may contain commas but not line breaks, and a quote escaping a leading formula character is dropped.
+public class ClientUserImportReader implements Closeable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final TypeReference<Map<String, Object>> ATTRIBUTES = new TypeReference<>() {
+    };
+
+    private final BufferedReader reader;
+
+    private final BulkDataFormat format;
+
+    private Map<String, Integer> columns;
+
+    private long line;
+
+    public ClientUserImportReader(final InputStream inputStream, final BulkDataFormat format) {
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        this.format = format;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    // null once the input is exhausted. A row that cannot be read throws IllegalArgumentException and is skipped,
+    // a CSV header without an email column throws IllegalStateException and ends the import.
+    public ClientUserImportRow next() throws IOException {
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            if (format == BulkDataFormat.NDJSON) {
+                return fromJson(text);
+            }
+            if (columns == null) {
+                readHeader(text);
+                continue;
+            }
+            return fromCsv(text);
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private ClientUserImportRow fromJson(final String text) {
+        final JsonNode node;
+        try {
+            node = MAPPER.readTree(text);
+        } catch (final JsonProcessingException ex) {
+            throw new IllegalArgumentException("Line " + line + " is not valid JSON");
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Line " + line + " is not a JSON object");
+        }
+        final Set<String> authorities = new LinkedHashSet<>();
+        node.path("authorities").forEach(authority -> authorities.add(authority.asText()));
+        final JsonNode attributes = node.get("attributes");
+        return new ClientUserImportRow(line,
+                                       text(node, "email"),
+                                       text(node, "password"),
+                                       text(node, "passwordHash"),
+                                       node.path("verified").asBoolean(false),
+                                       authorities,
+                                       attributes == null || attributes.isNull()
+                                       ? new LinkedHashMap<>()
+                                       : MAPPER.convertValue(attributes, ATTRIBUTES));
+    }
+
+    private void readHeader(final String text) {
+        final List<String> names = parseCsv(text);
+        columns = new HashMap<>();
+        for (int index = 0; index < names.size(); index++) {
+            columns.put(names.get(index).trim().toLowerCase(Locale.ROOT), index);
+        }
+        if (!columns.containsKey("email")) {
+            throw new IllegalStateException("The CSV header must contain an email column");
+        }
+    }
+
+    private ClientUserImportRow fromCsv(final String text) {
+        final List<String> values = parseCsv(text);
+        final String authorities = column(values, "authorities");
+        final String attributes = column(values, "attributes");
+        final Map<String, Object> parsedAttributes;
+        try {
+            parsedAttributes = attributes == null ? new LinkedHashMap<>() : MAPPER.readValue(attributes, ATTRIBUTES);
+        } catch (final JsonProcessingException ex) {
+            throw new IllegalArgumentException("Line " + line + " has attributes that are not a JSON object");
+        }
+        return new ClientUserImportRow(line,
+                                       column(values, "email"),
+                                       column(values, "password"),
+                                       column(values, "password_hash"),
+                                       Boolean.parseBoolean(column(values, "verified")),
+                                       authorities == null
+                                       ? Set.of()
+                                       : new LinkedHashSet<>(Arrays.asList(authorities.split("\\|"))),
+                                       parsedAttributes);
+    }
+
+    private String column(final List<String> values, final String name) {
+        final Integer index = columns.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        final String value = values.get(index).trim();
+        if (value.startsWith("'") && RecordExportWriter.isFormula(value.substring(1))) {
+            return value.substring(1);
+        }
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String text(final JsonNode node, final String field) {
+        final JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private List<String> parseCsv(final String text) {
+        final List<String> values = new ArrayList<>();
+        final StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int index = 0; index < text.length(); index++) {
+            final char current = text.charAt(index);
+            if (quoted) {
+                if (current == '"' && index + 1 < text.length() && text.charAt(index + 1) == '"') {
+                    value.append('"');
+                    index++;
+                } else if (current == '"') {
+                    quoted = false;
+                } else {
+                    value.append(current);
+                }
+            } else if (current == '"') {
+                quoted = true;
+            } else if (current == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(current);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Line " + line + " has an unterminated quoted field");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+}
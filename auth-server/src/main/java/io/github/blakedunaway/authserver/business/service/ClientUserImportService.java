@@ -0,0 +1,390 @@
+package io.github.blakedunaway.authserver.business.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.blakedunaway.authserver.business.model.ClientUserImportEvent;
+import io.github.blakedunaway.authserver.business.model.ClientUserImportRow;
+import io.github.blakedunaway.authserver.business.model.PlatformUserUsage;
+import io.github.blakedunaway.authserver.business.model.RegisteredClientModel;
+import io.github.blakedunaway.authserver.business.model.user.PlatformUser;
+import io.github.blakedunaway.authserver.integration.repository.cache.DashboardVersions;
+import io.github.blakedunaway.authserver.integration.repository.gateway.ClientUserImportRepository;
+import io.github.blakedunaway.authserver.integration.repository.gateway.ClientUserImportRepository.NewClientUser;
+import io.github.blakedunaway.authserver.integration.repository.gateway.UsageCounterRepository;
+import io.github.blakedunaway.authserver.security.hashing.ImportedHashLimits;
+import io.github.blakedunaway.authserver.security.hashing.ImportedHashPasswordEncoder;
+import io.github.blakedunaway.authserver.security.hashing.PasswordHashingExecutor;
+import io.github.blakedunaway.authserver.security.hashing.PasswordHashingUnavailableException;
+import io.github.blakedunaway.authserver.util.AuthorityUtility;
+import io.github.blakedunaway.authserver.util.UuidUtility;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+// Imports client users in chunks: rows are validated as they are read, plain passwords are hashed on a small pool
+// that holds at most half of the hashing permits so sign-ins keep the rest, and each chunk is inserted, counted and
+// checked against the tier in one transaction. Supplied Argon2 and bcrypt hashes are stored as they are. Emails are
+// checked against existing users before hashing and again inside that transaction, once the client's usage row is
+// locked, so concurrent imports into one client cannot both create the same user.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ClientUserImportService {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final ClientUserImportRepository clientUserImportRepository;
+
+    private final UsageCounterRepository usageCounterRepository;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final ImportedHashLimits importedHashLimits;
+
+    private final PasswordHashingExecutor passwordHashingExecutor;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final DashboardVersions dashboardVersions;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${auth-server.client-user.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${auth-server.client-user.import.hashing-concurrency:0}")
+    private int configuredHashingConcurrency;
+
+    @Value("${auth-server.client-user.import.hashing-retry-ms:100}")
+    private long hashingRetryMillis;
+
+    @Value("${auth-server.client-user.import.hashing-max-retries:50}")
+    private int hashingMaxRetries;
+
+    private ExecutorService hashingPool;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Counter importedCounter;
+
+    private Counter failedCounter;
+
+    @PostConstruct
+    void initialize() {
+        final int hashingConcurrency = configuredHashingConcurrency > 0
+                                       ? configuredHashingConcurrency
+                                       : Math.max(1, passwordHashingExecutor.getMaxConcurrency() / 2);
+        this.hashingPool = Executors.newFixedThreadPool(hashingConcurrency,
+                                                        Thread.ofPlatform().name("client-user-import-", 0).daemon(true).factory());
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.importedCounter = Counter.builder("auth.client.user.import.imported")
+                                      .description("Client users created by bulk imports")
+                                      .register(meterRegistry);
+        this.failedCounter = Counter.builder("auth.client.user.import.failed")
+                                    .description("Bulk import rows rejected or not written")
+                                    .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingPool.shutdownNow();
+    }
+
+    // Streams the rows of reader into registeredClient, reporting row errors and per chunk progress to events as
+    // they happen. The returned summary is also the last event.
+    public ClientUserImportEvent importClientUsers(final PlatformUser platformUser,
+                                                   final RegisteredClientModel registeredClient,
+                                                   final ClientUserImportReader reader,
+                                                   final Consumer<ClientUserImportEvent> events) throws IOException {
+        final ImportRun run = new ImportRun(platformUser,
+                                            registeredClient.getClientId(),
+                                            clientUserImportRepository.findAuthorityIds(registeredClient.getId()),
+                                            events);
+        run.remaining = remainingClientUsers(platformUser);
+        usageCounterRepository.createClientUsageIfMissing(run.clientId);
+        while (true) {
+            final ClientUserImportRow row;
+            try {
+                row = reader.next();
+            } catch (final IllegalArgumentException ex) {
+                run.processed++;
+                run.reject(reader.getLine(), null, ex.getMessage());
+                continue;
+            } catch (final IllegalStateException ex) {
+                return run.finish(ClientUserImportEvent.Status.INVALID_INPUT, ex.getMessage());
+            }
+            if (row == null) {
+                break;
+            }
+            run.processed++;
+            final String error = validate(row, run.authorityIds);
+            if (error != null) {
+                run.reject(row.line(), row.email(), error);
+                continue;
+            }
+            if (run.chunk.containsKey(normalize(row.email()))) {
+                run.reject(row.line(), row.email(), "Duplicate email in import");
+                continue;
+            }
+            run.chunk.put(normalize(row.email()), row);
+            if (run.chunk.size() >= batchSize && !flush(run)) {
+                return run.finish(ClientUserImportEvent.Status.TIER_LIMIT_REACHED, tierLimitMessage(run, reader.getLine()));
+            }
+        }
+        if (!flush(run)) {
+            return run.finish(ClientUserImportEvent.Status.TIER_LIMIT_REACHED, tierLimitMessage(run, reader.getLine()));
+        }
+        return run.finish(ClientUserImportEvent.Status.COMPLETED, null);
+    }
+
+    private String validate(final ClientUserImportRow row, final Map<String, UUID> authorityIds) {
+        if (row.email() == null || row.email().isBlank() || !row.email().contains("@")) {
+            return "A valid email is required";
+        }
+        if (row.passwordHash() != null) {
+            if (!ImportedHashPasswordEncoder.isSupported(row.passwordHash())) {
+                return "Only Argon2 and bcrypt password hashes can be imported";
+            }
+            if (!importedHashLimits.allows(row.passwordHash())) {
+                return "The password hash cost parameters exceed the allowed maximum";
+            }
+        } else if (row.password() == null || row.password().isEmpty()) {
+            return "A password or password hash is required";
+        }
+        final Set<String> unknown = new HashSet<>(AuthorityUtility.normalizeAuthorityAndRoleNames(row.authorities()));
+        unknown.removeAll(authorityIds.keySet());
+        if (!unknown.isEmpty()) {
+            return "Unknown authorities for this client: " + String.join(", ", unknown);
+        }
+        return null;
+    }
+
+    // false once the tier allowance is used up, the rows that did not fit are left unwritten
+    private boolean flush(final ImportRun run) {
+        if (run.chunk.isEmpty()) {
+            return true;
+        }
+        final List<ClientUserImportRow> rows = new ArrayList<>(run.chunk.values());
+        final Map<String, ClientUserImportRow> rowsByEmail = new LinkedHashMap<>(run.chunk);
+        run.chunk.clear();
+        final Set<String> existing = clientUserImportRepository.findExistingEmails(run.clientId,
+                                                                                   rows.stream().map(ClientUserImportRow::email).toList());
+        rows.removeIf(row -> {
+            if (existing.contains(normalize(row.email()))) {
+                run.reject(row.line(), row.email(), "A user with this email already exists for the client");
+                return true;
+            }
+            return false;
+        });
+        final List<NewClientUser> clientUsers = hash(rows, run);
+        boolean fits = truncate(clientUsers, run);
+        if (!insert(clientUsers, rowsByEmail, run)) {
+            // another import or sign-up took part of the allowance since it was read
+            run.remaining = remainingClientUsers(run.platformUser);
+            fits = truncate(clientUsers, run) && fits;
+            if (!insert(clientUsers, rowsByEmail, run)) {
+                run.unwritten += clientUsers.size();
+                clientUsers.clear();
+                fits = false;
+            }
+        }
+        run.imported += clientUsers.size();
+        run.remaining -= clientUsers.size();
+        importedCounter.increment(clientUsers.size());
+        run.events.accept(ClientUserImportEvent.progress(run.processed, run.imported, run.failed));
+        return fits;
+    }
+
+    private boolean truncate(final List<NewClientUser> clientUsers, final ImportRun run) {
+        if (clientUsers.size() <= run.remaining) {
+            return true;
+        }
+        final int kept = (int) Math.max(0, run.remaining);
+        run.unwritten += clientUsers.size() - kept;
+        clientUsers.subList(kept, clientUsers.size()).clear();
+        return false;
+    }
+
+    private boolean insert(final List<NewClientUser> clientUsers, final Map<String, ClientUserImportRow> rowsByEmail, final ImportRun run) {
+        if (clientUsers.isEmpty()) {
+            return true;
+        }
+        final List<NewClientUser> taken = new ArrayList<>();
+        final Boolean inserted = transactionTemplate.execute(status -> {
+            usageCounterRepository.lockClientUsage(run.clientId);
+            final Set<String> existing = clientUserImportRepository.findExistingEmails(run.clientId,
+                                                                                       clientUsers.stream().map(NewClientUser::email).toList());
+            clientUsers.removeIf(clientUser -> {
+                if (existing.contains(normalize(clientUser.email()))) {
+                    taken.add(clientUser);
+                    return true;
+                }
+                return false;
+            });
+            if (clientUsers.isEmpty()) {
+                return true;
+            }
+            clientUserImportRepository.insert(run.clientId, clientUsers);
+            usageCounterRepository.clientUsersCreated(run.clientId, clientUsers.size());
+            final PlatformUserUsage usage = usageCounterRepository.findByPlatformUserId(run.platformUser.getId());
+            if (usage == null || usage.clientUsers() > allowedClientUsers(run.platformUser)) {
+                status.setRollbackOnly();
+                return false;
+            }
+            dashboardVersions.clientsChanged(List.of(run.clientId));
+            return true;
+        });
+        // created by another import while this chunk was being hashed
+        taken.forEach(clientUser -> run.reject(rowsByEmail.get(normalize(clientUser.email())).line(),
+                                               clientUser.email(),
+                                               "A user with this email already exists for the client"));
+        return Boolean.TRUE.equals(inserted);
+    }
+
+    private List<NewClientUser> hash(final List<ClientUserImportRow> rows, final ImportRun run) {
+        final List<CompletableFuture<String>> hashes =
+                rows.stream()
+                    .map(row -> row.passwordHash() != null
+                                ? CompletableFuture.completedFuture(row.passwordHash())
+                                : CompletableFuture.supplyAsync(() -> encode(row.password()), hashingPool))
+                    .toList();
+        final List<NewClientUser> clientUsers = new ArrayList<>(rows.size());
+        for (int index = 0; index < rows.size(); index++) {
+            final ClientUserImportRow row = rows.get(index);
+            final String passwordHash;
+            final String attributes;
+            try {
+                passwordHash = hashes.get(index).join();
+                attributes = MAPPER.writeValueAsString(row.attributes());
+            } catch (final RuntimeException | JsonProcessingException ex) {
+                log.warn("Unable to prepare imported client user on line {}.", row.line(), ex);
+                run.reject(row.line(), row.email(), "The password could not be hashed");
+                continue;
+            }
+            clientUsers.add(new NewClientUser(UuidUtility.timeOrdered(),
+                                              row.email(),
+                                              passwordHash,
+                                              row.verified(),
+                                              attributes,
+                                              AuthorityUtility.normalizeAuthorityAndRoleNames(row.authorities())
+                                                              .stream()
+                                                              .map(run.authorityIds::get)
+                                                              .collect(Collectors.toSet())));
+        }
+        return clientUsers;
+    }
+
+    // an import waits for a hashing slot rather than failing the row, sign-ins are never queued behind it for long
+    private String encode(final String password) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return passwordEncoder.encode(password);
+            } catch (final PasswordHashingUnavailableException ex) {
+                if (attempt >= hashingMaxRetries) {
+                    throw ex;
+                }
+                try {
+                    Thread.sleep(hashingRetryMillis);
+                } catch (final InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    private long remainingClientUsers(final PlatformUser platformUser) {
+        final PlatformUserUsage usage = usageCounterRepository.findOrCreateByPlatformUserId(platformUser.getId());
+        if (usage == null) {
+            return 0;
+        }
+        return Math.max(0, (long) allowedClientUsers(platformUser) - usage.clientUsers());
+    }
+
+    private static int allowedClientUsers(final PlatformUser platformUser) {
+        return platformUser.getTier() == null ? 0 : platformUser.getTier().getAllowedNumberOfGlobalUsers();
+    }
+
+    private static String tierLimitMessage(final ImportRun run, final long line) {
+        return "The tier client user allowance was reached, the import stopped at line " + line
+               + " with " + run.unwritten + " valid rows not imported";
+    }
+
+    private static String normalize(final String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private final class ImportRun {
+
+        private final PlatformUser platformUser;
+
+        private final String clientId;
+
+        private final Map<String, UUID> authorityIds;
+
+        private final Consumer<ClientUserImportEvent> events;
+
+        private final Map<String, ClientUserImportRow> chunk = new LinkedHashMap<>();
+
+        private long remaining;
+
+        private long processed;
+
+        private long imported;
+
+        private long failed;
+
+        private long unwritten;
+
+        private ImportRun(final PlatformUser platformUser,
+                          final String clientId,
+                          final Map<String, UUID> authorityIds,
+                          final Consumer<ClientUserImportEvent> events) {
+            this.platformUser = platformUser;
+            this.clientId = clientId;
+            this.authorityIds = authorityIds;
+            this.events = events;
+        }
+
+        private void reject(final long line, final String email, final String message) {
+            failed++;
+            failedCounter.increment();
+            events.accept(ClientUserImportEvent.error(line, email, message));
+        }
+
+        private ClientUserImportEvent finish(final ClientUserImportEvent.Status status, final String message) {
+            failedCounter.increment(unwritten);
+            final ClientUserImportEvent summary = ClientUserImportEvent.summary(processed, imported, failed + unwritten, status, message);
+            events.accept(summary);
+            if (imported > 0) {
+                log.info("Imported {} client users into {} for platform user {}.", imported, clientId, platformUser.getEmail());
+            }
+            return summary;
+        }
+
+    }
+
+}
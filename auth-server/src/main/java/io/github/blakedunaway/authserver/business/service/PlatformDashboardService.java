@@ -0,0 +1,145 @@
+package io.github.blakedunaway.authserver.business.service;
+
+import io.github.blakedunaway.authserver.business.api.dto.response.AuthTokenResponse;
+import io.github.blakedunaway.authserver.business.api.dto.response.ClientUserActivity;
+import io.github.blakedunaway.authserver.business.api.dto.response.ClientUserActivityResponse;
+import io.github.blakedunaway.authserver.business.api.dto.response.ClientUserResponse;
+import io.github.blakedunaway.authserver.business.api.dto.response.PlatformDashboardResponse;
+import io.github.blakedunaway.authserver.business.api.dto.response.PlatformUserDetailsReponse;
+import io.github.blakedunaway.authserver.business.api.dto.response.PlatformUserTierResponse;
+import io.github.blakedunaway.authserver.business.api.dto.response.RegisteredClientResponse;
+import io.github.blakedunaway.authserver.business.model.Authority;
+import io.github.blakedunaway.authserver.business.model.RegisteredClientModel;
+import io.github.blakedunaway.authserver.business.model.enums.ClientActivityType;
+import io.github.blakedunaway.authserver.business.model.user.PlatformUser;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Assembles the views the control panel used to request one by one. The owned clients are loaded first since every
+// other section is keyed by them; tiers, users, tokens and recent activity are then fetched concurrently.
+@Service
+@RequiredArgsConstructor
+public class PlatformDashboardService {
+
+    private final UserService userService;
+
+    private final RegisteredClientService registeredClientService;
+
+    private final PlatformUserTierService platformUserTierService;
+
+    private final AuthTokenService authTokenService;
+
+    private final ClientUserActivityService clientUserActivityService;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PreDestroy
+    void shutdown() {
+        executor.close();
+    }
+
+    public Set<RegisteredClientModel> findOwnedClients(final PlatformUser platformUser) {
+        return registeredClientService.findRegisteredClientsByIds(ownedRegisteredClientIds(platformUser));
+    }
+
+    public PlatformUserDetailsReponse details(final PlatformUser platformUser,
+                                              final Set<RegisteredClientModel> ownedClients,
+                                              final int totalUsers) {
+        final Set<RegisteredClientResponse> registeredClients = ownedClients.stream()
+                                                                            .map(RegisteredClientResponse::fromModel)
+                                                                            .collect(Collectors.toCollection(HashSet::new));
+        return PlatformUserDetailsReponse.from(registeredClients, platformUser.getTier())
+                                         .totalUsers(totalUsers)
+                                         .isDemoUser(platformUser.isDemoUser())
+                                         .isAdmin(platformUser.getAuthorities() != null
+                                                  && platformUser.getAuthorities().stream()
+                                                                 .map(Authority::getName)
+                                                                 .collect(Collectors.toSet())
+                                                                 .containsAll(Set.of("ROLE_PLATFORM_ADMIN", "PLATFORM_ADMIN_ACCESS")))
+                                         .build();
+    }
+
+    // users, tokens and activity are only part of the paid dashboard, as with their separate endpoints
+    public PlatformDashboardResponse build(final PlatformUser platformUser,
+                                           final Set<RegisteredClientModel> ownedClients,
+                                           final boolean paid,
+                                           final Instant activityFrom) {
+        final Set<UUID> registeredClientIds = ownedRegisteredClientIds(platformUser);
+        final List<String> clientIds = ownedClients.stream().map(RegisteredClientModel::getClientId).toList();
+
+        final CompletableFuture<List<PlatformUserTierResponse>> tiers =
+                supply(() -> platformUserTierService.findAllTiers().stream().map(PlatformUserTierResponse::fromModel).toList());
+        final CompletableFuture<Set<ClientUserResponse>> users = paid
+                                                                 ? supply(() -> userService.findClientUsersByRegisteredClientIds(registeredClientIds)
+                                                                                           .stream()
+                                                                                           .map(ClientUserResponse::fromModel)
+                                                                                           .collect(Collectors.toCollection(HashSet::new)))
+                                                                 : CompletableFuture.completedFuture(null);
+        final CompletableFuture<Set<AuthTokenResponse>> tokens = paid
+                                                                 ? supply(() -> authTokenService.findAllByRegisteredClientIds(registeredClientIds)
+                                                                                                .stream()
+                                                                                                .map(AuthTokenResponse::fromModel)
+                                                                                                .collect(Collectors.toCollection(HashSet::new)))
+                                                                 : CompletableFuture.completedFuture(null);
+        final CompletableFuture<ClientUserActivityResponse> activity = paid && !clientIds.isEmpty()
+                                                                       ? supply(() -> toActivityResponse(clientUserActivityService.findRecent(clientIds, activityFrom)))
+                                                                       : CompletableFuture.completedFuture(paid ? emptyActivity() : null);
+        // the user list already holds the total, only free dashboards still need the count query
+        final CompletableFuture<Integer> totalUsers = paid
+                                                      ? users.thenApply(Set::size)
+                                                      : supply(() -> userService.getTotalUserCount(platformUser.getEmail()));
+
+        try {
+            return PlatformDashboardResponse.builder()
+                                            .details(details(platformUser, ownedClients, totalUsers.join()))
+                                            .tiers(tiers.join())
+                                            .users(users.join())
+                                            .tokens(tokens.join())
+                                            .recentActivity(activity.join())
+                                            .build();
+        } catch (final CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private <T> CompletableFuture<T> supply(final Supplier<T> section) {
+        return CompletableFuture.supplyAsync(section, executor);
+    }
+
+    private static Set<UUID> ownedRegisteredClientIds(final PlatformUser platformUser) {
+        return platformUser.getRegisteredClientIds() == null ? Collections.emptySet() : platformUser.getRegisteredClientIds();
+    }
+
+    private static ClientUserActivityResponse toActivityResponse(final Map<ClientActivityType, List<ClientUserActivity>> recent) {
+        return ClientUserActivityResponse.builder()
+                                         .logins(recent.get(ClientActivityType.LOGIN))
+                                         .signups(recent.get(ClientActivityType.SIGNUP))
+                                         .build();
+    }
+
+    private static ClientUserActivityResponse emptyActivity() {
+        return ClientUserActivityResponse.builder()
+                                         .logins(Collections.emptyList())
+                                         .signups(Collections.emptyList())
+                                         .build();
+    }
+
+}
@@ -0,0 +1,70 @@
+package io.github.blakedunaway.authserver.business.service;
+
+import com.stripe.exception.StripeException;
+import io.github.blakedunaway.authserver.business.model.PlatformUserSubscription;
+import io.github.blakedunaway.authserver.business.model.user.PlatformUserTier;
+import io.github.blakedunaway.authserver.integration.billing.SubscriptionBillingClient;
+import io.github.blakedunaway.authserver.integration.repository.gateway.PlatformUserSubscriptionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Resolves a platform user's subscription from the local index the billing webhook keeps current. Stripe is only
+// asked when the index lacks the subscription item, or has no row for a subscription that predates it, and the
+// answer is recorded so the next change is a local lookup again.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PlatformUserSubscriptionService {
+
+    private final PlatformUserSubscriptionRepository platformUserSubscriptionRepository;
+
+    private final SubscriptionBillingClient subscriptionBillingClient;
+
+    // null when the platform user has no subscription that can change price
+    public PlatformUserSubscription findChangeableSubscription(final UUID platformUserId) throws StripeException {
+        PlatformUserSubscription subscription = platformUserSubscriptionRepository.findByPlatformUserId(platformUserId);
+        if (subscription == null) {
+            subscription = subscriptionBillingClient.searchActiveSubscription(platformUserId);
+            if (subscription != null) {
+                log.info("Recorded Stripe subscription {} of platform user {} that predates the local index.",
+                         subscription.subscriptionId(), platformUserId);
+                record(subscription);
+            }
+        } else if (subscription.isChangeable() && !subscription.hasItem()) {
+            subscription = subscriptionBillingClient.retrieveSubscription(platformUserId, subscription.subscriptionId());
+            record(subscription);
+        }
+        return subscription != null && subscription.isChangeable() && subscription.hasItem() ? subscription : null;
+    }
+
+    // false when a newer report was already recorded
+    public boolean record(final PlatformUserSubscription reported) {
+        return platformUserSubscriptionRepository.save(
+                reported.mergedOnto(platformUserSubscriptionRepository.findByPlatformUserId(reported.platformUserId())));
+    }
+
+    // records the Stripe subscriptions of platform users that have no row yet and returns how many were recorded
+    public int backfillFromStripe() throws StripeException {
+        final AtomicInteger recorded = new AtomicInteger();
+        subscriptionBillingClient.forEachSubscription(subscription -> {
+            if (platformUserSubscriptionRepository.findByPlatformUserId(subscription.platformUserId()) == null
+                    && record(subscription)) {
+                recorded.incrementAndGet();
+            }
+        });
+        return recorded.get();
+    }
+
+    public void changeTier(final PlatformUserSubscription subscription, final PlatformUserTier tier) throws StripeException {
+        subscriptionBillingClient.changePrice(subscription,
+                                              tier.getStripePriceId(),
+                                              Map.of("platformUserId", subscription.platformUserId().toString(),
+                                                     "tierId", tier.getId().toString()));
+    }
+
+}
@@ -3,6 +3,7 @@ package io.github.blakedunaway.authserver.business.service;
 import io.github.blakedunaway.authserver.business.model.RegisteredClientModel;
 import io.github.blakedunaway.authserver.business.validation.RegisteredClientValidator;
 import io.github.blakedunaway.authserver.integration.repository.gateway.RegisteredClientInternalRepository;
+import io.github.blakedunaway.authserver.security.token.ClientSecretVerificationCache;
 import io.github.blakedunaway.authserver.util.AuthenticationUtility;
 import io.github.blakedunaway.authserver.util.AuthorityUtility;
 import jakarta.validation.Valid;
@@ -28,6 +29,8 @@ public class RegisteredClientService {
 
     private final RegisteredClientInternalRepository registeredClientInternalRepository;
 
+    private final ClientSecretVerificationCache clientSecretVerificationCache;
+
     public RegisteredClientModel saveRegisteredClient(final RegisteredClientModel registeredClientModel) {
         validateRegisteredClient(registeredClientModel);
         if (AuthenticationUtility.declaredConfidential(registeredClientModel.getClientAuthenticationMethods())) {
@@ -74,6 +77,7 @@ public class RegisteredClientService {
 
         validateRegisteredClient(resolvedRegisteredClient);
         registeredClientInternalRepository.update(resolvedRegisteredClient);
+        clientSecretVerificationCache.evict(existingRegisteredClient.getClientSecret());
         return findRegisteredClientById(existingRegisteredClient.getId());
     }
 
@@ -1,6 +1,7 @@
 package io.github.blakedunaway.authserver.business.service;
 
 import com.nimbusds.jose.Algorithm;
+import com.nimbusds.jose.jwk.JWKMatcher;
 import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jose.jwk.KeyUse;
 import com.nimbusds.jose.jwk.RSAKey;
@@ -8,11 +9,17 @@ import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 import io.github.blakedunaway.authserver.business.model.SigningKey;
 import io.github.blakedunaway.authserver.business.model.enums.SigningKeyStatus;
+import io.github.blakedunaway.authserver.business.model.event.SigningKeysChangedEvent;
+import io.github.blakedunaway.authserver.config.redis.RedisStore;
 import io.github.blakedunaway.authserver.integration.repository.gateway.SigningKeyRepository;
+import io.github.blakedunaway.authserver.util.RedisUtility;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.security.KeyFactory;
 import java.security.KeyPair;
@@ -21,23 +28,49 @@ import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Base64;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+@Slf4j
 @RequiredArgsConstructor
 @Service
 public class SigningKeyStore {
 
+    private static final Duration SIGNING_KEYS_VERSION_TTL = Duration.ofDays(60);
+
     private final SigningKeyRepository signingKeyRepository;
 
+    private final RedisStore redisStore;
+
+    @Value("${auth-server.signing-keys.version-check-interval-ms:30000}")
+    private long versionCheckIntervalMillis;
+
+    @Value("${auth-server.signing-keys.min-reload-interval-ms:1000}")
+    private long minReloadIntervalMillis;
+
+    @Value("${auth-server.signing-keys.job-lock-ms:1800000}")
+    private long jobLockMillis;
+
+    private final String jobLockHolder = UUID.randomUUID().toString();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile JwkSnapshot snapshot;
+
     @PostConstruct
     public void ensureActiveKey() {
         if (signingKeyRepository.findByStatus(SigningKeyStatus.ACTIVE).isEmpty()) {
             this.save(createSigningKey());
+            // listeners are not registered yet during bean initialization
+            this.onSigningKeysChanged(null);
         }
     }
 
@@ -54,26 +87,37 @@ public class SigningKeyStore {
 
     public JWKSource<SecurityContext> jwkSource() {
         return (selector, ctx) -> {
-            final List<com.nimbusds.jose.jwk.JWK> jwks = signingKeyRepository.findAllByStatusIn(List.of(SigningKeyStatus.ACTIVE,
-                                                                                                        SigningKeyStatus.INACTIVE))
-                                                                             .stream()
-                                                                             .sorted(Comparator.comparing(SigningKey::getCreatedAt).reversed())
-                                                                             .map(this::toRsaKey)
-                                                                             .collect(Collectors.toUnmodifiableList());
-            if (jwks.isEmpty()) {
-                return List.of();
+            JwkSnapshot current = currentSnapshot();
+            List<com.nimbusds.jose.jwk.JWK> selected = selector.select(current.jwkSet());
+            if (selected.isEmpty() && hasUnknownKeyId(selector.getMatcher(), current)) {
+                // a kid we have never seen is most likely a key rotated on another node
+                current = reloadIfOlderThan(current, minReloadIntervalMillis);
+                selected = selector.select(current.jwkSet());
             }
-
-            return selector.select(new JWKSet(jwks));
+            return selected;
         };
     }
 
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSigningKeysChanged(final SigningKeysChangedEvent event) {
+        generation.incrementAndGet();
+        this.snapshot = null;
+        try {
+            redisStore.put(RedisUtility.SIGNING_KEYS_VERSION, UUID.randomUUID().toString(), SIGNING_KEYS_VERSION_TTL);
+        } catch (final RuntimeException ex) {
+            log.warn("Unable to publish signing key version, other nodes will refresh on their next kid miss.", ex);
+        }
+    }
+
     public SigningKey save(final SigningKey signingKey) {
         return signingKeyRepository.save(signingKey);
     }
 
     @Scheduled(cron = "0 0 3 */14 * ?")
     public void rotateSigningKeys() {
+        if (!acquireJobLock("signing-keys-rotation")) {
+            return;
+        }
         final SigningKey newKey = createSigningKey();
         signingKeyRepository.save(newKey);
         signingKeyRepository.findByStatus(SigningKeyStatus.ACTIVE)
@@ -84,7 +128,23 @@ public class SigningKeyStore {
 
     @Scheduled(cron = "0 0 0 * 1/2 ?")
     public void purgeSigningKeys() {
-        signingKeyRepository.purgeInactiveKeys();
+        if (acquireJobLock("signing-keys-purge")) {
+            signingKeyRepository.purgeInactiveKeys();
+        }
+    }
+
+    // Every replica fires the same cron, only the one that takes the lock runs it. The lock outlives the run so a
+    // replica whose clock is a little behind cannot repeat it; without Redis the run is skipped until the next cron.
+    private boolean acquireJobLock(final String job) {
+        try {
+            if (redisStore.tryLock(RedisUtility.SCHEDULED_JOB_LOCK + job, jobLockHolder, Duration.ofMillis(jobLockMillis))) {
+                return true;
+            }
+            log.info("Skipping {}, another node holds its lock.", job);
+        } catch (final RuntimeException ex) {
+            log.warn("Unable to take the {} lock, skipping this run.", job, ex);
+        }
+        return false;
     }
 
     public KeyPair generateRsaKey() {
@@ -97,6 +157,68 @@ public class SigningKeyStore {
         }
     }
 
+    private JwkSnapshot currentSnapshot() {
+        final JwkSnapshot current = this.snapshot;
+        if (current == null) {
+            return reload(null);
+        }
+        if (System.nanoTime() - current.checkedAtNanos() < TimeUnit.MILLISECONDS.toNanos(versionCheckIntervalMillis)) {
+            return current;
+        }
+        if (Objects.equals(current.version(), readSharedVersion())) {
+            this.snapshot = current.checked();
+            return this.snapshot;
+        }
+        return reload(current);
+    }
+
+    private JwkSnapshot reloadIfOlderThan(final JwkSnapshot current, final long ageMillis) {
+        if (System.nanoTime() - current.loadedAtNanos() < TimeUnit.MILLISECONDS.toNanos(ageMillis)) {
+            return current;
+        }
+        return reload(current);
+    }
+
+    private synchronized JwkSnapshot reload(final JwkSnapshot stale) {
+        final JwkSnapshot current = this.snapshot;
+        if (current != null && current != stale) {
+            return current;
+        }
+        final long loadingGeneration = generation.get();
+        final String version = readSharedVersion();
+        final List<com.nimbusds.jose.jwk.JWK> jwks = signingKeyRepository.findAllByStatusIn(List.of(SigningKeyStatus.ACTIVE,
+                                                                                                    SigningKeyStatus.INACTIVE))
+                                                                         .stream()
+                                                                         .sorted(Comparator.comparing(SigningKey::getCreatedAt).reversed())
+                                                                         .map(this::toRsaKey)
+                                                                         .collect(Collectors.toUnmodifiableList());
+        final long now = System.nanoTime();
+        final JwkSnapshot loaded = new JwkSnapshot(new JWKSet(jwks), version, now, now);
+        if (generation.get() == loadingGeneration) {
+            this.snapshot = loaded;
+        }
+        return loaded;
+    }
+
+    private String readSharedVersion() {
+        try {
+            final Object version = redisStore.get(RedisUtility.SIGNING_KEYS_VERSION);
+            return version == null ? null : version.toString();
+        } catch (final RuntimeException ex) {
+            log.warn("Unable to read signing key version, keeping the local snapshot.", ex);
+            return this.snapshot == null ? null : this.snapshot.version();
+        }
+    }
+
+    private static boolean hasUnknownKeyId(final JWKMatcher matcher, final JwkSnapshot snapshot) {
+        if (matcher == null || matcher.getKeyIDs() == null || matcher.getKeyIDs().isEmpty()) {
+            return false;
+        }
+        return matcher.getKeyIDs()
+                      .stream()
+                      .anyMatch(kid -> kid != null && snapshot.jwkSet().getKeyByKeyId(kid) == null);
+    }
+
     private RSAKey toRsaKey(final SigningKey signingKey) {
         try {
             final KeyFactory kf = KeyFactory.getInstance("RSA");
@@ -116,4 +238,12 @@ public class SigningKeyStore {
         }
     }
 
+    private record JwkSnapshot(JWKSet jwkSet, String version, long loadedAtNanos, long checkedAtNanos) {
+
+        private JwkSnapshot checked() {
+            return new JwkSnapshot(jwkSet, version, loadedAtNanos, System.nanoTime());
+        }
+
+    }
+
 }
@@ -0,0 +1,61 @@
+package io.github.blakedunaway.authserver.business.service;
+
+import com.stripe.exception.StripeException;
+import io.github.blakedunaway.authserver.config.redis.RedisStore;
+import io.github.blakedunaway.authserver.util.RedisUtility;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+// Subscriptions created before platform_user_subscription existed are copied from Stripe once, by one replica shortly
+// after start. A completion marker in Redis keeps later starts from listing every subscription again, a failed run is
+// retried until it completes. Subscriptions missed afterwards are found by the Stripe search fallback and webhooks.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "auth-server.billing.subscription-backfill.enabled", havingValue = "true", matchIfMissing = true)
+public class SubscriptionBackfillService {
+
+    private static final String JOB = "subscription-backfill";
+
+    private final PlatformUserSubscriptionService platformUserSubscriptionService;
+
+    private final RedisStore redisStore;
+
+    private final String jobLockHolder = UUID.randomUUID().toString();
+
+    @Value("${auth-server.billing.subscription-backfill.job-lock-ms:3600000}")
+    private long jobLockMillis;
+
+    @Scheduled(fixedDelayString = "${auth-server.billing.subscription-backfill.retry-interval-ms:3600000}",
+               initialDelayString = "${auth-server.billing.subscription-backfill.initial-delay-ms:60000}")
+    public void backfill() {
+        try {
+            if (redisStore.exists(RedisUtility.SCHEDULED_JOB_COMPLETED + JOB)) {
+                return;
+            }
+            if (!redisStore.tryLock(RedisUtility.SCHEDULED_JOB_LOCK + JOB, jobLockHolder, Duration.ofMillis(jobLockMillis))) {
+                log.info("Skipping {}, another node holds its lock.", JOB);
+                return;
+            }
+        } catch (final RuntimeException ex) {
+            log.warn("Unable to take the {} lock, skipping this run.", JOB, ex);
+            return;
+        }
+        try {
+            final int recorded = platformUserSubscriptionService.backfillFromStripe();
+            redisStore.put(RedisUtility.SCHEDULED_JOB_COMPLETED + JOB, Instant.now().toString());
+            log.info("Subscription backfill from Stripe completed, recorded {} missing subscriptions.", recorded);
+        } catch (final StripeException | RuntimeException ex) {
+            log.warn("Subscription backfill from Stripe failed, it is retried on the next run.", ex);
+        }
+    }
+
+}
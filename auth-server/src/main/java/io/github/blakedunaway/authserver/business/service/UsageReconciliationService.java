@@ -0,0 +1,44 @@
+package io.github.blakedunaway.authserver.business.service;
+
+import io.github.blakedunaway.authserver.integration.repository.gateway.UsageCounterRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+// Usage counters are kept in step with every change, this recounts them from the source tables to repair drift
+// from changes made outside the application and to create the rows of users and clients that predate them.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "auth-server.usage.reconciliation.enabled", havingValue = "true", matchIfMissing = true)
+public class UsageReconciliationService {
+
+    private final UsageCounterRepository usageCounterRepository;
+
+    private final MeterRegistry meterRegistry;
+
+    private Counter rowsRepaired;
+
+    @PostConstruct
+    void initialize() {
+        this.rowsRepaired = Counter.builder("auth.usage.reconciled")
+                                   .description("Usage counter rows created or corrected by the reconciliation job")
+                                   .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${auth-server.usage.reconciliation.interval-ms:3600000}",
+               initialDelayString = "${auth-server.usage.reconciliation.initial-delay-ms:30000}")
+    public void reconcile() {
+        final int repaired = usageCounterRepository.reconcile();
+        if (repaired > 0) {
+            rowsRepaired.increment(repaired);
+            log.info("Usage reconciliation created or corrected {} counter rows.", repaired);
+        }
+    }
+
+}
@@ -2,18 +2,27 @@ package io.github.blakedunaway.authserver.business.service;
 
 import io.github.blakedunaway.authserver.business.api.dto.request.ClientUserRequest;
 import io.github.blakedunaway.authserver.business.model.Authority;
+import io.github.blakedunaway.authserver.business.model.ClientUserCursor;
+import io.github.blakedunaway.authserver.business.model.PlatformUserUsage;
 import io.github.blakedunaway.authserver.business.model.RegisteredClientModel;
 import io.github.blakedunaway.authserver.business.model.user.ClientRegisterDto;
 import io.github.blakedunaway.authserver.business.model.user.ClientUser;
 import io.github.blakedunaway.authserver.business.model.user.PlatformRegisterDto;
 import io.github.blakedunaway.authserver.business.model.user.PlatformUser;
+import io.github.blakedunaway.authserver.business.model.user.PlatformUserOwnership;
 import io.github.blakedunaway.authserver.business.model.user.PlatformUserTier;
+import io.github.blakedunaway.authserver.integration.repository.cache.DashboardVersions;
+import io.github.blakedunaway.authserver.integration.repository.gateway.ClientUserAuthorityRepository;
+import io.github.blakedunaway.authserver.integration.repository.gateway.ClientUserExportRepository;
 import io.github.blakedunaway.authserver.integration.repository.gateway.PlatformUserRepository;
+import io.github.blakedunaway.authserver.integration.repository.gateway.UsageCounterRepository;
 import io.github.blakedunaway.authserver.integration.repository.gateway.UserRepository;
 import io.github.blakedunaway.authserver.mapper.UserMapper;
+import io.github.blakedunaway.authserver.security.hashing.ImportedHashPasswordEncoder;
 import io.github.blakedunaway.authserver.util.AuthorityUtility;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -21,11 +30,11 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
@@ -42,6 +51,17 @@ public class UserService implements UserDetailsService {
 
     private final PasswordEncoder passwordEncoder;
 
+    private final DashboardVersions dashboardVersions;
+
+    private final UsageCounterRepository usageCounterRepository;
+
+    private final ClientUserAuthorityRepository clientUserAuthorityRepository;
+
+    private final ClientUserExportRepository clientUserExportRepository;
+
+    @Value("${auth-server.client-user.authority-removal-batch-size:1000}")
+    private int authorityRemovalBatchSize;
+
     public ClientUser signUpClientUser(final ClientRegisterDto clientRegisterDto) {
         if (clientRegisterDto.getEmail().isBlank() || clientRegisterDto.getPassword().isBlank()) {
             throw new IllegalArgumentException("Username and password are required");
@@ -59,8 +79,11 @@ public class UserService implements UserDetailsService {
     public ClientUser saveUser(final ClientUser clientUser) {
         Assert.notNull(clientUser, "ClientUser cannot be null");
         Assert.notNull(clientUser.getPasswordHash(), "Password hash cannot be null");
-        Assert.isTrue(clientUser.getPasswordHash().startsWith("$argon2"), "Password has not been hashed");
-        return userRepository.save(clientUser);
+        // imported client users may keep their bcrypt hash
+        Assert.isTrue(ImportedHashPasswordEncoder.isSupported(clientUser.getPasswordHash()), "Password has not been hashed");
+        final ClientUser savedClientUser = userRepository.save(clientUser);
+        dashboardVersions.clientsChanged(Set.of(savedClientUser.getClientId()));
+        return savedClientUser;
     }
 
     public PlatformUser savePlatformUser(final PlatformUser platformUser) {
@@ -75,7 +98,9 @@ public class UserService implements UserDetailsService {
                                                                 .build()
                                                   : platformUser;
         validatePlatformUserTierCompliance(resolvedPlatformUser);
-        return platformUserRepository.save(resolvedPlatformUser);
+        final PlatformUser savedPlatformUser = platformUserRepository.save(resolvedPlatformUser);
+        dashboardVersions.platformUserChanged(savedPlatformUser.getEmail());
+        return savedPlatformUser;
     }
 
     public UserDetails loadUserDetailsByEmailAndClientId(final String clientId, final String email) throws UsernameNotFoundException {
@@ -89,6 +114,17 @@ public class UserService implements UserDetailsService {
         return platformUserRepository.findByEmailIgnoreCase(email).orElse(null);
     }
 
+    // for authenticated API requests, where a snapshot up to one cache TTL old is acceptable
+    public PlatformUser loadPlatformUserBySubject(final String subject) {
+        Assert.notNull(subject, "Subject cannot be null");
+        return platformUserRepository.findCachedByEmail(subject).orElse(null);
+    }
+
+    public PlatformUserOwnership loadPlatformUserOwnershipBySubject(final String subject) {
+        Assert.notNull(subject, "Subject cannot be null");
+        return platformUserRepository.findOwnershipByEmail(subject).orElse(null);
+    }
+
     public boolean updateExpiredPlatformUserPassword(final String email,
                                                      final String currentPassword,
                                                      final String newPassword) {
@@ -142,6 +178,11 @@ public class UserService implements UserDetailsService {
         return platformUser.filterOwnedRegisteredClientIds(requestedIds);
     }
 
+    public Set<UUID> filterOwnedRegisteredClientIds(final PlatformUserOwnership ownership, final Set<UUID> requestedIds) {
+        Assert.notNull(ownership, "PlatformUserOwnership cannot be null");
+        return ownership.filterOwned(requestedIds);
+    }
+
     public PlatformUser attachRegisteredClientToPlatformUser(final String email, final UUID registeredClientId) {
         Assert.notNull(email, "Username cannot be null");
         Assert.notNull(registeredClientId, "RegisteredClientId cannot be null");
@@ -155,8 +196,7 @@ public class UserService implements UserDetailsService {
     }
 
     public void validatePlatformUserTierCompliance(final PlatformUser platformUser) {
-        Assert.notNull(platformUser, "PlatformUser cannot be null");
-        validatePlatformUserTierCompliance(platformUser, registeredClientService.findRegisteredClientsByIds(platformUser.getRegisteredClientIds()));
+        validatePlatformUserTierCompliance(platformUser, null, null);
     }
 
     public void validatePlatformUserTierCompliance(final PlatformUser platformUser,
@@ -165,6 +205,28 @@ public class UserService implements UserDetailsService {
         platformUser.validateTierCompliance(registeredClients);
     }
 
+    // Checks the tier as if replacement took the place of current among the owned clients; current is null for a
+    // new client. Reads the usage counters, the owned clients are only loaded when the platform user has none yet.
+    public void validatePlatformUserTierCompliance(final PlatformUser platformUser,
+                                                   final RegisteredClientModel current,
+                                                   final RegisteredClientModel replacement) {
+        Assert.notNull(platformUser, "PlatformUser cannot be null");
+        final PlatformUserUsage usage = usageCounterRepository.projectOwnership(platformUser.getId(), platformUser.getRegisteredClientIds());
+        if (usage != null) {
+            platformUser.validateTierCompliance(usage.minus(PlatformUserUsage.of(current)).plus(PlatformUserUsage.of(replacement)));
+            return;
+        }
+        final Set<RegisteredClientModel> registeredClients =
+                new HashSet<>(registeredClientService.findRegisteredClientsByIds(platformUser.getRegisteredClientIds()));
+        if (current != null) {
+            registeredClients.removeIf(registeredClient -> registeredClient.getId().equals(current.getId()));
+        }
+        if (replacement != null) {
+            registeredClients.add(replacement);
+        }
+        validatePlatformUserTierCompliance(platformUser, registeredClients);
+    }
+
     public int getTotalUserCount(final String email) {
         Assert.notNull(email, "Email cannot be null");
         return platformUserRepository.getTotalUserCount(email);
@@ -182,6 +244,13 @@ public class UserService implements UserDetailsService {
         return userRepository.findAllByRegisteredClientIds(registeredClientIds);
     }
 
+    // hands the users to the consumer one at a time in id order, starting after the cursor when one is given
+    public void exportClientUsers(final Set<UUID> registeredClientIds,
+                                  final ClientUserCursor cursor,
+                                  final Consumer<ClientUser> consumer) {
+        clientUserExportRepository.export(registeredClientIds, cursor == null ? null : cursor.id(), consumer);
+    }
+
     public ClientUser updateClientUser(final UUID clientUserId,
                                        final Set<UUID> registeredClientIds,
                                        final ClientUserRequest request) {
@@ -223,10 +292,11 @@ public class UserService implements UserDetailsService {
         return saveUser(updatedClientUser);
     }
 
-    public void removeRemovedRegisteredClientAuthorities(final RegisteredClientModel existingRegisteredClient,
-                                                         final RegisteredClientModel updatedRegisteredClient) {
+    // returns the number of client users that lost at least one authority or role
+    public int removeRemovedRegisteredClientAuthorities(final RegisteredClientModel existingRegisteredClient,
+                                                        final RegisteredClientModel updatedRegisteredClient) {
         if (existingRegisteredClient == null || updatedRegisteredClient == null || existingRegisteredClient.getId() == null) {
-            return;
+            return 0;
         }
 
         final Set<String> removedAuthorityNames = new HashSet<>(AuthorityUtility.normalizeAuthorities(existingRegisteredClient.getAuthorities()));
@@ -234,31 +304,22 @@ public class UserService implements UserDetailsService {
         removedAuthorityNames.removeAll(AuthorityUtility.normalizeAuthorities(updatedRegisteredClient.getAuthorities()));
         removedAuthorityNames.removeAll(AuthorityUtility.normalizeRoles(updatedRegisteredClient.getRoles()));
         if (removedAuthorityNames.isEmpty()) {
-            return;
+            return 0;
         }
 
-        for (final ClientUser clientUser : findClientUsersByRegisteredClientIds(Set.of(existingRegisteredClient.getId()))) {
-            final Set<Authority> retainedAuthorities = clientUser.getAuthorities() == null
-                                                       ? Collections.emptySet()
-                                                       : clientUser.getAuthorities()
-                                                                   .stream()
-                                                                   .filter(authority -> authority != null
-                                                                                        && authority.getName() != null
-                                                                                        && !removedAuthorityNames.contains(authority.getName()
-                                                                                                                                    .toUpperCase()))
-                                                                   .collect(Collectors.toSet());
-            if (clientUser.getAuthorities() != null && retainedAuthorities.size() == clientUser.getAuthorities().size()) {
-                continue;
-            }
-
-            final ClientUser updatedClientUser = ClientUser.from(clientUser)
-                                                           .authorities(authorities -> {
-                                                               authorities.clear();
-                                                               authorities.addAll(retainedAuthorities);
-                                                           })
-                                                           .build();
-            saveUser(updatedClientUser);
+        int affectedUsers = 0;
+        int removed;
+        do {
+            removed = clientUserAuthorityRepository.removeAuthorities(existingRegisteredClient.getId(),
+                                                                      removedAuthorityNames,
+                                                                      authorityRemovalBatchSize);
+            affectedUsers += removed;
+        } while (removed >= authorityRemovalBatchSize);
+
+        if (affectedUsers > 0) {
+            dashboardVersions.clientsChanged(Set.of(existingRegisteredClient.getClientId()));
         }
+        return affectedUsers;
     }
 
     public PlatformUser loadPlatformUserById(final UUID userId) {
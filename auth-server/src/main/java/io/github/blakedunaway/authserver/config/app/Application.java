@@ -8,14 +8,18 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.session.SessionAutoConfiguration;
 import org.springframework.boot.web.servlet.support.SpringBootServletInitializer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication(scanBasePackages = "io.github.blakedunaway.authserver")
+// Redis-backed sessions are opted into through RedisSessionConfig rather than enabled by classpath detection
+@SpringBootApplication(scanBasePackages = "io.github.blakedunaway.authserver", exclude = SessionAutoConfiguration.class)
 @EnableJpaRepositories(basePackages = "io.github.blakedunaway.authserver.integration.repository")
 @EntityScan(basePackages = "io.github.blakedunaway.authserver.integration.entity")
+@EnableScheduling
 public class Application extends SpringBootServletInitializer {
     public static void main(String[] args) {
         SpringApplication.run(Application.class, args);
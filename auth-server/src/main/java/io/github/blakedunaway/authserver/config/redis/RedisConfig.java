@@ -1,10 +1,16 @@
 package io.github.blakedunaway.authserver.config.redis;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.blakedunaway.authserver.integration.repository.cache.PlatformUserCache;
+import io.github.blakedunaway.authserver.integration.repository.cache.RegisteredClientCache;
+import io.github.blakedunaway.authserver.security.token.RevocationEpochStore;
+import io.github.blakedunaway.authserver.util.RedisUtility;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.stereotype.Component;
@@ -21,8 +27,23 @@ public class RedisConfig {
         template.setConnectionFactory(factory);
         template.setKeySerializer(new StringRedisSerializer());
         template.setValueSerializer(new GenericJackson2JsonRedisSerializer(objectMapper));
+        template.setHashKeySerializer(new StringRedisSerializer());
+        template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer(objectMapper));
         template.afterPropertiesSet();
         return template;
     }
 
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(final RedisConnectionFactory factory,
+                                                                       final RegisteredClientCache registeredClientCache,
+                                                                       final PlatformUserCache platformUserCache,
+                                                                       final RevocationEpochStore revocationEpochStore) {
+        final RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.addMessageListener(registeredClientCache, new ChannelTopic(RedisUtility.REGISTERED_CLIENT_INVALIDATION_CHANNEL));
+        container.addMessageListener(platformUserCache, new ChannelTopic(RedisUtility.PLATFORM_USER_INVALIDATION_CHANNEL));
+        container.addMessageListener(revocationEpochStore, new ChannelTopic(RedisUtility.REVOCATION_EPOCH_CHANNEL));
+        return container;
+    }
+
 }
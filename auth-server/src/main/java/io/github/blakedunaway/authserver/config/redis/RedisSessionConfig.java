@@ -0,0 +1,37 @@
+package io.github.blakedunaway.authserver.config.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.blakedunaway.authserver.security.session.SessionAttributeRedisSerializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.session.config.SessionRepositoryCustomizer;
+import org.springframework.session.data.redis.RedisSessionRepository;
+import org.springframework.session.data.redis.config.annotation.web.http.EnableRedisHttpSession;
+
+import java.time.Duration;
+
+// Moves the HttpSession behind the hosted login flow (security context, saved authorize request) into Redis so any
+// replica can serve the next request. Off by default, sessions stay in the servlet container.
+@Configuration
+@ConditionalOnProperty(name = "auth-server.session.store", havingValue = "redis")
+@EnableRedisHttpSession(redisNamespace = "auth-server:session")
+public class RedisSessionConfig {
+
+    @Value("${auth-server.session.timeout-seconds:1800}")
+    private long sessionTimeoutSeconds;
+
+    @Bean
+    public RedisSerializer<Object> springSessionDefaultRedisSerializer(@Qualifier("securityObjectMapper") final ObjectMapper securityObjectMapper) {
+        return new SessionAttributeRedisSerializer(securityObjectMapper);
+    }
+
+    @Bean
+    public SessionRepositoryCustomizer<RedisSessionRepository> sessionTimeoutCustomizer() {
+        return repository -> repository.setDefaultMaxInactiveInterval(Duration.ofSeconds(sessionTimeoutSeconds));
+    }
+
+}
@@ -1,32 +1,180 @@
 package io.github.blakedunaway.authserver.config.redis;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RequiredArgsConstructor
 @Service
 public class RedisStore {
 
+    private static final RedisScript<Long> RAISE_HASH_ENTRY = RedisScript.of("""
+            local current = tonumber(redis.call('HGET', KEYS[1], ARGV[1]))
+            local value = tonumber(ARGV[2])
+            if current ~= nil and current >= value then
+                return current
+            end
+            redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+            return value
+            """, Long.class);
+
+    private static final RedisScript<Long> DELETE_HASH_ENTRIES_BELOW = RedisScript.of("""
+            local threshold = tonumber(ARGV[1])
+            local deleted = 0
+            for i = 2, #ARGV do
+                local current = tonumber(redis.call('HGET', KEYS[1], ARGV[i]))
+                if current == nil or current < threshold then
+                    deleted = deleted + redis.call('HDEL', KEYS[1], ARGV[i])
+                end
+            end
+            return deleted
+            """, Long.class);
+
     private final RedisTemplate<String, Object> redis;
 
+    // stream entries are flat string fields, so they bypass the JSON value serializer
+    private final StringRedisTemplate stringRedis;
+
     public void put(String key, Object value, Duration ttl) {
         redis.opsForValue().set(key, value, ttl);
     }
 
-    public void pushToList(String key, Object value, Duration ttl) {
-        try {
-            redis.opsForList().rightPush(key, value);
-        } catch (final RuntimeException ignored) {
-            // Backward compatibility for keys previously stored as a single value.
-            redis.delete(key);
-            redis.opsForList().rightPush(key, value);
+    public void put(String key, Object value) {
+        redis.opsForValue().set(key, value);
+    }
+
+    // one round trip for the whole batch, the TTL is refreshed once per stream instead of once per entry
+    public void appendToStreams(Map<String, List<Map<String, String>>> entriesByKey, long maxLength, Duration ttl) {
+        final XAddOptions options = XAddOptions.maxlen(maxLength).approximateTrimming(true);
+        stringRedis.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(final RedisOperations<K, V> operations) {
+                final RedisOperations<String, String> stringOperations = (RedisOperations<String, String>) operations;
+                entriesByKey.forEach((key, entries) -> {
+                    entries.forEach(fields -> stringOperations.opsForStream().add(StreamRecords.newRecord().in(key).ofMap(fields), options));
+                    stringOperations.expire(key, ttl);
+                });
+                return null;
+            }
+        });
+    }
+
+    // newest first for every key, read in one pipelined round trip. Stream ids carry the entry time so the range
+    // needs no secondary index.
+    public Map<String, List<MapRecord<String, String, String>>> getStreamRanges(Collection<String> keys,
+                                                                                Instant from,
+                                                                                Instant to,
+                                                                                int limit) {
+        if (keys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        final List<String> orderedKeys = List.copyOf(keys);
+        final Range<String> range = Range.closed(String.valueOf(from.toEpochMilli()), String.valueOf(to.toEpochMilli()));
+        final List<Object> results = stringRedis.executePipelined((RedisCallback<Object>) connection -> {
+            for (final String key : orderedKeys) {
+                connection.streamCommands().xRevRange(key.getBytes(StandardCharsets.UTF_8), range, Limit.limit().count(limit));
+            }
+            return null;
+        });
+        final Map<String, List<MapRecord<String, String, String>>> ranges = new LinkedHashMap<>();
+        for (int i = 0; i < orderedKeys.size(); i++) {
+            final List<MapRecord<String, String, String>> records = new ArrayList<>();
+            if (results.get(i) instanceof List<?> rawRecords) {
+                for (final Object rawRecord : rawRecords) {
+                    if (rawRecord instanceof ByteRecord byteRecord) {
+                        records.add(byteRecord.deserialize(StringRedisSerializer.UTF_8,
+                                                           StringRedisSerializer.UTF_8,
+                                                           StringRedisSerializer.UTF_8));
+                    }
+                }
+            }
+            ranges.put(orderedKeys.get(i), records);
+        }
+        return ranges;
+    }
+
+    // pre-encoded values, stored as they are instead of through the JSON value serializer; onlyIfAbsent leaves an
+    // existing key and its TTL alone
+    public void putBytes(String key, byte[] value, Duration ttl, boolean onlyIfAbsent) {
+        final SetOption option = onlyIfAbsent ? SetOption.ifAbsent() : SetOption.upsert();
+        stringRedis.execute((RedisCallback<Object>) connection -> connection.stringCommands()
+                                                                          .set(key.getBytes(StandardCharsets.UTF_8),
+                                                                               value,
+                                                                               Expiration.from(ttl),
+                                                                               option));
+    }
+
+    // every key gets the same TTL, written in one pipelined round trip
+    public void putBytes(Map<String, byte[]> values, Duration ttl) {
+        final Expiration expiration = Expiration.from(ttl);
+        stringRedis.executePipelined((RedisCallback<Object>) connection -> {
+            values.forEach((key, value) -> connection.stringCommands()
+                                                     .set(key.getBytes(StandardCharsets.UTF_8), value, expiration, SetOption.upsert()));
+            return null;
+        });
+    }
+
+    public byte[] getBytes(String key) {
+        return stringRedis.execute((RedisCallback<byte[]>) connection -> connection.stringCommands()
+                                                                                  .get(key.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // GETDEL, so of several concurrent callers exactly one gets the value
+    public byte[] consumeBytes(String key) {
+        return stringRedis.execute((RedisCallback<byte[]>) connection -> connection.stringCommands()
+                                                                                  .getDel(key.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // plain string values, written in one pipelined round trip; onlyIfAbsent leaves existing keys and their TTL alone
+    public void putStrings(Map<String, String> values, Duration ttl, boolean onlyIfAbsent) {
+        if (values.isEmpty()) {
+            return;
+        }
+        final Expiration expiration = Expiration.from(ttl);
+        final SetOption option = onlyIfAbsent ? SetOption.ifAbsent() : SetOption.upsert();
+        stringRedis.executePipelined((RedisCallback<Object>) connection -> {
+            values.forEach((key, value) -> connection.stringCommands()
+                                                     .set(key.getBytes(StandardCharsets.UTF_8),
+                                                          value.getBytes(StandardCharsets.UTF_8),
+                                                          expiration,
+                                                          option));
+            return null;
+        });
+    }
+
+    // one MGET, missing keys come back as null in their position
+    public List<String> getStrings(List<String> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
         }
-        redis.expire(key, ttl);
+        final List<String> values = stringRedis.opsForValue().multiGet(keys);
+        return values == null ? Collections.nCopies(keys.size(), null) : values;
     }
 
     @SuppressWarnings("unchecked")
@@ -39,23 +187,48 @@ public class RedisStore {
         return (T) redis.opsForValue().getAndDelete(key);
     }
 
-    @SuppressWarnings("unchecked")
-    public <T> List<T> getList(String key) {
-        try {
-            final List<Object> values = redis.opsForList().range(key, 0, -1);
-            if (values == null || values.isEmpty()) {
-                return Collections.emptyList();
-            }
-            return values.stream().map(value -> (T) value).toList();
-        } catch (final RuntimeException ignored) {
-            // Backward compatibility for keys previously stored as a single value.
-            final T single = get(key);
-            return single == null ? Collections.emptyList() : List.of(single);
+    public long delete(Collection<String> keys) {
+        final Long deleted = redis.delete(keys);
+        return deleted == null ? 0 : deleted;
+    }
+
+    // HSET only when the value is higher than the stored one, returns what the field holds afterwards
+    public long raiseHashEntry(String key, String field, long value) {
+        final Long raised = stringRedis.execute(RAISE_HASH_ENTRY, List.of(key), field, String.valueOf(value));
+        return raised == null ? value : raised;
+    }
+
+    public Map<String, String> getStringHashEntries(String key) {
+        return stringRedis.<String, String>opsForHash().entries(key);
+    }
+
+    // HDEL each field only while it still holds a value below the threshold, a concurrent raise survives
+    public void deleteHashEntriesBelow(String key, Collection<String> fields, long threshold) {
+        if (fields.isEmpty()) {
+            return;
         }
+        final List<String> arguments = new ArrayList<>(fields.size() + 1);
+        arguments.add(String.valueOf(threshold));
+        arguments.addAll(fields);
+        stringRedis.execute(DELETE_HASH_ENTRIES_BELOW, List.of(key), arguments.toArray());
+    }
+
+    // SET NX with a TTL, the lock is never released early so it also covers callers that fire a little later
+    public boolean tryLock(String key, String holder, Duration ttl) {
+        return Boolean.TRUE.equals(stringRedis.opsForValue().setIfAbsent(key, holder, ttl));
     }
 
     public boolean exists(String key) {
         return redis.hasKey(key);
     }
 
+    public void publish(String channel, Object message) {
+        redis.convertAndSend(channel, message);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T readMessage(Message message) {
+        return (T) redis.getValueSerializer().deserialize(message.getBody());
+    }
+
 }
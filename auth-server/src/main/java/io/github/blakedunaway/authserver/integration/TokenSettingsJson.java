@@ -5,6 +5,7 @@ import io.github.blakedunaway.authserver.business.model.enums.TokenFormat;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.jackson.Jacksonized;
@@ -13,6 +14,7 @@ import java.time.Duration;
 
 @Getter
 @Setter
+@EqualsAndHashCode
 @Builder(toBuilder = true)
 @Jacksonized
 @JsonIgnoreProperties(ignoreUnknown = true)
@@ -0,0 +1,82 @@
+package io.github.blakedunaway.authserver.integration.billing;
+
+import com.stripe.StripeClient;
+import com.stripe.exception.StripeException;
+import com.stripe.model.StripeSearchResult;
+import com.stripe.model.Subscription;
+import com.stripe.param.SubscriptionListParams;
+import com.stripe.param.SubscriptionSearchParams;
+import com.stripe.param.SubscriptionUpdateParams;
+import io.github.blakedunaway.authserver.business.model.PlatformUserSubscription;
+import io.github.blakedunaway.authserver.util.StripeEventUtility;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+@Component
+@RequiredArgsConstructor
+public class StripeSubscriptionBillingClient implements SubscriptionBillingClient {
+
+    private final StripeClient stripeClient;
+
+    @Override
+    public PlatformUserSubscription retrieveSubscription(final UUID platformUserId, final String subscriptionId) throws StripeException {
+        return StripeEventUtility.toPlatformUserSubscription(platformUserId,
+                                                             stripeClient.v1().subscriptions().retrieve(subscriptionId),
+                                                             Instant.now());
+    }
+
+    @Override
+    public PlatformUserSubscription searchActiveSubscription(final UUID platformUserId) throws StripeException {
+        final StripeSearchResult<Subscription> result = stripeClient.v1()
+                                                                    .subscriptions()
+                                                                    .search(SubscriptionSearchParams.builder()
+                                                                                                    .setQuery("status:'active' AND metadata['platformUserId']:'"
+                                                                                                              + platformUserId + "'")
+                                                                                                    .setLimit(1L)
+                                                                                                    .build());
+        return result == null || result.getData() == null || result.getData().isEmpty()
+               ? null
+               : StripeEventUtility.toPlatformUserSubscription(platformUserId, result.getData().getFirst(), Instant.now());
+    }
+
+    @Override
+    public void forEachSubscription(final Consumer<PlatformUserSubscription> consumer) throws StripeException {
+        final Instant reportedAt = Instant.now();
+        for (final Subscription subscription : stripeClient.v1()
+                                                           .subscriptions()
+                                                           .list(SubscriptionListParams.builder().setLimit(100L).build())
+                                                           .autoPagingIterable()) {
+            final UUID platformUserId = StripeEventUtility.platformUserId(subscription.getMetadata());
+            if (platformUserId != null) {
+                consumer.accept(StripeEventUtility.toPlatformUserSubscription(platformUserId, subscription, reportedAt));
+            }
+        }
+    }
+
+    @Override
+    public void changePrice(final PlatformUserSubscription subscription,
+                            final String priceId,
+                            final Map<String, String> metadata) throws StripeException {
+        stripeClient.v1()
+                    .subscriptions()
+                    .update(
+                            subscription.subscriptionId(),
+                            SubscriptionUpdateParams.builder()
+                                                    .addItem(
+                                                            SubscriptionUpdateParams.Item.builder()
+                                                                                         .setId(subscription.subscriptionItemId())
+                                                                                         .setPrice(priceId)
+                                                                                         .build()
+                                                    )
+                                                    .setProrationBehavior(SubscriptionUpdateParams.ProrationBehavior.NONE)
+                                                    .putAllMetadata(metadata)
+                                                    .build()
+                    );
+    }
+
+}
@@ -0,0 +1,25 @@
+package io.github.blakedunaway.authserver.integration.billing;
+
+import com.stripe.exception.StripeException;
+import io.github.blakedunaway.authserver.business.model.PlatformUserSubscription;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+// The Stripe subscription calls behind tier changes. Kept behind an interface so tests can stand in for Stripe.
+public interface SubscriptionBillingClient {
+
+    PlatformUserSubscription retrieveSubscription(final UUID platformUserId, final String subscriptionId) throws StripeException;
+
+    // a single search request, for subscriptions created before they were recorded locally
+    PlatformUserSubscription searchActiveSubscription(final UUID platformUserId) throws StripeException;
+
+    // pages through every subscription that is not canceled and carries our platformUserId metadata
+    void forEachSubscription(final Consumer<PlatformUserSubscription> consumer) throws StripeException;
+
+    void changePrice(final PlatformUserSubscription subscription,
+                     final String priceId,
+                     final Map<String, String> metadata) throws StripeException;
+
+}
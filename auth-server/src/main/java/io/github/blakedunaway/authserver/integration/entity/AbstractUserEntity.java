@@ -2,8 +2,6 @@ package io.github.blakedunaway.authserver.integration.entity;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
@@ -30,7 +28,7 @@ public class AbstractUserEntity {
     @Setter
     @Id
     @Column(name = "id", updatable = false, nullable = false)
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID userId;
 
     @Column(name = "email", nullable = false) // TODO [bdunaway][2026-Feb-04]: MAKE UNQIUE TO EACH CLIENT
@@ -5,8 +5,6 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
@@ -18,6 +16,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
 
 import java.time.Instant;
 import java.util.Map;
@@ -33,6 +32,9 @@ import static jakarta.persistence.FetchType.LAZY;
                 @Index(name = "ix_auth_token_authorization", columnList = "authorization_id"),
                 @Index(name = "ix_auth_token_authorization_subject", columnList = "authorization_id, subject"),
                 @Index(name = "ix_auth_token_expires_at", columnList = "expired_at"),
+                @Index(name = "ix_auth_token_issued_at_id", columnList = "issued_at, id"),
+                @Index(name = "ix_auth_token_subject_issued_at", columnList = "subject, issued_at"),
+                @Index(name = "ix_auth_token_revoked_expires_at", columnList = "revoked_at, expired_at"),
         }
 )
 @Getter
@@ -42,7 +44,7 @@ public class AuthTokenEntity {
     @Id
     @Setter
     @Column(name = "id", updatable = false, nullable = false)
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID tokenId;
 
     @Column(name = "issued_at", nullable = false)
@@ -102,6 +104,21 @@ public class AuthTokenEntity {
         return tokenEntity;
     }
 
+    // only the columns that change over a token's life, assigned only when they differ so clean rows stay clean
+    public void applyChanges(final AuthTokenEntity source) {
+        if (!Objects.equals(revokedAt, source.revokedAt)) {
+            revokedAt = source.revokedAt;
+        }
+        if (!Objects.equals(metadataJson, source.metadataJson)) {
+            metadataJson = source.metadataJson;
+        }
+    }
+
+    public boolean isInvalidated() {
+        return revokedAt != null
+                || metadataJson != null && Boolean.TRUE.equals(metadataJson.get(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME));
+    }
+
     public AuthTokenEntity setAuthorizationEntity(final AuthorizationEntity parent) {
         this.authorizationEntity = parent;
         return this;
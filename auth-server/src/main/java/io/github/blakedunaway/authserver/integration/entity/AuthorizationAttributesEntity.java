@@ -0,0 +1,38 @@
+package io.github.blakedunaway.authserver.integration.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.util.Assert;
+
+import java.util.UUID;
+
+// Kept beside auth_authorization rather than on it so token lookups never load the payload, it is read through
+// the Redis cache only when an OAuth2Authorization is rebuilt.
+@Entity
+@Table(name = "authorization_attributes")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class AuthorizationAttributesEntity {
+
+    @Id
+    @Column(name = "authorization_id", updatable = false, nullable = false)
+    private UUID authorizationId;
+
+    @Column(name = "payload", nullable = false, length = 65536)
+    private byte[] payload;
+
+    public static AuthorizationAttributesEntity create(final UUID authorizationId, final byte[] payload) {
+        Assert.notNull(authorizationId, "authorizationId cannot be null");
+        Assert.notNull(payload, "payload cannot be null");
+        final AuthorizationAttributesEntity entity = new AuthorizationAttributesEntity();
+        entity.authorizationId = authorizationId;
+        entity.payload = payload;
+        return entity;
+    }
+
+}
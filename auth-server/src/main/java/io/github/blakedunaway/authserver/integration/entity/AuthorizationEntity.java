@@ -6,9 +6,8 @@ import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -18,17 +17,23 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 
 @Entity
-@Table(name = "auth_authorization")
+@Table(
+        name = "auth_authorization",
+        indexes = {
+                @Index(name = "ix_auth_authorization_registered_client", columnList = "registered_client_id"),
+        }
+)
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class AuthorizationEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     @Column(name = "id", updatable = false)
     private UUID authId;
 
@@ -90,6 +95,19 @@ public class AuthorizationEntity {
         }
     }
 
+    public void retainTokens(final Set<String> tokenValueHashes) {
+        if (tokens != null) {
+            tokens.removeIf(token -> !tokenValueHashes.contains(token.getTokenValueHash()));
+        }
+    }
+
+    public void updateAuthorizedScopes(final Set<String> authorizedScopes) {
+        if (!Objects.equals(this.authorizedScopes, authorizedScopes)) {
+            this.authorizedScopes.clear();
+            this.authorizedScopes.addAll(authorizedScopes);
+        }
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) {
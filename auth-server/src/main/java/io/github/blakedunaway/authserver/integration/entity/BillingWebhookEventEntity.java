@@ -0,0 +1,67 @@
+package io.github.blakedunaway.authserver.integration.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Inbox of verified Stripe webhook events keyed by the Stripe event id, so a redelivery is dropped by the primary
+// key. Written and claimed by BillingWebhookEventRepositoryImpl.
+@Entity
+@Table(
+        name = "billing_webhook_event",
+        indexes = {
+                @Index(name = "ix_billing_webhook_event_due", columnList = "status, next_attempt_at"),
+                @Index(name = "ix_billing_webhook_event_platform_user", columnList = "platform_user_id, status"),
+                @Index(name = "ix_billing_webhook_event_claim", columnList = "claim_id")
+        }
+)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class BillingWebhookEventEntity {
+
+    @Id
+    @Column(name = "event_id", updatable = false, nullable = false)
+    private String eventId;
+
+    @Column(name = "event_type", nullable = false, length = 128)
+    private String eventType;
+
+    @Column(name = "platform_user_id")
+    private UUID platformUserId;
+
+    @Column(name = "payload", nullable = false, length = 1048576)
+    private String payload;
+
+    @Column(name = "event_created_at", nullable = false)
+    private Instant eventCreatedAt;
+
+    @Column(name = "status", nullable = false, length = 16)
+    private String status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "claim_id")
+    private UUID claimId;
+
+    @Column(name = "last_error", length = 1024)
+    private String lastError;
+
+    @Column(name = "received_at", nullable = false)
+    private Instant receivedAt;
+
+    @Column(name = "processed_at")
+    private Instant processedAt;
+
+}
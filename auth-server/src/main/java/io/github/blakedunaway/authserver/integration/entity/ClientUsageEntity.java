@@ -0,0 +1,25 @@
+package io.github.blakedunaway.authserver.integration.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// Client users per registered client, keyed like client_user by the public client id.
+@Entity
+@Table(name = "client_usage")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ClientUsageEntity {
+
+    @Id
+    @Column(name = "client_id", updatable = false, nullable = false)
+    private String clientId;
+
+    @Column(name = "client_users", nullable = false)
+    private int clientUsers;
+
+}
@@ -0,0 +1,50 @@
+package io.github.blakedunaway.authserver.integration.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Local copy of each platform user's Stripe subscription, written by PlatformUserSubscriptionRepositoryImpl from
+// billing webhooks so tier changes never have to search Stripe for it.
+@Entity
+@Table(
+        name = "platform_user_subscription",
+        indexes = {
+                @Index(name = "ix_platform_user_subscription_subscription", columnList = "stripe_subscription_id")
+        }
+)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class PlatformUserSubscriptionEntity {
+
+    @Id
+    @Column(name = "platform_user_id", updatable = false, nullable = false)
+    private UUID platformUserId;
+
+    @Column(name = "stripe_subscription_id", nullable = false)
+    private String stripeSubscriptionId;
+
+    @Column(name = "stripe_subscription_item_id")
+    private String stripeSubscriptionItemId;
+
+    @Column(name = "stripe_price_id")
+    private String stripePriceId;
+
+    @Column(name = "status", nullable = false)
+    private String status;
+
+    @Column(name = "event_created_at", nullable = false)
+    private Instant eventCreatedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+}
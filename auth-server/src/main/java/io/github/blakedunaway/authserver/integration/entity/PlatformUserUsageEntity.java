@@ -0,0 +1,37 @@
+package io.github.blakedunaway.authserver.integration.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+// Running totals per platform user. Rows are only ever changed by relative updates in UsageCounterRepositoryImpl,
+// in the same transaction as the change they count, and repaired by the reconciliation job.
+@Entity
+@Table(name = "platform_user_usage")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class PlatformUserUsageEntity {
+
+    @Id
+    @Column(name = "platform_user_id", updatable = false, nullable = false)
+    private UUID platformUserId;
+
+    @Column(name = "registered_clients", nullable = false)
+    private int registeredClients;
+
+    @Column(name = "scopes", nullable = false)
+    private int scopes;
+
+    @Column(name = "authorities", nullable = false)
+    private int authorities;
+
+    @Column(name = "client_users", nullable = false)
+    private int clientUsers;
+
+}
@@ -5,8 +5,6 @@ import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
@@ -40,7 +38,7 @@ public class RegisteredClientEntity {
 
     @Id
     @Column(name = "registered_client_id", updatable = false, nullable = false)
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID registeredClientId;
 
     @Column(name = "client_id", updatable = false, nullable = false, unique = true)
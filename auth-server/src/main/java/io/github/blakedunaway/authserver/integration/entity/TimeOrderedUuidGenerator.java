@@ -0,0 +1,26 @@
+package io.github.blakedunaway.authserver.integration.entity;
+
+import io.github.blakedunaway.authserver.util.UuidUtility;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+
+public class TimeOrderedUuidGenerator implements BeforeExecutionGenerator {
+
+    @Override
+    public Object generate(final SharedSessionContractImplementor session,
+                           final Object owner,
+                           final Object currentValue,
+                           final EventType eventType) {
+        return UuidUtility.timeOrdered();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+}
@@ -0,0 +1,23 @@
+package io.github.blakedunaway.authserver.integration.repository.audit;
+
+import io.github.blakedunaway.authserver.business.model.enums.TokenType;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// One auth_token row waiting to be written behind the token endpoint, metadata already rendered as JSON. A token
+// revoked before its row was written is submitted again with invalidated set, that version updates the row.
+public record TokenAuditRecord(UUID id,
+                               UUID authorizationId,
+                               String clientId,
+                               TokenType tokenType,
+                               String tokenValueHash,
+                               String kid,
+                               String subject,
+                               Instant issuedAt,
+                               Instant expiresAt,
+                               Instant revokedAt,
+                               boolean invalidated,
+                               String metadataJson) {
+
+}
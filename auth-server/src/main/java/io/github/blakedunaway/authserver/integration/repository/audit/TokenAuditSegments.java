@@ -0,0 +1,129 @@
+package io.github.blakedunaway.authserver.integration.repository.audit;
+
+import io.github.blakedunaway.authserver.business.model.enums.TokenType;
+import io.github.blakedunaway.authserver.util.UuidUtility;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static io.github.blakedunaway.authserver.util.BinaryEncodingUtility.readString;
+import static io.github.blakedunaway.authserver.util.BinaryEncodingUtility.writeString;
+
+// Spilled token records on local disk, one file per spill. Files are written under a temporary name and moved
+// into place, so a crash mid-write never leaves a partial segment behind. Names are time-ordered ids, oldest
+// segment first. Older versions, written before the client id (1) or the revocation state (2) was recorded, are
+// still replayed.
+final class TokenAuditSegments {
+
+    private static final byte FORMAT_VERSION = 3;
+
+    private static final String SEGMENT_SUFFIX = ".segment";
+
+    private final Path directory;
+
+    TokenAuditSegments(final Path directory) {
+        this.directory = directory;
+    }
+
+    void write(final List<TokenAuditRecord> records) throws IOException {
+        Files.createDirectories(directory);
+        final String name = UuidUtility.timeOrdered().toString();
+        final Path temporary = directory.resolve(name + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(records.size());
+            for (final TokenAuditRecord record : records) {
+                writeString(out, record.id().toString());
+                writeString(out, record.authorizationId().toString());
+                writeString(out, record.clientId());
+                writeString(out, record.tokenType().name());
+                writeString(out, record.tokenValueHash());
+                writeString(out, record.kid());
+                writeString(out, record.subject());
+                writeInstant(out, record.issuedAt());
+                writeInstant(out, record.expiresAt());
+                out.writeBoolean(record.revokedAt() != null);
+                if (record.revokedAt() != null) {
+                    writeInstant(out, record.revokedAt());
+                }
+                out.writeBoolean(record.invalidated());
+                writeString(out, record.metadataJson());
+            }
+        }
+        Files.move(temporary, directory.resolve(name + SEGMENT_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    Path oldest() throws IOException {
+        final List<Path> all = all();
+        return all.isEmpty() ? null : all.get(0);
+    }
+
+    // oldest first
+    List<Path> all() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                        .sorted()
+                        .toList();
+        }
+    }
+
+    List<TokenAuditRecord> read(final Path segment) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)))) {
+            final byte version = in.readByte();
+            if (version < 1 || version > FORMAT_VERSION) {
+                throw new IOException("Unknown token audit segment version " + version);
+            }
+            final int count = in.readInt();
+            final List<TokenAuditRecord> records = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                final UUID id = UUID.fromString(readString(in));
+                final UUID authorizationId = UUID.fromString(readString(in));
+                final String clientId = version > 1 ? readString(in) : null;
+                final TokenType tokenType = TokenType.valueOf(readString(in));
+                final String tokenValueHash = readString(in);
+                final String kid = readString(in);
+                final String subject = readString(in);
+                final Instant issuedAt = readInstant(in);
+                final Instant expiresAt = readInstant(in);
+                final Instant revokedAt = version > 2 && in.readBoolean() ? readInstant(in) : null;
+                final boolean invalidated = version > 2 && in.readBoolean();
+                records.add(new TokenAuditRecord(id, authorizationId, clientId, tokenType, tokenValueHash, kid, subject,
+                                                 issuedAt, expiresAt, revokedAt, invalidated, readString(in)));
+            }
+            return records;
+        }
+    }
+
+    void delete(final Path segment) throws IOException {
+        Files.deleteIfExists(segment);
+    }
+
+    // unreadable segments are kept for inspection but no longer replayed
+    void quarantine(final Path segment) throws IOException {
+        Files.move(segment, segment.resolveSibling(segment.getFileName() + ".corrupt"), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeInstant(final DataOutputStream out, final Instant instant) throws IOException {
+        out.writeLong(instant.getEpochSecond());
+        out.writeInt(instant.getNano());
+    }
+
+    private static Instant readInstant(final DataInputStream in) throws IOException {
+        return Instant.ofEpochSecond(in.readLong(), in.readInt());
+    }
+
+}
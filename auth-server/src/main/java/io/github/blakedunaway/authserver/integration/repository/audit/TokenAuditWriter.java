@@ -0,0 +1,365 @@
+package io.github.blakedunaway.authserver.integration.repository.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.blakedunaway.authserver.business.model.AuthToken;
+import io.github.blakedunaway.authserver.business.model.Authorization;
+import io.github.blakedunaway.authserver.business.model.enums.TokenType;
+import io.github.blakedunaway.authserver.integration.entity.AuthTokenEntity;
+import io.github.blakedunaway.authserver.integration.repository.cache.DashboardVersions;
+import io.github.blakedunaway.authserver.integration.repository.gateway.TokenAuditRepository;
+import io.github.blakedunaway.authserver.util.UuidUtility;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Self-contained access tokens are validated by signature, their auth_token rows only feed audit and the
+// dashboards. The token endpoint hands them here after its transaction commits and a scheduled drain inserts
+// them in JDBC batches. When a batch fails or runs slower than the threshold, whatever is queued is spilled to a
+// segment file in a directory that has to survive restarts; segments are replayed once the queue is drained,
+// including after a restart. Until a record is written, spilled or not, its token can still be looked up through
+// findUnwritten, and a revocation in the meantime replaces the record and is applied to the row.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenAuditWriter {
+
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {
+    };
+
+    private final TokenAuditRepository tokenAuditRepository;
+
+    private final MeterRegistry meterRegistry;
+
+    private final DashboardVersions dashboardVersions;
+
+    @Value("${auth-server.token-audit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth-server.token-audit.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${auth-server.token-audit.batch-size:500}")
+    private int batchSize;
+
+    @Value("${auth-server.token-audit.slow-batch-ms:1000}")
+    private long slowBatchMillis;
+
+    // required when enabled, spilled rows are only as durable as this directory
+    @Value("${auth-server.token-audit.spill-directory:}")
+    private String spillDirectory;
+
+    // same defaults as the mapper Hibernate uses for the metadata column
+    private final ObjectMapper metadataMapper = new ObjectMapper().findAndRegisterModules();
+
+    private final Map<String, TokenAuditRecord> unwritten = new ConcurrentHashMap<>();
+
+    private BlockingQueue<TokenAuditRecord> queue;
+
+    private TokenAuditSegments segments;
+
+    private Counter writtenCounter;
+
+    private Counter spilledCounter;
+
+    private Counter replayedCounter;
+
+    private Counter queueFullCounter;
+
+    private Counter spillFailedCounter;
+
+    @PostConstruct
+    void initialize() {
+        final boolean spillable = spillDirectory != null && !spillDirectory.isBlank();
+        if (enabled && !spillable) {
+            throw new IllegalStateException("auth-server.token-audit.spill-directory must point at durable storage when the token audit writer is enabled");
+        }
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.segments = spillable ? new TokenAuditSegments(Path.of(spillDirectory)) : null;
+        this.writtenCounter = Counter.builder("auth.token.audit.written")
+                                     .description("Token audit rows inserted by the write-behind writer")
+                                     .register(meterRegistry);
+        this.spilledCounter = Counter.builder("auth.token.audit.spilled")
+                                     .description("Token audit rows spilled to local segment files")
+                                     .register(meterRegistry);
+        this.replayedCounter = Counter.builder("auth.token.audit.replayed")
+                                      .description("Token audit rows inserted from spilled segment files")
+                                      .register(meterRegistry);
+        this.queueFullCounter = Counter.builder("auth.token.audit.dropped")
+                                       .description("Token audit rows that were never written")
+                                       .tag("reason", "queue_full")
+                                       .register(meterRegistry);
+        this.spillFailedCounter = Counter.builder("auth.token.audit.dropped")
+                                         .description("Token audit rows that were never written")
+                                         .tag("reason", "spill_failed")
+                                         .register(meterRegistry);
+        Gauge.builder("auth.token.audit.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        if (segments != null) {
+            indexSpilledSegments();
+        }
+    }
+
+    // segments left by an earlier run stay findable until they are replayed
+    private void indexSpilledSegments() {
+        try {
+            for (final Path segment : segments.all()) {
+                final List<TokenAuditRecord> records = readSegment(segment);
+                if (records != null) {
+                    records.forEach(record -> unwritten.put(record.tokenValueHash(), record));
+                }
+            }
+        } catch (final IOException ex) {
+            log.warn("Unable to index spilled token audit segments, their tokens are found once replayed.", ex);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // enqueued only once the surrounding transaction commits, so rows never reference a rolled back authorization
+    public void submitAfterCommit(final UUID authorizationId,
+                                  final String clientId,
+                                  final Collection<AuthTokenEntity> tokens) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+        final List<TokenAuditRecord> records = tokens.stream()
+                                                     .map(token -> toRecord(authorizationId, clientId, token))
+                                                     .toList();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(records);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(records);
+            }
+        });
+    }
+
+    public TokenAuditRecord findUnwritten(final String tokenValueHash) {
+        return unwritten.get(tokenValueHash);
+    }
+
+    // the authorization of a token whose row has not been written yet, shared by both authorization repositories
+    public Authorization findByUnwrittenToken(final String tokenValueHash,
+                                              final TokenType tokenType,
+                                              final Function<UUID, Authorization> findAuthorization) {
+        final TokenAuditRecord record = findUnwritten(tokenValueHash);
+        if (record == null) {
+            return null;
+        }
+        if (tokenType != null && record.tokenType() != tokenType) {
+            throw new IllegalArgumentException("Token type " + tokenType + " does not match token type " + record.tokenType());
+        }
+        final Authorization authorization = findAuthorization.apply(record.authorizationId());
+        return authorization == null ? null : withUnwrittenToken(authorization, record);
+    }
+
+    public Authorization withUnwrittenToken(final Authorization authorization, final TokenAuditRecord record) {
+        final Set<AuthToken> tokens = new HashSet<>(authorization.getTokens());
+        tokens.add(AuthToken.fromId(record.id())
+                            .tokenType(record.tokenType())
+                            .hashedTokenValue(record.tokenValueHash())
+                            .kid(record.kid())
+                            .subject(record.subject())
+                            .issuedAt(record.issuedAt())
+                            .expiresAt(record.expiresAt())
+                            .revokedAt(record.revokedAt())
+                            .metadata(metadata -> metadata.putAll(readMetadata(record.metadataJson())))
+                            .build());
+        return Authorization.builder()
+                            .id(authorization.getId())
+                            .registeredClient(authorization.getRegisteredClientModel())
+                            .principalName(authorization.getPrincipalName())
+                            .authorizationGrantType(authorization.getAuthorizationGrantTypeInternal())
+                            .scopes(authorization.getAuthorizedScopes())
+                            .tokens(tokens)
+                            .build();
+    }
+
+    @Scheduled(fixedDelayString = "${auth-server.token-audit.flush-interval-ms:200}")
+    public synchronized void flush() {
+        if (drain() && segments != null) {
+            replayOldestSegment();
+        }
+    }
+
+    @PreDestroy
+    synchronized void shutdown() {
+        drain();
+    }
+
+    // true when everything queued reached the database
+    private boolean drain() {
+        List<TokenAuditRecord> batch;
+        while (!(batch = nextBatch(batchSize)).isEmpty()) {
+            final long started = System.nanoTime();
+            try {
+                tokenAuditRepository.insertBatch(batch);
+            } catch (final DataAccessException ex) {
+                log.warn("Unable to write {} token audit rows, spilling the queue to disk.", batch.size(), ex);
+                spill(batch);
+                spill(nextBatch(Integer.MAX_VALUE));
+                return false;
+            }
+            forget(batch);
+            written(batch);
+            writtenCounter.increment(batch.size());
+            final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            if (elapsedMillis > slowBatchMillis) {
+                log.warn("Token audit batch of {} rows took {} ms, spilling the queue to disk.", batch.size(), elapsedMillis);
+                spill(nextBatch(Integer.MAX_VALUE));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void replayOldestSegment() {
+        final Path segment;
+        final List<TokenAuditRecord> records;
+        try {
+            segment = segments.oldest();
+            if (segment == null) {
+                return;
+            }
+            records = readSegment(segment);
+        } catch (final IOException ex) {
+            log.warn("Unable to read spilled token audit segments.", ex);
+            return;
+        }
+        if (records == null) {
+            return;
+        }
+        try {
+            for (int from = 0; from < records.size(); from += batchSize) {
+                tokenAuditRepository.insertBatch(records.subList(from, Math.min(records.size(), from + batchSize)));
+            }
+            forget(records);
+            written(records);
+            segments.delete(segment);
+            replayedCounter.increment(records.size());
+        } catch (final DataAccessException ex) {
+            log.warn("Unable to replay token audit segment {}, retrying on a later flush.", segment, ex);
+        } catch (final IOException ex) {
+            // replayed rows are skipped as duplicates when the segment is read again
+            log.warn("Unable to delete replayed token audit segment {}.", segment, ex);
+        }
+    }
+
+    private List<TokenAuditRecord> readSegment(final Path segment) throws IOException {
+        try {
+            return segments.read(segment);
+        } catch (final IOException | RuntimeException ex) {
+            log.error("Quarantining unreadable token audit segment {}.", segment, ex);
+            segments.quarantine(segment);
+            return null;
+        }
+    }
+
+    private void spill(final List<TokenAuditRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        try {
+            segments.write(records);
+            spilledCounter.increment(records.size());
+        } catch (final IOException ex) {
+            spillFailedCounter.increment(records.size());
+            log.error("Dropped {} token audit rows that could neither be written nor spilled.", records.size(), ex);
+            forget(records);
+        }
+    }
+
+    private void enqueue(final List<TokenAuditRecord> records) {
+        for (final TokenAuditRecord record : records) {
+            // registered before offering so a concurrent drain cannot write and forget it first
+            final TokenAuditRecord previous = unwritten.put(record.tokenValueHash(), record);
+            if (!queue.offer(record)) {
+                if (previous == null) {
+                    unwritten.remove(record.tokenValueHash(), record);
+                } else {
+                    unwritten.replace(record.tokenValueHash(), record, previous);
+                }
+                queueFullCounter.increment();
+            }
+        }
+    }
+
+    private List<TokenAuditRecord> nextBatch(final int maxSize) {
+        final List<TokenAuditRecord> batch = new ArrayList<>(Math.min(maxSize, Math.max(queue.size(), 1)));
+        queue.drainTo(batch, maxSize);
+        return batch;
+    }
+
+    // the dashboards list these rows, so they only change once the rows are actually in the table
+    private void written(final List<TokenAuditRecord> records) {
+        dashboardVersions.clientsTouched(records.stream()
+                                                .map(TokenAuditRecord::clientId)
+                                                .filter(Objects::nonNull)
+                                                .collect(Collectors.toSet()));
+    }
+
+    private void forget(final List<TokenAuditRecord> records) {
+        records.forEach(record -> unwritten.remove(record.tokenValueHash(), record));
+    }
+
+    private TokenAuditRecord toRecord(final UUID authorizationId, final String clientId, final AuthTokenEntity token) {
+        try {
+            return new TokenAuditRecord(UuidUtility.timeOrdered(),
+                                        authorizationId,
+                                        clientId,
+                                        token.getTokenType(),
+                                        token.getTokenValueHash(),
+                                        token.getKid(),
+                                        token.getSubject(),
+                                        token.getIssuedAt(),
+                                        token.getExpiresAt(),
+                                        token.getRevokedAt(),
+                                        token.isInvalidated(),
+                                        metadataMapper.writeValueAsString(token.getMetadataJson()));
+        } catch (final JsonProcessingException ex) {
+            throw new IllegalStateException("Unable to render token metadata", ex);
+        }
+    }
+
+    private Map<String, Object> readMetadata(final String json) {
+        try {
+            return metadataMapper.readValue(json, METADATA_TYPE);
+        } catch (final JsonProcessingException ex) {
+            throw new IllegalStateException("Unreadable token metadata", ex);
+        }
+    }
+
+}
@@ -0,0 +1,206 @@
+package io.github.blakedunaway.authserver.integration.repository.cache;
+
+import io.github.blakedunaway.authserver.business.model.event.RegisteredClientChangedEvent;
+import io.github.blakedunaway.authserver.config.redis.RedisStore;
+import io.github.blakedunaway.authserver.util.RedisUtility;
+import io.github.blakedunaway.authserver.util.UuidUtility;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// Change versions behind the platform dashboard ETag: one per platform user, one per client and a global one.
+// A version is a fresh UUIDv7 on every change rather than a counter, so an expired key can never come back with a
+// value an old ETag was computed from. Changes made by platform users are written right after commit, token and
+// activity changes are batched and written by a scheduled flush, so an ETag can trail those by one flush interval.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DashboardVersions {
+
+    private final RedisStore redisStore;
+
+    private final RegisteredClientRepository registeredClientRepository;
+
+    @Value("${auth-server.dashboard.version-ttl-ms:2592000000}")
+    private long versionTtlMillis;
+
+    private final Set<String> touchedClientIds = ConcurrentHashMap.newKeySet();
+
+    // the versions a dashboard depends on, as read before it was built
+    public record Snapshot(Set<String> clientIds, String versions) {
+
+        public String tag(final String variant) {
+            try {
+                final byte[] digest = MessageDigest.getInstance("SHA-256")
+                                                   .digest((variant + "|" + versions).getBytes(StandardCharsets.UTF_8));
+                return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 18));
+            } catch (final NoSuchAlgorithmException ex) {
+                throw new IllegalStateException("SHA-256 is not available", ex);
+            }
+        }
+
+    }
+
+    // null when any version is unknown, the dashboard is then built without an ETag and remembered for next time
+    public Snapshot read(final String platformUserEmail) {
+        final String email = normalize(platformUserEmail);
+        try {
+            final List<String> head = redisStore.getStrings(List.of(RedisUtility.DASHBOARD_CLIENTS + email,
+                                                                    RedisUtility.DASHBOARD_PLATFORM_USER_VERSION + email,
+                                                                    RedisUtility.DASHBOARD_GLOBAL_VERSION));
+            if (head.size() != 3 || head.contains(null)) {
+                return null;
+            }
+            final Set<String> clientIds = head.get(0).isEmpty()
+                                          ? Set.of()
+                                          : new TreeSet<>(Arrays.asList(head.get(0).split("\n")));
+            final List<String> clientVersions = redisStore.getStrings(clientIds.stream().map(DashboardVersions::clientKey).toList());
+            if (clientVersions.contains(null)) {
+                return null;
+            }
+            return new Snapshot(clientIds, email + "|" + head.get(1) + "|" + head.get(2) + "|" + String.join("|", clientVersions));
+        } catch (final RuntimeException ex) {
+            log.warn("Unable to read dashboard versions for {}, answering without an ETag.", email, ex);
+            return null;
+        }
+    }
+
+    public void remember(final String platformUserEmail, final Collection<String> clientIds) {
+        final String email = normalize(platformUserEmail);
+        final Map<String, String> missing = new LinkedHashMap<>();
+        missing.put(RedisUtility.DASHBOARD_PLATFORM_USER_VERSION + email, newVersion());
+        missing.put(RedisUtility.DASHBOARD_GLOBAL_VERSION, newVersion());
+        clientIds.forEach(clientId -> missing.put(clientKey(clientId), newVersion()));
+        try {
+            redisStore.putStrings(missing, ttl(), true);
+            redisStore.putStrings(Map.of(RedisUtility.DASHBOARD_CLIENTS + email, String.join("\n", new TreeSet<>(clientIds))), ttl(), false);
+        } catch (final RuntimeException ex) {
+            log.warn("Unable to remember dashboard versions for {}.", email, ex);
+        }
+    }
+
+    public void platformUserChanged(final String platformUserEmail) {
+        if (platformUserEmail != null) {
+            afterCommit(List.of(RedisUtility.DASHBOARD_PLATFORM_USER_VERSION + normalize(platformUserEmail)));
+        }
+    }
+
+    public void clientsChanged(final Collection<String> clientIds) {
+        afterCommit(clientIds.stream().filter(Objects::nonNull).map(DashboardVersions::clientKey).toList());
+    }
+
+    public void registeredClientsChanged(final Collection<UUID> registeredClientIds) {
+        clientsChanged(registeredClientIds.stream()
+                                          .map(id -> registeredClientRepository.findById(id.toString()))
+                                          .filter(Objects::nonNull)
+                                          .map(RegisteredClient::getClientId)
+                                          .collect(Collectors.toSet()));
+    }
+
+    // for changes on hot paths such as token issuance, buffered after commit and written by the next flush
+    public void clientsTouched(final Collection<String> clientIds) {
+        final List<String> touched = clientIds.stream().filter(Objects::nonNull).toList();
+        if (!touched.isEmpty()) {
+            afterCommit(() -> touchedClientIds.addAll(touched));
+        }
+    }
+
+    public void everythingChanged() {
+        write(List.of(RedisUtility.DASHBOARD_GLOBAL_VERSION));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRegisteredClientChanged(final RegisteredClientChangedEvent event) {
+        if (event.clientId() != null) {
+            write(List.of(clientKey(event.clientId())));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth-server.dashboard.version-flush-interval-ms:200}")
+    public void flush() {
+        if (touchedClientIds.isEmpty()) {
+            return;
+        }
+        final List<String> clientIds = new ArrayList<>();
+        for (final String clientId : List.copyOf(touchedClientIds)) {
+            touchedClientIds.remove(clientId);
+            clientIds.add(clientId);
+        }
+        if (!write(clientIds.stream().map(DashboardVersions::clientKey).toList())) {
+            // retried with the next flush
+            touchedClientIds.addAll(clientIds);
+        }
+    }
+
+    private void afterCommit(final List<String> keys) {
+        if (!keys.isEmpty()) {
+            afterCommit(() -> write(keys));
+        }
+    }
+
+    private void afterCommit(final Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private boolean write(final List<String> keys) {
+        try {
+            redisStore.putStrings(keys.stream().collect(Collectors.toMap(key -> key, key -> newVersion(), (a, b) -> a)), ttl(), false);
+            return true;
+        } catch (final RuntimeException ex) {
+            log.warn("Unable to record dashboard changes for {}, cached dashboards may be served until the next change.", keys, ex);
+            return false;
+        }
+    }
+
+    private Duration ttl() {
+        return Duration.ofMillis(versionTtlMillis);
+    }
+
+    private static String newVersion() {
+        return UuidUtility.timeOrdered().toString();
+    }
+
+    private static String clientKey(final String clientId) {
+        return RedisUtility.DASHBOARD_CLIENT_VERSION + clientId;
+    }
+
+    private static String normalize(final String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+}
@@ -0,0 +1,148 @@
+package io.github.blakedunaway.authserver.integration.repository.cache;
+
+import io.github.blakedunaway.authserver.business.model.event.PlatformUserChangedEvent;
+import io.github.blakedunaway.authserver.business.model.user.PlatformUser;
+import io.github.blakedunaway.authserver.business.model.user.PlatformUserOwnership;
+import io.github.blakedunaway.authserver.config.redis.RedisStore;
+import io.github.blakedunaway.authserver.util.RedisUtility;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Local cache of the platform users behind /platform/api requests, keyed by the token subject. Entries hold either the
+// full immutable PlatformUser or only its ownership projection. Saves evict after commit on this node and are
+// broadcast over Redis pub/sub; the short TTL bounds staleness if a broadcast is missed.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PlatformUserCache implements MessageListener {
+
+    private final RedisStore redisStore;
+
+    @Value("${auth-server.platform-user-cache.ttl-ms:30000}")
+    private long ttlMillis;
+
+    @Value("${auth-server.platform-user-cache.max-entries:10000}")
+    private int maxEntries;
+
+    private final Map<String, CachedPlatformUser> bySubject = new ConcurrentHashMap<>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public PlatformUser find(final String subject, final Supplier<PlatformUser> loader) {
+        final CachedPlatformUser cached = lookup(subject);
+        if (cached != null && cached.platformUser() != null) {
+            return cached.platformUser();
+        }
+        final long loadingGeneration = generation.get();
+        final PlatformUser loaded = loader.get();
+        if (loaded != null) {
+            store(subject, loadingGeneration, new CachedPlatformUser(loaded, PlatformUserOwnership.of(loaded), expiresAt()));
+        }
+        return loaded;
+    }
+
+    public PlatformUserOwnership findOwnership(final String subject, final Supplier<PlatformUserOwnership> loader) {
+        final CachedPlatformUser cached = lookup(subject);
+        if (cached != null) {
+            return cached.ownership();
+        }
+        final long loadingGeneration = generation.get();
+        final PlatformUserOwnership loaded = loader.get();
+        if (loaded != null) {
+            store(subject, loadingGeneration, new CachedPlatformUser(null, loaded, expiresAt()));
+        }
+        return loaded;
+    }
+
+    public void evict(final String email) {
+        if (email != null) {
+            generation.incrementAndGet();
+            bySubject.remove(normalize(email));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPlatformUserChanged(final PlatformUserChangedEvent event) {
+        evict(event.email());
+        try {
+            redisStore.publish(RedisUtility.PLATFORM_USER_INVALIDATION_CHANNEL, event.email());
+        } catch (final RuntimeException ex) {
+            log.warn("Unable to broadcast platform user invalidation for {}, other nodes will refresh on expiry.", event.email(), ex);
+        }
+    }
+
+    @Override
+    public void onMessage(final Message message, final byte[] pattern) {
+        final Object email = redisStore.readMessage(message);
+        if (email != null) {
+            evict(email.toString());
+        }
+    }
+
+    private CachedPlatformUser lookup(final String subject) {
+        if (subject == null) {
+            return null;
+        }
+        final String key = normalize(subject);
+        final CachedPlatformUser cached = bySubject.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (isExpired(cached)) {
+            bySubject.remove(key, cached);
+            return null;
+        }
+        return cached;
+    }
+
+    private void store(final String subject, final long loadingGeneration, final CachedPlatformUser entry) {
+        // skip caching if an eviction raced with this load, the loaded copy may predate it
+        if (subject == null || generation.get() != loadingGeneration) {
+            return;
+        }
+        if (bySubject.size() >= maxEntries) {
+            makeRoom();
+        }
+        bySubject.put(normalize(subject), entry);
+    }
+
+    // expired entries go first, then arbitrary ones until there is room again
+    private void makeRoom() {
+        bySubject.values().removeIf(this::isExpired);
+        final Iterator<String> subjects = bySubject.keySet().iterator();
+        while (bySubject.size() >= maxEntries && subjects.hasNext()) {
+            subjects.next();
+            subjects.remove();
+        }
+    }
+
+    private boolean isExpired(final CachedPlatformUser cached) {
+        return System.nanoTime() - cached.expiresAtNanos() >= 0;
+    }
+
+    private long expiresAt() {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    private static String normalize(final String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private record CachedPlatformUser(PlatformUser platformUser, PlatformUserOwnership ownership, long expiresAtNanos) {
+
+    }
+
+}
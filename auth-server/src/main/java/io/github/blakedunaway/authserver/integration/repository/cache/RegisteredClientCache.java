@@ -0,0 +1,143 @@
+package io.github.blakedunaway.authserver.integration.repository.cache;
+
+import io.github.blakedunaway.authserver.business.model.event.RegisteredClientChangedEvent;
+import io.github.blakedunaway.authserver.config.redis.RedisStore;
+import io.github.blakedunaway.authserver.util.RedisUtility;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Local cache of fully built RegisteredClients. Changes are evicted after commit on this node and
+// broadcast over Redis pub/sub; the TTL bounds staleness if a broadcast is missed. The id index only holds ids of
+// cached clients and is pruned with them, so neither map outgrows max-entries.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RegisteredClientCache implements MessageListener {
+
+    private final RedisStore redisStore;
+
+    @Value("${auth-server.registered-client-cache.ttl-ms:300000}")
+    private long ttlMillis;
+
+    @Value("${auth-server.registered-client-cache.max-entries:10000}")
+    private int maxEntries;
+
+    private final Map<String, CachedClient> byClientId = new ConcurrentHashMap<>();
+
+    private final Map<String, String> clientIdsById = new ConcurrentHashMap<>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public RegisteredClient findById(final String id, final Supplier<RegisteredClient> loader) {
+        final String clientId = clientIdsById.get(id);
+        final RegisteredClient cached = clientId == null ? null : lookup(clientId);
+        if (cached == null && clientId != null) {
+            clientIdsById.remove(id, clientId);
+        }
+        return cached != null ? cached : load(loader);
+    }
+
+    public RegisteredClient findByClientId(final String clientId, final Supplier<RegisteredClient> loader) {
+        final RegisteredClient cached = lookup(clientId);
+        return cached != null ? cached : load(loader);
+    }
+
+    public void evict(final String clientId) {
+        if (clientId != null) {
+            generation.incrementAndGet();
+            forget(clientId, byClientId.remove(clientId));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRegisteredClientChanged(final RegisteredClientChangedEvent event) {
+        evict(event.clientId());
+        try {
+            redisStore.publish(RedisUtility.REGISTERED_CLIENT_INVALIDATION_CHANNEL, event.clientId());
+        } catch (final RuntimeException ex) {
+            log.warn("Unable to broadcast registered client invalidation for {}, other nodes will refresh on expiry.", event.clientId(), ex);
+        }
+    }
+
+    @Override
+    public void onMessage(final Message message, final byte[] pattern) {
+        final Object clientId = redisStore.readMessage(message);
+        if (clientId != null) {
+            evict(clientId.toString());
+        }
+    }
+
+    private RegisteredClient lookup(final String clientId) {
+        final CachedClient cached = byClientId.get(clientId);
+        if (cached == null) {
+            return null;
+        }
+        if (isExpired(cached)) {
+            if (byClientId.remove(clientId, cached)) {
+                forget(clientId, cached);
+            }
+            return null;
+        }
+        return cached.registeredClient();
+    }
+
+    private RegisteredClient load(final Supplier<RegisteredClient> loader) {
+        final long loadingGeneration = generation.get();
+        final RegisteredClient loaded = loader.get();
+        // skip caching if an eviction raced with this load, the loaded copy may predate it
+        if (loaded != null && generation.get() == loadingGeneration) {
+            if (byClientId.size() >= maxEntries) {
+                makeRoom();
+            }
+            clientIdsById.put(loaded.getId(), loaded.getClientId());
+            byClientId.put(loaded.getClientId(),
+                           new CachedClient(loaded, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis)));
+        }
+        return loaded;
+    }
+
+    // expired entries go first, then arbitrary ones until there is room again
+    private void makeRoom() {
+        byClientId.entrySet().removeIf(entry -> {
+            final boolean expired = isExpired(entry.getValue());
+            if (expired) {
+                forget(entry.getKey(), entry.getValue());
+            }
+            return expired;
+        });
+        final Iterator<Map.Entry<String, CachedClient>> entries = byClientId.entrySet().iterator();
+        while (byClientId.size() >= maxEntries && entries.hasNext()) {
+            final Map.Entry<String, CachedClient> entry = entries.next();
+            entries.remove();
+            forget(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void forget(final String clientId, final CachedClient removed) {
+        if (removed != null) {
+            clientIdsById.remove(removed.registeredClient().getId(), clientId);
+        }
+    }
+
+    private static boolean isExpired(final CachedClient cached) {
+        return System.nanoTime() - cached.expiresAtNanos() >= 0;
+    }
+
+    private record CachedClient(RegisteredClient registeredClient, long expiresAtNanos) {
+
+    }
+
+}
@@ -1,16 +1,23 @@
 package io.github.blakedunaway.authserver.integration.repository.gateway;
 
 import io.github.blakedunaway.authserver.business.model.AuthToken;
+import io.github.blakedunaway.authserver.business.model.AuthTokenPage;
+import io.github.blakedunaway.authserver.business.model.AuthTokenQuery;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface AuthTokenRepository {
 
     List<AuthToken> findAllByRegisteredClientIds(final Set<UUID> registeredClientIds);
 
+    AuthTokenPage findPage(final AuthTokenQuery query);
+
+    void export(final AuthTokenQuery query, final Consumer<AuthToken> consumer);
+
     boolean invalidateByIdAndRegisteredClientIds(final UUID authTokenId,
                                                  final Set<UUID> registeredClientIds,
                                                  final Instant revokedAt);
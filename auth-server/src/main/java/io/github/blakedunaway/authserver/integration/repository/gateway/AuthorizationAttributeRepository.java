@@ -0,0 +1,14 @@
+package io.github.blakedunaway.authserver.integration.repository.gateway;
+
+import java.util.Map;
+import java.util.UUID;
+
+public interface AuthorizationAttributeRepository {
+
+    void save(final UUID authorizationId, final Map<String, Object> attributes);
+
+    Map<String, Object> findByAuthorizationId(final UUID authorizationId);
+
+    void deleteByAuthorizationId(final UUID authorizationId);
+
+}
@@ -8,7 +8,7 @@ import java.util.UUID;
 
 public interface AuthorizationRepository {
 
-    Authorization save(final OAuth2Authorization authorization);
+    void save(final OAuth2Authorization authorization);
 
     void remove(final String id);
 
@@ -0,0 +1,11 @@
+package io.github.blakedunaway.authserver.integration.repository.gateway;
+
+import io.github.blakedunaway.authserver.business.model.AuthorizationPurge;
+
+import java.time.Instant;
+
+public interface AuthorizationRetentionRepository {
+
+    AuthorizationPurge purgeExpired(final Instant cutoff, final int batchSize);
+
+}
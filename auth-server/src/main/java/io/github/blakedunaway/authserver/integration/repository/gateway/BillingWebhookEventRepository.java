@@ -0,0 +1,22 @@
+package io.github.blakedunaway.authserver.integration.repository.gateway;
+
+import io.github.blakedunaway.authserver.business.model.BillingWebhookEvent;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface BillingWebhookEventRepository {
+
+    boolean receive(final BillingWebhookEvent event);
+
+    List<BillingWebhookEvent> claimDue(final Instant now, final Instant leaseUntil, final int batchSize);
+
+    void markProcessed(final String eventId);
+
+    void scheduleRetry(final String eventId, final Instant nextAttemptAt, final String error);
+
+    void markFailed(final String eventId, final String error);
+
+    int purgeFinished(final Instant cutoff, final int batchSize);
+
+}
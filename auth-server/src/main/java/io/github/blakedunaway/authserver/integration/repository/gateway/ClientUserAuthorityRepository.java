@@ -0,0 +1,10 @@
+package io.github.blakedunaway.authserver.integration.repository.gateway;
+
+import java.util.Set;
+import java.util.UUID;
+
+public interface ClientUserAuthorityRepository {
+
+    int removeAuthorities(final UUID registeredClientId, final Set<String> authorityNames, final int batchSize);
+
+}
@@ -0,0 +1,13 @@
+package io.github.blakedunaway.authserver.integration.repository.gateway;
+
+import io.github.blakedunaway.authserver.business.model.user.ClientUser;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+public interface ClientUserExportRepository {
+
+    void export(final Set<UUID> registeredClientIds, final UUID afterId, final Consumer<ClientUser> consumer);
+
+}
@@ -0,0 +1,21 @@
+package io.github.blakedunaway.authserver.integration.repository.gateway;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+public interface ClientUserImportRepository {
+
+    record NewClientUser(UUID id, String email, String passwordHash, boolean verified, String attributesJson, Set<UUID> authorityIds) {
+
+    }
+
+    Map<String, UUID> findAuthorityIds(final UUID registeredClientId);
+
+    Set<String> findExistingEmails(final String clientId, final Collection<String> emails);
+
+    void insert(final String clientId, final List<NewClientUser> clientUsers);
+
+}
@@ -0,0 +1,22 @@
+package io.github.blakedunaway.authserver.integration.repository.gateway;
+
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+
+import java.time.Duration;
+
+public interface PendingAuthorizationRepository {
+
+    void save(final OAuth2Authorization authorization, final Duration ttl);
+
+    OAuth2Authorization findById(final String id);
+
+    OAuth2Authorization findByCode(final String code);
+
+    // like findByCode, but only the first caller for a code gets the authorization
+    OAuth2Authorization claimByCode(final String code);
+
+    OAuth2Authorization findByState(final String state);
+
+    boolean remove(final OAuth2Authorization authorization);
+
+}
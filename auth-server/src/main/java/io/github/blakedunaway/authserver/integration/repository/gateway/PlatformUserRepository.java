@@ -1,6 +1,7 @@
 package io.github.blakedunaway.authserver.integration.repository.gateway;
 
 import io.github.blakedunaway.authserver.business.model.user.PlatformUser;
+import io.github.blakedunaway.authserver.business.model.user.PlatformUserOwnership;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -11,6 +12,10 @@ public interface PlatformUserRepository {
 
     Optional<PlatformUser> findByEmailIgnoreCase(final String email);
 
+    Optional<PlatformUser> findCachedByEmail(final String email);
+
+    Optional<PlatformUserOwnership> findOwnershipByEmail(final String email);
+
     int getTotalUserCount(final String email);
 
     int getTotalClientCount(final String email);
@@ -0,0 +1,13 @@
+package io.github.blakedunaway.authserver.integration.repository.gateway;
+
+import io.github.blakedunaway.authserver.business.model.PlatformUserSubscription;
+
+import java.util.UUID;
+
+public interface PlatformUserSubscriptionRepository {
+
+    PlatformUserSubscription findByPlatformUserId(final UUID platformUserId);
+
+    boolean save(final PlatformUserSubscription subscription);
+
+}
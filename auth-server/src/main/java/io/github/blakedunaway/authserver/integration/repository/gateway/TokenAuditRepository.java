@@ -0,0 +1,11 @@
+package io.github.blakedunaway.authserver.integration.repository.gateway;
+
+import io.github.blakedunaway.authserver.integration.repository.audit.TokenAuditRecord;
+
+import java.util.List;
+
+public interface TokenAuditRepository {
+
+    int insertBatch(final List<TokenAuditRecord> records);
+
+}
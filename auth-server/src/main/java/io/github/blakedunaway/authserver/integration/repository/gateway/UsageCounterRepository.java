@@ -0,0 +1,34 @@
+package io.github.blakedunaway.authserver.integration.repository.gateway;
+
+import io.github.blakedunaway.authserver.business.model.PlatformUserUsage;
+
+import java.util.Set;
+import java.util.UUID;
+
+public interface UsageCounterRepository {
+
+    PlatformUserUsage findByPlatformUserId(final UUID platformUserId);
+
+    PlatformUserUsage findByPlatformUserEmail(final String email);
+
+    PlatformUserUsage findOrCreateByPlatformUserId(final UUID platformUserId);
+
+    PlatformUserUsage projectOwnership(final UUID platformUserId, final Set<UUID> registeredClientIds);
+
+    void platformUserCreated(final UUID platformUserId, final Set<UUID> registeredClientIds);
+
+    void ownershipChanged(final UUID platformUserId, final Set<UUID> attachedClientIds, final Set<UUID> detachedClientIds);
+
+    void registeredClientCreated(final String clientId);
+
+    void registeredClientChanged(final UUID registeredClientId, final int scopeDelta, final int authorityDelta);
+
+    void createClientUsageIfMissing(final String clientId);
+
+    void lockClientUsage(final String clientId);
+
+    void clientUsersCreated(final String clientId, final int count);
+
+    int reconcile();
+
+}
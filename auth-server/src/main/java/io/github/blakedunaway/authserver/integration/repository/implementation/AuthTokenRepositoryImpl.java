@@ -1,27 +1,84 @@
 package io.github.blakedunaway.authserver.integration.repository.implementation;
 
 import io.github.blakedunaway.authserver.business.model.AuthToken;
+import io.github.blakedunaway.authserver.business.model.AuthTokenPage;
+import io.github.blakedunaway.authserver.business.model.AuthTokenQuery;
+import io.github.blakedunaway.authserver.business.model.event.TokensRevokedEvent;
 import io.github.blakedunaway.authserver.integration.repository.gateway.AuthTokenRepository;
 import io.github.blakedunaway.authserver.integration.repository.jpa.AuthTokenJpaRepository;
+import io.github.blakedunaway.authserver.integration.repository.jpa.RegisterClientJpaRepository;
 import io.github.blakedunaway.authserver.mapper.AuthTokenMapper;
-import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Repository
-@RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class AuthTokenRepositoryImpl implements AuthTokenRepository {
 
+    // first pages report an exact total up to this many rows and "more than" beyond it
+    static final int TOTAL_ESTIMATE_CAP = 10_000;
+
+    static final int EXPORT_FETCH_SIZE = 500;
+
+    private static final String SELECT_PAGE = """
+            select auth_token.id               as token_id,
+                   auth_token.token_type       as token_type,
+                   auth_token.token_value_hash as token_value_hash,
+                   auth_token.issued_at        as issued_at,
+                   auth_token.expired_at       as expired_at,
+                   auth_token.revoked_at       as revoked_at,
+                   auth_token.subject          as subject,
+                   auth_token.kid              as kid,
+                   auth_token.metadata         as metadata
+            """;
+
+    private static final String FROM_CLIENT_TOKENS = """
+            from auth.auth_token auth_token
+            join auth.auth_authorization authorization_record on authorization_record.id = auth_token.authorization_id
+            where authorization_record.registered_client_id in (:registeredClientIds)
+            """;
+
     private final AuthTokenJpaRepository authTokenJpaRepository;
 
     private final AuthTokenMapper authTokenMapper;
 
+    private final RegisterClientJpaRepository registerClientJpaRepository;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final NamedParameterJdbcTemplate exportJdbcTemplate;
+
+    private final AuthTokenRowMapper authTokenRowMapper = new AuthTokenRowMapper();
+
+    public AuthTokenRepositoryImpl(final AuthTokenJpaRepository authTokenJpaRepository,
+                                   final AuthTokenMapper authTokenMapper,
+                                   final RegisterClientJpaRepository registerClientJpaRepository,
+                                   final ApplicationEventPublisher applicationEventPublisher,
+                                   final JdbcTemplate jdbcTemplate) {
+        this.authTokenJpaRepository = authTokenJpaRepository;
+        this.authTokenMapper = authTokenMapper;
+        this.registerClientJpaRepository = registerClientJpaRepository;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        final JdbcTemplate fetchingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        fetchingTemplate.setFetchSize(EXPORT_FETCH_SIZE);
+        this.exportJdbcTemplate = new NamedParameterJdbcTemplate(fetchingTemplate);
+    }
+
     @Override
     public List<AuthToken> findAllByRegisteredClientIds(final Set<UUID> registeredClientIds) {
         return authTokenJpaRepository.findAllByRegisteredClientIds(registeredClientIds)
@@ -30,18 +87,115 @@ public class AuthTokenRepositoryImpl implements AuthTokenRepository {
                                      .toList();
     }
 
+    // Keyset pagination over (issued_at, id) descending, so deep pages cost the same as the first one. One extra
+    // row is fetched to tell whether another page exists instead of counting the whole result.
+    @Override
+    public AuthTokenPage findPage(final AuthTokenQuery query) {
+        if (query.getRegisteredClientIds() == null || query.getRegisteredClientIds().isEmpty()) {
+            return new AuthTokenPage(List.of(), false, query.isFirstPage() ? 0L : null, true);
+        }
+        final MapSqlParameterSource parameters = new MapSqlParameterSource();
+        final String filters = FROM_CLIENT_TOKENS + filterClauses(query, parameters);
+
+        final StringBuilder sql = new StringBuilder(SELECT_PAGE).append(filters).append(afterCursor(query, parameters));
+        sql.append(" order by auth_token.issued_at desc, auth_token.id desc limit :pageSize");
+        parameters.addValue("pageSize", query.getLimit() + 1);
+
+        final List<AuthToken> rows = namedParameterJdbcTemplate.query(sql.toString(), parameters, authTokenRowMapper);
+        final boolean hasMore = rows.size() > query.getLimit();
+        final List<AuthToken> tokens = hasMore ? rows.subList(0, query.getLimit()) : rows;
+
+        if (!query.isFirstPage()) {
+            return new AuthTokenPage(tokens, hasMore, null, false);
+        }
+        final Long total = namedParameterJdbcTemplate.queryForObject(
+                "select count(*) from (select 1 " + filters + " limit :totalCap) capped",
+                parameters.addValue("totalCap", TOTAL_ESTIMATE_CAP + 1),
+                Long.class);
+        final long estimate = total == null ? 0L : total;
+        return new AuthTokenPage(tokens, hasMore, Math.min(estimate, TOTAL_ESTIMATE_CAP), estimate <= TOTAL_ESTIMATE_CAP);
+    }
+
+    // Same order and filters as findPage without the page limit, read through a server-side cursor with a bounded
+    // fetch size so every row is handed to the consumer as it arrives rather than collected first.
+    @Override
+    public void export(final AuthTokenQuery query, final Consumer<AuthToken> consumer) {
+        if (query.getRegisteredClientIds() == null || query.getRegisteredClientIds().isEmpty()) {
+            return;
+        }
+        final MapSqlParameterSource parameters = new MapSqlParameterSource();
+        final String sql = SELECT_PAGE + FROM_CLIENT_TOKENS + filterClauses(query, parameters) + afterCursor(query, parameters)
+                           + " order by auth_token.issued_at desc, auth_token.id desc";
+        exportJdbcTemplate.query(sql, parameters, (RowCallbackHandler) rs -> consumer.accept(authTokenRowMapper.mapRow(rs, rs.getRow())));
+    }
+
+    private static String afterCursor(final AuthTokenQuery query, final MapSqlParameterSource parameters) {
+        if (query.isFirstPage()) {
+            return "";
+        }
+        parameters.addValue("cursorIssuedAt", Timestamp.from(query.getCursorIssuedAt()))
+                  .addValue("cursorId", query.getCursorId());
+        return " and (auth_token.issued_at < :cursorIssuedAt"
+               + " or (auth_token.issued_at = :cursorIssuedAt and auth_token.id < :cursorId))";
+    }
+
+    private static String filterClauses(final AuthTokenQuery query, final MapSqlParameterSource parameters) {
+        parameters.addValue("registeredClientIds", query.getRegisteredClientIds());
+        final StringBuilder clauses = new StringBuilder();
+        if (query.getTokenType() != null) {
+            clauses.append(" and auth_token.token_type = :tokenType");
+            parameters.addValue("tokenType", query.getTokenType().name());
+        }
+        if (query.getState() != null) {
+            clauses.append(switch (query.getState()) {
+                case ACTIVE -> " and auth_token.revoked_at is null and auth_token.expired_at > :now";
+                case EXPIRED -> " and auth_token.revoked_at is null and auth_token.expired_at <= :now";
+                case REVOKED -> " and auth_token.revoked_at is not null";
+            });
+            parameters.addValue("now", Timestamp.from(Instant.now()));
+        }
+        if (query.getSubject() != null) {
+            clauses.append(" and auth_token.subject = :subject");
+            parameters.addValue("subject", query.getSubject());
+        }
+        if (query.getIssuedFrom() != null) {
+            clauses.append(" and auth_token.issued_at >= :issuedFrom");
+            parameters.addValue("issuedFrom", Timestamp.from(query.getIssuedFrom()));
+        }
+        if (query.getIssuedTo() != null) {
+            clauses.append(" and auth_token.issued_at < :issuedTo");
+            parameters.addValue("issuedTo", Timestamp.from(query.getIssuedTo()));
+        }
+        return clauses.toString();
+    }
+
     @Override
     @Transactional
     public boolean invalidateByIdAndRegisteredClientIds(final UUID authTokenId,
                                                         final Set<UUID> registeredClientIds,
                                                         final Instant revokedAt) {
-        return authTokenJpaRepository.invalidateByIdAndRegisteredClientIds(authTokenId, registeredClientIds, revokedAt) > 0;
+        if (authTokenJpaRepository.invalidateByIdAndRegisteredClientIds(authTokenId, registeredClientIds, revokedAt) == 0) {
+            return false;
+        }
+        authTokenJpaRepository.findById(authTokenId)
+                              .filter(token -> token.getSubject() != null)
+                              .ifPresent(token -> applicationEventPublisher.publishEvent(
+                                      new TokensRevokedEvent(token.getAuthorizationEntity().getRegisteredClient().getClientId(),
+                                                             token.getSubject(),
+                                                             revokedAt)));
+        return true;
     }
 
     @Override
     @Transactional
     public int invalidateAllByRegisteredClientId(final UUID registeredClientId, final Instant revokedAt) {
-        return authTokenJpaRepository.invalidateAllByRegisteredClientId(registeredClientId, revokedAt);
+        final int revoked = authTokenJpaRepository.invalidateAllByRegisteredClientId(registeredClientId, revokedAt);
+        if (revoked > 0) {
+            registerClientJpaRepository.findById(registeredClientId)
+                                       .ifPresent(client -> applicationEventPublisher.publishEvent(
+                                               new TokensRevokedEvent(client.getClientId(), null, revokedAt)));
+        }
+        return revoked;
     }
 
 }
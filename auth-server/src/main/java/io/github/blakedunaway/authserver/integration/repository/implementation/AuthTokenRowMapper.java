@@ -0,0 +1,56 @@
+package io.github.blakedunaway.authserver.integration.repository.implementation;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.blakedunaway.authserver.business.model.AuthToken;
+import io.github.blakedunaway.authserver.business.model.enums.TokenType;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+// Maps auth.auth_token columns selected under their own names, with the id aliased as token_id.
+final class AuthTokenRowMapper implements RowMapper<AuthToken> {
+
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper metadataMapper = new ObjectMapper();
+
+    @Override
+    public AuthToken mapRow(final ResultSet rs, final int rowNum) throws SQLException {
+        final Map<String, Object> metadata = readMetadata(rs.getString("metadata"));
+        return AuthToken.fromId(rs.getObject("token_id", UUID.class))
+                        .tokenType(TokenType.valueOf(rs.getString("token_type")))
+                        .hashedTokenValue(rs.getString("token_value_hash"))
+                        .subject(rs.getString("subject"))
+                        .metadata(metaData -> metaData.putAll(metadata))
+                        .expiresAt(readInstant(rs, "expired_at"))
+                        .issuedAt(readInstant(rs, "issued_at"))
+                        .revokedAt(readInstant(rs, "revoked_at"))
+                        .kid(rs.getString("kid"))
+                        .build();
+    }
+
+    private Map<String, Object> readMetadata(final String json) {
+        if (json == null || json.isBlank()) {
+            return Map.of();
+        }
+        try {
+            return metadataMapper.readValue(json, METADATA_TYPE);
+        } catch (final IOException ex) {
+            throw new IllegalStateException("Unreadable token metadata", ex);
+        }
+    }
+
+    private static Instant readInstant(final ResultSet rs, final String column) throws SQLException {
+        final OffsetDateTime value = rs.getObject(column, OffsetDateTime.class);
+        return value == null ? null : value.toInstant();
+    }
+
+}
@@ -0,0 +1,139 @@
+package io.github.blakedunaway.authserver.integration.repository.implementation;
+
+import io.github.blakedunaway.authserver.config.redis.RedisStore;
+import io.github.blakedunaway.authserver.integration.entity.AuthorizationAttributesEntity;
+import io.github.blakedunaway.authserver.integration.repository.gateway.AuthorizationAttributeRepository;
+import io.github.blakedunaway.authserver.integration.repository.jpa.AuthorizationAttributesJpaRepository;
+import io.github.blakedunaway.authserver.mapper.AuthorizationAttributeCodec;
+import io.github.blakedunaway.authserver.util.RedisUtility;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// The database row is the source of truth, Redis holds the same encoded bytes as a cache-aside copy. Cache
+// failures are logged and fall through to the database. A save overwrites the cached copy once its transaction
+// commits while reads only fill a missing one, so a read that loaded the old row before the commit cannot replace
+// the new payload. Two saves of one authorization whose commits race can still leave the older payload cached, the
+// short TTL bounds how long.
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class AuthorizationAttributeRepositoryImpl implements AuthorizationAttributeRepository {
+
+    private final AuthorizationAttributesJpaRepository authorizationAttributesJpaRepository;
+
+    private final AuthorizationAttributeCodec authorizationAttributeCodec;
+
+    private final RedisStore redisStore;
+
+    @Value("${auth-server.authorization-attributes.cache-ttl-ms:300000}")
+    private long cacheTtlMillis;
+
+    @Override
+    @Transactional
+    public void save(final UUID authorizationId, final Map<String, Object> attributes) {
+        final byte[] payload = authorizationAttributeCodec.encode(attributes);
+        authorizationAttributesJpaRepository.save(AuthorizationAttributesEntity.create(authorizationId, payload));
+        cacheAfterCommit(RedisUtility.AUTHORIZATION_ATTRIBUTES_CACHE + authorizationId, payload);
+    }
+
+    @Override
+    public Map<String, Object> findByAuthorizationId(final UUID authorizationId) {
+        final String cacheKey = RedisUtility.AUTHORIZATION_ATTRIBUTES_CACHE + authorizationId;
+        final byte[] cached = readCache(cacheKey);
+        if (cached != null) {
+            return authorizationAttributeCodec.decode(cached);
+        }
+        final AuthorizationAttributesEntity stored = authorizationAttributesJpaRepository.findById(authorizationId).orElse(null);
+        if (stored == null) {
+            return findLegacyAttributes(authorizationId);
+        }
+        writeCache(cacheKey, stored.getPayload(), true);
+        return authorizationAttributeCodec.decode(stored.getPayload());
+    }
+
+    @Override
+    @Transactional
+    public void deleteByAuthorizationId(final UUID authorizationId) {
+        if (authorizationAttributesJpaRepository.existsById(authorizationId)) {
+            authorizationAttributesJpaRepository.deleteById(authorizationId);
+        }
+        evictAfterCommit(authorizationId);
+    }
+
+    // authorizations saved before the attributes were stored in the database
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> findLegacyAttributes(final UUID authorizationId) {
+        try {
+            final Object legacy = redisStore.get(RedisUtility.AUTHORIZATION_ATTRIBUTES + authorizationId);
+            return legacy instanceof Map<?, ?> legacyMap ? (Map<String, Object>) legacyMap : Collections.emptyMap();
+        } catch (final RuntimeException ex) {
+            log.warn("Unable to read legacy attributes for authorization {}.", authorizationId, ex);
+            return Collections.emptyMap();
+        }
+    }
+
+    private byte[] readCache(final String cacheKey) {
+        try {
+            return redisStore.getBytes(cacheKey);
+        } catch (final RuntimeException ex) {
+            log.warn("Unable to read cached authorization attributes {}, reading them from the database.", cacheKey, ex);
+            return null;
+        }
+    }
+
+    private void writeCache(final String cacheKey, final byte[] payload, final boolean onlyIfAbsent) {
+        try {
+            redisStore.putBytes(cacheKey, payload, Duration.ofMillis(cacheTtlMillis), onlyIfAbsent);
+        } catch (final RuntimeException ex) {
+            log.warn("Unable to cache authorization attributes {}.", cacheKey, ex);
+        }
+    }
+
+    private void cacheAfterCommit(final String cacheKey, final byte[] payload) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            writeCache(cacheKey, payload, false);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                writeCache(cacheKey, payload, false);
+            }
+        });
+    }
+
+    private void evictAfterCommit(final UUID authorizationId) {
+        final String cacheKey = RedisUtility.AUTHORIZATION_ATTRIBUTES_CACHE + authorizationId;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(cacheKey);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(cacheKey);
+            }
+        });
+    }
+
+    private void evict(final String cacheKey) {
+        try {
+            redisStore.delete(List.of(cacheKey));
+        } catch (final RuntimeException ex) {
+            log.warn("Unable to evict cached authorization attributes {}.", cacheKey, ex);
+        }
+    }
+
+}
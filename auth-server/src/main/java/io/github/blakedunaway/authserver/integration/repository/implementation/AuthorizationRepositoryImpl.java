@@ -1,10 +1,15 @@
 package io.github.blakedunaway.authserver.integration.repository.implementation;
 
 import io.github.blakedunaway.authserver.business.model.Authorization;
+import io.github.blakedunaway.authserver.business.model.enums.TokenFormat;
 import io.github.blakedunaway.authserver.business.model.enums.TokenType;
+import io.github.blakedunaway.authserver.business.model.event.TokensRevokedEvent;
+import io.github.blakedunaway.authserver.integration.TokenSettingsJson;
 import io.github.blakedunaway.authserver.integration.entity.AuthTokenEntity;
 import io.github.blakedunaway.authserver.integration.entity.AuthorizationEntity;
-import io.github.blakedunaway.authserver.integration.entity.RegisteredClientEntity;
+import io.github.blakedunaway.authserver.integration.repository.audit.TokenAuditWriter;
+import io.github.blakedunaway.authserver.integration.repository.cache.DashboardVersions;
+import io.github.blakedunaway.authserver.integration.repository.gateway.AuthorizationAttributeRepository;
 import io.github.blakedunaway.authserver.integration.repository.gateway.AuthorizationRepository;
 import io.github.blakedunaway.authserver.integration.repository.jpa.AuthorizationJpaRepository;
 import io.github.blakedunaway.authserver.integration.repository.jpa.RegisterClientJpaRepository;
@@ -12,13 +17,23 @@ import io.github.blakedunaway.authserver.mapper.AuthorizationMapper;
 import io.github.blakedunaway.authserver.security.token.TokenHasher;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.settings.OAuth2TokenFormat;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -28,63 +43,130 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class AuthorizationRepositoryImpl implements AuthorizationRepository {
 
+    private static final Set<TokenType> REVOCABLE_TOKEN_TYPES = Set.of(TokenType.ACCESS, TokenType.REFRESH);
+
     private final AuthorizationJpaRepository authorizationJpaRepository;
 
     private final AuthorizationMapper authorizationMapper;
 
     private final RegisterClientJpaRepository registerClientJpaRepository;
 
-    private void attachTokens(final AuthorizationEntity current, final AuthorizationEntity persisted) {
-        final Map<String, AuthTokenEntity> existingByHash =
-                persisted == null
-                ? Map.of()
-                : persisted.getTokens().stream()
-                           .collect(Collectors.toMap(
-                                   AuthTokenEntity::getTokenValueHash,
-                                   Function.identity(),
-                                   (a, b) -> a
-                           ));
-        if (current.getTokens() != null) {
-            current.getTokens()
-                   .forEach(token -> {
-                       AuthTokenEntity existing =
-                               existingByHash.get(token.getTokenValueHash());
-
-                       token.setTokenId(existing != null ? existing.getTokenId() : null);
-                       token.setAuthorizationEntity(current);
-                   });
-        }
-    }
+    private final RegisteredClientRepository registeredClientRepository;
 
+    private final AuthorizationAttributeRepository authorizationAttributeRepository;
 
-    @Override
-    @Transactional
-    public Authorization save(final OAuth2Authorization authorization) {
+    private final TokenAuditWriter tokenAuditWriter;
 
-        final UUID authId = UUID.fromString(authorization.getId());
-        final UUID rClientId = UUID.fromString(authorization.getRegisteredClientId());
+    private final DashboardVersions dashboardVersions;
 
-        final AuthorizationEntity persisted = authorizationJpaRepository.findById(authId).orElse(null);
-        final RegisteredClientEntity clientEntity = registerClientJpaRepository.findById(rClientId).orElseThrow();
+    private final ApplicationEventPublisher applicationEventPublisher;
 
-        final AuthorizationEntity authorizationEntity =
-                authorizationMapper.oAuth2AuthorizationToAuthorizationEntity(authorization, clientEntity, persisted == null);
+    // new self-contained access tokens are only needed for audit, they are written behind the token endpoint
+    private Set<AuthTokenEntity> detachWriteBehindTokens(final Set<AuthTokenEntity> tokens, final boolean selfContained) {
+        if (!tokenAuditWriter.isEnabled() || !selfContained || tokens == null) {
+            return Set.of();
+        }
+        final Set<AuthTokenEntity> writeBehind = tokens.stream()
+                                                       .filter(token -> token.getTokenId() == null && token.getTokenType() == TokenType.ACCESS)
+                                                       .collect(Collectors.toSet());
+        tokens.removeAll(writeBehind);
+        return writeBehind;
+    }
 
-        attachTokens(authorizationEntity, persisted);
+    @Override
+    @Transactional
+    public void save(final OAuth2Authorization authorization) {
+        final AuthorizationEntity persisted = authorizationJpaRepository.findById(UUID.fromString(authorization.getId())).orElse(null);
+        final UUID authId = persisted == null ? insert(authorization) : update(persisted, authorization);
+        authorizationAttributeRepository.save(authId, authorization.getAttributes());
+    }
+
+    // the registered client is only referenced by key, its token format comes from the cached RegisteredClient
+    private UUID insert(final OAuth2Authorization authorization) {
+        final RegisteredClient registeredClient = registeredClientRepository.findById(authorization.getRegisteredClientId());
+        if (registeredClient == null) {
+            throw new NoSuchElementException("No registered client found with id " + authorization.getRegisteredClientId());
+        }
+        final AuthorizationEntity authorizationEntity = authorizationMapper.oAuth2AuthorizationToAuthorizationEntity(
+                authorization, registerClientJpaRepository.getReferenceById(UUID.fromString(registeredClient.getId())), true);
+        Optional.ofNullable(authorizationEntity.getTokens()).ifPresent(tokens -> tokens.forEach(token -> token.setTokenId(null)));
+        final Set<AuthTokenEntity> writeBehind = detachWriteBehindTokens(
+                authorizationEntity.getTokens(),
+                OAuth2TokenFormat.SELF_CONTAINED.equals(registeredClient.getTokenSettings().getAccessTokenFormat()));
+
+        final AuthorizationEntity saved = authorizationJpaRepository.save(authorizationEntity);
+        tokenAuditWriter.submitAfterCommit(saved.getAuthId(), registeredClient.getClientId(), writeBehind);
+        dashboardVersions.clientsTouched(Set.of(registeredClient.getClientId()));
+        return saved.getAuthId();
+    }
 
+    // Applies only what changed to the managed entity: new tokens are inserted, known ones get their revocation and
+    // metadata updated, dropped ones are removed. Unchanged rows are left alone and produce no statement.
+    private UUID update(final AuthorizationEntity persisted, final OAuth2Authorization authorization) {
+        final AuthorizationEntity current =
+                authorizationMapper.oAuth2AuthorizationToAuthorizationEntity(authorization, persisted.getRegisteredClient(), false);
+        final Map<String, AuthTokenEntity> existingByHash = persisted.getTokens()
+                                                                     .stream()
+                                                                     .collect(Collectors.toMap(AuthTokenEntity::getTokenValueHash,
+                                                                                               Function.identity(),
+                                                                                               (a, b) -> a));
+        final Set<AuthTokenEntity> incoming = Optional.ofNullable(current.getTokens()).orElseGet(Set::of);
+        final Set<AuthTokenEntity> added = new HashSet<>();
+        final Set<AuthTokenEntity> revoked = new HashSet<>();
+        incoming.forEach(token -> {
+            final AuthTokenEntity existing = existingByHash.get(token.getTokenValueHash());
+            if (existing != null) {
+                final boolean wasInvalidated = existing.isInvalidated();
+                existing.applyChanges(token);
+                if (!wasInvalidated && existing.isInvalidated() && REVOCABLE_TOKEN_TYPES.contains(existing.getTokenType())) {
+                    revoked.add(existing);
+                }
+            } else {
+                // a token whose row is still queued behind the token endpoint arrives here too
+                if (token.isInvalidated() && REVOCABLE_TOKEN_TYPES.contains(token.getTokenType())) {
+                    revoked.add(token);
+                }
+                token.setTokenId(null);
+                added.add(token);
+            }
+        });
+        final Set<String> incomingHashes = incoming.stream().map(AuthTokenEntity::getTokenValueHash).collect(Collectors.toSet());
+        final TokenSettingsJson tokenSettings = persisted.getRegisteredClient().getTokenSettings();
+        final Set<AuthTokenEntity> writeBehind =
+                detachWriteBehindTokens(added, tokenSettings != null && tokenSettings.getAccessTokenFormat() == TokenFormat.SELF);
+
+        persisted.retainTokens(incomingHashes);
+        added.forEach(persisted::addToken);
+        persisted.updateAuthorizedScopes(current.getAuthorizedScopes());
+        final String clientId = persisted.getRegisteredClient().getClientId();
+        publishRevocation(persisted, clientId, revoked);
+        tokenAuditWriter.submitAfterCommit(persisted.getAuthId(), clientId, writeBehind);
+        dashboardVersions.clientsTouched(Set.of(clientId));
+        return persisted.getAuthId();
+    }
 
-        return authorizationMapper.authorizationEntityToAuthorization(
-                authorizationJpaRepository.save(authorizationEntity)
-        );
+    // /oauth2/revoke only invalidates rows, self-contained access tokens stay valid until
+    // the revocation epoch of their subject is raised
+    private void publishRevocation(final AuthorizationEntity persisted, final String clientId, final Set<AuthTokenEntity> revoked) {
+        if (revoked.isEmpty()) {
+            return;
+        }
+        final String subject = revoked.stream()
+                                      .map(AuthTokenEntity::getSubject)
+                                      .filter(Objects::nonNull)
+                                      .findFirst()
+                                      .orElse(persisted.getPrincipalName());
+        applicationEventPublisher.publishEvent(new TokensRevokedEvent(clientId, subject, Instant.now()));
     }
 
     @Override
     @Transactional
     public void remove(final String id) {
-        if (authorizationJpaRepository.findById(UUID.fromString(id)).isEmpty()) {
-            throw new EntityNotFoundException("Not entity found with id " + id);
-        }
+        final AuthorizationEntity persisted = authorizationJpaRepository.findById(UUID.fromString(id))
+                                                                        .orElseThrow(() -> new EntityNotFoundException("Not entity found with id " + id));
+        authorizationAttributeRepository.deleteByAuthorizationId(UUID.fromString(id));
         authorizationJpaRepository.deleteById(UUID.fromString(id));
+        dashboardVersions.clientsTouched(Set.of(persisted.getRegisteredClient().getClientId()));
     }
 
     @Override
@@ -116,7 +198,7 @@ public class AuthorizationRepositoryImpl implements AuthorizationRepository {
                                              }
                                              return authorizationMapper.authorizationEntityToAuthorization(entity);
                                          })
-                                         .orElse(null);
+                                         .orElseGet(() -> tokenAuditWriter.findByUnwrittenToken(hashedValue, serializedTokenType, this::findById));
 
     }
 
@@ -0,0 +1,69 @@
+package io.github.blakedunaway.authserver.integration.repository.implementation;
+
+import io.github.blakedunaway.authserver.business.model.AuthorizationPurge;
+import io.github.blakedunaway.authserver.integration.repository.gateway.AuthorizationRetentionRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+// Authorizations qualify once every token is expired or revoked before the cutoff. Candidates are claimed with
+// SKIP LOCKED so concurrent purges on other nodes, and token endpoint writes, never wait on each other.
+@Repository
+@Transactional
+public class AuthorizationRetentionRepositoryImpl implements AuthorizationRetentionRepository {
+
+    private static final String CLAIM_EXPIRED_AUTHORIZATIONS = """
+            select authorization_record.id
+            from auth.auth_authorization authorization_record
+            where exists (select 1
+                          from auth.auth_token auth_token
+                          where auth_token.authorization_id = authorization_record.id)
+              and not exists (select 1
+                              from auth.auth_token auth_token
+                              where auth_token.authorization_id = authorization_record.id
+                                and auth_token.expired_at > :cutoff
+                                and (auth_token.revoked_at is null or auth_token.revoked_at > :cutoff))
+            limit :batchSize
+            for update skip locked
+            """;
+
+    private static final String DELETE_TOKENS = "delete from auth.auth_token where authorization_id in (:ids)";
+
+    private static final String DELETE_SCOPES = "delete from auth.authorization_scope where authorization_id in (:ids)";
+
+    private static final String DELETE_ATTRIBUTES = "delete from auth.authorization_attributes where authorization_id in (:ids)";
+
+    private static final String DELETE_AUTHORIZATIONS = "delete from auth.auth_authorization where id in (:ids)";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public AuthorizationRetentionRepositoryImpl(final JdbcTemplate jdbcTemplate) {
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @Override
+    public AuthorizationPurge purgeExpired(final Instant cutoff, final int batchSize) {
+        final List<UUID> authorizationIds = namedParameterJdbcTemplate.queryForList(
+                CLAIM_EXPIRED_AUTHORIZATIONS,
+                new MapSqlParameterSource().addValue("cutoff", Timestamp.from(cutoff))
+                                           .addValue("batchSize", batchSize),
+                UUID.class);
+        if (authorizationIds.isEmpty()) {
+            return AuthorizationPurge.empty();
+        }
+        final MapSqlParameterSource ids = new MapSqlParameterSource("ids", authorizationIds);
+        final int tokensPurged = namedParameterJdbcTemplate.update(DELETE_TOKENS, ids);
+        namedParameterJdbcTemplate.update(DELETE_SCOPES, ids);
+        namedParameterJdbcTemplate.update(DELETE_ATTRIBUTES, ids);
+        namedParameterJdbcTemplate.update(DELETE_AUTHORIZATIONS, ids);
+        return new AuthorizationPurge(authorizationIds, tokensPurged);
+    }
+
+}
@@ -0,0 +1,175 @@
+package io.github.blakedunaway.authserver.integration.repository.implementation;
+
+import io.github.blakedunaway.authserver.business.model.BillingWebhookEvent;
+import io.github.blakedunaway.authserver.business.model.enums.BillingWebhookEventStatus;
+import io.github.blakedunaway.authserver.integration.repository.gateway.BillingWebhookEventRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+// Only the oldest pending event of each platform user can be claimed, so one user's events are applied in the order
+// Stripe created them while different users proceed in parallel. Claiming moves next_attempt_at to the end of a lease
+// and tags the rows with a claim id; a concurrent claim on another node re-checks next_attempt_at after waiting on the
+// row lock and skips it, and an event whose worker died becomes due again once its lease ends.
+@Repository
+@Transactional
+public class BillingWebhookEventRepositoryImpl implements BillingWebhookEventRepository {
+
+    private static final String INSERT_EVENT = """
+            insert into auth.billing_webhook_event (event_id, event_type, platform_user_id, payload, event_created_at, status,
+                                                    attempts, next_attempt_at, received_at)
+            values (:eventId, :eventType, :platformUserId, :payload, :eventCreatedAt, :pending, 0, :now, :now)
+            """;
+
+    private static final String CLAIM_DUE_EVENTS = """
+            update auth.billing_webhook_event
+            set next_attempt_at = :leaseUntil,
+                attempts = attempts + 1,
+                claim_id = :claimId
+            where event_id in (select candidate.event_id
+                               from auth.billing_webhook_event candidate
+                               where candidate.status = :pending
+                                 and candidate.next_attempt_at <= :now
+                                 and not exists (select 1
+                                                 from auth.billing_webhook_event earlier
+                                                 where earlier.platform_user_id = candidate.platform_user_id
+                                                   and earlier.status = :pending
+                                                   and (earlier.event_created_at < candidate.event_created_at
+                                                        or (earlier.event_created_at = candidate.event_created_at
+                                                            and earlier.event_id < candidate.event_id)))
+                               order by candidate.event_created_at, candidate.event_id
+                               limit :batchSize)
+              and status = :pending
+              and next_attempt_at <= :now
+            """;
+
+    private static final String FIND_CLAIMED = """
+            select event_id, event_type, platform_user_id, payload, event_created_at, attempts
+            from auth.billing_webhook_event
+            where claim_id = :claimId
+            order by event_created_at, event_id
+            """;
+
+    private static final String MARK_PROCESSED = """
+            update auth.billing_webhook_event
+            set status = :processed, claim_id = null, last_error = null, processed_at = :now
+            where event_id = :eventId
+            """;
+
+    private static final String SCHEDULE_RETRY = """
+            update auth.billing_webhook_event
+            set next_attempt_at = :nextAttemptAt, claim_id = null, last_error = :error
+            where event_id = :eventId
+            """;
+
+    private static final String MARK_FAILED = """
+            update auth.billing_webhook_event
+            set status = :failed, claim_id = null, last_error = :error, processed_at = :now
+            where event_id = :eventId
+            """;
+
+    // processed_at is only set on processed and failed events, pending ones are never purged
+    private static final String PURGE_FINISHED = """
+            delete from auth.billing_webhook_event
+            where event_id in (select event_id
+                               from auth.billing_webhook_event
+                               where processed_at < :cutoff
+                               limit :batchSize)
+            """;
+
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public BillingWebhookEventRepositoryImpl(final JdbcTemplate jdbcTemplate) {
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    // False for a redelivery of an event that is already in the inbox. Runs outside any transaction so the duplicate
+    // key does not abort a caller's transaction on Postgres.
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean receive(final BillingWebhookEvent event) {
+        try {
+            return namedParameterJdbcTemplate.update(
+                    INSERT_EVENT,
+                    new MapSqlParameterSource().addValue("eventId", event.eventId())
+                                               .addValue("eventType", event.eventType())
+                                               .addValue("platformUserId", event.platformUserId())
+                                               .addValue("payload", event.payload())
+                                               .addValue("eventCreatedAt", Timestamp.from(event.eventCreatedAt()))
+                                               .addValue("pending", BillingWebhookEventStatus.PENDING.getString())
+                                               .addValue("now", Timestamp.from(Instant.now()))) > 0;
+        } catch (final DuplicateKeyException ex) {
+            return false;
+        }
+    }
+
+    @Override
+    public List<BillingWebhookEvent> claimDue(final Instant now, final Instant leaseUntil, final int batchSize) {
+        final MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("claimId", UUID.randomUUID())
+                .addValue("pending", BillingWebhookEventStatus.PENDING.getString())
+                .addValue("now", Timestamp.from(now))
+                .addValue("leaseUntil", Timestamp.from(leaseUntil))
+                .addValue("batchSize", batchSize);
+        if (namedParameterJdbcTemplate.update(CLAIM_DUE_EVENTS, parameters) == 0) {
+            return List.of();
+        }
+        return namedParameterJdbcTemplate.query(
+                FIND_CLAIMED,
+                parameters,
+                (rs, rowNum) -> new BillingWebhookEvent(rs.getString("event_id"),
+                                                        rs.getString("event_type"),
+                                                        rs.getObject("platform_user_id", UUID.class),
+                                                        rs.getString("payload"),
+                                                        rs.getTimestamp("event_created_at").toInstant(),
+                                                        rs.getInt("attempts")));
+    }
+
+    @Override
+    public void markProcessed(final String eventId) {
+        namedParameterJdbcTemplate.update(MARK_PROCESSED,
+                                          new MapSqlParameterSource().addValue("eventId", eventId)
+                                                                     .addValue("processed", BillingWebhookEventStatus.PROCESSED.getString())
+                                                                     .addValue("now", Timestamp.from(Instant.now())));
+    }
+
+    @Override
+    public void scheduleRetry(final String eventId, final Instant nextAttemptAt, final String error) {
+        namedParameterJdbcTemplate.update(SCHEDULE_RETRY,
+                                          new MapSqlParameterSource().addValue("eventId", eventId)
+                                                                     .addValue("nextAttemptAt", Timestamp.from(nextAttemptAt))
+                                                                     .addValue("error", truncate(error)));
+    }
+
+    @Override
+    public void markFailed(final String eventId, final String error) {
+        namedParameterJdbcTemplate.update(MARK_FAILED,
+                                          new MapSqlParameterSource().addValue("eventId", eventId)
+                                                                     .addValue("failed", BillingWebhookEventStatus.FAILED.getString())
+                                                                     .addValue("error", truncate(error))
+                                                                     .addValue("now", Timestamp.from(Instant.now())));
+    }
+
+    @Override
+    public int purgeFinished(final Instant cutoff, final int batchSize) {
+        return namedParameterJdbcTemplate.update(PURGE_FINISHED,
+                                                 new MapSqlParameterSource().addValue("cutoff", Timestamp.from(cutoff))
+                                                                            .addValue("batchSize", batchSize));
+    }
+
+    private static String truncate(final String error) {
+        return error == null || error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+}
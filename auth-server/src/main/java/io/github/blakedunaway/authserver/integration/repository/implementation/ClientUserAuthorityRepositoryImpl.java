@@ -0,0 +1,75 @@
+package io.github.blakedunaway.authserver.integration.repository.implementation;
+
+import io.github.blakedunaway.authserver.integration.repository.gateway.ClientUserAuthorityRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+// Removes a client's authorities from its users directly in the join table, one batch of users per transaction,
+// so removing an authority from a large client never holds locks on all of its users at once.
+@Repository
+@Transactional
+public class ClientUserAuthorityRepositoryImpl implements ClientUserAuthorityRepository {
+
+    private static final String FIND_AUTHORITY_IDS = """
+            select authority.authority_id
+            from auth.authorities authority
+            where authority.registered_client_id = :registeredClientId
+              and authority.authority_name in (:authorityNames)
+            """;
+
+    private static final String CLAIM_USERS = """
+            select distinct user_authority.user_id
+            from auth.user_authorities user_authority
+            join auth.client_user client_user on client_user.id = user_authority.user_id
+            where user_authority.authority_id in (:authorityIds)
+            limit :batchSize
+            """;
+
+    private static final String DELETE_USER_AUTHORITIES = """
+            delete from auth.user_authorities
+            where user_id in (:userIds)
+              and authority_id in (:authorityIds)
+            """;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public ClientUserAuthorityRepositoryImpl(final JdbcTemplate jdbcTemplate) {
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    // returns the number of users the authorities were removed from, fewer than batchSize once none are left
+    @Override
+    public int removeAuthorities(final UUID registeredClientId, final Set<String> authorityNames, final int batchSize) {
+        if (registeredClientId == null || authorityNames == null || authorityNames.isEmpty()) {
+            return 0;
+        }
+        final List<UUID> authorityIds = namedParameterJdbcTemplate.queryForList(
+                FIND_AUTHORITY_IDS,
+                new MapSqlParameterSource().addValue("registeredClientId", registeredClientId)
+                                           .addValue("authorityNames", authorityNames),
+                UUID.class);
+        if (authorityIds.isEmpty()) {
+            return 0;
+        }
+        final List<UUID> userIds = namedParameterJdbcTemplate.queryForList(
+                CLAIM_USERS,
+                new MapSqlParameterSource().addValue("authorityIds", authorityIds)
+                                           .addValue("batchSize", batchSize),
+                UUID.class);
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        namedParameterJdbcTemplate.update(DELETE_USER_AUTHORITIES,
+                                          new MapSqlParameterSource().addValue("userIds", userIds)
+                                                                     .addValue("authorityIds", authorityIds));
+        return userIds.size();
+    }
+
+}
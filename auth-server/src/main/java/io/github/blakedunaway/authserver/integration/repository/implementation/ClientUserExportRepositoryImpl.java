@@ -0,0 +1,152 @@
+package io.github.blakedunaway.authserver.integration.repository.implementation;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.blakedunaway.authserver.business.model.Authority;
+import io.github.blakedunaway.authserver.business.model.user.ClientUser;
+import io.github.blakedunaway.authserver.integration.repository.gateway.ClientUserExportRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+// Streams client users in id order through a server-side cursor: the fetch size bounds what the driver holds and
+// the read-only transaction keeps the cursor open. Authority rows are joined in and folded into their user as the
+// rows go by, so memory stays at one user no matter how many are exported.
+@Repository
+@Transactional(readOnly = true)
+public class ClientUserExportRepositoryImpl implements ClientUserExportRepository {
+
+    static final int EXPORT_FETCH_SIZE = 500;
+
+    private static final TypeReference<Map<String, Object>> ATTRIBUTES_TYPE = new TypeReference<>() {
+    };
+
+    private static final String SELECT_CLIENT_USERS = """
+            select client_user.id                     as id,
+                   client_user.client_id              as client_id,
+                   client_user.email                  as email,
+                   client_user.password_hash          as password_hash,
+                   client_user.is_verified            as is_verified,
+                   client_user.created_at             as created_at,
+                   client_user.updated_at             as updated_at,
+                   client_user.user_attributes        as user_attributes,
+                   client_user.is_locked              as is_locked,
+                   client_user.is_expired             as is_expired,
+                   client_user.is_credentials_expired as is_credentials_expired,
+                   authority.authority_name           as authority_name
+            from auth.client_user client_user
+            join auth.registered_client registered_client on registered_client.client_id = client_user.client_id
+            left join auth.user_authorities user_authority on user_authority.user_id = client_user.id
+            left join auth.authorities authority on authority.authority_id = user_authority.authority_id
+            where registered_client.registered_client_id in (:registeredClientIds)
+            """;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final ObjectMapper attributesMapper = new ObjectMapper();
+
+    public ClientUserExportRepositoryImpl(final JdbcTemplate jdbcTemplate) {
+        final JdbcTemplate fetchingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        fetchingTemplate.setFetchSize(EXPORT_FETCH_SIZE);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(fetchingTemplate);
+    }
+
+    @Override
+    public void export(final Set<UUID> registeredClientIds, final UUID afterId, final Consumer<ClientUser> consumer) {
+        if (registeredClientIds == null || registeredClientIds.isEmpty()) {
+            return;
+        }
+        final MapSqlParameterSource parameters = new MapSqlParameterSource("registeredClientIds", registeredClientIds);
+        final StringBuilder sql = new StringBuilder(SELECT_CLIENT_USERS);
+        if (afterId != null) {
+            sql.append(" and client_user.id > :afterId");
+            parameters.addValue("afterId", afterId);
+        }
+        sql.append(" order by client_user.id");
+
+        final UserFolder folder = new UserFolder(consumer);
+        namedParameterJdbcTemplate.query(sql.toString(), parameters, folder);
+        folder.emit();
+    }
+
+    private final class UserFolder implements RowCallbackHandler {
+
+        private final Consumer<ClientUser> consumer;
+
+        private ClientUser.ClientUserBuilder current;
+
+        private UUID currentId;
+
+        private final Set<String> authorityNames = new HashSet<>();
+
+        private UserFolder(final Consumer<ClientUser> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void processRow(final ResultSet rs) throws SQLException {
+            final UUID id = rs.getObject("id", UUID.class);
+            if (!id.equals(currentId)) {
+                emit();
+                currentId = id;
+                current = ClientUser.from(id)
+                                    .clientId(rs.getString("client_id"))
+                                    .email(rs.getString("email"))
+                                    .passwordHash(rs.getString("password_hash"))
+                                    .verified(rs.getBoolean("is_verified"))
+                                    .createdAt(readDateTime(rs, "created_at"))
+                                    .updatedAt(readDateTime(rs, "updated_at"))
+                                    .userAttributes(readAttributes(rs.getString("user_attributes")))
+                                    .locked(rs.getBoolean("is_locked"))
+                                    .expired(rs.getBoolean("is_expired"))
+                                    .credentialsExpired(rs.getBoolean("is_credentials_expired"));
+            }
+            final String authorityName = rs.getString("authority_name");
+            if (authorityName != null && !authorityName.isBlank()) {
+                authorityNames.add(authorityName);
+            }
+        }
+
+        private void emit() {
+            if (current == null) {
+                return;
+            }
+            consumer.accept(current.authorities(authorities -> authorityNames.forEach(name -> authorities.add(Authority.from(name))))
+                                   .build());
+            current = null;
+            authorityNames.clear();
+        }
+
+    }
+
+    private Map<String, Object> readAttributes(final String json) {
+        if (json == null || json.isBlank()) {
+            return Map.of();
+        }
+        try {
+            return attributesMapper.readValue(json, ATTRIBUTES_TYPE);
+        } catch (final IOException ex) {
+            throw new IllegalStateException("Unreadable client user attributes", ex);
+        }
+    }
+
+    private static LocalDateTime readDateTime(final ResultSet rs, final String column) throws SQLException {
+        final Timestamp value = rs.getTimestamp(column);
+        return value == null ? null : value.toLocalDateTime();
+    }
+
+}
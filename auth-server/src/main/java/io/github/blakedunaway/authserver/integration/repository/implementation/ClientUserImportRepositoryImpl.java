@@ -0,0 +1,115 @@
+package io.github.blakedunaway.authserver.integration.repository.implementation;
+
+import io.github.blakedunaway.authserver.integration.repository.gateway.ClientUserImportRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Batch inserts for client user imports. Rows skip the JPA merge path entirely, so callers validate them first and
+// move the usage counters themselves.
+@Repository
+@Transactional(readOnly = true)
+public class ClientUserImportRepositoryImpl implements ClientUserImportRepository {
+
+    private static final String FIND_AUTHORITIES = """
+            select authority.authority_name, authority.authority_id
+            from auth.authorities authority
+            where authority.registered_client_id = :registeredClientId
+            """;
+
+    private static final String FIND_EXISTING_EMAILS = """
+            select lower(client_user.email)
+            from auth.client_user client_user
+            where client_user.client_id = :clientId
+              and lower(client_user.email) in (:emails)
+            """;
+
+    private static final String INSERT_CLIENT_USER = """
+            insert into auth.client_user (id, client_id, email, password_hash, is_verified, created_at, updated_at, user_attributes,
+                                          is_locked, is_expired, is_credentials_expired)
+            values (?, ?, ?, ?, ?, ?, ?, ?, false, false, false)
+            """;
+
+    private static final String INSERT_USER_AUTHORITY = "insert into auth.user_authorities (user_id, authority_id) values (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public ClientUserImportRepositoryImpl(final JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    // keyed by the upper-cased name, the way authorities are stored
+    @Override
+    public Map<String, UUID> findAuthorityIds(final UUID registeredClientId) {
+        final Map<String, UUID> authorityIds = new HashMap<>();
+        namedParameterJdbcTemplate.query(FIND_AUTHORITIES,
+                                         new MapSqlParameterSource("registeredClientId", registeredClientId),
+                                         resultSet -> {
+                                             authorityIds.put(resultSet.getString(1).toUpperCase(Locale.ROOT),
+                                                              resultSet.getObject(2, UUID.class));
+                                         });
+        return authorityIds;
+    }
+
+    // lower-cased, the comparison is case insensitive
+    @Override
+    public Set<String> findExistingEmails(final String clientId, final Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                FIND_EXISTING_EMAILS,
+                new MapSqlParameterSource().addValue("clientId", clientId)
+                                           .addValue("emails", emails.stream().map(email -> email.toLowerCase(Locale.ROOT)).toList()),
+                String.class));
+    }
+
+    @Override
+    @Transactional
+    public void insert(final String clientId, final List<NewClientUser> clientUsers) {
+        if (clientUsers.isEmpty()) {
+            return;
+        }
+        final Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_CLIENT_USER, clientUsers, clientUsers.size(), (statement, clientUser) -> {
+            statement.setObject(1, clientUser.id());
+            statement.setString(2, clientId);
+            statement.setString(3, clientUser.email());
+            statement.setString(4, clientUser.passwordHash());
+            statement.setBoolean(5, clientUser.verified());
+            statement.setTimestamp(6, now);
+            statement.setTimestamp(7, now);
+            // untyped so Postgres assigns it to the jsonb column
+            statement.setObject(8, clientUser.attributesJson(), Types.OTHER);
+        });
+        final List<Map.Entry<UUID, UUID>> userAuthorities = clientUsers.stream()
+                                                                       .flatMap(clientUser -> clientUser.authorityIds()
+                                                                                                        .stream()
+                                                                                                        .map(authorityId -> Map.entry(clientUser.id(), authorityId)))
+                                                                       .toList();
+        if (!userAuthorities.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_USER_AUTHORITY, userAuthorities, userAuthorities.size(), (statement, userAuthority) -> {
+                statement.setObject(1, userAuthority.getKey());
+                statement.setObject(2, userAuthority.getValue());
+            });
+        }
+    }
+
+}
@@ -0,0 +1,183 @@
+package io.github.blakedunaway.authserver.integration.repository.implementation;
+
+import io.github.blakedunaway.authserver.business.model.AuthToken;
+import io.github.blakedunaway.authserver.business.model.Authorization;
+import io.github.blakedunaway.authserver.business.model.enums.AuthorizationGrantTypeInternal;
+import io.github.blakedunaway.authserver.business.model.enums.TokenType;
+import io.github.blakedunaway.authserver.integration.repository.audit.TokenAuditWriter;
+import io.github.blakedunaway.authserver.integration.repository.gateway.AuthorizationRepository;
+import io.github.blakedunaway.authserver.mapper.RegisteredClientMapper;
+import io.github.blakedunaway.authserver.security.token.TokenHasher;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Read path that hydrates an Authorization, its scopes and tokens in one statement. The registered client
+// comes from the cached RegisteredClientRepository instead of re-loading its child collections. Writes stay on JPA.
+@Primary
+@Repository
+@Transactional(readOnly = true)
+@ConditionalOnProperty(name = "auth-server.authorization-repository", havingValue = "jdbc")
+public class JdbcAuthorizationRepositoryImpl implements AuthorizationRepository {
+
+    private static final String SELECT_AUTHORIZATION = """
+            select authorization_record.id                       as authorization_id,
+                   authorization_record.registered_client_id     as registered_client_id,
+                   authorization_record.principal_name           as principal_name,
+                   authorization_record.authorization_grant_type as authorization_grant_type,
+                   authorization_scope.scope                     as scope,
+                   auth_token.id                                 as token_id,
+                   auth_token.token_type                         as token_type,
+                   auth_token.token_value_hash                   as token_value_hash,
+                   auth_token.issued_at                          as issued_at,
+                   auth_token.expired_at                         as expired_at,
+                   auth_token.revoked_at                         as revoked_at,
+                   auth_token.subject                            as subject,
+                   auth_token.kid                                as kid,
+                   auth_token.metadata                           as metadata
+            from auth.auth_authorization authorization_record
+            left join auth.authorization_scope authorization_scope on authorization_scope.authorization_id = authorization_record.id
+            left join auth.auth_token auth_token on auth_token.authorization_id = authorization_record.id
+            """;
+
+    private static final String FIND_BY_ID = SELECT_AUTHORIZATION + " where authorization_record.id = ?";
+
+    private static final String FIND_BY_TOKEN_HASH = SELECT_AUTHORIZATION + """
+             where authorization_record.id = (select matched_token.authorization_id
+                                              from auth.auth_token matched_token
+                                              where matched_token.token_value_hash = ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final AuthorizationRepository jpaAuthorizationRepository;
+
+    private final RegisteredClientRepository registeredClientRepository;
+
+    private final RegisteredClientMapper registeredClientMapper;
+
+    private final TokenAuditWriter tokenAuditWriter;
+
+    private final AuthTokenRowMapper authTokenRowMapper = new AuthTokenRowMapper();
+
+    public JdbcAuthorizationRepositoryImpl(final JdbcTemplate jdbcTemplate,
+                                           @Qualifier("authorizationRepositoryImpl") final AuthorizationRepository jpaAuthorizationRepository,
+                                           final RegisteredClientRepository registeredClientRepository,
+                                           final RegisteredClientMapper registeredClientMapper,
+                                           final TokenAuditWriter tokenAuditWriter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jpaAuthorizationRepository = jpaAuthorizationRepository;
+        this.registeredClientRepository = registeredClientRepository;
+        this.registeredClientMapper = registeredClientMapper;
+        this.tokenAuditWriter = tokenAuditWriter;
+    }
+
+    @Override
+    @Transactional
+    public void save(final OAuth2Authorization authorization) {
+        jpaAuthorizationRepository.save(authorization);
+    }
+
+    @Override
+    @Transactional
+    public void remove(final String id) {
+        jpaAuthorizationRepository.remove(id);
+    }
+
+    @Override
+    public Authorization findById(final UUID authId) {
+        if (authId == null) {
+            return null;
+        }
+        final AuthorizationRow row = jdbcTemplate.query(FIND_BY_ID, authorizationExtractor(), authId);
+        return row == null ? null : toAuthorization(row);
+    }
+
+    @Override
+    public Authorization findByToken(final String token, final String tokenType) {
+        final TokenType serializedTokenType = TokenType.getTokenTypeByWireName(tokenType);
+        final String hashedValue = TokenHasher.hmacCurrent(token);
+        final AuthorizationRow row = jdbcTemplate.query(FIND_BY_TOKEN_HASH, authorizationExtractor(), hashedValue);
+        if (row == null) {
+            return tokenAuditWriter.findByUnwrittenToken(hashedValue, serializedTokenType, this::findById);
+        }
+        if (serializedTokenType != null) { // introspection
+            row.tokens()
+               .values()
+               .stream()
+               .filter(foundToken -> foundToken.getHashedTokenValue().equals(hashedValue))
+               .findFirst()
+               .ifPresent(foundToken -> {
+                   if (foundToken.getTokenType() != serializedTokenType) {
+                       throw new IllegalArgumentException("Token type " + serializedTokenType + " does not match token type " + foundToken.getTokenType());
+                   }
+               });
+        }
+        return toAuthorization(row);
+    }
+
+    @Override
+    public List<Authorization> findAll() {
+        return jpaAuthorizationRepository.findAll();
+    }
+
+    private Authorization toAuthorization(final AuthorizationRow row) {
+        return Authorization.builder()
+                            .id(row.id())
+                            .registeredClient(registeredClientMapper.registeredClientToRegisteredClientModel(
+                                    registeredClientRepository.findById(row.registeredClientId())))
+                            .principalName(row.principalName())
+                            .authorizationGrantType(AuthorizationGrantTypeInternal.findByName(row.authorizationGrantType()))
+                            .scopes(row.scopes())
+                            .tokens(new HashSet<>(row.tokens().values()))
+                            .build();
+    }
+
+    private ResultSetExtractor<AuthorizationRow> authorizationExtractor() {
+        return rs -> {
+            AuthorizationRow row = null;
+            while (rs.next()) {
+                if (row == null) {
+                    row = new AuthorizationRow(rs.getObject("authorization_id", UUID.class),
+                                               rs.getObject("registered_client_id", UUID.class).toString(),
+                                               rs.getString("principal_name"),
+                                               rs.getString("authorization_grant_type"),
+                                               new HashSet<>(),
+                                               new LinkedHashMap<>());
+                }
+                final String scope = rs.getString("scope");
+                if (scope != null) {
+                    row.scopes().add(scope);
+                }
+                final UUID tokenId = rs.getObject("token_id", UUID.class);
+                if (tokenId != null && !row.tokens().containsKey(tokenId)) {
+                    row.tokens().put(tokenId, authTokenRowMapper.mapRow(rs, rs.getRow()));
+                }
+            }
+            return row;
+        };
+    }
+
+    private record AuthorizationRow(UUID id,
+                                    String registeredClientId,
+                                    String principalName,
+                                    String authorizationGrantType,
+                                    Set<String> scopes,
+                                    Map<UUID, AuthToken> tokens) {
+
+    }
+
+}
@@ -0,0 +1,114 @@
+package io.github.blakedunaway.authserver.integration.repository.implementation;
+
+import io.github.blakedunaway.authserver.config.redis.RedisStore;
+import io.github.blakedunaway.authserver.integration.repository.gateway.PendingAuthorizationRepository;
+import io.github.blakedunaway.authserver.mapper.PendingAuthorizationCodec;
+import io.github.blakedunaway.authserver.util.RedisUtility;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Authorizations that only hold consent state or an authorization code live in Redis alone. The payload is
+// written under the id, the code hash and the state hash so every lookup is a single GET. Read failures count as
+// a miss, which fails the code exchange closed; write and remove failures propagate.
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class PendingAuthorizationRepositoryImpl implements PendingAuthorizationRepository {
+
+    private final RedisStore redisStore;
+
+    private final PendingAuthorizationCodec pendingAuthorizationCodec;
+
+    private final RegisteredClientRepository registeredClientRepository;
+
+    @Override
+    public void save(final OAuth2Authorization authorization, final Duration ttl) {
+        final Set<String> keys = keysOf(authorization);
+        final OAuth2Authorization previous = findById(authorization.getId());
+        if (previous != null) {
+            // the consent state is dropped once the code is issued
+            final Set<String> staleKeys = keysOf(previous);
+            staleKeys.removeAll(keys);
+            if (!staleKeys.isEmpty()) {
+                redisStore.delete(staleKeys);
+            }
+        }
+        final byte[] payload = pendingAuthorizationCodec.encode(authorization);
+        final Map<String, byte[]> values = new LinkedHashMap<>();
+        keys.forEach(key -> values.put(key, payload));
+        redisStore.putBytes(values, ttl);
+    }
+
+    @Override
+    public OAuth2Authorization findById(final String id) {
+        return find(RedisUtility.PENDING_AUTHORIZATION + id);
+    }
+
+    @Override
+    public OAuth2Authorization findByCode(final String code) {
+        return find(RedisUtility.PENDING_AUTHORIZATION_CODE + PendingAuthorizationCodec.hash(code));
+    }
+
+    // The code key is taken with GETDEL, concurrent exchanges of one code cannot both get past this point. The id
+    // and state keys stay until the exchange saves or they expire.
+    @Override
+    public OAuth2Authorization claimByCode(final String code) {
+        final String key = RedisUtility.PENDING_AUTHORIZATION_CODE + PendingAuthorizationCodec.hash(code);
+        final byte[] payload;
+        try {
+            payload = redisStore.consumeBytes(key);
+        } catch (final RuntimeException ex) {
+            log.warn("Unable to claim pending authorization {}.", key, ex);
+            return null;
+        }
+        return payload == null ? null : pendingAuthorizationCodec.decode(payload, registeredClientRepository::findById);
+    }
+
+    @Override
+    public OAuth2Authorization findByState(final String state) {
+        return find(RedisUtility.PENDING_AUTHORIZATION_STATE + PendingAuthorizationCodec.hash(state));
+    }
+
+    // true when this call removed the entry, false when it had already expired or been removed by another request
+    @Override
+    public boolean remove(final OAuth2Authorization authorization) {
+        return redisStore.delete(keysOf(authorization)) > 0;
+    }
+
+    private OAuth2Authorization find(final String key) {
+        final byte[] payload;
+        try {
+            payload = redisStore.getBytes(key);
+        } catch (final RuntimeException ex) {
+            log.warn("Unable to read pending authorization {}.", key, ex);
+            return null;
+        }
+        return payload == null ? null : pendingAuthorizationCodec.decode(payload, registeredClientRepository::findById);
+    }
+
+    private Set<String> keysOf(final OAuth2Authorization authorization) {
+        final Set<String> keys = new LinkedHashSet<>();
+        keys.add(RedisUtility.PENDING_AUTHORIZATION + authorization.getId());
+        final OAuth2Authorization.Token<OAuth2AuthorizationCode> code = authorization.getToken(OAuth2AuthorizationCode.class);
+        if (code != null) {
+            keys.add(RedisUtility.PENDING_AUTHORIZATION_CODE + PendingAuthorizationCodec.hash(code.getToken().getTokenValue()));
+        }
+        final String state = authorization.getAttribute(OAuth2ParameterNames.STATE);
+        if (state != null) {
+            keys.add(RedisUtility.PENDING_AUTHORIZATION_STATE + PendingAuthorizationCodec.hash(state));
+        }
+        return keys;
+    }
+
+}
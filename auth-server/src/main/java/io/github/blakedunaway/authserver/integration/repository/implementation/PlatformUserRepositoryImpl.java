@@ -1,13 +1,18 @@
 package io.github.blakedunaway.authserver.integration.repository.implementation;
 
 import io.github.blakedunaway.authserver.business.model.Authority;
+import io.github.blakedunaway.authserver.business.model.PlatformUserUsage;
+import io.github.blakedunaway.authserver.business.model.event.PlatformUserChangedEvent;
 import io.github.blakedunaway.authserver.business.model.user.PlatformUserTier;
 import io.github.blakedunaway.authserver.business.model.user.PlatformUser;
+import io.github.blakedunaway.authserver.business.model.user.PlatformUserOwnership;
 import io.github.blakedunaway.authserver.integration.entity.AuthorityEntity;
 import io.github.blakedunaway.authserver.integration.entity.PlatformUserEntity;
 import io.github.blakedunaway.authserver.integration.entity.PlatformUserTierEntity;
 import io.github.blakedunaway.authserver.integration.entity.RegisteredClientEntity;
+import io.github.blakedunaway.authserver.integration.repository.cache.PlatformUserCache;
 import io.github.blakedunaway.authserver.integration.repository.gateway.PlatformUserRepository;
+import io.github.blakedunaway.authserver.integration.repository.gateway.UsageCounterRepository;
 import io.github.blakedunaway.authserver.integration.repository.jpa.AuthorityJpaRepository;
 import io.github.blakedunaway.authserver.integration.repository.jpa.PlatformUserJpaRepository;
 import io.github.blakedunaway.authserver.integration.repository.jpa.PlatformUserTierJpaRepository;
@@ -15,12 +20,15 @@ import io.github.blakedunaway.authserver.integration.repository.jpa.RegisterClie
 import io.github.blakedunaway.authserver.mapper.UserMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -41,6 +49,12 @@ public class PlatformUserRepositoryImpl implements PlatformUserRepository {
 
     private final PlatformUserTierJpaRepository platformUserTierJpaRepository;
 
+    private final UsageCounterRepository usageCounterRepository;
+
+    private final PlatformUserCache platformUserCache;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
     @Value("${auth-server.frontend.client-id}")
     private String frontEndClientId;
 
@@ -50,6 +64,9 @@ public class PlatformUserRepositoryImpl implements PlatformUserRepository {
         final PlatformUserEntity platformUserEntity = userMapper.platformUserToPlatformUserEntity(platformUser);
         final PlatformUserEntity existingPlatformUserEntity = platformUserJpaRepository.findByEmailIgnoreCase(platformUser.getEmail())
                                                                                        .orElse(null);
+        final Set<UUID> previousClientIds = existingPlatformUserEntity == null
+                                            ? Set.of()
+                                            : registeredClientIds(existingPlatformUserEntity.getRegisteredClients());
         if (existingPlatformUserEntity != null) {
             platformUserEntity.setUserId(existingPlatformUserEntity.getUserId());
         }
@@ -57,7 +74,19 @@ public class PlatformUserRepositoryImpl implements PlatformUserRepository {
         platformUserEntity.setTier(resolveManagedTier(platformUser.getTier(), existingPlatformUserEntity));
         platformUserEntity.setAuthorities(resolveManagedAuthorities(platformUser));
         platformUserEntity.setRegisteredClients(resolveManagedRegisteredClients(platformUser));
-        return userMapper.platformUserEntityToPlatformUser(platformUserJpaRepository.save(platformUserEntity));
+        final PlatformUserEntity saved = platformUserJpaRepository.save(platformUserEntity);
+        final Set<UUID> clientIds = registeredClientIds(saved.getRegisteredClients());
+        if (existingPlatformUserEntity == null) {
+            usageCounterRepository.platformUserCreated(saved.getUserId(), clientIds);
+        } else if (!clientIds.equals(previousClientIds)) {
+            final Set<UUID> attached = new HashSet<>(clientIds);
+            attached.removeAll(previousClientIds);
+            final Set<UUID> detached = new HashSet<>(previousClientIds);
+            detached.removeAll(clientIds);
+            usageCounterRepository.ownershipChanged(saved.getUserId(), attached, detached);
+        }
+        applicationEventPublisher.publishEvent(new PlatformUserChangedEvent(saved.getEmail()));
+        return userMapper.platformUserEntityToPlatformUser(saved);
     }
 
     @Override
@@ -65,12 +94,35 @@ public class PlatformUserRepositoryImpl implements PlatformUserRepository {
         return platformUserJpaRepository.findByEmailIgnoreCase(email).map(userMapper::platformUserEntityToPlatformUser);
     }
 
+    // snapshots for authenticated requests, evicted on every save and otherwise at most one cache TTL old
+    @Override
+    public Optional<PlatformUser> findCachedByEmail(final String email) {
+        return Optional.ofNullable(platformUserCache.find(email, () -> findByEmailIgnoreCase(email).orElse(null)));
+    }
+
+    @Override
+    public Optional<PlatformUserOwnership> findOwnershipByEmail(final String email) {
+        return Optional.ofNullable(platformUserCache.findOwnership(email, () -> {
+            final List<Object[]> rows = platformUserJpaRepository.findOwnershipRowsByEmail(email);
+            if (rows.isEmpty()) {
+                return null;
+            }
+            final Set<UUID> registeredClientIds = rows.stream()
+                                                      .map(row -> (UUID) row[2])
+                                                      .filter(Objects::nonNull)
+                                                      .collect(Collectors.toSet());
+            return new PlatformUserOwnership((UUID) rows.getFirst()[0], (String) rows.getFirst()[1], registeredClientIds);
+        }));
+    }
+
+    // counted from the source tables only until the reconciliation job has created the usage row
     @Override
     public int getTotalUserCount(final String email) {
         if (email == null || email.isBlank()) {
             return 0;
         }
-        return platformUserJpaRepository.getTotalUserCount(email);
+        final PlatformUserUsage usage = usageCounterRepository.findByPlatformUserEmail(email);
+        return usage == null ? platformUserJpaRepository.getTotalUserCount(email) : usage.clientUsers();
     }
 
     @Override
@@ -78,7 +130,8 @@ public class PlatformUserRepositoryImpl implements PlatformUserRepository {
         if (email == null || email.isBlank()) {
             return 0;
         }
-        return platformUserJpaRepository.getTotalClientCount(email);
+        final PlatformUserUsage usage = usageCounterRepository.findByPlatformUserEmail(email);
+        return usage == null ? platformUserJpaRepository.getTotalClientCount(email) : usage.registeredClients();
     }
 
     @Override
@@ -86,6 +139,12 @@ public class PlatformUserRepositoryImpl implements PlatformUserRepository {
         return platformUserJpaRepository.findById(uuid).map(userMapper::platformUserEntityToPlatformUser).orElse(null);
     }
 
+    private static Set<UUID> registeredClientIds(final Set<RegisteredClientEntity> registeredClients) {
+        return registeredClients == null
+               ? Set.of()
+               : registeredClients.stream().map(RegisteredClientEntity::getRegisteredClientId).collect(Collectors.toSet());
+    }
+
     private Set<AuthorityEntity> resolveManagedAuthorities(final PlatformUser platformUser) {
         final Set<String> requestedAuthorityNames = platformUser.getAuthorities() == null
                                                     ? Collections.emptySet()
@@ -0,0 +1,97 @@
+package io.github.blakedunaway.authserver.integration.repository.implementation;
+
+import io.github.blakedunaway.authserver.business.model.PlatformUserSubscription;
+import io.github.blakedunaway.authserver.integration.repository.gateway.PlatformUserSubscriptionRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+@Transactional(readOnly = true)
+public class PlatformUserSubscriptionRepositoryImpl implements PlatformUserSubscriptionRepository {
+
+    private static final String FIND_BY_PLATFORM_USER_ID = """
+            select platform_user_id, stripe_subscription_id, stripe_subscription_item_id, stripe_price_id, status, event_created_at
+            from auth.platform_user_subscription
+            where platform_user_id = :platformUserId
+            """;
+
+    // an older report never replaces a newer one, webhooks are not delivered in order
+    private static final String UPDATE_SUBSCRIPTION = """
+            update auth.platform_user_subscription
+            set stripe_subscription_id = :subscriptionId,
+                stripe_subscription_item_id = :subscriptionItemId,
+                stripe_price_id = :priceId,
+                status = :status,
+                event_created_at = :eventCreatedAt,
+                updated_at = :now
+            where platform_user_id = :platformUserId
+              and event_created_at <= :eventCreatedAt
+            """;
+
+    private static final String INSERT_SUBSCRIPTION = """
+            insert into auth.platform_user_subscription (platform_user_id, stripe_subscription_id, stripe_subscription_item_id,
+                                                         stripe_price_id, status, event_created_at, updated_at)
+            values (:platformUserId, :subscriptionId, :subscriptionItemId, :priceId, :status, :eventCreatedAt, :now)
+            """;
+
+    private static final String EXISTS = "select count(*) from auth.platform_user_subscription where platform_user_id = :platformUserId";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public PlatformUserSubscriptionRepositoryImpl(final JdbcTemplate jdbcTemplate) {
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @Override
+    public PlatformUserSubscription findByPlatformUserId(final UUID platformUserId) {
+        final List<PlatformUserSubscription> subscriptions = namedParameterJdbcTemplate.query(
+                FIND_BY_PLATFORM_USER_ID,
+                new MapSqlParameterSource("platformUserId", platformUserId),
+                (rs, rowNum) -> new PlatformUserSubscription(rs.getObject("platform_user_id", UUID.class),
+                                                             rs.getString("stripe_subscription_id"),
+                                                             rs.getString("stripe_subscription_item_id"),
+                                                             rs.getString("stripe_price_id"),
+                                                             rs.getString("status"),
+                                                             rs.getTimestamp("event_created_at").toInstant()));
+        return subscriptions.isEmpty() ? null : subscriptions.getFirst();
+    }
+
+    // False when a newer report is already stored. Runs outside any transaction so the update can be retried after
+    // losing an insert race, which would otherwise have aborted the transaction on Postgres.
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean save(final PlatformUserSubscription subscription) {
+        final MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("platformUserId", subscription.platformUserId())
+                .addValue("subscriptionId", subscription.subscriptionId())
+                .addValue("subscriptionItemId", subscription.subscriptionItemId())
+                .addValue("priceId", subscription.priceId())
+                .addValue("status", subscription.status())
+                .addValue("eventCreatedAt", Timestamp.from(subscription.eventCreatedAt()))
+                .addValue("now", Timestamp.from(Instant.now()));
+        if (namedParameterJdbcTemplate.update(UPDATE_SUBSCRIPTION, parameters) > 0) {
+            return true;
+        }
+        final Integer existing = namedParameterJdbcTemplate.queryForObject(EXISTS, parameters, Integer.class);
+        if (existing != null && existing > 0) {
+            return false;
+        }
+        try {
+            return namedParameterJdbcTemplate.update(INSERT_SUBSCRIPTION, parameters) > 0;
+        } catch (final DuplicateKeyException ex) {
+            // a concurrent webhook inserted the row first
+            return namedParameterJdbcTemplate.update(UPDATE_SUBSCRIPTION, parameters) > 0;
+        }
+    }
+
+}
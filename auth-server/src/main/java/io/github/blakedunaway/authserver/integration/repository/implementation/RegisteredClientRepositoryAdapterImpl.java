@@ -1,6 +1,7 @@
 package io.github.blakedunaway.authserver.integration.repository.implementation;
 
 import io.github.blakedunaway.authserver.business.model.RegisteredClientModel;
+import io.github.blakedunaway.authserver.integration.repository.cache.RegisteredClientCache;
 import io.github.blakedunaway.authserver.integration.repository.gateway.RegisteredClientInternalRepository;
 import io.github.blakedunaway.authserver.mapper.RegisteredClientMapper;
 import lombok.RequiredArgsConstructor;
@@ -18,6 +19,8 @@ public class RegisteredClientRepositoryAdapterImpl implements RegisteredClientRe
 
     private final RegisteredClientMapper mapper;
 
+    private final RegisteredClientCache registeredClientCache;
+
     @Override
     @Transactional
     public void save(final RegisteredClient rc) {
@@ -26,14 +29,18 @@ public class RegisteredClientRepositoryAdapterImpl implements RegisteredClientRe
 
     @Override
     public RegisteredClient findById(final String id) {
-        final RegisteredClientModel model = internal.findById(id);
-        return model == null ? null : model.toOAuth2RegisteredClient();
+        return registeredClientCache.findById(id, () -> {
+            final RegisteredClientModel model = internal.findById(id);
+            return model == null ? null : model.toOAuth2RegisteredClient();
+        });
     }
 
     @Override
     public RegisteredClient findByClientId(final String clientId) {
-        final RegisteredClientModel model = internal.findByClientId(clientId);
-        return model == null ? null : model.toOAuth2RegisteredClient();
+        return registeredClientCache.findByClientId(clientId, () -> {
+            final RegisteredClientModel model = internal.findByClientId(clientId);
+            return model == null ? null : model.toOAuth2RegisteredClient();
+        });
     }
 
 }
@@ -1,14 +1,19 @@
 package io.github.blakedunaway.authserver.integration.repository.implementation;
 
 import io.github.blakedunaway.authserver.business.model.RegisteredClientModel;
+import io.github.blakedunaway.authserver.business.model.event.RegisteredClientChangedEvent;
+import io.github.blakedunaway.authserver.integration.entity.AuthorityEntity;
 import io.github.blakedunaway.authserver.integration.entity.RegisteredClientEntity;
 import io.github.blakedunaway.authserver.integration.entity.RegisteredClientScopeEntity;
 import io.github.blakedunaway.authserver.integration.repository.gateway.RegisteredClientInternalRepository;
+import io.github.blakedunaway.authserver.integration.repository.gateway.UsageCounterRepository;
 import io.github.blakedunaway.authserver.integration.repository.jpa.RegisterClientJpaRepository;
 import io.github.blakedunaway.authserver.integration.repository.jpa.RegisteredClientScopeJpaRepository;
 import io.github.blakedunaway.authserver.mapper.RegisteredClientMapper;
+import io.github.blakedunaway.authserver.util.AuthorityUtility;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
@@ -31,6 +36,10 @@ public class RegisteredClientRepositoryImpl implements RegisteredClientInternalR
 
     private final RegisteredClientScopeJpaRepository registeredClientScopeJpaRepository;
 
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final UsageCounterRepository usageCounterRepository;
+
     @Transactional
     public RegisteredClientModel save(final RegisteredClientModel model) {
         Assert.isNull(model.getClientId(), "Client id must be null for new RegisteredClient");
@@ -40,7 +49,10 @@ public class RegisteredClientRepositoryImpl implements RegisteredClientInternalR
                                                                                           .withClientIdIssuedAt(LocalDateTime.now()));
         entity.setScopes(resolveManagedScopes(model.getScopes()));
 
-        return registeredClientMapper.registeredClientEntityToRegisteredClientModel(registerClientJpaRepository.save(entity));
+        final RegisteredClientEntity savedEntity = registerClientJpaRepository.save(entity);
+        usageCounterRepository.registeredClientCreated(savedEntity.getClientId());
+        applicationEventPublisher.publishEvent(new RegisteredClientChangedEvent(savedEntity.getClientId()));
+        return registeredClientMapper.registeredClientEntityToRegisteredClientModel(savedEntity);
     }
 
     @Transactional
@@ -49,13 +61,19 @@ public class RegisteredClientRepositoryImpl implements RegisteredClientInternalR
             throw new IllegalArgumentException("clientId is required for update()");
         }
         registerClientJpaRepository.findByClientId(updatedModel.getClientId()).map(client -> {
+                                       final int scopesBefore = client.getScopes() == null ? 0 : client.getScopes().size();
+                                       final int authoritiesBefore = countAuthorities(client);
                                        registeredClientMapper.updateEntity(updatedModel, client);
                                        client.setScopes(resolveManagedScopes(updatedModel.getScopes()));
+                                       usageCounterRepository.registeredClientChanged(client.getRegisteredClientId(),
+                                                                                      client.getScopes().size() - scopesBefore,
+                                                                                      countAuthorities(client) - authoritiesBefore);
                                        return client;
                                    })
                                    .orElseThrow(() -> new EntityNotFoundException(
                                            "Client with clientId " + updatedModel.getClientId() + " does not exist"));
 
+        applicationEventPublisher.publishEvent(new RegisteredClientChangedEvent(updatedModel.getClientId()));
         return updatedModel;
     }
 
@@ -81,6 +99,18 @@ public class RegisteredClientRepositoryImpl implements RegisteredClientInternalR
                                           .collect(Collectors.toCollection(HashSet::new));
     }
 
+    // roles are stored beside authorities but only authorities count against the tier
+    private static int countAuthorities(final RegisteredClientEntity client) {
+        if (client.getAuthorities() == null) {
+            return 0;
+        }
+        return AuthorityUtility.extractAuthorities(client.getAuthorities()
+                                                         .stream()
+                                                         .map(AuthorityEntity::getName)
+                                                         .collect(Collectors.toSet()))
+                               .size();
+    }
+
     private Set<RegisteredClientScopeEntity> resolveManagedScopes(final Set<String> scopes) {
         final Set<String> requestedScopes = scopes == null
                                             ? Collections.emptySet()
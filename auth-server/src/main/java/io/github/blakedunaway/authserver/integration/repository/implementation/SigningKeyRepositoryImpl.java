@@ -2,11 +2,13 @@ package io.github.blakedunaway.authserver.integration.repository.implementation;
 
 import io.github.blakedunaway.authserver.business.model.SigningKey;
 import io.github.blakedunaway.authserver.business.model.enums.SigningKeyStatus;
+import io.github.blakedunaway.authserver.business.model.event.SigningKeysChangedEvent;
 import io.github.blakedunaway.authserver.integration.entity.SigningKeyEntity;
 import io.github.blakedunaway.authserver.integration.repository.gateway.SigningKeyRepository;
 import io.github.blakedunaway.authserver.integration.repository.jpa.SigningKeyJpaRepository;
 import io.github.blakedunaway.authserver.mapper.SigningKeyMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,6 +16,7 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @Repository
 @RequiredArgsConstructor
@@ -24,9 +27,12 @@ public class SigningKeyRepositoryImpl implements SigningKeyRepository {
 
     private final SigningKeyMapper signingKeyMapper;
 
+    private final ApplicationEventPublisher applicationEventPublisher;
+
     @Transactional
     @Override
     public SigningKey save(final SigningKey signingKey) {
+        applicationEventPublisher.publishEvent(new SigningKeysChangedEvent(Set.of(signingKey.getKid())));
         final Optional<SigningKeyEntity> signingKeyEntity = signingKeyJpaRepository.findByKid(signingKey.getKid());
         if (signingKeyEntity.isPresent()) {
             final SigningKey updated = SigningKey.from(signingKeyEntity.get()
@@ -68,6 +74,9 @@ public class SigningKeyRepositoryImpl implements SigningKeyRepository {
         //deleting for now, maybe keep for auditing
         if (!toPurge.isEmpty()) {
             signingKeyJpaRepository.deleteAllInBatch(toPurge);
+            applicationEventPublisher.publishEvent(new SigningKeysChangedEvent(toPurge.stream()
+                                                                                      .map(SigningKeyEntity::getKid)
+                                                                                      .collect(Collectors.toSet())));
         }
         return signingKeyMapper.toSigningKeyList(toPurge);
     }
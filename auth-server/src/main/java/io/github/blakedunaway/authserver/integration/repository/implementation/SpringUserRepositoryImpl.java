@@ -5,6 +5,7 @@ import io.github.blakedunaway.authserver.business.model.user.ClientUser;
 import io.github.blakedunaway.authserver.integration.entity.AuthorityEntity;
 import io.github.blakedunaway.authserver.integration.entity.ClientUserEntity;
 import io.github.blakedunaway.authserver.integration.entity.RegisteredClientEntity;
+import io.github.blakedunaway.authserver.integration.repository.gateway.UsageCounterRepository;
 import io.github.blakedunaway.authserver.integration.repository.gateway.UserRepository;
 import io.github.blakedunaway.authserver.integration.repository.jpa.AuthorityJpaRepository;
 import io.github.blakedunaway.authserver.integration.repository.jpa.ClientUserJpaRepository;
@@ -35,13 +36,20 @@ public class SpringUserRepositoryImpl implements UserRepository {
 
     private final RegisterClientJpaRepository registerClientJpaRepository;
 
+    private final UsageCounterRepository usageCounterRepository;
+
     @Override
     @Transactional
     public ClientUser save(final ClientUser clientUser) {
         final ClientUserEntity clientUserEntity = userMapper.clientUserToClientUserEntity(clientUser);
-        clientUserJpaRepository.findByEmailAndClientId(clientUser.getEmail(), clientUser.getClientId()).ifPresent(found -> clientUserEntity.setUserId(found.getUserId()));
+        final Optional<ClientUserEntity> existing = clientUserJpaRepository.findByEmailAndClientId(clientUser.getEmail(), clientUser.getClientId());
+        existing.ifPresent(found -> clientUserEntity.setUserId(found.getUserId()));
         clientUserEntity.setAuthorities(resolveManagedAuthorities(clientUser));
-        return userMapper.clientUserEntityToClientUser(clientUserJpaRepository.save(clientUserEntity));
+        final ClientUserEntity saved = clientUserJpaRepository.save(clientUserEntity);
+        if (existing.isEmpty()) {
+            usageCounterRepository.clientUsersCreated(saved.getClientId(), 1);
+        }
+        return userMapper.clientUserEntityToClientUser(saved);
     }
 
     private Set<AuthorityEntity> resolveManagedAuthorities(final ClientUser clientUser) {
@@ -0,0 +1,78 @@
+package io.github.blakedunaway.authserver.integration.repository.implementation;
+
+import io.github.blakedunaway.authserver.integration.repository.audit.TokenAuditRecord;
+import io.github.blakedunaway.authserver.integration.repository.gateway.TokenAuditRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+// Runs outside any transaction on purpose: when a batch hits a constraint, the rows are retried one statement
+// at a time and only the offending ones are skipped. A record that carries a revocation and finds its row
+// already written updates that row instead, so the revocation is not lost with the duplicate insert.
+@Repository
+@RequiredArgsConstructor
+public class TokenAuditRepositoryImpl implements TokenAuditRepository {
+
+    private static final String INSERT_TOKEN = """
+            insert into auth.auth_token (id, authorization_id, token_type, token_value_hash, kid, subject, issued_at, expired_at, revoked_at, metadata)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String REVOKE_TOKEN = """
+            update auth.auth_token
+            set revoked_at = coalesce(revoked_at, ?),
+                metadata   = ?
+            where token_value_hash = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int insertBatch(final List<TokenAuditRecord> records) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_TOKEN, records, records.size(), TokenAuditRepositoryImpl::bind);
+            return records.size();
+        } catch (final DataIntegrityViolationException ex) {
+            // the authorization was removed meanwhile, or a replayed segment overlaps rows already written
+            int inserted = 0;
+            for (final TokenAuditRecord record : records) {
+                try {
+                    inserted += jdbcTemplate.update(INSERT_TOKEN, statement -> bind(statement, record));
+                } catch (final DataIntegrityViolationException duplicate) {
+                    if (record.invalidated()) {
+                        inserted += jdbcTemplate.update(REVOKE_TOKEN, statement -> bindRevocation(statement, record));
+                    }
+                }
+            }
+            return inserted;
+        }
+    }
+
+    private static void bind(final PreparedStatement statement, final TokenAuditRecord record) throws SQLException {
+        statement.setObject(1, record.id());
+        statement.setObject(2, record.authorizationId());
+        statement.setString(3, record.tokenType().name());
+        statement.setString(4, record.tokenValueHash());
+        statement.setString(5, record.kid());
+        statement.setString(6, record.subject());
+        statement.setTimestamp(7, Timestamp.from(record.issuedAt()));
+        statement.setTimestamp(8, Timestamp.from(record.expiresAt()));
+        statement.setTimestamp(9, record.revokedAt() == null ? null : Timestamp.from(record.revokedAt()));
+        // untyped so Postgres assigns it to the jsonb column
+        statement.setObject(10, record.metadataJson(), Types.OTHER);
+    }
+
+    private static void bindRevocation(final PreparedStatement statement, final TokenAuditRecord record) throws SQLException {
+        statement.setTimestamp(1, record.revokedAt() == null ? null : Timestamp.from(record.revokedAt()));
+        statement.setObject(2, record.metadataJson(), Types.OTHER);
+        statement.setString(3, record.tokenValueHash());
+    }
+
+}
@@ -0,0 +1,344 @@
+package io.github.blakedunaway.authserver.integration.repository.implementation;
+
+import io.github.blakedunaway.authserver.business.model.PlatformUserUsage;
+import io.github.blakedunaway.authserver.integration.repository.gateway.UsageCounterRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+// Counters are moved by relative updates so concurrent changes never overwrite each other. Writes join the
+// transaction of the change being counted; a platform user or client without a row yet is simply not counted
+// until the reconciliation job recreates it from the source tables.
+@Repository
+@Transactional(readOnly = true)
+public class UsageCounterRepositoryImpl implements UsageCounterRepository {
+
+    private static final String FIND_BY_PLATFORM_USER_ID = """
+            select registered_clients, scopes, authorities, client_users
+            from auth.platform_user_usage
+            where platform_user_id = :platformUserId
+            """;
+
+    private static final String FIND_BY_PLATFORM_USER_EMAIL = """
+            select platform_user_usage.registered_clients,
+                   platform_user_usage.scopes,
+                   platform_user_usage.authorities,
+                   platform_user_usage.client_users
+            from auth.platform_user_usage platform_user_usage
+            join auth.platform_user platform_user on platform_user.id = platform_user_usage.platform_user_id
+            where lower(platform_user.email) = lower(:email)
+            """;
+
+    private static final String FIND_OWNED_CLIENT_IDS = "select registered_client_id from auth.user_clients where user_id = :platformUserId";
+
+    // client users come from the client counter when it exists, otherwise they are counted
+    private static final String COUNT_CLIENTS = """
+            select (select count(*)
+                    from auth.registered_client_scopes client_scope
+                    where client_scope.registered_client_id = registered_client.registered_client_id) as scopes,
+                   (select count(*)
+                    from auth.authorities authority
+                    where authority.registered_client_id = registered_client.registered_client_id
+                      and authority.authority_name not like 'ROLE!_%' escape '!') as authorities,
+                   coalesce((select client_usage.client_users
+                             from auth.client_usage client_usage
+                             where client_usage.client_id = registered_client.client_id),
+                            (select count(*)
+                             from auth.client_user client_user
+                             where client_user.client_id = registered_client.client_id)) as client_users
+            from auth.registered_client registered_client
+            where registered_client.registered_client_id in (:registeredClientIds)
+            """;
+
+    private static final String INSERT_PLATFORM_USER_USAGE = """
+            insert into auth.platform_user_usage (platform_user_id, registered_clients, scopes, authorities, client_users)
+            values (:platformUserId, :registeredClients, :scopes, :authorities, :clientUsers)
+            """;
+
+    private static final String ADD_TO_PLATFORM_USER = """
+            update auth.platform_user_usage
+            set registered_clients = registered_clients + :registeredClients,
+                scopes = scopes + :scopes,
+                authorities = authorities + :authorities,
+                client_users = client_users + :clientUsers
+            where platform_user_id = :platformUserId
+            """;
+
+    private static final String ADD_TO_CLIENT_OWNERS = """
+            update auth.platform_user_usage
+            set scopes = scopes + :scopes,
+                authorities = authorities + :authorities
+            where platform_user_id in (select user_clients.user_id
+                                       from auth.user_clients user_clients
+                                       where user_clients.registered_client_id = :registeredClientId)
+            """;
+
+    private static final String INSERT_CLIENT_USAGE = "insert into auth.client_usage (client_id, client_users) values (:clientId, 0)";
+
+    private static final String INSERT_COUNTED_CLIENT_USAGE = """
+            insert into auth.client_usage (client_id, client_users)
+            select :clientId, count(*)
+            from auth.client_user client_user
+            where client_user.client_id = :clientId
+            """;
+
+    private static final String FIND_CLIENT_USAGE = "select client_users from auth.client_usage where client_id = :clientId";
+
+    private static final String LOCK_CLIENT_USAGE = FIND_CLIENT_USAGE + " for update";
+
+    private static final String INCREMENT_CLIENT_USERS = "update auth.client_usage set client_users = client_users + :count where client_id = :clientId";
+
+    private static final String INCREMENT_OWNER_CLIENT_USERS = """
+            update auth.platform_user_usage
+            set client_users = client_users + :count
+            where platform_user_id in (select user_clients.user_id
+                                       from auth.user_clients user_clients
+                                       join auth.registered_client registered_client
+                                         on registered_client.registered_client_id = user_clients.registered_client_id
+                                       where registered_client.client_id = :clientId)
+            """;
+
+    private static final String INSERT_MISSING_CLIENT_USAGE = """
+            insert into auth.client_usage (client_id, client_users)
+            select registered_client.client_id, 0
+            from auth.registered_client registered_client
+            where not exists (select 1 from auth.client_usage client_usage where client_usage.client_id = registered_client.client_id)
+            """;
+
+    private static final String REPAIR_CLIENT_USAGE = """
+            update auth.client_usage client_usage
+            set client_users = (select count(*) from auth.client_user client_user where client_user.client_id = client_usage.client_id)
+            where client_usage.client_users <> (select count(*) from auth.client_user client_user where client_user.client_id = client_usage.client_id)
+            """;
+
+    private static final String INSERT_MISSING_PLATFORM_USER_USAGE = """
+            insert into auth.platform_user_usage (platform_user_id, registered_clients, scopes, authorities, client_users)
+            select platform_user.id, 0, 0, 0, 0
+            from auth.platform_user platform_user
+            where not exists (select 1
+                              from auth.platform_user_usage platform_user_usage
+                              where platform_user_usage.platform_user_id = platform_user.id)
+            """;
+
+    private static final String OWNED_CLIENTS = """
+            (select count(*)
+             from auth.user_clients user_clients
+             where user_clients.user_id = platform_user_usage.platform_user_id)
+            """;
+
+    private static final String OWNED_SCOPES = """
+            (select count(*)
+             from auth.user_clients user_clients
+             join auth.registered_client_scopes client_scope on client_scope.registered_client_id = user_clients.registered_client_id
+             where user_clients.user_id = platform_user_usage.platform_user_id)
+            """;
+
+    private static final String OWNED_AUTHORITIES = """
+            (select count(*)
+             from auth.user_clients user_clients
+             join auth.authorities authority on authority.registered_client_id = user_clients.registered_client_id
+             where user_clients.user_id = platform_user_usage.platform_user_id
+               and authority.authority_name not like 'ROLE!_%' escape '!')
+            """;
+
+    private static final String OWNED_CLIENT_USERS = """
+            (select count(*)
+             from auth.user_clients user_clients
+             join auth.registered_client registered_client on registered_client.registered_client_id = user_clients.registered_client_id
+             join auth.client_user client_user on client_user.client_id = registered_client.client_id
+             where user_clients.user_id = platform_user_usage.platform_user_id)
+            """;
+
+    private static final String REPAIR_PLATFORM_USER_USAGE = """
+            update auth.platform_user_usage platform_user_usage
+            set registered_clients = %1$s, scopes = %2$s, authorities = %3$s, client_users = %4$s
+            where platform_user_usage.registered_clients <> %1$s
+               or platform_user_usage.scopes <> %2$s
+               or platform_user_usage.authorities <> %3$s
+               or platform_user_usage.client_users <> %4$s
+            """.formatted(OWNED_CLIENTS, OWNED_SCOPES, OWNED_AUTHORITIES, OWNED_CLIENT_USERS);
+
+    private static final RowMapper<PlatformUserUsage> USAGE_ROW_MAPPER = (resultSet, rowNum) ->
+            new PlatformUserUsage(resultSet.getInt("registered_clients"),
+                                  resultSet.getInt("scopes"),
+                                  resultSet.getInt("authorities"),
+                                  resultSet.getInt("client_users"));
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public UsageCounterRepositoryImpl(final JdbcTemplate jdbcTemplate) {
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @Override
+    public PlatformUserUsage findByPlatformUserId(final UUID platformUserId) {
+        if (platformUserId == null) {
+            return null;
+        }
+        return namedParameterJdbcTemplate.query(FIND_BY_PLATFORM_USER_ID,
+                                                new MapSqlParameterSource("platformUserId", platformUserId),
+                                                USAGE_ROW_MAPPER)
+                                         .stream()
+                                         .findFirst()
+                                         .orElse(null);
+    }
+
+    @Override
+    public PlatformUserUsage findByPlatformUserEmail(final String email) {
+        if (email == null || email.isBlank()) {
+            return null;
+        }
+        return namedParameterJdbcTemplate.query(FIND_BY_PLATFORM_USER_EMAIL, new MapSqlParameterSource("email", email), USAGE_ROW_MAPPER)
+                                         .stream()
+                                         .findFirst()
+                                         .orElse(null);
+    }
+
+    // the usage the platform user would have owning exactly the given clients, counting only the clients that differ
+    @Override
+    public PlatformUserUsage projectOwnership(final UUID platformUserId, final Set<UUID> registeredClientIds) {
+        final PlatformUserUsage usage = findByPlatformUserId(platformUserId);
+        if (usage == null) {
+            return null;
+        }
+        final Set<UUID> owned = new HashSet<>(namedParameterJdbcTemplate.queryForList(FIND_OWNED_CLIENT_IDS,
+                                                                                      new MapSqlParameterSource("platformUserId", platformUserId),
+                                                                                      UUID.class));
+        final Set<UUID> requested = registeredClientIds == null ? Set.of() : registeredClientIds;
+        return usage.plus(countClients(difference(requested, owned))).minus(countClients(difference(owned, requested)));
+    }
+
+    // creates the row of a platform user that predates the counters, counted from what the user owns right now. Runs
+    // outside a transaction so that losing the insert to a concurrent one leaves the row that won readable.
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PlatformUserUsage findOrCreateByPlatformUserId(final UUID platformUserId) {
+        final PlatformUserUsage usage = findByPlatformUserId(platformUserId);
+        if (usage != null || platformUserId == null) {
+            return usage;
+        }
+        final Set<UUID> owned = new HashSet<>(namedParameterJdbcTemplate.queryForList(FIND_OWNED_CLIENT_IDS,
+                                                                                      new MapSqlParameterSource("platformUserId", platformUserId),
+                                                                                      UUID.class));
+        try {
+            namedParameterJdbcTemplate.update(INSERT_PLATFORM_USER_USAGE, usageParameters(platformUserId, countClients(owned)));
+        } catch (final DuplicateKeyException ignored) {
+            // created concurrently
+        }
+        return findByPlatformUserId(platformUserId);
+    }
+
+    @Override
+    @Transactional
+    public void platformUserCreated(final UUID platformUserId, final Set<UUID> registeredClientIds) {
+        namedParameterJdbcTemplate.update(INSERT_PLATFORM_USER_USAGE, usageParameters(platformUserId, countClients(registeredClientIds)));
+    }
+
+    @Override
+    @Transactional
+    public void ownershipChanged(final UUID platformUserId, final Set<UUID> attachedClientIds, final Set<UUID> detachedClientIds) {
+        final PlatformUserUsage delta = countClients(attachedClientIds).minus(countClients(detachedClientIds));
+        if (!delta.equals(PlatformUserUsage.empty())) {
+            namedParameterJdbcTemplate.update(ADD_TO_PLATFORM_USER, usageParameters(platformUserId, delta));
+        }
+    }
+
+    @Override
+    @Transactional
+    public void registeredClientCreated(final String clientId) {
+        namedParameterJdbcTemplate.update(INSERT_CLIENT_USAGE, new MapSqlParameterSource("clientId", clientId));
+    }
+
+    @Override
+    @Transactional
+    public void registeredClientChanged(final UUID registeredClientId, final int scopeDelta, final int authorityDelta) {
+        if (scopeDelta == 0 && authorityDelta == 0) {
+            return;
+        }
+        namedParameterJdbcTemplate.update(ADD_TO_CLIENT_OWNERS,
+                                          new MapSqlParameterSource().addValue("registeredClientId", registeredClientId)
+                                                                     .addValue("scopes", scopeDelta)
+                                                                     .addValue("authorities", authorityDelta));
+    }
+
+    // same as findOrCreateByPlatformUserId, for a client that predates the counters
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void createClientUsageIfMissing(final String clientId) {
+        final MapSqlParameterSource parameters = new MapSqlParameterSource("clientId", clientId);
+        if (!namedParameterJdbcTemplate.queryForList(FIND_CLIENT_USAGE, parameters, Integer.class).isEmpty()) {
+            return;
+        }
+        try {
+            namedParameterJdbcTemplate.update(INSERT_COUNTED_CLIENT_USAGE, parameters);
+        } catch (final DuplicateKeyException ignored) {
+            // created concurrently
+        }
+    }
+
+    // held until the caller's transaction ends, serializes the writers of one client's users
+    @Override
+    @Transactional
+    public void lockClientUsage(final String clientId) {
+        namedParameterJdbcTemplate.queryForList(LOCK_CLIENT_USAGE, new MapSqlParameterSource("clientId", clientId), Integer.class);
+    }
+
+    @Override
+    @Transactional
+    public void clientUsersCreated(final String clientId, final int count) {
+        final MapSqlParameterSource parameters = new MapSqlParameterSource().addValue("clientId", clientId)
+                                                                            .addValue("count", count);
+        namedParameterJdbcTemplate.update(INCREMENT_CLIENT_USERS, parameters);
+        namedParameterJdbcTemplate.update(INCREMENT_OWNER_CLIENT_USERS, parameters);
+    }
+
+    // recounts from the source tables and returns how many counter rows were created or corrected
+    @Override
+    @Transactional
+    public int reconcile() {
+        final MapSqlParameterSource none = new MapSqlParameterSource();
+        return namedParameterJdbcTemplate.update(INSERT_MISSING_CLIENT_USAGE, none)
+                + namedParameterJdbcTemplate.update(REPAIR_CLIENT_USAGE, none)
+                + namedParameterJdbcTemplate.update(INSERT_MISSING_PLATFORM_USER_USAGE, none)
+                + namedParameterJdbcTemplate.update(REPAIR_PLATFORM_USER_USAGE, none);
+    }
+
+    private PlatformUserUsage countClients(final Set<UUID> registeredClientIds) {
+        if (registeredClientIds == null || registeredClientIds.isEmpty()) {
+            return PlatformUserUsage.empty();
+        }
+        final List<PlatformUserUsage> clients = namedParameterJdbcTemplate.query(
+                COUNT_CLIENTS,
+                new MapSqlParameterSource("registeredClientIds", registeredClientIds),
+                (resultSet, rowNum) -> new PlatformUserUsage(1,
+                                                             resultSet.getInt("scopes"),
+                                                             resultSet.getInt("authorities"),
+                                                             resultSet.getInt("client_users")));
+        return clients.stream().reduce(PlatformUserUsage.empty(), PlatformUserUsage::plus);
+    }
+
+    private static MapSqlParameterSource usageParameters(final UUID platformUserId, final PlatformUserUsage usage) {
+        return new MapSqlParameterSource().addValue("platformUserId", platformUserId)
+                                          .addValue("registeredClients", usage.registeredClients())
+                                          .addValue("scopes", usage.scopes())
+                                          .addValue("authorities", usage.authorities())
+                                          .addValue("clientUsers", usage.clientUsers());
+    }
+
+    private static Set<UUID> difference(final Set<UUID> from, final Set<UUID> without) {
+        final Set<UUID> difference = new HashSet<>(from);
+        difference.removeAll(without);
+        return difference;
+    }
+
+}
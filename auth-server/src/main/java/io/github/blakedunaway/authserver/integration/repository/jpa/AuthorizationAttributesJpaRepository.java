@@ -0,0 +1,12 @@
+package io.github.blakedunaway.authserver.integration.repository.jpa;
+
+import io.github.blakedunaway.authserver.integration.entity.AuthorizationAttributesEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface AuthorizationAttributesJpaRepository extends JpaRepository<AuthorizationAttributesEntity, UUID> {
+
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -32,6 +33,15 @@ public interface PlatformUserJpaRepository extends JpaRepository<PlatformUserEnt
             """, nativeQuery = true)
     int getTotalClientCount(@Param("email") final String email);
 
+    // one row per owned client, or a single row with a null client id when the user owns none
+    @Query("""
+            select platformUser.userId, platformUser.email, registeredClient.registeredClientId
+            from PlatformUserEntity platformUser
+            left join platformUser.registeredClients registeredClient
+            where lower(platformUser.email) = lower(:email)
+            """)
+    List<Object[]> findOwnershipRowsByEmail(@Param("email") final String email);
+
 
 }
 
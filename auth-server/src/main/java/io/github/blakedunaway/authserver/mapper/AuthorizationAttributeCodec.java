@@ -0,0 +1,248 @@
+package io.github.blakedunaway.authserver.mapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.blakedunaway.authserver.util.BinaryEncodingUtility;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static io.github.blakedunaway.authserver.util.BinaryEncodingUtility.readString;
+import static io.github.blakedunaway.authserver.util.BinaryEncodingUtility.readStrings;
+import static io.github.blakedunaway.authserver.util.BinaryEncodingUtility.writeString;
+import static io.github.blakedunaway.authserver.util.BinaryEncodingUtility.writeStrings;
+
+// OAuth2Authorization attributes in a versioned binary form, used for the stored copy and the Redis cache alike.
+// The principal and the authorization request, which make up nearly every attribute map, are written field by
+// field, as are plain values and nested maps and lists of them. Anything else goes through the security
+// ObjectMapper, whose allowlist decides what may be read back. Payloads come from the database and Redis, so Java
+// serialization is never used, values written with it by earlier versions are rejected. Payloads from a newer
+// format version decode as empty.
+@Slf4j
+@Component
+public class AuthorizationAttributeCodec {
+
+    static final byte FORMAT_VERSION = 1;
+
+    private static final byte NULL = 0;
+
+    private static final byte STRING = 1;
+
+    private static final byte STRING_SET = 2;
+
+    private static final byte BOOLEAN = 3;
+
+    private static final byte INTEGER = 4;
+
+    private static final byte LONG = 5;
+
+    private static final byte INSTANT = 6;
+
+    private static final byte LIST = 7;
+
+    private static final byte MAP = 8;
+
+    private static final byte AUTHORIZATION_REQUEST = 20;
+
+    private static final byte JSON = 126;
+
+    // only ever read, to reject payloads written before Java serialization was dropped
+    private static final byte JAVA_SERIALIZED = 127;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ObjectMapper securityObjectMapper;
+
+    private DistributionSummary payloadSize;
+
+    private Timer decodeTimer;
+
+    public AuthorizationAttributeCodec(final MeterRegistry meterRegistry,
+                                       @Qualifier("securityObjectMapper") final ObjectMapper securityObjectMapper) {
+        this.meterRegistry = meterRegistry;
+        this.securityObjectMapper = securityObjectMapper;
+    }
+
+    @PostConstruct
+    void initialize() {
+        this.payloadSize = DistributionSummary.builder("auth.authorization.attributes.size")
+                                              .description("Encoded size of stored authorization attributes")
+                                              .baseUnit("bytes")
+                                              .register(meterRegistry);
+        this.decodeTimer = Timer.builder("auth.authorization.attributes.decode")
+                                .description("Time spent decoding stored authorization attributes")
+                                .register(meterRegistry);
+    }
+
+    public byte[] encode(final Map<String, Object> attributes) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            writeMap(out, attributes == null ? Map.of() : attributes);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException("Unable to encode authorization attributes", ex);
+        }
+        payloadSize.record(bytes.size());
+        return bytes.toByteArray();
+    }
+
+    public Map<String, Object> decode(final byte[] payload) {
+        if (payload == null || payload.length == 0) {
+            return Collections.emptyMap();
+        }
+        if (payload[0] != FORMAT_VERSION) {
+            log.warn("Ignoring authorization attributes written with unknown format version {}.", payload[0]);
+            return Collections.emptyMap();
+        }
+        return decodeTimer.record(() -> {
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload, 1, payload.length - 1))) {
+                return readMap(in);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException("Unable to decode authorization attributes", ex);
+            }
+        });
+    }
+
+    // also used by PendingAuthorizationCodec, which embeds attribute and metadata maps in its own payload
+    void writeMap(final DataOutputStream out, final Map<String, Object> values) throws IOException {
+        out.writeInt(values.size());
+        for (final Map.Entry<String, Object> entry : values.entrySet()) {
+            writeString(out, entry.getKey());
+            writeValue(out, entry.getValue());
+        }
+    }
+
+    Map<String, Object> readMap(final DataInputStream in) throws IOException {
+        final int count = in.readInt();
+        final Map<String, Object> values = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            values.put(readString(in), readValue(in));
+        }
+        return values;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeValue(final DataOutputStream out, final Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String string) {
+            out.writeByte(STRING);
+            writeString(out, string);
+        } else if (value instanceof Set<?> set && set.stream().allMatch(String.class::isInstance)) {
+            out.writeByte(STRING_SET);
+            writeStrings(out, set.stream().map(String.class::cast).toList());
+        } else if (value instanceof Boolean bool) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(bool);
+        } else if (value instanceof Integer number) {
+            out.writeByte(INTEGER);
+            out.writeInt(number);
+        } else if (value instanceof Long number) {
+            out.writeByte(LONG);
+            out.writeLong(number);
+        } else if (value instanceof Instant instant) {
+            out.writeByte(INSTANT);
+            out.writeLong(instant.getEpochSecond());
+            out.writeInt(instant.getNano());
+        } else if (value instanceof List<?> list) {
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (final Object element : list) {
+                writeValue(out, element);
+            }
+        } else if (value instanceof Map<?, ?> map && map.keySet().stream().allMatch(String.class::isInstance)) {
+            out.writeByte(MAP);
+            writeMap(out, (Map<String, Object>) map);
+        } else if (BinaryEncodingUtility.isCompactAuthentication(value)) {
+            BinaryEncodingUtility.writeAuthentication(out, (Authentication) value);
+        } else if (value instanceof OAuth2AuthorizationRequest request
+                && AuthorizationGrantType.AUTHORIZATION_CODE.equals(request.getGrantType())) {
+            out.writeByte(AUTHORIZATION_REQUEST);
+            writeAuthorizationRequest(out, request);
+        } else {
+            out.writeByte(JSON);
+            final byte[] json = securityObjectMapper.writerFor(Object.class).writeValueAsBytes(value);
+            out.writeInt(json.length);
+            out.write(json);
+        }
+    }
+
+    private Object readValue(final DataInputStream in) throws IOException {
+        final byte type = in.readByte();
+        return switch (type) {
+            case NULL -> null;
+            case STRING -> readString(in);
+            case STRING_SET -> new LinkedHashSet<>(readStrings(in));
+            case BOOLEAN -> in.readBoolean();
+            case INTEGER -> in.readInt();
+            case LONG -> in.readLong();
+            case INSTANT -> Instant.ofEpochSecond(in.readLong(), in.readInt());
+            case LIST -> readList(in);
+            case MAP -> readMap(in);
+            case BinaryEncodingUtility.CLIENT_AUTHENTICATION, BinaryEncodingUtility.PLATFORM_AUTHENTICATION ->
+                    BinaryEncodingUtility.readAuthentication(in, type);
+            case AUTHORIZATION_REQUEST -> readAuthorizationRequest(in);
+            // types outside the allowlist fail here instead of being instantiated
+            case JSON -> securityObjectMapper.readValue(in.readNBytes(in.readInt()), Object.class);
+            case JAVA_SERIALIZED -> throw new IOException("Java serialized authorization attributes are no longer accepted");
+            default -> throw new IOException("Unknown authorization attribute type " + type);
+        };
+    }
+
+    private List<Object> readList(final DataInputStream in) throws IOException {
+        final int count = in.readInt();
+        final List<Object> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readValue(in));
+        }
+        return values;
+    }
+
+    private void writeAuthorizationRequest(final DataOutputStream out, final OAuth2AuthorizationRequest request) throws IOException {
+        writeString(out, request.getAuthorizationUri());
+        writeString(out, request.getClientId());
+        writeString(out, request.getRedirectUri());
+        writeStrings(out, request.getScopes());
+        writeString(out, request.getState());
+        writeString(out, request.getAuthorizationRequestUri());
+        writeMap(out, request.getAdditionalParameters());
+        writeMap(out, request.getAttributes());
+    }
+
+    private OAuth2AuthorizationRequest readAuthorizationRequest(final DataInputStream in) throws IOException {
+        final OAuth2AuthorizationRequest.Builder builder = OAuth2AuthorizationRequest.authorizationCode()
+                                                                                     .authorizationUri(readString(in))
+                                                                                     .clientId(readString(in))
+                                                                                     .redirectUri(readString(in));
+        final Collection<String> scopes = readStrings(in);
+        return builder.scopes(new LinkedHashSet<>(scopes))
+                      .state(readString(in))
+                      .authorizationRequestUri(readString(in))
+                      .additionalParameters(readMap(in))
+                      .attributes(readMap(in))
+                      .build();
+    }
+
+}
@@ -4,11 +4,10 @@ import io.github.blakedunaway.authserver.business.model.AuthToken;
 import io.github.blakedunaway.authserver.business.model.Authorization;
 import io.github.blakedunaway.authserver.business.model.enums.AuthorizationGrantTypeInternal;
 import io.github.blakedunaway.authserver.business.model.enums.TokenType;
-import io.github.blakedunaway.authserver.config.redis.RedisStore;
 import io.github.blakedunaway.authserver.integration.entity.AuthTokenEntity;
 import io.github.blakedunaway.authserver.integration.entity.AuthorizationEntity;
 import io.github.blakedunaway.authserver.integration.entity.RegisteredClientEntity;
-import io.github.blakedunaway.authserver.util.RedisUtility;
+import io.github.blakedunaway.authserver.integration.repository.gateway.AuthorizationAttributeRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
 import org.springframework.stereotype.Component;
@@ -24,7 +23,7 @@ public class AuthorizationMapper {
 
     private final RegisteredClientMapper registeredClientMapper;
 
-    private final RedisStore redisStore;
+    private final AuthorizationAttributeRepository authorizationAttributeRepository;
 
     public AuthorizationEntity authorizationToAuthorizationEntity(final Authorization authorization) {
 
@@ -91,20 +90,15 @@ public class AuthorizationMapper {
                         .authorizationGrantType(authorization.getAuthorizationGrantTypeInternal()
                                                              .getAuthorizationGrantType())
                         .authorizedScopes(authorization.getAuthorizedScopes())
-                        .attributes(attrs -> attrs.putAll(resolveStoredAttributes(authorization.getId())));
+                        .attributes(attrs -> attrs.putAll(authorizationAttributeRepository.findByAuthorizationId(authorization.getId())));
 
-        authorization.getTokens().forEach(token -> builder.token(token.toOAuth2Token()));
+        // keep redeemed codes and revoked tokens inactive when read back
+        authorization.getTokens().forEach(token -> builder.token(
+                token.toOAuth2Token(),
+                metadata -> metadata.put(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME,
+                                         Boolean.TRUE.equals(token.getMetadata().get(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME)))));
         return builder.build();
     }
 
-    @SuppressWarnings("unchecked")
-    private Map<String, Object> resolveStoredAttributes(final UUID authorizationId) {
-        final Object storedAttributes = redisStore.get(RedisUtility.AUTHORIZATION_ATTRIBUTES + authorizationId);
-        if (!(storedAttributes instanceof Map<?, ?> storedMap)) {
-            return Collections.emptyMap();
-        }
-        return (Map<String, Object>) storedMap;
-    }
-
 }
 
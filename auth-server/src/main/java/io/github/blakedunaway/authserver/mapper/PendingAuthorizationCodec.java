@@ -0,0 +1,107 @@
+package io.github.blakedunaway.authserver.mapper;
+
+import io.github.blakedunaway.authserver.security.token.TokenHasher;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.function.Function;
+
+import static io.github.blakedunaway.authserver.util.BinaryEncodingUtility.readString;
+import static io.github.blakedunaway.authserver.util.BinaryEncodingUtility.readStrings;
+import static io.github.blakedunaway.authserver.util.BinaryEncodingUtility.writeString;
+import static io.github.blakedunaway.authserver.util.BinaryEncodingUtility.writeStrings;
+
+// A whole authorization that has not reached the token endpoint yet: the consent state or the issued code, plus
+// the attributes. The registered client is stored by id and resolved again on read.
+@Component
+@RequiredArgsConstructor
+public class PendingAuthorizationCodec {
+
+    static final byte FORMAT_VERSION = 1;
+
+    private final AuthorizationAttributeCodec authorizationAttributeCodec;
+
+    public byte[] encode(final OAuth2Authorization authorization) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            writeString(out, authorization.getId());
+            writeString(out, authorization.getRegisteredClientId());
+            writeString(out, authorization.getPrincipalName());
+            writeString(out, authorization.getAuthorizationGrantType().getValue());
+            writeStrings(out, authorization.getAuthorizedScopes());
+            authorizationAttributeCodec.writeMap(out, authorization.getAttributes());
+            final OAuth2Authorization.Token<OAuth2AuthorizationCode> code = authorization.getToken(OAuth2AuthorizationCode.class);
+            out.writeBoolean(code != null);
+            if (code != null) {
+                // only the hash is kept, as for tokens in the database
+                writeString(out, hash(code.getToken().getTokenValue()));
+                writeInstant(out, code.getToken().getIssuedAt());
+                writeInstant(out, code.getToken().getExpiresAt());
+                authorizationAttributeCodec.writeMap(out, code.getMetadata());
+            }
+        } catch (final IOException ex) {
+            throw new UncheckedIOException("Unable to encode pending authorization", ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    // null when the payload is from an unknown format version or its registered client no longer exists
+    public OAuth2Authorization decode(final byte[] payload, final Function<String, RegisteredClient> registeredClients) {
+        if (payload == null || payload.length == 0 || payload[0] != FORMAT_VERSION) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload, 1, payload.length - 1))) {
+            final String id = readString(in);
+            final RegisteredClient registeredClient = registeredClients.apply(readString(in));
+            if (registeredClient == null) {
+                return null;
+            }
+            final OAuth2Authorization.Builder builder = OAuth2Authorization.withRegisteredClient(registeredClient)
+                                                                           .id(id)
+                                                                           .principalName(readString(in))
+                                                                           .authorizationGrantType(new AuthorizationGrantType(readString(in)))
+                                                                           .authorizedScopes(new LinkedHashSet<>(readStrings(in)));
+            final Map<String, Object> attributes = authorizationAttributeCodec.readMap(in);
+            builder.attributes(values -> values.putAll(attributes));
+            if (in.readBoolean()) {
+                final OAuth2AuthorizationCode code = new OAuth2AuthorizationCode(readString(in), readInstant(in), readInstant(in));
+                final Map<String, Object> metadata = authorizationAttributeCodec.readMap(in);
+                builder.token(code, values -> values.putAll(metadata));
+            }
+            return builder.build();
+        } catch (final IOException ex) {
+            throw new UncheckedIOException("Unable to decode pending authorization", ex);
+        }
+    }
+
+    public static String hash(final String tokenValue) {
+        return TokenHasher.isHmacSha256Base64Url(tokenValue) ? tokenValue : TokenHasher.hmacCurrent(tokenValue);
+    }
+
+    private static void writeInstant(final DataOutputStream out, final Instant instant) throws IOException {
+        out.writeBoolean(instant != null);
+        if (instant != null) {
+            out.writeLong(instant.getEpochSecond());
+            out.writeInt(instant.getNano());
+        }
+    }
+
+    private static Instant readInstant(final DataInputStream in) throws IOException {
+        return in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+    }
+
+}
@@ -1,9 +1,16 @@
 package io.github.blakedunaway.authserver.security.config;
 
+import io.github.blakedunaway.authserver.security.hashing.AdmissionControlledPasswordEncoder;
+import io.github.blakedunaway.authserver.security.hashing.ImportedHashLimits;
+import io.github.blakedunaway.authserver.security.hashing.ImportedHashPasswordEncoder;
+import io.github.blakedunaway.authserver.security.hashing.PasswordHashingExecutor;
+import io.github.blakedunaway.authserver.security.hashing.PasswordHashingUnavailableException;
 import io.github.blakedunaway.authserver.security.provider.ClientAwareDaoAuthProvider;
 import io.github.blakedunaway.authserver.security.provider.PlatformUserDaoAuthProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AccountExpiredException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.CredentialsExpiredException;
@@ -51,6 +58,12 @@ public class AuthConfig {
             final boolean platformFlow = "/platform/login".equals(request.getServletPath())
                                          || (requestUri != null && requestUri.endsWith("/platform/login"));
 
+            if (exception instanceof PasswordHashingUnavailableException unavailable) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(unavailable.getRetryAfterSeconds()));
+                response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Sign in is temporarily busy. Please try again shortly.");
+                return;
+            }
+
             if (exception instanceof CredentialsExpiredException) {
                 final String credentialsPath = platformFlow ? "/platform/credentials-expired" : "/credentials-expired";
                 final UriComponentsBuilder builder = UriComponentsBuilder.fromPath(credentialsPath)
@@ -91,14 +104,14 @@ public class AuthConfig {
     }
 
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new Argon2PasswordEncoder(
+    PasswordEncoder passwordEncoder(final PasswordHashingExecutor passwordHashingExecutor, final ImportedHashLimits importedHashLimits) {
+        return new AdmissionControlledPasswordEncoder(new ImportedHashPasswordEncoder(new Argon2PasswordEncoder(
                 16,
                 32,
                 1,
                 1 << 16,
                 2
-        );
+        ), importedHashLimits), passwordHashingExecutor);
     }
 
     @Bean
@@ -1,25 +1,44 @@
 package io.github.blakedunaway.authserver.security.config;
 
+import io.github.blakedunaway.authserver.security.hashing.ClientAuthenticationUnavailableException;
+import io.github.blakedunaway.authserver.security.token.ClientSecretVerificationCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.context.annotation.Bean;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpResponse;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.http.converter.OAuth2ErrorHttpMessageConverter;
+import org.springframework.security.oauth2.server.authorization.authentication.ClientSecretAuthenticationProvider;
 import org.springframework.security.oauth2.server.authorization.config.annotation.web.configurers.OAuth2AuthorizationServerConfigurer;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.stereotype.Component;
 import org.springframework.web.cors.CorsConfiguration;
 
+import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 
 @Component
 public class AuthorizationServerSecurityConfig {
 
+    private static final HttpMessageConverter<OAuth2Error> ERROR_CONVERTER = new OAuth2ErrorHttpMessageConverter();
+
     @Bean
     @Order(1)
     SecurityFilterChain asChain(final HttpSecurity http,
-                                @Qualifier("authorizationServerCorsConfiguration") final CorsConfiguration corsConfiguration) throws Exception {
+                                @Qualifier("authorizationServerCorsConfiguration") final CorsConfiguration corsConfiguration,
+                                final ClientSecretVerificationCache clientSecretVerificationCache) throws Exception {
         OAuth2AuthorizationServerConfigurer as = OAuth2AuthorizationServerConfigurer.authorizationServer();
 
         http.securityMatcher(as.getEndpointsMatcher())
@@ -31,6 +50,15 @@ public class AuthorizationServerSecurityConfig {
                                    .permitAll())
             .with(as, (server) -> {
                 server.oidc(Customizer.withDefaults());
+                server.clientAuthentication(clientAuthentication ->
+                                                    clientAuthentication.authenticationProviders(providers ->
+                                                                                                         providers.stream()
+                                                                                                                  .filter(ClientSecretAuthenticationProvider.class::isInstance)
+                                                                                                                  .map(ClientSecretAuthenticationProvider.class::cast)
+                                                                                                                  .forEach(provider -> provider.setPasswordEncoder(
+                                                                                                                          clientSecretVerificationCache.asPasswordEncoder())))
+                                                                        .errorResponseHandler(AuthorizationServerSecurityConfig::clientAuthenticationFailed)
+                );
                 server.authorizationEndpoint(authorization ->
                                                      authorization.errorResponseHandler((request, response, exception) -> {
                                                          response.sendRedirect(
@@ -47,4 +75,24 @@ public class AuthorizationServerSecurityConfig {
         return http.build();
     }
 
+    // same responses as the default handler, except shed client authentication answers 503 so clients back off
+    // and retry instead of treating it as bad credentials
+    private static void clientAuthenticationFailed(final HttpServletRequest request,
+                                                   final HttpServletResponse response,
+                                                   final AuthenticationException exception) throws IOException {
+        SecurityContextHolder.clearContext();
+        final OAuth2Error error = ((OAuth2AuthenticationException) exception).getError();
+        final ServletServerHttpResponse httpResponse = new ServletServerHttpResponse(response);
+        if (exception instanceof ClientAuthenticationUnavailableException unavailable) {
+            httpResponse.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            httpResponse.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(unavailable.getRetryAfterSeconds()));
+        } else if (OAuth2ErrorCodes.INVALID_CLIENT.equals(error.getErrorCode())) {
+            httpResponse.setStatusCode(HttpStatus.UNAUTHORIZED);
+        } else {
+            httpResponse.setStatusCode(HttpStatus.BAD_REQUEST);
+        }
+        // the description is dropped like the default handler does, it may reveal why authentication failed
+        ERROR_CONVERTER.write(new OAuth2Error(error.getErrorCode()), null, httpResponse);
+    }
+
 }
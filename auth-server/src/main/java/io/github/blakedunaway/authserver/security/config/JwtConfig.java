@@ -5,12 +5,16 @@ import com.nimbusds.jose.proc.SecurityContext;
 import io.github.blakedunaway.authserver.business.model.enums.MetaDataKeys;
 import org.springframework.beans.factory.annotation.Value;
 import io.github.blakedunaway.authserver.business.service.SigningKeyStore;
+import io.github.blakedunaway.authserver.security.token.RevocationEpochValidator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
 import org.springframework.security.oauth2.server.authorization.config.annotation.web.configuration.OAuth2AuthorizationServerConfiguration;
@@ -33,8 +37,13 @@ public class JwtConfig {
 
     @Bean
     @Primary
-    JwtDecoder jwtSelfVerifier(final JWKSource<SecurityContext> jwkSource) {
-        return OAuth2AuthorizationServerConfiguration.jwtDecoder(jwkSource);
+    JwtDecoder jwtSelfVerifier(final JWKSource<SecurityContext> jwkSource,
+                               final RevocationEpochValidator revocationEpochValidator) {
+        final JwtDecoder jwtDecoder = OAuth2AuthorizationServerConfiguration.jwtDecoder(jwkSource);
+        if (jwtDecoder instanceof NimbusJwtDecoder nimbusJwtDecoder) {
+            nimbusJwtDecoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(JwtValidators.createDefault(), revocationEpochValidator));
+        }
+        return jwtDecoder;
     }
 
     @Bean
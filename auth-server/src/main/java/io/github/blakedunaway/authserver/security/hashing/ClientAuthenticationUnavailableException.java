@@ -0,0 +1,20 @@
+package io.github.blakedunaway.authserver.security.hashing;
+
+import lombok.Getter;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+
+// Client authentication shed by the hashing pool. It is an OAuth2AuthenticationException so the client authentication
+// filter hands it to its error response handler, which answers 503 with Retry-After instead of invalid_client.
+@Getter
+public class ClientAuthenticationUnavailableException extends OAuth2AuthenticationException {
+
+    private final long retryAfterSeconds;
+
+    public ClientAuthenticationUnavailableException(final PasswordHashingUnavailableException cause) {
+        super(new OAuth2Error(OAuth2ErrorCodes.TEMPORARILY_UNAVAILABLE), cause.getMessage(), cause);
+        this.retryAfterSeconds = cause.getRetryAfterSeconds();
+    }
+
+}
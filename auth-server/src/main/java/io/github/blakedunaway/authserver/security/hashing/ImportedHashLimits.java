@@ -0,0 +1,65 @@
+package io.github.blakedunaway.authserver.security.hashing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Imported hashes carry their own cost parameters and are verified on every sign-in, so a hash above these ceilings
+// would let one row of an import hold a hashing permit for far longer, and with far more memory, than it accounts for.
+@Component
+public class ImportedHashLimits {
+
+    @Value("${auth-server.password-hashing.imported.max-argon2-memory-kib:${auth-server.password-hashing.memory-per-hash-kib:65536}}")
+    private long maxArgon2MemoryKib;
+
+    @Value("${auth-server.password-hashing.imported.max-argon2-iterations:4}")
+    private int maxArgon2Iterations;
+
+    @Value("${auth-server.password-hashing.imported.max-argon2-parallelism:4}")
+    private int maxArgon2Parallelism;
+
+    @Value("${auth-server.password-hashing.imported.max-bcrypt-cost:14}")
+    private int maxBcryptCost;
+
+    // false for hashes that are not Argon2 or bcrypt, or whose parameters cannot be read
+    public boolean allows(final String encodedPassword) {
+        if (ImportedHashPasswordEncoder.isBcrypt(encodedPassword)) {
+            return Integer.parseInt(encodedPassword.split("\\$")[2]) <= maxBcryptCost;
+        }
+        if (!ImportedHashPasswordEncoder.isArgon2(encodedPassword)) {
+            return false;
+        }
+        // $argon2id$v=19$m=65536,t=3,p=4$salt$hash, the version segment is missing from the oldest hashes
+        for (final String segment : encodedPassword.split("\\$")) {
+            if (segment.startsWith("m=")) {
+                return allowsArgon2(segment);
+            }
+        }
+        return false;
+    }
+
+    private boolean allowsArgon2(final String parameters) {
+        long memoryKib = -1;
+        long iterations = -1;
+        long parallelism = -1;
+        try {
+            for (final String parameter : parameters.split(",")) {
+                final long value = Long.parseLong(parameter.substring(2));
+                if (parameter.startsWith("m=")) {
+                    memoryKib = value;
+                } else if (parameter.startsWith("t=")) {
+                    iterations = value;
+                } else if (parameter.startsWith("p=")) {
+                    parallelism = value;
+                } else {
+                    return false;
+                }
+            }
+        } catch (final NumberFormatException | IndexOutOfBoundsException ex) {
+            return false;
+        }
+        return memoryKib > 0 && memoryKib <= maxArgon2MemoryKib
+               && iterations > 0 && iterations <= maxArgon2Iterations
+               && parallelism > 0 && parallelism <= maxArgon2Parallelism;
+    }
+
+}
@@ -0,0 +1,52 @@
+package io.github.blakedunaway.authserver.security.hashing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.regex.Pattern;
+
+// New hashes are always Argon2; bcrypt hashes only arrive through client user imports and are verified as they are.
+// Hashes whose cost parameters exceed ImportedHashLimits never match, so they are not computed at all.
+@RequiredArgsConstructor
+public class ImportedHashPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}$");
+
+    private final PasswordEncoder argon2;
+
+    private final ImportedHashLimits limits;
+
+    private final PasswordEncoder bcrypt = new BCryptPasswordEncoder();
+
+    public static boolean isArgon2(final String encodedPassword) {
+        return encodedPassword != null && encodedPassword.startsWith("$argon2");
+    }
+
+    public static boolean isBcrypt(final String encodedPassword) {
+        return encodedPassword != null && BCRYPT.matcher(encodedPassword).matches();
+    }
+
+    public static boolean isSupported(final String encodedPassword) {
+        return isArgon2(encodedPassword) || isBcrypt(encodedPassword);
+    }
+
+    @Override
+    public String encode(final CharSequence rawPassword) {
+        return argon2.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(final CharSequence rawPassword, final String encodedPassword) {
+        if (isSupported(encodedPassword) && !limits.allows(encodedPassword)) {
+            return false;
+        }
+        return isBcrypt(encodedPassword) ? bcrypt.matches(rawPassword, encodedPassword) : argon2.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(final String encodedPassword) {
+        return isBcrypt(encodedPassword) || argon2.upgradeEncoding(encodedPassword);
+    }
+
+}
@@ -0,0 +1,124 @@
+package io.github.blakedunaway.authserver.security.hashing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Argon2 allocates its full memory cost per hash, so concurrent hashes are capped by heap and cores and
+// callers beyond the wait queue are shed instead of piling up on the servlet worker pool.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PasswordHashingExecutor {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${auth-server.password-hashing.max-concurrency:0}")
+    private int configuredMaxConcurrency;
+
+    @Value("${auth-server.password-hashing.max-queue:0}")
+    private int configuredMaxQueue;
+
+    @Value("${auth-server.password-hashing.max-wait-ms:2000}")
+    private long maxWaitMillis;
+
+    @Value("${auth-server.password-hashing.memory-per-hash-kib:65536}")
+    private long memoryPerHashKib;
+
+    @Value("${auth-server.password-hashing.heap-fraction:0.5}")
+    private double heapFraction;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    @Getter
+    private int maxConcurrency;
+
+    @Getter
+    private int maxQueue;
+
+    private Semaphore permits;
+
+    private Timer waitTimer;
+
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    void initialize() {
+        this.maxConcurrency = configuredMaxConcurrency > 0 ? configuredMaxConcurrency : deriveMaxConcurrency();
+        this.maxQueue = configuredMaxQueue > 0 ? configuredMaxQueue : maxConcurrency * 8;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.waitTimer = Timer.builder("auth.password.hashing.wait")
+                              .description("Time spent waiting for a password hashing slot")
+                              .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.password.hashing.rejected")
+                                      .description("Password hashing requests shed because the queue was full or the wait timed out")
+                                      .register(meterRegistry);
+        Gauge.builder("auth.password.hashing.queue.depth", waiting, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("auth.password.hashing.active", active, AtomicInteger::get).register(meterRegistry);
+        log.info("Password hashing limited to {} concurrent hashes with a queue of {}.", maxConcurrency, maxQueue);
+    }
+
+    public <T> T execute(final String operation, final Supplier<T> hashing) {
+        acquire();
+        final Timer.Sample sample = Timer.start(meterRegistry);
+        active.incrementAndGet();
+        try {
+            return hashing.get();
+        } finally {
+            active.decrementAndGet();
+            permits.release();
+            sample.stop(Timer.builder("auth.password.hashing.duration")
+                             .description("Time spent computing password hashes")
+                             .tag("operation", operation)
+                             .register(meterRegistry));
+        }
+    }
+
+    private void acquire() {
+        if (permits.tryAcquire()) {
+            waitTimer.record(0, TimeUnit.NANOSECONDS);
+            return;
+        }
+        if (waiting.incrementAndGet() > maxQueue) {
+            waiting.decrementAndGet();
+            throw reject("Password hashing queue is full");
+        }
+        final long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                throw reject("Timed out waiting for a password hashing slot");
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw reject("Interrupted while waiting for a password hashing slot");
+        } finally {
+            waiting.decrementAndGet();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private PasswordHashingUnavailableException reject(final String message) {
+        rejectedCounter.increment();
+        return new PasswordHashingUnavailableException(message, Math.max(1, TimeUnit.MILLISECONDS.toSeconds(maxWaitMillis)));
+    }
+
+    private int deriveMaxConcurrency() {
+        final long hashBudget = (long) (Runtime.getRuntime().maxMemory() * heapFraction) / (memoryPerHashKib * 1024);
+        return (int) Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), hashBudget));
+    }
+
+}
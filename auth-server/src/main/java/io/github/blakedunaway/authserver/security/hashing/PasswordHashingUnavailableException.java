@@ -0,0 +1,16 @@
+package io.github.blakedunaway.authserver.security.hashing;
+
+import lombok.Getter;
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+@Getter
+public class PasswordHashingUnavailableException extends AuthenticationServiceException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingUnavailableException(final String message, final long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+}
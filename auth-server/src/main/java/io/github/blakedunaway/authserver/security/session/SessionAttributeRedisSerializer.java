@@ -0,0 +1,228 @@
+package io.github.blakedunaway.authserver.security.session;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+import org.springframework.security.web.savedrequest.DefaultSavedRequest;
+import org.springframework.security.web.savedrequest.SavedCookie;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import static io.github.blakedunaway.authserver.util.BinaryEncodingUtility.CLIENT_AUTHENTICATION;
+import static io.github.blakedunaway.authserver.util.BinaryEncodingUtility.PLATFORM_AUTHENTICATION;
+import static io.github.blakedunaway.authserver.util.BinaryEncodingUtility.isCompactAuthentication;
+import static io.github.blakedunaway.authserver.util.BinaryEncodingUtility.readAuthentication;
+import static io.github.blakedunaway.authserver.util.BinaryEncodingUtility.readString;
+import static io.github.blakedunaway.authserver.util.BinaryEncodingUtility.readStrings;
+import static io.github.blakedunaway.authserver.util.BinaryEncodingUtility.writeAuthentication;
+import static io.github.blakedunaway.authserver.util.BinaryEncodingUtility.writeString;
+import static io.github.blakedunaway.authserver.util.BinaryEncodingUtility.writeStrings;
+
+// Session attribute values for the Redis session store. The login security context, the saved authorize request
+// the CSRF token and Spring Session's own bookkeeping values get a versioned field-by-field encoding; anything else
+// goes through the allowlisted security ObjectMapper. Values written by a newer format version, or by the Java
+// serialization fallback this replaced, read back as absent instead of failing the session or being deserialized.
+@RequiredArgsConstructor
+public class SessionAttributeRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte FORMAT_VERSION = 1;
+
+    // HttpSessionRequestCache's default, appended to the saved request's redirect URL
+    private static final String MATCHING_REQUEST_PARAMETER_NAME = "continue";
+
+    private static final byte STRING = 1;
+
+    private static final byte LONG = 2;
+
+    private static final byte INTEGER = 3;
+
+    private static final byte SAVED_REQUEST = 20;
+
+    private static final byte CSRF_TOKEN = 21;
+
+    private static final byte JSON = 126;
+
+    private static final byte JAVA_SERIALIZED = 127;
+
+    private final ObjectMapper securityObjectMapper;
+
+    @Override
+    public byte[] serialize(final Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            if (value instanceof String string) {
+                out.writeByte(STRING);
+                writeString(out, string);
+            } else if (value instanceof Long number) {
+                out.writeByte(LONG);
+                out.writeLong(number);
+            } else if (value instanceof Integer number) {
+                out.writeByte(INTEGER);
+                out.writeInt(number);
+            } else if (isCompactSecurityContext(value)) {
+                writeAuthentication(out, ((SecurityContext) value).getAuthentication());
+            } else if (value instanceof DefaultSavedRequest savedRequest) {
+                out.writeByte(SAVED_REQUEST);
+                writeSavedRequest(out, savedRequest);
+            } else if (value instanceof CsrfToken csrfToken) {
+                out.writeByte(CSRF_TOKEN);
+                writeString(out, csrfToken.getHeaderName());
+                writeString(out, csrfToken.getParameterName());
+                writeString(out, csrfToken.getToken());
+            } else {
+                out.writeByte(JSON);
+                out.write(securityObjectMapper.writerFor(Object.class).writeValueAsBytes(value));
+            }
+        } catch (final IOException ex) {
+            throw new SerializationException("Unable to serialize session attribute " + value.getClass().getName(), ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(final byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != FORMAT_VERSION) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1))) {
+            final byte type = in.readByte();
+            return switch (type) {
+                case STRING -> readString(in);
+                case LONG -> in.readLong();
+                case INTEGER -> in.readInt();
+                case CLIENT_AUTHENTICATION, PLATFORM_AUTHENTICATION -> new SecurityContextImpl(readAuthentication(in, type));
+                case SAVED_REQUEST -> readSavedRequest(in);
+                case CSRF_TOKEN -> new DefaultCsrfToken(readString(in), readString(in), readString(in));
+                // types outside the allowlist fail here instead of being instantiated
+                case JSON -> securityObjectMapper.readValue(in.readAllBytes(), Object.class);
+                case JAVA_SERIALIZED -> null;
+                default -> throw new SerializationException("Unknown session attribute type " + type);
+            };
+        } catch (final IOException | IllegalArgumentException ex) {
+            // the object mapper's allowlist refuses other types with an IllegalArgumentException
+            throw new SerializationException("Unable to deserialize session attribute", ex);
+        }
+    }
+
+    private static boolean isCompactSecurityContext(final Object value) {
+        return value instanceof SecurityContextImpl context && isCompactAuthentication(context.getAuthentication());
+    }
+
+    private static void writeSavedRequest(final DataOutputStream out, final DefaultSavedRequest savedRequest) throws IOException {
+        writeString(out, savedRequest.getMethod());
+        writeString(out, savedRequest.getScheme());
+        writeString(out, savedRequest.getServerName());
+        out.writeInt(savedRequest.getServerPort());
+        writeString(out, savedRequest.getContextPath());
+        writeString(out, savedRequest.getServletPath());
+        writeString(out, savedRequest.getPathInfo());
+        writeString(out, savedRequest.getRequestURI());
+        writeString(out, savedRequest.getRequestURL());
+        writeString(out, savedRequest.getQueryString());
+        out.writeBoolean(!Objects.equals(UriComponentsBuilder.fromUriString(savedRequest.getRedirectUrl()).build().getQuery(),
+                                         savedRequest.getQueryString()));
+
+        final Collection<String> headerNames = savedRequest.getHeaderNames();
+        out.writeInt(headerNames.size());
+        for (final String headerName : headerNames) {
+            writeString(out, headerName);
+            writeStrings(out, savedRequest.getHeaderValues(headerName));
+        }
+
+        final Map<String, String[]> parameters = savedRequest.getParameterMap();
+        out.writeInt(parameters.size());
+        for (final Map.Entry<String, String[]> parameter : parameters.entrySet()) {
+            writeString(out, parameter.getKey());
+            writeStrings(out, List.of(parameter.getValue()));
+        }
+
+        final List<Locale> locales = savedRequest.getLocales();
+        out.writeInt(locales.size());
+        for (final Locale locale : locales) {
+            writeString(out, locale.toLanguageTag());
+        }
+
+        final List<Cookie> cookies = savedRequest.getCookies();
+        out.writeInt(cookies.size());
+        for (final Cookie cookie : cookies) {
+            writeString(out, cookie.getName());
+            writeString(out, cookie.getValue());
+            writeString(out, cookie.getDomain());
+            out.writeInt(cookie.getMaxAge());
+            writeString(out, cookie.getPath());
+            out.writeBoolean(cookie.getSecure());
+        }
+    }
+
+    private static DefaultSavedRequest readSavedRequest(final DataInputStream in) throws IOException {
+        final DefaultSavedRequest.Builder builder = new DefaultSavedRequest.Builder().setMethod(readString(in))
+                                                                                     .setScheme(readString(in))
+                                                                                     .setServerName(readString(in))
+                                                                                     .setServerPort(in.readInt())
+                                                                                     .setContextPath(readString(in))
+                                                                                     .setServletPath(readString(in))
+                                                                                     .setPathInfo(readString(in))
+                                                                                     .setRequestURI(readString(in))
+                                                                                     .setRequestURL(readString(in))
+                                                                                     .setQueryString(readString(in));
+        if (in.readBoolean()) {
+            builder.setMatchingRequestParameterName(MATCHING_REQUEST_PARAMETER_NAME);
+        }
+
+        final int headerCount = in.readInt();
+        final Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (int i = 0; i < headerCount; i++) {
+            headers.put(readString(in), readStrings(in));
+        }
+
+        final int parameterCount = in.readInt();
+        final Map<String, String[]> parameters = new LinkedHashMap<>();
+        for (int i = 0; i < parameterCount; i++) {
+            parameters.put(readString(in), readStrings(in).toArray(String[]::new));
+        }
+
+        final int localeCount = in.readInt();
+        final List<Locale> locales = new ArrayList<>(localeCount);
+        for (int i = 0; i < localeCount; i++) {
+            locales.add(Locale.forLanguageTag(readString(in)));
+        }
+
+        final int cookieCount = in.readInt();
+        final List<SavedCookie> cookies = new ArrayList<>(cookieCount);
+        for (int i = 0; i < cookieCount; i++) {
+            cookies.add(new SavedCookie(readString(in), readString(in), readString(in), in.readInt(), readString(in), in.readBoolean()));
+        }
+
+        return builder.setHeaders(headers)
+                      .setParameters(parameters)
+                      .setLocales(locales)
+                      .setCookies(cookies)
+                      .build();
+    }
+
+}
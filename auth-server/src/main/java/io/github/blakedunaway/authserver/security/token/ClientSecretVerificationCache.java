@@ -0,0 +1,100 @@
+package io.github.blakedunaway.authserver.security.token;
+
+import io.github.blakedunaway.authserver.security.hashing.ClientAuthenticationUnavailableException;
+import io.github.blakedunaway.authserver.security.hashing.PasswordHashingUnavailableException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Keyed by stored hash + presented secret, so a rotated or updated secret hash never hits an old entry
+@Component
+@RequiredArgsConstructor
+public class ClientSecretVerificationCache {
+
+    private final PasswordEncoder passwordEncoder;
+
+    @Value("${auth-server.client-secret-cache.ttl-ms:300000}")
+    private long ttlMillis;
+
+    @Value("${auth-server.client-secret-cache.max-entries:10000}")
+    private int maxEntries;
+
+    private final Map<String, CachedVerification> verifications = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, CachedVerification> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public boolean matches(final CharSequence presentedSecret, final String storedSecretHash) {
+        if (presentedSecret == null || storedSecretHash == null) {
+            return passwordEncoder.matches(presentedSecret, storedSecretHash);
+        }
+        final String key = TokenHasher.hmacCurrent(storedSecretHash + '\u0000' + presentedSecret);
+        final long now = System.nanoTime();
+        synchronized (verifications) {
+            final CachedVerification cached = verifications.get(key);
+            if (cached != null) {
+                if (now - cached.expiresAtNanos() < 0) {
+                    return true;
+                }
+                verifications.remove(key);
+            }
+        }
+        if (!passwordEncoder.matches(presentedSecret, storedSecretHash)) {
+            return false;
+        }
+        synchronized (verifications) {
+            verifications.put(key, new CachedVerification(storedSecretHash, now + TimeUnit.MILLISECONDS.toNanos(ttlMillis)));
+        }
+        return true;
+    }
+
+    public void evict(final String storedSecretHash) {
+        if (storedSecretHash == null) {
+            return;
+        }
+        synchronized (verifications) {
+            verifications.values().removeIf(cached -> cached.storedSecretHash().equals(storedSecretHash));
+        }
+    }
+
+    public int size() {
+        synchronized (verifications) {
+            return verifications.size();
+        }
+    }
+
+    public PasswordEncoder asPasswordEncoder() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(final CharSequence rawPassword) {
+                return passwordEncoder.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(final CharSequence rawPassword, final String encodedPassword) {
+                try {
+                    return ClientSecretVerificationCache.this.matches(rawPassword, encodedPassword);
+                } catch (final PasswordHashingUnavailableException ex) {
+                    throw new ClientAuthenticationUnavailableException(ex);
+                }
+            }
+
+            @Override
+            public boolean upgradeEncoding(final String encodedPassword) {
+                return passwordEncoder.upgradeEncoding(encodedPassword);
+            }
+        };
+    }
+
+    private record CachedVerification(String storedSecretHash, long expiresAtNanos) {
+
+    }
+
+}
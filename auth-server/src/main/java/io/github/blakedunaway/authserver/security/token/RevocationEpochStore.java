@@ -0,0 +1,138 @@
+package io.github.blakedunaway.authserver.security.token;
+
+import io.github.blakedunaway.authserver.business.model.event.TokensRevokedEvent;
+import io.github.blakedunaway.authserver.config.redis.RedisStore;
+import io.github.blakedunaway.authserver.util.RedisUtility;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// JWTs are self-contained, so revoking rows in auth_token does not stop them. Instead every revocation raises an
+// epoch for the client (or for one subject of a client) and tokens issued before it are rejected. Epochs live in a
+// Redis hash, are broadcast to the other nodes and mirrored here, so the check on each request is two map lookups.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RevocationEpochStore implements MessageListener {
+
+    private static final String CLIENT_PREFIX = "client:";
+
+    private static final String SUBJECT_PREFIX = "subject:";
+
+    private final RedisStore redisStore;
+
+    // must exceed the longest access token lifetime, older epochs can no longer reject anything
+    @Value("${auth-server.revocation-epoch.retention-ms:604800000}")
+    private long retentionMillis;
+
+    private final Map<String, Long> epochs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void initialize() {
+        refresh();
+    }
+
+    public boolean isRevoked(final String clientId, final String subject, final Instant issuedAt) {
+        if (clientId == null || issuedAt == null) {
+            return false;
+        }
+        final long issuedAtSeconds = issuedAt.getEpochSecond();
+        final Long clientEpoch = epochs.get(CLIENT_PREFIX + clientId);
+        if (clientEpoch != null && issuedAtSeconds < clientEpoch) {
+            return true;
+        }
+        if (subject == null) {
+            return false;
+        }
+        final Long subjectEpoch = epochs.get(SUBJECT_PREFIX + clientId + ':' + subject);
+        return subjectEpoch != null && issuedAtSeconds < subjectEpoch;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTokensRevoked(final TokensRevokedEvent event) {
+        final String field = event.subject() == null
+                             ? CLIENT_PREFIX + event.clientId()
+                             : SUBJECT_PREFIX + event.clientId() + ':' + event.subject();
+        // iat has second precision, round up so a token issued earlier in the same second is still rejected
+        final long epoch = event.revokedAt().plus(1, ChronoUnit.SECONDS).truncatedTo(ChronoUnit.SECONDS).getEpochSecond();
+        apply(field, epoch);
+        try {
+            // a slower writer holding an older epoch must not lower the shared one
+            final long raised = redisStore.raiseHashEntry(RedisUtility.REVOCATION_EPOCHS, field, epoch);
+            apply(field, raised);
+            redisStore.publish(RedisUtility.REVOCATION_EPOCH_CHANNEL, Map.of(field, raised));
+        } catch (final RuntimeException ex) {
+            log.warn("Unable to share revocation epoch for {}, other nodes keep accepting older tokens until they expire.", field, ex);
+        }
+    }
+
+    @Override
+    public void onMessage(final Message message, final byte[] pattern) {
+        final Object payload = redisStore.readMessage(message);
+        if (payload instanceof Map<?, ?> update) {
+            update.forEach((field, epoch) -> {
+                if (epoch instanceof Number number) {
+                    apply(field.toString(), number.longValue());
+                }
+            });
+        }
+    }
+
+    // pub/sub is fire and forget, so periodically re-read the hash and drop epochs past the retention window
+    @Scheduled(fixedDelayString = "${auth-server.revocation-epoch.refresh-interval-ms:60000}",
+               initialDelayString = "${auth-server.revocation-epoch.refresh-interval-ms:60000}")
+    public void refresh() {
+        final long oldest = Instant.now().minusMillis(retentionMillis).getEpochSecond();
+        final Map<String, String> stored;
+        try {
+            stored = redisStore.getStringHashEntries(RedisUtility.REVOCATION_EPOCHS);
+        } catch (final RuntimeException ex) {
+            log.warn("Unable to load revocation epochs, continuing with {} local entries.", epochs.size(), ex);
+            return;
+        }
+        final List<String> expired = new ArrayList<>();
+        if (stored != null) {
+            stored.forEach((field, value) -> {
+                final Long epoch = parseEpoch(value);
+                if (epoch == null) {
+                    return;
+                }
+                if (epoch < oldest) {
+                    expired.add(field);
+                } else {
+                    apply(field, epoch);
+                }
+            });
+        }
+        epochs.values().removeIf(epoch -> epoch < oldest);
+        if (!expired.isEmpty()) {
+            redisStore.deleteHashEntriesBelow(RedisUtility.REVOCATION_EPOCHS, expired, oldest);
+        }
+    }
+
+    private static Long parseEpoch(final String value) {
+        try {
+            return value == null ? null : Long.valueOf(value);
+        } catch (final NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private void apply(final String field, final long epoch) {
+        epochs.merge(field, epoch, Math::max);
+    }
+
+}
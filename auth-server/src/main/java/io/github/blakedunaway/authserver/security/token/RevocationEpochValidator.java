@@ -0,0 +1,27 @@
+package io.github.blakedunaway.authserver.security.token;
+
+import io.github.blakedunaway.authserver.business.model.enums.MetaDataKeys;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class RevocationEpochValidator implements OAuth2TokenValidator<Jwt> {
+
+    private static final OAuth2Error REVOKED = new OAuth2Error(OAuth2ErrorCodes.INVALID_TOKEN, "The token has been revoked", null);
+
+    private final RevocationEpochStore revocationEpochStore;
+
+    @Override
+    public OAuth2TokenValidatorResult validate(final Jwt jwt) {
+        return revocationEpochStore.isRevoked(jwt.getClaimAsString(MetaDataKeys.AZP.getValue()), jwt.getSubject(), jwt.getIssuedAt())
+               ? OAuth2TokenValidatorResult.failure(REVOKED)
+               : OAuth2TokenValidatorResult.success();
+    }
+
+}
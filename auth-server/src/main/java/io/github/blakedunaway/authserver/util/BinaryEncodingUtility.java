@@ -0,0 +1,115 @@
+package io.github.blakedunaway.authserver.util;
+
+import io.github.blakedunaway.authserver.business.model.user.ClientRegisterDto.UsernamePasswordWithClientAuthenticationToken;
+import io.github.blakedunaway.authserver.business.model.user.PlatformRegisterDto.UsernamePasswordWithPlatformAuthenticationToken;
+import lombok.experimental.UtilityClass;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Field-by-field building blocks shared by the binary session and authorization attribute encodings.
+@UtilityClass
+public class BinaryEncodingUtility {
+
+    public static final byte CLIENT_AUTHENTICATION = 10;
+
+    public static final byte PLATFORM_AUTHENTICATION = 11;
+
+    // only the two login tokens with plain authorities and web details have a compact form
+    public static boolean isCompactAuthentication(final Object value) {
+        if (!(value instanceof UsernamePasswordWithClientAuthenticationToken)
+                && !(value instanceof UsernamePasswordWithPlatformAuthenticationToken)) {
+            return false;
+        }
+        final Authentication authentication = (Authentication) value;
+        final Object details = authentication.getDetails();
+        return authentication.isAuthenticated()
+                && (details == null || details.getClass() == WebAuthenticationDetails.class)
+                && authentication.getAuthorities().stream().allMatch(authority -> authority.getClass() == SimpleGrantedAuthority.class);
+    }
+
+    public static void writeAuthentication(final DataOutputStream out, final Authentication authentication) throws IOException {
+        if (authentication instanceof UsernamePasswordWithClientAuthenticationToken clientToken) {
+            out.writeByte(CLIENT_AUTHENTICATION);
+            writeString(out, clientToken.getEmail());
+            writeString(out, clientToken.getClientId());
+        } else {
+            out.writeByte(PLATFORM_AUTHENTICATION);
+            writeString(out, ((UsernamePasswordWithPlatformAuthenticationToken) authentication).getEmail());
+        }
+        final Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
+        out.writeInt(authorities.size());
+        for (final GrantedAuthority authority : authorities) {
+            writeString(out, authority.getAuthority());
+        }
+        final WebAuthenticationDetails details = (WebAuthenticationDetails) authentication.getDetails();
+        out.writeBoolean(details != null);
+        if (details != null) {
+            writeString(out, details.getRemoteAddress());
+            writeString(out, details.getSessionId());
+        }
+    }
+
+    // the type byte written by writeAuthentication has already been read by the caller
+    public static Authentication readAuthentication(final DataInputStream in, final byte type) throws IOException {
+        final String email = readString(in);
+        final String clientId = type == CLIENT_AUTHENTICATION ? readString(in) : null;
+        final int authorityCount = in.readInt();
+        final List<GrantedAuthority> authorities = new ArrayList<>(authorityCount);
+        for (int i = 0; i < authorityCount; i++) {
+            authorities.add(new SimpleGrantedAuthority(readString(in)));
+        }
+        final AbstractAuthenticationToken authentication = type == CLIENT_AUTHENTICATION
+                                                           ? UsernamePasswordWithClientAuthenticationToken.authenticated(email, clientId, authorities)
+                                                           : UsernamePasswordWithPlatformAuthenticationToken.authenticated(email, authorities);
+        if (in.readBoolean()) {
+            authentication.setDetails(new WebAuthenticationDetails(readString(in), readString(in)));
+        }
+        return authentication;
+    }
+
+    public static void writeStrings(final DataOutputStream out, final Collection<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (final String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    public static List<String> readStrings(final DataInputStream in) throws IOException {
+        final int count = in.readInt();
+        final List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    public static void writeString(final DataOutputStream out, final String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        final byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(encoded.length);
+        out.write(encoded);
+    }
+
+    public static String readString(final DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+}
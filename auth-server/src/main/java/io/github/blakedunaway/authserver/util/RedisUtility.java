@@ -5,15 +5,48 @@ import lombok.experimental.UtilityClass;
 @UtilityClass
 public class RedisUtility {
 
+    // legacy JSON copies, only read until the last of them has expired
     public final static String AUTHORIZATION_ATTRIBUTES = "auth:attrs:";
 
-    private final static String CLIENT_USER_ACTIVITY_ATTRIBUTES = "user:activity:";
+    public static final String AUTHORIZATION_ATTRIBUTES_CACHE = "auth:attrs:bin:";
 
-    public static final String CLIENT_LOGIN_ATTRIBUTE = CLIENT_USER_ACTIVITY_ATTRIBUTES + "login:";
+    public static final String PENDING_AUTHORIZATION = "auth:pending:";
 
-    public static final String CLIENT_SIGNUP_ATTRIBUTE = CLIENT_USER_ACTIVITY_ATTRIBUTES + "signup:";
+    public static final String PENDING_AUTHORIZATION_CODE = PENDING_AUTHORIZATION + "code:";
+
+    public static final String PENDING_AUTHORIZATION_STATE = PENDING_AUTHORIZATION + "state:";
+
+    private final static String CLIENT_USER_ACTIVITY_STREAM = "user:activity:stream:";
+
+    public static final String CLIENT_LOGIN_STREAM = CLIENT_USER_ACTIVITY_STREAM + "login:";
+
+    public static final String CLIENT_SIGNUP_STREAM = CLIENT_USER_ACTIVITY_STREAM + "signup:";
 
     public static final String SUBSCRIPTION_CHECKOUT_STATUS = "subscription:checkout:status:";
 
+    public static final String SIGNING_KEYS_VERSION = "signing:keys:version";
+
+    public static final String SCHEDULED_JOB_LOCK = "scheduled:lock:";
+
+    public static final String SCHEDULED_JOB_COMPLETED = "scheduled:completed:";
+
+    public static final String REGISTERED_CLIENT_INVALIDATION_CHANNEL = "registered-client:invalidate";
+
+    public static final String PLATFORM_USER_INVALIDATION_CHANNEL = "platform-user:invalidate";
+
+    public static final String REVOCATION_EPOCHS = "revocation:epochs";
+
+    public static final String REVOCATION_EPOCH_CHANNEL = "revocation:epochs:update";
+
+    private static final String DASHBOARD_VERSION = "platform:dashboard:version:";
+
+    public static final String DASHBOARD_PLATFORM_USER_VERSION = DASHBOARD_VERSION + "user:";
+
+    public static final String DASHBOARD_CLIENT_VERSION = DASHBOARD_VERSION + "client:";
+
+    public static final String DASHBOARD_GLOBAL_VERSION = DASHBOARD_VERSION + "global";
+
+    public static final String DASHBOARD_CLIENTS = "platform:dashboard:clients:";
+
 
 }
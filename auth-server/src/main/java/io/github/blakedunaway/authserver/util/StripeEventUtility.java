@@ -1,5 +1,14 @@
 package io.github.blakedunaway.authserver.util;
 
+import com.stripe.model.Subscription;
+import com.stripe.model.SubscriptionItem;
+import io.github.blakedunaway.authserver.business.model.PlatformUserSubscription;
+import io.github.blakedunaway.authserver.business.model.StripeWebhookEvent;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
 public class StripeEventUtility {
     public static final String CHECKOUT_SESSION_COMPLETED = "checkout.session.completed";
     public static final String CUSTOMER_SUBSCRIPTION_DELETED = "customer.subscription.deleted";
@@ -7,4 +16,44 @@ public class StripeEventUtility {
     public static final String CUSTOMER_SUBSCRIPTION_CREATED = "customer.subscription.created";
     public static final String INVOICE_PAID = "invoice.paid";
     public static final String INVOICE_PAYMENT_FAILED = "invoice.payment_failed";
+
+    public static PlatformUserSubscription toPlatformUserSubscription(final UUID platformUserId,
+                                                                      final Subscription subscription,
+                                                                      final Instant reportedAt) {
+        final SubscriptionItem item = subscription.getItems() == null || subscription.getItems().getData() == null
+                                      || subscription.getItems().getData().isEmpty()
+                                      ? null
+                                      : subscription.getItems().getData().getFirst();
+        return new PlatformUserSubscription(platformUserId,
+                                            subscription.getId(),
+                                            item == null ? null : item.getId(),
+                                            item == null || item.getPrice() == null ? null : item.getPrice().getId(),
+                                            subscription.getStatus(),
+                                            reportedAt);
+    }
+
+    public static PlatformUserSubscription toPlatformUserSubscription(final UUID platformUserId, final StripeWebhookEvent subscriptionEvent) {
+        return new PlatformUserSubscription(platformUserId,
+                                            subscriptionEvent.objectId(),
+                                            subscriptionEvent.firstItemId(),
+                                            subscriptionEvent.firstItemPriceId(),
+                                            subscriptionEvent.objectField("status"),
+                                            subscriptionEvent.created());
+    }
+
+    public static UUID platformUserId(final Map<String, String> metadata) {
+        return platformUserId(metadata == null ? null : metadata.get("platformUserId"));
+    }
+
+    // the platformUserId metadata our checkout sessions and subscriptions carry, null when missing or malformed
+    public static UUID platformUserId(final String platformUserId) {
+        if (platformUserId == null || platformUserId.isBlank()) {
+            return null;
+        }
+        try {
+            return UUID.fromString(platformUserId);
+        } catch (final IllegalArgumentException ex) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,44 @@
+package io.github.blakedunaway.authserver.util;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+// RFC 9562 version 7: 48-bit unix millis, a 12-bit counter seeded randomly each millisecond, and 62 random bits.
+// Ids from one node are strictly increasing, so primary-key inserts append to the right edge of the B-tree.
+public final class UuidUtility {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final int MAX_COUNTER = 0xFFF;
+
+    private static long lastMillis;
+
+    private static int counter;
+
+    private UuidUtility() {
+    }
+
+    public static UUID timeOrdered() {
+        final long millis;
+        final int sequence;
+        synchronized (UuidUtility.class) {
+            final long now = System.currentTimeMillis();
+            if (now > lastMillis) {
+                lastMillis = now;
+                counter = RANDOM.nextInt(MAX_COUNTER >> 1);
+            } else if (counter < MAX_COUNTER) {
+                counter++;
+            } else {
+                // counter exhausted or clock moved backwards: borrow the next millisecond to stay monotonic
+                lastMillis++;
+                counter = RANDOM.nextInt(MAX_COUNTER >> 1);
+            }
+            millis = lastMillis;
+            sequence = counter;
+        }
+        final long mostSigBits = (millis << 16) | 0x7000L | sequence;
+        final long leastSigBits = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+}
@@ -0,0 +1,23 @@
+-- Indexes behind the keyset-paginated token search. Built concurrently so existing token writes are not blocked,
+-- a build that was interrupted leaves an invalid index behind that has to be dropped before the next start.
+
+create index concurrently if not exists ix_auth_authorization_registered_client
+    on auth.auth_authorization (registered_client_id);
+
+create index concurrently if not exists ix_auth_token_issued_at_id
+    on auth.auth_token (issued_at, id);
+
+create index concurrently if not exists ix_auth_token_subject_issued_at
+    on auth.auth_token (subject, issued_at);
+
+create index concurrently if not exists ix_auth_token_revoked_expires_at
+    on auth.auth_token (revoked_at, expired_at);
+
+-- the active and expired filters only ever look at unrevoked rows, the revoked filter only at revoked ones
+create index concurrently if not exists ix_auth_token_unrevoked_issued_at
+    on auth.auth_token (issued_at desc, id desc, expired_at)
+    where revoked_at is null;
+
+create index concurrently if not exists ix_auth_token_revoked_issued_at
+    on auth.auth_token (issued_at desc, id desc)
+    where revoked_at is not null;
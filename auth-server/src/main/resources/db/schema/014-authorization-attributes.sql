@@ -0,0 +1,7 @@
+-- Encoded OAuth2Authorization attributes, one row per stored authorization. Rows written before this table existed
+-- have nothing to backfill from the database, they are read from the old auth:attrs: Redis keys until those expire.
+
+create table if not exists auth.authorization_attributes (
+    authorization_id uuid primary key,
+    payload          bytea not null
+);
@@ -0,0 +1,15 @@
+-- Usage counters read by tier checks and the dashboard totals. This runs on every start, so it only holds the DDL,
+-- the rows of users and clients that predate the tables are created by the usage reconciliation job.
+
+create table if not exists auth.platform_user_usage (
+    platform_user_id   uuid primary key,
+    registered_clients integer not null default 0,
+    scopes             integer not null default 0,
+    authorities        integer not null default 0,
+    client_users       integer not null default 0
+);
+
+create table if not exists auth.client_usage (
+    client_id    varchar(255) primary key,
+    client_users integer not null default 0
+);
@@ -0,0 +1,15 @@
+-- Local index of each platform user's Stripe subscription, kept current by the billing webhook. Existing subscriptions
+-- are copied from Stripe by SubscriptionBackfillService, there is nothing in the database to backfill them from.
+
+create table if not exists auth.platform_user_subscription (
+    platform_user_id             uuid primary key,
+    stripe_subscription_id       varchar(255) not null,
+    stripe_subscription_item_id  varchar(255),
+    stripe_price_id              varchar(255),
+    status                       varchar(255) not null,
+    event_created_at             timestamp with time zone not null,
+    updated_at                   timestamp with time zone not null
+);
+
+create index concurrently if not exists ix_platform_user_subscription_subscription
+    on auth.platform_user_subscription (stripe_subscription_id);
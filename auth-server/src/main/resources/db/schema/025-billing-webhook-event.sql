@@ -0,0 +1,31 @@
+-- Inbox of verified Stripe webhook events. The event id primary key is the unique constraint a redelivered event
+-- collides with, BillingWebhookEventRepositoryImpl relies on it to acknowledge duplicates without storing them.
+
+create table if not exists auth.billing_webhook_event (
+    event_id         varchar(255) not null,
+    event_type       varchar(128) not null,
+    platform_user_id uuid,
+    payload          text not null,
+    event_created_at timestamp with time zone not null,
+    status           varchar(16) not null,
+    attempts         integer not null,
+    next_attempt_at  timestamp with time zone not null,
+    claim_id         uuid,
+    last_error       varchar(1024),
+    received_at      timestamp with time zone not null,
+    processed_at     timestamp with time zone,
+    constraint pk_billing_webhook_event primary key (event_id)
+);
+
+create index concurrently if not exists ix_billing_webhook_event_due
+    on auth.billing_webhook_event (status, next_attempt_at);
+
+create index concurrently if not exists ix_billing_webhook_event_platform_user
+    on auth.billing_webhook_event (platform_user_id, status);
+
+create index concurrently if not exists ix_billing_webhook_event_claim
+    on auth.billing_webhook_event (claim_id);
+
+create index concurrently if not exists ix_billing_webhook_event_processed
+    on auth.billing_webhook_event (processed_at)
+    where processed_at is not null;
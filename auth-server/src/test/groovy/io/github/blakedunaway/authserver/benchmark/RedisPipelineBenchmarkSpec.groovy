@@ -0,0 +1,196 @@
+package io.github.blakedunaway.authserver.benchmark
+
+import io.github.blakedunaway.authserver.config.redis.RedisStore
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import org.springframework.data.domain.Range
+import org.springframework.data.redis.connection.Limit
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory
+import org.springframework.data.redis.core.RedisTemplate
+import org.springframework.data.redis.core.StringRedisTemplate
+import spock.lang.Requires
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+import java.time.Instant
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Compares one stream range read per key against {@link RedisStore#getStreamRanges} for the recent activity of
+ * many clients. Skipped by default; run with
+ * {@code mvn test -Dtest=RedisPipelineBenchmarkSpec -Dbenchmark=true}. Without {@code -Dbenchmark.redis-host}
+ * it runs against an in-process RESP stand-in that adds {@code benchmark.rtt-ms} (default 1) of latency to every
+ * reply flush and counts commands and flushes; with it, against that Redis and only the timings are logged.
+ */
+@Requires({ System.getProperty("benchmark") })
+class RedisPipelineBenchmarkSpec extends Specification {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisPipelineBenchmarkSpec)
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 50)
+
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 20)
+
+    def "compare sequential and pipelined stream range reads"() {
+        given:
+        def host = System.getProperty("benchmark.redis-host")
+        def standIn = host == null ? new RespStandIn(Long.getLong("benchmark.rtt-ms", 1)) : null
+        def factory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(host ?: "127.0.0.1", host == null ? standIn.port : Integer.getInteger("benchmark.redis-port", 6379)))
+        factory.afterPropertiesSet()
+        factory.start()
+        def stringRedis = new StringRedisTemplate(factory)
+        def redis = new RedisTemplate<>()
+        redis.connectionFactory = factory
+        redis.afterPropertiesSet()
+        def redisStore = new RedisStore(redis, stringRedis)
+        def keys = (1..CLIENTS).collectMany { ["user:activity:stream:login:client-$it".toString(),
+                                                             "user:activity:stream:signup:client-$it".toString()] }
+        def to = Instant.now()
+        def from = to.minusSeconds(900)
+        def range = Range.closed(String.valueOf(from.toEpochMilli()), String.valueOf(to.toEpochMilli()))
+
+        when:
+        stringRedis.hasKey("warm-up")
+        def sequential = measure(standIn) {
+            keys.each { stringRedis.opsForStream().reverseRange(it, range, Limit.limit().count(500)) }
+        }
+        def pipelined = measure(standIn) {
+            redisStore.getStreamRanges(keys, from, to, 500)
+        }
+
+        [sequential: sequential, pipelined: pipelined].each { name, result ->
+            log.info("{}: {} keys x {} reads in {} ms, {} commands and {} round trips",
+                     name, keys.size(), ITERATIONS, result.millis, result.commands, result.roundTrips)
+        }
+
+        then: "sequential reads wait for every reply, pipelined ones send all commands before the first reply"
+        standIn == null || sequential.commands == keys.size() * ITERATIONS
+        standIn == null || sequential.roundTrips == sequential.commands
+        // a pipeline runs on a dedicated connection, whose handshake adds a few commands and round trips of its own
+        standIn == null || pipelined.commands >= keys.size() * ITERATIONS
+        standIn == null || pipelined.roundTrips * 10 <= sequential.roundTrips
+        standIn == null || redisStore.getStreamRanges(keys.take(1), from, to, 500)[keys.first()]*.value*.email == ["user@example.com"]
+
+        cleanup:
+        factory?.destroy()
+        standIn?.close()
+    }
+
+    private static Map measure(final RespStandIn standIn, final Closure<?> read) {
+        final int commandsBefore = standIn == null ? 0 : standIn.commands.get()
+        final int roundTripsBefore = standIn == null ? 0 : standIn.roundTrips.get()
+        final long started = System.nanoTime()
+        ITERATIONS.times { read.call() }
+        final long millis = (System.nanoTime() - started).intdiv(1_000_000) as long
+        return [millis    : millis,
+                commands  : standIn == null ? -1 : standIn.commands.get() - commandsBefore,
+                roundTrips: standIn == null ? -1 : standIn.roundTrips.get() - roundTripsBefore]
+    }
+
+    // Just enough of the RESP2 protocol for the reads above: every stream range returns one login entry. Replies are
+    // buffered while more commands are already waiting and flushed once none are, each flush is one round trip.
+    private static final class RespStandIn implements Closeable {
+
+        private final ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())
+
+        private final AtomicInteger commands = new AtomicInteger()
+
+        private final AtomicInteger roundTrips = new AtomicInteger()
+
+        private final long rttMillis
+
+        RespStandIn(final long rttMillis) {
+            this.rttMillis = rttMillis
+            Thread.ofPlatform().daemon().start {
+                while (!serverSocket.closed) {
+                    try {
+                        final Socket socket = serverSocket.accept()
+                        Thread.ofPlatform().daemon().start { serve(socket) }
+                    } catch (final IOException ignored) {
+                        return
+                    }
+                }
+            }
+        }
+
+        int getPort() {
+            return serverSocket.localPort
+        }
+
+        private void serve(final Socket socket) {
+            final InputStream input = new BufferedInputStream(socket.inputStream)
+            final OutputStream output = new BufferedOutputStream(socket.outputStream)
+            try {
+                while (true) {
+                    final List<String> command = readCommand(input)
+                    if (command == null) {
+                        return
+                    }
+                    commands.incrementAndGet()
+                    output.write(reply(command).getBytes(StandardCharsets.UTF_8))
+                    if (input.available() == 0) {
+                        roundTrips.incrementAndGet()
+                        Thread.sleep(rttMillis)
+                        output.flush()
+                    }
+                }
+            } catch (final IOException ignored) {
+            } finally {
+                socket.close()
+            }
+        }
+
+        private static String reply(final List<String> command) {
+            switch (command[0].toUpperCase()) {
+                case "HELLO":
+                    return "-ERR unknown command 'HELLO'\r\n"
+                case "PING":
+                    return "+PONG\r\n"
+                case "EXISTS":
+                    return ":0\r\n"
+                case "XREVRANGE":
+                    final String id = System.currentTimeMillis() + "-0"
+                    return "*1\r\n*2\r\n\$${id.length()}\r\n${id}\r\n*4\r\n\$5\r\nemail\r\n\$16\r\nuser@example.com\r\n\$2\r\nat\r\n\$${id.length() - 2}\r\n${id[0..-3]}\r\n"
+                default:
+                    return "+OK\r\n"
+            }
+        }
+
+        private static List<String> readCommand(final InputStream input) {
+            final String header = readLine(input)
+            if (header == null) {
+                return null
+            }
+            final int count = header.substring(1) as int
+            final List<String> arguments = []
+            count.times {
+                final int length = readLine(input).substring(1) as int
+                arguments << new String(input.readNBytes(length), StandardCharsets.UTF_8)
+                input.readNBytes(2)
+            }
+            return arguments
+        }
+
+        private static String readLine(final InputStream input) {
+            final StringBuilder line = new StringBuilder()
+            int next
+            while ((next = input.read()) != ('\r' as char)) {
+                if (next < 0) {
+                    return null
+                }
+                line.append((char) next)
+            }
+            input.read()
+            return line.toString()
+        }
+
+        @Override
+        void close() {
+            serverSocket.close()
+        }
+
+    }
+
+}
@@ -0,0 +1,97 @@
+package io.github.blakedunaway.authserver.benchmark
+
+import io.github.blakedunaway.authserver.util.UuidUtility
+import spock.lang.Requires
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.sql.Connection
+import java.sql.DriverManager
+import java.util.function.Supplier
+
+/**
+ * Compares primary-key insert throughput and index size for random v4 against time-ordered v7 ids.
+ * Skipped by default; run with
+ * {@code mvn test -Dtest=UuidInsertBenchmarkSpec -Dbenchmark=true}, adding
+ * {@code -Dbenchmark.jdbc-url=jdbc:postgresql://... -Dbenchmark.jdbc-user=... -Dbenchmark.jdbc-password=...}
+ * to run against Postgres instead of a file-backed HSQLDB.
+ */
+@Requires({ System.getProperty("benchmark") })
+class UuidInsertBenchmarkSpec extends Specification {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 200_000)
+
+    private static final int BATCH = 1_000
+
+    def "compare v4 and v7 primary key inserts"() {
+        given:
+        def strategies = [v4: { UUID.randomUUID() } as Supplier<UUID>,
+                          v7: { UuidUtility.timeOrdered() } as Supplier<UUID>]
+
+        when:
+        def results = strategies.collectEntries { name, ids -> [(name): run(name, ids)] }
+
+        then:
+        results.each { name, result ->
+            println String.format("%s: %,d rows in %,d ms (%,.0f rows/s), index size %s",
+                                  name, ROWS, result.millis, ROWS * 1000d / result.millis,
+                                  result.indexBytes < 0 ? "n/a" : String.format("%,d bytes", result.indexBytes))
+        }
+        results.size() == 2
+    }
+
+    private static Map run(final String name, final Supplier<UUID> ids) {
+        final String url = System.getProperty("benchmark.jdbc-url")
+        final boolean postgres = url?.startsWith("jdbc:postgresql")
+        final Path hsqlDirectory = postgres ? null : Files.createTempDirectory("uuid-benchmark-" + name)
+        final Connection connection = postgres
+                ? DriverManager.getConnection(url, System.getProperty("benchmark.jdbc-user"), System.getProperty("benchmark.jdbc-password"))
+                : DriverManager.getConnection("jdbc:hsqldb:file:" + hsqlDirectory.resolve("db") + ";hsqldb.default_table_type=cached", "SA", "")
+        final String table = "uuid_benchmark_" + name
+        try {
+            connection.createStatement().execute("drop table if exists " + table)
+            connection.createStatement().execute("create table " + table + " (id uuid primary key, payload varchar(64) not null)")
+            connection.autoCommit = false
+            final long started = System.nanoTime()
+            final def insert = connection.prepareStatement("insert into " + table + " (id, payload) values (?, ?)")
+            for (int row = 1; row <= ROWS; row++) {
+                insert.setObject(1, ids.get())
+                insert.setString(2, "payload-" + row)
+                insert.addBatch()
+                if (row % BATCH == 0) {
+                    insert.executeBatch()
+                    connection.commit()
+                }
+            }
+            if (ROWS % BATCH != 0) {
+                insert.executeBatch()
+                connection.commit()
+            }
+            final long millis = Math.max(1, (System.nanoTime() - started).intdiv(1_000_000) as long)
+            return [millis: millis, indexBytes: indexBytes(connection, table, postgres, hsqlDirectory)]
+        } finally {
+            if (postgres) {
+                connection.createStatement().execute("drop table if exists " + table)
+                connection.commit()
+            } else {
+                connection.createStatement().execute("shutdown")
+            }
+            connection.close()
+        }
+    }
+
+    private static long indexBytes(final Connection connection, final String table, final boolean postgres, final Path hsqlDirectory) {
+        if (postgres) {
+            def resultSet = connection.createStatement().executeQuery("select pg_relation_size('" + table + "_pkey')")
+            resultSet.next()
+            return resultSet.getLong(1)
+        }
+        // HSQLDB keeps cached table rows and their index nodes in one data file, grown in fixed-size blocks, so
+        // only larger row counts show a difference
+        connection.createStatement().execute("checkpoint")
+        final Path data = hsqlDirectory.resolve("db.data")
+        return Files.exists(data) ? Files.size(data) : -1
+    }
+
+}
@@ -0,0 +1,147 @@
+package io.github.blakedunaway.authserver.business.service
+
+import io.github.blakedunaway.authserver.TestSpec
+import io.github.blakedunaway.authserver.business.model.AuthTokenCursor
+import io.github.blakedunaway.authserver.business.model.AuthTokenQuery
+import io.github.blakedunaway.authserver.business.model.enums.TokenState
+import io.github.blakedunaway.authserver.business.model.enums.TokenType
+import io.github.blakedunaway.authserver.config.redis.RedisStore
+import org.spockframework.spring.SpringBean
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.context.annotation.Import
+import org.springframework.security.oauth2.core.AuthorizationGrantType
+import org.springframework.security.oauth2.core.OAuth2AccessToken
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient
+import org.springframework.test.annotation.DirtiesContext
+import spock.lang.Subject
+
+import java.time.Instant
+import java.time.temporal.ChronoUnit
+
+import static org.springframework.security.oauth2.core.OAuth2AccessToken.TokenType.BEARER
+
+@Import([AuthTokenService, AuthorizationService, RegisteredClientService, SigningKeyStore])
+class AuthTokenServiceSpec extends TestSpec {
+
+    @Autowired
+    @Subject
+    private AuthTokenService authTokenService
+
+    @Autowired
+    private AuthorizationService authorizationService
+
+    @Autowired
+    private RegisteredClientService registeredClientService
+
+    @SpringBean
+    private RedisStore redisStore = Mock()
+
+    private RegisteredClient registeredClient
+
+    private UUID registeredClientId
+
+    def setup() {
+        redisStore.get(_ as String) >> [:]
+        def model = registeredClientService.saveRegisteredClient(AuthorizationServiceSpec.minimalRegisteredClient())
+        registeredClient = model.toOAuth2RegisteredClient()
+        registeredClientId = model.id
+    }
+
+    @DirtiesContext
+    def "pages walk every matching token newest first without repeating rows"() {
+        given:
+        def now = Instant.now().truncatedTo(ChronoUnit.SECONDS)
+        (0..<5).each { saveAccessToken("user-$it", now.minusSeconds(60 * it), now.plusSeconds(600)) }
+        // same issued_at as the newest token, ordered by id
+        saveAccessToken("user-twin", now, now.plusSeconds(600))
+
+        when:
+        def first = authTokenService.findPage(query().limit(4).build())
+        def cursor = AuthTokenCursor.decode(AuthTokenCursor.of(first.tokens().last()).encode())
+        def second = authTokenService.findPage(query().limit(4).cursorIssuedAt(cursor.issuedAt()).cursorId(cursor.id()).build())
+
+        then:
+        first.tokens().size() == 4
+        first.hasMore()
+        first.totalEstimate() == 6
+        first.totalExact()
+        second.tokens().size() == 2
+        !second.hasMore()
+        second.totalEstimate() == null
+
+        and:
+        def all = first.tokens() + second.tokens()
+        all*.id.toSet().size() == 6
+        all*.issuedAt == all*.issuedAt.toSorted { a, b -> b <=> a }
+        all.last().subject == "user-4"
+    }
+
+    @DirtiesContext
+    def "export streams every matching token newest first and resumes after a cursor"() {
+        given:
+        def now = Instant.now().truncatedTo(ChronoUnit.SECONDS)
+        (0..<5).each { saveAccessToken("user-$it", now.minusSeconds(60 * it), now.plusSeconds(600)) }
+        def exported = []
+
+        when:
+        authTokenService.export(query().build()) { exported << it }
+
+        then:
+        exported*.subject == ["user-0", "user-1", "user-2", "user-3", "user-4"]
+
+        when:
+        def cursor = AuthTokenCursor.decode(AuthTokenCursor.of(exported[1]).encode())
+        def resumed = []
+        authTokenService.export(query().cursorIssuedAt(cursor.issuedAt()).cursorId(cursor.id()).build()) { resumed << it }
+
+        then:
+        resumed*.subject == ["user-2", "user-3", "user-4"]
+    }
+
+    @DirtiesContext
+    def "state, subject and issued range filters are applied in the query"() {
+        given:
+        def now = Instant.now().truncatedTo(ChronoUnit.SECONDS)
+        saveAccessToken("active", now.minusSeconds(60), now.plusSeconds(600))
+        saveAccessToken("expired", now.minusSeconds(7_200), now.minusSeconds(3_600))
+        saveAccessToken("revoked", now.minusSeconds(120), now.plusSeconds(600))
+        def revokedId = authTokenService.findPage(query().subject("revoked").limit(10).build()).tokens().first().id
+        authTokenService.invalidateByIdAndRegisteredClientIds(revokedId, Set.of(registeredClientId))
+
+        expect:
+        subjects(query().state(TokenState.ACTIVE)) == ["active"]
+        subjects(query().state(TokenState.EXPIRED)) == ["expired"]
+        subjects(query().state(TokenState.REVOKED)) == ["revoked"]
+        subjects(query().tokenType(TokenType.ACCESS).issuedFrom(now.minusSeconds(600))) == ["active", "revoked"]
+        subjects(query().issuedTo(now.minusSeconds(600))) == ["expired"]
+        authTokenService.findPage(query().registeredClientIds(Set.of(UUID.randomUUID())).limit(10).build()).tokens().isEmpty()
+    }
+
+    def "page size outside the allowed range is rejected"() {
+        when:
+        authTokenService.findPage(query().limit(AuthTokenService.MAX_PAGE_SIZE + 1).build())
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    private AuthTokenQuery.AuthTokenQueryBuilder query() {
+        return AuthTokenQuery.builder().registeredClientIds(Set.of(registeredClientId))
+    }
+
+    private List<String> subjects(final AuthTokenQuery.AuthTokenQueryBuilder builder) {
+        return authTokenService.findPage(builder.limit(10).build()).tokens()*.subject
+    }
+
+    private void saveAccessToken(final String subject, final Instant issuedAt, final Instant expiresAt) {
+        authorizationService.save(OAuth2Authorization.withRegisteredClient(registeredClient)
+                                                     .principalName(subject)
+                                                     .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                                                     .token(new OAuth2AccessToken(BEARER, UUID.randomUUID().toString(), issuedAt, expiresAt)) { meta ->
+                                                         meta.put(OAuth2Authorization.Token.CLAIMS_METADATA_NAME, [sub: subject])
+                                                     }
+                                                     .build())
+    }
+
+}
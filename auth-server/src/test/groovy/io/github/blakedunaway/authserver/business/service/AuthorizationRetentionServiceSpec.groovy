@@ -0,0 +1,75 @@
+package io.github.blakedunaway.authserver.business.service
+
+import io.github.blakedunaway.authserver.business.model.AuthorizationPurge
+import io.github.blakedunaway.authserver.config.redis.RedisStore
+import io.github.blakedunaway.authserver.integration.repository.cache.DashboardVersions
+import io.github.blakedunaway.authserver.integration.repository.gateway.AuthorizationRetentionRepository
+import io.github.blakedunaway.authserver.util.RedisUtility
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.Instant
+
+class AuthorizationRetentionServiceSpec extends Specification {
+
+    private AuthorizationRetentionRepository authorizationRetentionRepository = Mock()
+
+    private RedisStore redisStore = Mock()
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+
+    @Subject
+    private AuthorizationRetentionService service = new AuthorizationRetentionService(authorizationRetentionRepository, redisStore, meterRegistry, Mock(DashboardVersions))
+
+    def setup() {
+        service.gracePeriodMillis = 60_000
+        service.batchSize = 2
+        service.maxBatchesPerRun = 5
+        service.initialize()
+    }
+
+    def "purges in batches until a short batch and removes the matching attribute keys"() {
+        given:
+        def first = [UUID.randomUUID(), UUID.randomUUID()]
+        def second = [UUID.randomUUID()]
+        def firstKeys = first.collect { RedisUtility.AUTHORIZATION_ATTRIBUTES_CACHE + it }
+        def secondKeys = second.collect { RedisUtility.AUTHORIZATION_ATTRIBUTES_CACHE + it }
+
+        when:
+        service.purgeExpiredAuthorizations()
+
+        then:
+        2 * authorizationRetentionRepository.purgeExpired({ Instant cutoff -> cutoff.isBefore(Instant.now().minusSeconds(59)) }, 2) >>>
+                [new AuthorizationPurge(first, 4), new AuthorizationPurge(second, 1)]
+        1 * redisStore.delete(firstKeys)
+        1 * redisStore.delete(secondKeys)
+        meterRegistry.get("auth.retention.authorizations.purged").counter().count() == 3
+        meterRegistry.get("auth.retention.tokens.purged").counter().count() == 5
+        meterRegistry.get("auth.retention.batch.duration").timer().count() == 2
+    }
+
+    def "stops at the batch limit and tolerates redis failures"() {
+        given:
+        service.maxBatchesPerRun = 2
+
+        when:
+        service.purgeExpiredAuthorizations()
+
+        then:
+        2 * authorizationRetentionRepository.purgeExpired(_, 2) >> { new AuthorizationPurge([UUID.randomUUID(), UUID.randomUUID()], 2) }
+        2 * redisStore.delete(_) >> { throw new IllegalStateException("redis down") }
+        noExceptionThrown()
+        meterRegistry.get("auth.retention.authorizations.purged").counter().count() == 4
+    }
+
+    def "nothing to purge leaves redis untouched"() {
+        when:
+        service.purgeExpiredAuthorizations()
+
+        then:
+        1 * authorizationRetentionRepository.purgeExpired(_, 2) >> AuthorizationPurge.empty()
+        0 * redisStore._
+    }
+
+}
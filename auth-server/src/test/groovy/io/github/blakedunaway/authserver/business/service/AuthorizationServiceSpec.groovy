@@ -4,28 +4,49 @@ import io.github.blakedunaway.authserver.TestSpec
 import io.github.blakedunaway.authserver.business.model.RegisteredClientModel
 import io.github.blakedunaway.authserver.business.model.SigningKey
 import io.github.blakedunaway.authserver.business.model.enums.SigningKeyStatus
+import io.github.blakedunaway.authserver.business.model.enums.TokenType
+import io.github.blakedunaway.authserver.business.model.user.ClientRegisterDto.UsernamePasswordWithClientAuthenticationToken
 import io.github.blakedunaway.authserver.config.redis.RedisStore
+import io.github.blakedunaway.authserver.integration.entity.RegisteredClientEntity
 import io.github.blakedunaway.authserver.integration.repository.gateway.AuthorizationRepository
 import io.github.blakedunaway.authserver.mapper.RegisteredClientMapper
 import io.github.blakedunaway.authserver.security.token.TokenHasher
+import io.github.blakedunaway.authserver.util.RedisUtility
+import jakarta.persistence.EntityManagerFactory
+import org.hibernate.SessionFactory
+import org.hibernate.stat.Statistics
 import org.spockframework.spring.SpringBean
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.context.annotation.Import
+import org.springframework.mock.web.MockHttpServletRequest
+import org.springframework.security.core.authority.SimpleGrantedAuthority
 import org.springframework.security.oauth2.core.AuthorizationGrantType
 import org.springframework.security.oauth2.core.ClientAuthenticationMethod
 import org.springframework.security.oauth2.core.OAuth2AccessToken
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException
 import org.springframework.security.oauth2.core.OAuth2RefreshToken
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames
 import org.springframework.security.oauth2.core.oidc.OidcIdToken
 import org.springframework.security.oauth2.server.authorization.OAuth2Authorization
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode
 import org.springframework.security.oauth2.server.authorization.OAuth2TokenType
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository
 import org.springframework.security.oauth2.server.authorization.settings.ClientSettings
 import org.springframework.security.oauth2.server.authorization.settings.TokenSettings
 import org.springframework.test.annotation.DirtiesContext
+import org.springframework.web.context.request.RequestContextHolder
+import org.springframework.web.context.request.ServletRequestAttributes
 import spock.lang.Subject
 
+import java.security.Principal
 import java.time.Instant
 import java.time.LocalDateTime
+import java.util.concurrent.Callable
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
 
 import static org.springframework.security.oauth2.core.OAuth2AccessToken.TokenType.BEARER
 
@@ -48,6 +69,12 @@ class AuthorizationServiceSpec extends TestSpec {
     @Autowired
     private AuthorizationRepository authRepo
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory
+
+    @Autowired
+    private RegisteredClientRepository registeredClientRepository
+
     @SpringBean
     private RedisStore redisStore = Mock()
 
@@ -372,6 +399,233 @@ class AuthorizationServiceSpec extends TestSpec {
         authRepo.findAll().isEmpty()
     }
 
+    @DirtiesContext
+    def "attributes are cached by the save and read back from the database when Redis has no copy"() {
+        given:
+        def raw = "raw-" + UUID.randomUUID()
+        def now = Instant.now()
+        def principal = UsernamePasswordWithClientAuthenticationToken.authenticated("user@example.com", "client-a",
+                                                                                     [new SimpleGrantedAuthority("ROLE_USER")])
+        def access = new OAuth2AccessToken(BEARER, raw, now, now.plusSeconds(600), Set.of("read"))
+        def auth = OAuth2Authorization.withRegisteredClient(registeredClient)
+                                      .principalName("user@example.com")
+                                      .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                                      .authorizedScopes(Set.of("read"))
+                                      .attribute(Principal.name, principal)
+                                      .token(access) { meta -> meta.put("kid", kid) }
+                                      .build()
+
+        when: "the save overwrites whatever copy a concurrent read cached"
+        service.save(auth)
+        def id = authRepo.findAll().first().id
+
+        then:
+        1 * redisStore.putBytes({ it.startsWith(RedisUtility.AUTHORIZATION_ATTRIBUTES_CACHE) }, _ as byte[], _, false)
+
+        when: "a read only fills a missing copy"
+        def resolved = service.findByToken(raw, OAuth2TokenType.ACCESS_TOKEN)
+
+        then:
+        1 * redisStore.getBytes(RedisUtility.AUTHORIZATION_ATTRIBUTES_CACHE + id) >> null
+        1 * redisStore.putBytes(RedisUtility.AUTHORIZATION_ATTRIBUTES_CACHE + id, _ as byte[], _, true)
+        0 * redisStore.get(RedisUtility.AUTHORIZATION_ATTRIBUTES + id)
+        def restored = resolved.getAttribute(Principal.name) as UsernamePasswordWithClientAuthenticationToken
+        restored.email == "user@example.com"
+        restored.clientId == "client-a"
+        restored.authorities*.authority == ["ROLE_USER"]
+    }
+
+    @DirtiesContext
+    def "authorization codes stay in Redis until the token exchange writes the authorization to the database"() {
+        given:
+        def redisValues = [:]
+        redisStore.putBytes(_ as Map, _) >> { Map values, ttl -> redisValues.putAll(values) }
+        redisStore.getBytes(_ as String) >> { String key -> redisValues[key] }
+        redisStore.consumeBytes(_ as String) >> { String key -> redisValues.remove(key) }
+        redisStore.delete(_ as Collection) >> { arguments -> arguments[0].count { redisValues.remove(it) != null } as long }
+        def rawCode = "code-" + UUID.randomUUID()
+        def now = Instant.now()
+        def code = new OAuth2AuthorizationCode(rawCode, now, now.plusSeconds(300))
+        def principal = UsernamePasswordWithClientAuthenticationToken.authenticated("user@example.com", "client-a",
+                                                                                     [new SimpleGrantedAuthority("ROLE_USER")])
+        def auth = OAuth2Authorization.withRegisteredClient(registeredClient)
+                                      .principalName("user@example.com")
+                                      .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                                      .authorizedScopes(Set.of("read"))
+                                      .attribute(Principal.name, principal)
+                                      .token(code)
+                                      .build()
+
+        when: "the code is issued"
+        service.save(auth)
+        def pending = service.findByToken(rawCode, new OAuth2TokenType(OAuth2ParameterNames.CODE))
+
+        then:
+        authRepo.findAll().isEmpty()
+        pending.id == auth.id
+        pending.getToken(OAuth2AuthorizationCode).active
+        (pending.getAttribute(Principal.name) as UsernamePasswordWithClientAuthenticationToken).email == "user@example.com"
+
+        when: "the code is exchanged"
+        def access = new OAuth2AccessToken(BEARER, "access-" + UUID.randomUUID(), now, now.plusSeconds(600), Set.of("read"))
+        service.save(OAuth2Authorization.from(pending)
+                                        .token(access) { meta -> meta.put("kid", kid) }
+                                        .token(pending.getToken(OAuth2AuthorizationCode).token) { meta -> meta.put(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME, true) }
+                                        .build())
+        def replayed = service.findByToken(rawCode, new OAuth2TokenType(OAuth2ParameterNames.CODE))
+
+        then:
+        redisValues.isEmpty()
+        authRepo.findAll().size() == 1
+        replayed != null
+        replayed.getToken(OAuth2AuthorizationCode).invalidated
+        replayed.accessToken != null
+    }
+
+    @DirtiesContext
+    def "concurrent exchanges of one code redeem it only once and each exchange can look its code up twice"() {
+        given:
+        def redisValues = new ConcurrentHashMap<String, byte[]>()
+        redisStore.putBytes(_ as Map, _) >> { Map values, ttl -> redisValues.putAll(values) }
+        redisStore.getBytes(_ as String) >> { String key -> redisValues[key] }
+        redisStore.consumeBytes(_ as String) >> { String key -> redisValues.remove(key) }
+        redisStore.delete(_ as Collection) >> { arguments -> arguments[0].count { redisValues.remove(it) != null } as long }
+        def rawCode = "code-" + UUID.randomUUID()
+        def now = Instant.now()
+        service.save(OAuth2Authorization.withRegisteredClient(registeredClient)
+                                        .principalName("user@example.com")
+                                        .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                                        .authorizedScopes(Set.of("read"))
+                                        .token(new OAuth2AuthorizationCode(rawCode, now, now.plusSeconds(300)))
+                                        .build())
+        def start = new CountDownLatch(1)
+        def pool = Executors.newFixedThreadPool(4)
+
+        when: "several token requests present the same code at once, each looking it up for PKCE and then for the grant"
+        def exchanges = (1..4).collect {
+            pool.submit({
+                start.await()
+                RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()))
+                try {
+                    def verified = service.findByToken(rawCode, new OAuth2TokenType(OAuth2ParameterNames.CODE))
+                    def pending = service.findByToken(rawCode, new OAuth2TokenType(OAuth2ParameterNames.CODE))
+                    if (verified == null || pending == null || !pending.getToken(OAuth2AuthorizationCode).active) {
+                        return false
+                    }
+                    def access = new OAuth2AccessToken(BEARER, "access-" + UUID.randomUUID(), now, now.plusSeconds(600), Set.of("read"))
+                    service.save(OAuth2Authorization.from(pending)
+                                                    .token(access) { meta -> meta.put("kid", kid) }
+                                                    .token(pending.getToken(OAuth2AuthorizationCode).token) { meta -> meta.put(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME, true) }
+                                                    .build())
+                    return true
+                } finally {
+                    RequestContextHolder.resetRequestAttributes()
+                }
+            } as Callable<Boolean>)
+        }
+        start.countDown()
+        def redeemed = exchanges.collect { it.get(30, TimeUnit.SECONDS) }
+
+        then:
+        redeemed.count { it } == 1
+        authRepo.findAll().size() == 1
+
+        cleanup:
+        pool?.shutdownNow()
+    }
+
+    @DirtiesContext
+    def "a code already redeemed by another exchange is rejected"() {
+        given:
+        def now = Instant.now()
+        def code = new OAuth2AuthorizationCode("code-" + UUID.randomUUID(), now, now.plusSeconds(300))
+        def access = new OAuth2AccessToken(BEARER, "access-" + UUID.randomUUID(), now, now.plusSeconds(600), Set.of("read"))
+        def exchanged = OAuth2Authorization.withRegisteredClient(registeredClient)
+                                           .principalName("user@example.com")
+                                           .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                                           .authorizedScopes(Set.of("read"))
+                                           .token(code) { meta -> meta.put(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME, true) }
+                                           .token(access) { meta -> meta.put("kid", kid) }
+                                           .build()
+
+        when:
+        service.save(exchanged)
+
+        then:
+        1 * redisStore.delete(_) >> 0L
+        thrown(OAuth2AuthenticationException)
+        authRepo.findAll().isEmpty()
+    }
+
+    @DirtiesContext
+    def "saves only write the token rows that changed"() {
+        given:
+        redisStore.delete(_) >> 1L
+        def statistics = entityManagerFactory.unwrap(SessionFactory).statistics
+        statistics.statisticsEnabled = true
+        def now = Instant.now()
+        def rawRefresh = "refresh-" + UUID.randomUUID()
+        def code = new OAuth2AuthorizationCode("code-" + UUID.randomUUID(), now, now.plusSeconds(300))
+        def exchanged = OAuth2Authorization.withRegisteredClient(registeredClient)
+                                           .principalName("user@example.com")
+                                           .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                                           .authorizedScopes(Set.of("read"))
+                                           .token(code) { meta -> meta.put(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME, true) }
+                                           .token(new OAuth2AccessToken(BEARER, "access-" + UUID.randomUUID(), now, now.plusSeconds(600), Set.of("read")))
+                                           .refreshToken(new OAuth2RefreshToken(rawRefresh, now, now.plusSeconds(3600)))
+                                           .build()
+        // client authentication has loaded the client into the cache before the token endpoint saves
+        registeredClientRepository.findById(registeredClient.id)
+
+        when: "the authorization code grant inserts the authorization"
+        def codeExchange = countStatements(statistics) { service.save(exchanged) }
+
+        and: "the refresh token grant adds a new access token in place of the old one"
+        def stored = service.findByToken(rawRefresh, OAuth2TokenType.REFRESH_TOKEN)
+        def refreshGrant = countStatements(statistics) {
+            service.save(OAuth2Authorization.from(stored)
+                                            .token(new OAuth2AccessToken(BEARER, "access-" + UUID.randomUUID(), now, now.plusSeconds(600), Set.of("read")))
+                                            .build())
+        }
+
+        and: "revocation only flags the refresh token"
+        stored = service.findByToken(rawRefresh, OAuth2TokenType.REFRESH_TOKEN)
+        def revocation = countStatements(statistics) {
+            service.save(OAuth2Authorization.from(stored)
+                                            .token(stored.refreshToken.token) { meta -> meta.put(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME, true) }
+                                            .build())
+        }
+
+        then: "the insert is one lookup by id and the rows themselves, the client comes from the cache"
+        codeExchange.statements == 6
+        codeExchange.clientLoads == 0
+        codeExchange.inserts == 5
+        codeExchange.updates == 0
+        codeExchange.deletes == 0
+        refreshGrant.statements == 5
+        refreshGrant.inserts == 1
+        refreshGrant.deletes == 1
+        refreshGrant.updates == 0
+        revocation.statements == 4
+        revocation.inserts == 0
+        revocation.deletes == 0
+        revocation.updates == 1
+        authRepo.findAll().first().tokens*.tokenType as Set == [TokenType.AUTHORIZATION_CODE, TokenType.ACCESS, TokenType.REFRESH] as Set
+
+        cleanup:
+        statistics.statisticsEnabled = false
+    }
+
+    private static Map countStatements(final Statistics statistics, final Closure<?> save) {
+        statistics.clear()
+        save.call()
+        return [statements : statistics.prepareStatementCount,
+                inserts    : statistics.entityInsertCount,
+                updates    : statistics.entityUpdateCount,
+                deletes    : statistics.entityDeleteCount,
+                clientLoads: statistics.getEntityStatistics(RegisteredClientEntity.name).loadCount]
+    }
+
     static RegisteredClientModel minimalRegisteredClient() {
         RegisteredClientModel.builder()
                              .id(null)
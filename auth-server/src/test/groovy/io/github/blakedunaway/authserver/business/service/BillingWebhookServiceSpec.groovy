@@ -0,0 +1,156 @@
+package io.github.blakedunaway.authserver.business.service
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.stripe.exception.SignatureVerificationException
+import com.stripe.net.Webhook
+import io.github.blakedunaway.authserver.TestSpec
+import io.github.blakedunaway.authserver.business.model.PlatformUserSubscription
+import io.github.blakedunaway.authserver.business.model.StripeWebhookEvent
+import io.github.blakedunaway.authserver.config.redis.RedisStore
+import io.github.blakedunaway.authserver.util.StripeEventUtility
+import org.spockframework.spring.SpringBean
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.context.annotation.Import
+import org.springframework.test.annotation.DirtiesContext
+
+import java.time.Instant
+
+@Import([BillingWebhookService])
+class BillingWebhookServiceSpec extends TestSpec {
+
+    @Autowired
+    private BillingWebhookService service
+
+    @SpringBean
+    RedisStore redisStore = Mock()
+
+    @SpringBean
+    BillingWebhookEventHandler handler = Mock()
+
+    private static String payload(final String eventId, final long created, final UUID platformUserId) {
+        """{"id":"${eventId}","object":"event","type":"customer.subscription.updated","created":${created},"data":{"object":{"id":"sub_${eventId}","object":"subscription","metadata":{"platformUserId":"${platformUserId}"}}}}"""
+    }
+
+    private static String signature(final String payload) {
+        def timestamp = System.currentTimeMillis().intdiv(1000)
+        "t=${timestamp},v1=${Webhook.Util.computeHmacSha256("test-stripe-webhook-secret", "${timestamp}.${payload}")}"
+    }
+
+    private boolean deliver(final String payload) {
+        service.receive(payload, signature(payload))
+    }
+
+    @DirtiesContext
+    def "a redelivered event is stored and handled once"() {
+        given:
+        def event = payload("evt_1", 1_700_000_000, UUID.randomUUID())
+
+        expect:
+        deliver(event)
+        !deliver(event)
+
+        when:
+        service.dispatch()
+
+        then:
+        1 * handler.handle({ it.id == "evt_1" })
+    }
+
+    @DirtiesContext
+    def "a failed event is retried before the later events of its platform user"() {
+        given:
+        service.initialBackoffMillis = 0
+        def platformUserId = UUID.randomUUID()
+        deliver(payload("evt_2", 1_700_000_002, platformUserId))
+        deliver(payload("evt_1", 1_700_000_001, platformUserId))
+        deliver(payload("evt_other", 1_700_000_003, UUID.randomUUID()))
+
+        when:
+        service.dispatch()
+
+        then:
+        1 * handler.handle({ it.id == "evt_1" }) >> { throw new IllegalStateException("tier not found") }
+        1 * handler.handle({ it.id == "evt_other" })
+
+        then:
+        1 * handler.handle({ it.id == "evt_1" })
+
+        then:
+        1 * handler.handle({ it.id == "evt_2" })
+        0 * handler._
+    }
+
+    @DirtiesContext
+    def "an event is abandoned after its last attempt and no longer holds back its platform user"() {
+        given:
+        service.initialBackoffMillis = 0
+        service.maxAttempts = 2
+        def platformUserId = UUID.randomUUID()
+        deliver(payload("evt_1", 1_700_000_001, platformUserId))
+        deliver(payload("evt_2", 1_700_000_002, platformUserId))
+
+        when:
+        service.dispatch()
+
+        then:
+        2 * handler.handle({ it.id == "evt_1" }) >> { throw new IllegalStateException("tier not found") }
+
+        then:
+        1 * handler.abandon({ it.id == "evt_1" })
+
+        then:
+        1 * handler.handle({ it.id == "evt_2" })
+        0 * handler._
+    }
+
+    @DirtiesContext
+    def "finished events are purged after the retention period while pending ones stay"() {
+        given:
+        service.maxAttempts = 1
+        service.retentionMillis = 0
+        def processed = payload("evt_processed", 1_700_000_001, UUID.randomUUID())
+        def failed = payload("evt_failed", 1_700_000_002, UUID.randomUUID())
+        def pending = payload("evt_pending", 1_700_000_003, UUID.randomUUID())
+        handler.handle({ it.id == "evt_failed" }) >> { throw new IllegalStateException("tier not found") }
+        deliver(processed)
+        deliver(failed)
+        service.dispatch()
+        deliver(pending)
+        Thread.sleep(5)
+
+        when:
+        service.purgeFinishedEvents()
+
+        then: "redeliveries of the purged events are stored again"
+        deliver(processed)
+        deliver(failed)
+        !deliver(pending)
+    }
+
+    def "an event with an invalid signature is rejected"() {
+        given:
+        def event = payload("evt_1", 1_700_000_000, UUID.randomUUID())
+
+        when:
+        service.receive(event, "t=1,v1=invalid")
+
+        then:
+        thrown(SignatureVerificationException)
+    }
+
+    def "a stored subscription event is read with Jackson into the subscription it reports"() {
+        given:
+        def platformUserId = UUID.randomUUID()
+        def payload = """{"id":"evt_1","type":"customer.subscription.updated","created":1700000000,"data":{"object":{"id":"sub_1","status":"active","metadata":{"platformUserId":"${platformUserId}","tierId":"tier-1"},"items":{"data":[{"id":"si_1","price":{"id":"price_pro"}}]}}}}"""
+
+        when:
+        def event = StripeWebhookEvent.parse(new ObjectMapper(), payload)
+
+        then:
+        event.type() == "customer.subscription.updated"
+        event.metadata("tierId") == "tier-1"
+        StripeEventUtility.toPlatformUserSubscription(platformUserId, event) ==
+                new PlatformUserSubscription(platformUserId, "sub_1", "si_1", "price_pro", "active", Instant.ofEpochSecond(1_700_000_000))
+    }
+
+}
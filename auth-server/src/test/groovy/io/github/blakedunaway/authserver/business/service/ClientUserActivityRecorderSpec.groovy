@@ -0,0 +1,68 @@
+package io.github.blakedunaway.authserver.business.service
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import spock.lang.Specification
+import spock.lang.Subject
+
+class ClientUserActivityRecorderSpec extends Specification {
+
+    private ClientUserActivityService clientUserActivityService = Mock()
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+
+    @Subject
+    private ClientUserActivityRecorder recorder = new ClientUserActivityRecorder(clientUserActivityService, meterRegistry)
+
+    def setup() {
+        recorder.queueCapacity = 3
+        recorder.batchSize = 2
+        recorder.initialize()
+    }
+
+    def "recording only enqueues and the flush writes in batches"() {
+        when:
+        recorder.recordLogin("client-a", "one@example.com")
+        recorder.recordSignup("client-a", "two@example.com")
+        recorder.recordLogin("client-b", "three@example.com")
+
+        then:
+        0 * clientUserActivityService._
+
+        when:
+        recorder.flush()
+
+        then:
+        1 * clientUserActivityService.write({ it*.email == ["one@example.com", "two@example.com"] })
+        1 * clientUserActivityService.write({ it*.email == ["three@example.com"] })
+        meterRegistry.counter("auth.activity.recorded").count() == 3
+        meterRegistry.get("auth.activity.queue.depth").gauge().value() == 0
+    }
+
+    def "activity beyond the queue capacity is dropped and counted"() {
+        when:
+        4.times { recorder.recordLogin("client-a", "user$it@example.com") }
+
+        then:
+        meterRegistry.counter("auth.activity.dropped", "reason", "queue_full").count() == 1
+        meterRegistry.get("auth.activity.queue.depth").gauge().value() == 3
+    }
+
+    def "a failed write drops that batch and keeps the rest for the next flush"() {
+        given:
+        3.times { recorder.recordLogin("client-a", "user$it@example.com") }
+
+        when:
+        recorder.flush()
+
+        then:
+        1 * clientUserActivityService.write(_) >> { throw new IllegalStateException("redis down") }
+        meterRegistry.counter("auth.activity.dropped", "reason", "write_failed").count() == 2
+
+        when:
+        recorder.flush()
+
+        then:
+        1 * clientUserActivityService.write({ it*.email == ["user2@example.com"] })
+    }
+
+}
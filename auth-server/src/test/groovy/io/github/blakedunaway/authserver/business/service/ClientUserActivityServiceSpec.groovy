@@ -0,0 +1,103 @@
+package io.github.blakedunaway.authserver.business.service
+
+import io.github.blakedunaway.authserver.business.model.ClientActivity
+import io.github.blakedunaway.authserver.business.model.enums.ClientActivityType
+import io.github.blakedunaway.authserver.config.redis.RedisStore
+import io.github.blakedunaway.authserver.integration.repository.cache.DashboardVersions
+import io.github.blakedunaway.authserver.util.RedisUtility
+import org.springframework.data.redis.connection.stream.RecordId
+import org.springframework.data.redis.connection.stream.StreamRecords
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.Duration
+import java.time.Instant
+import java.time.LocalDateTime
+import java.time.ZoneId
+
+class ClientUserActivityServiceSpec extends Specification {
+
+    private RedisStore redisStore = Mock()
+
+    @Subject
+    private ClientUserActivityService service = new ClientUserActivityService(redisStore, Mock(DashboardVersions))
+
+    def setup() {
+        service.maxLength = 1_000
+        service.windowMillis = 900_000
+        service.readLimit = 50
+    }
+
+    def "a batch is grouped into one flat entry list per client stream"() {
+        given:
+        def loginKey = RedisUtility.CLIENT_LOGIN_STREAM + "client-a"
+        def signupKey = RedisUtility.CLIENT_SIGNUP_STREAM + "client-a"
+        def at = Instant.ofEpochMilli(1_700_000_000_000)
+
+        when:
+        service.write([new ClientActivity(ClientActivityType.LOGIN, "client-a", "user@example.com", at),
+                       new ClientActivity(ClientActivityType.SIGNUP, "client-a", "new@example.com", at),
+                       new ClientActivity(ClientActivityType.LOGIN, "client-a", "other@example.com", at)])
+
+        then:
+        1 * redisStore.appendToStreams([(loginKey) : [[email: "user@example.com", at: "1700000000000"],
+                                                      [email: "other@example.com", at: "1700000000000"]],
+                                        (signupKey): [[email: "new@example.com", at: "1700000000000"]]],
+                                       1_000,
+                                       Duration.ofMinutes(15))
+    }
+
+    def "entries with missing fields do not fail the rest of the batch"() {
+        given:
+        def loginKey = RedisUtility.CLIENT_LOGIN_STREAM + "client-a"
+        def at = Instant.ofEpochMilli(1_700_000_000_000)
+
+        when:
+        service.write([new ClientActivity(ClientActivityType.LOGIN, "client-a", null, at),
+                       new ClientActivity(ClientActivityType.LOGIN, null, "nobody@example.com", at),
+                       new ClientActivity(ClientActivityType.LOGIN, "client-a", "user@example.com", null),
+                       new ClientActivity(ClientActivityType.LOGIN, "client-a", "other@example.com", at)])
+
+        then:
+        1 * redisStore.appendToStreams([(loginKey): [[email: "user@example.com"],
+                                                     [email: "other@example.com", at: "1700000000000"]]],
+                                       1_000,
+                                       Duration.ofMinutes(15))
+    }
+
+    def "recent logins and sign ups of all clients are read in one bounded range call"() {
+        given:
+        def loginKeyA = RedisUtility.CLIENT_LOGIN_STREAM + "client-a"
+        def signupKeyA = RedisUtility.CLIENT_SIGNUP_STREAM + "client-a"
+        def loginKeyB = RedisUtility.CLIENT_LOGIN_STREAM + "client-b"
+        def signupKeyB = RedisUtility.CLIENT_SIGNUP_STREAM + "client-b"
+        def loggedInAt = Instant.now().minusSeconds(30)
+        def signedUpAt = Instant.now().minusSeconds(60)
+        def login = StreamRecords.newRecord()
+                                 .in(loginKeyB)
+                                 .withId(RecordId.of(loggedInAt.toEpochMilli(), 0))
+                                 .ofMap([email: "user@example.com"])
+        def signup = StreamRecords.newRecord()
+                                  .in(signupKeyA)
+                                  .withId(RecordId.autoGenerate())
+                                  .ofMap([email: "new@example.com", at: String.valueOf(signedUpAt.toEpochMilli())])
+
+        when:
+        def recent = service.findRecent(["client-a", "client-b"])
+
+        then:
+        1 * redisStore.getStreamRanges({ it as List == [loginKeyA, signupKeyA, loginKeyB, signupKeyB] },
+                                       { Instant from -> from.isBefore(signedUpAt) },
+                                       { Instant to -> to.isAfter(loggedInAt) },
+                                       50) >> [(loginKeyA): [], (signupKeyA): [signup], (loginKeyB): [login], (signupKeyB): []]
+        recent[ClientActivityType.LOGIN]*.email == ["user@example.com"]
+        recent[ClientActivityType.LOGIN].first().activityTs == localTime(loggedInAt)
+        recent[ClientActivityType.SIGNUP]*.email == ["new@example.com"]
+        recent[ClientActivityType.SIGNUP].first().activityTs == localTime(signedUpAt)
+    }
+
+    private static LocalDateTime localTime(final Instant instant) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(instant.toEpochMilli()), ZoneId.systemDefault())
+    }
+
+}
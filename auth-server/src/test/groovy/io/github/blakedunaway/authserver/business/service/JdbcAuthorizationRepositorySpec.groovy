@@ -0,0 +1,94 @@
+package io.github.blakedunaway.authserver.business.service
+
+import io.github.blakedunaway.authserver.TestSpec
+import io.github.blakedunaway.authserver.business.model.Authorization
+import io.github.blakedunaway.authserver.config.redis.RedisStore
+import io.github.blakedunaway.authserver.integration.repository.gateway.AuthorizationRepository
+import org.spockframework.spring.SpringBean
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.beans.factory.annotation.Qualifier
+import org.springframework.context.annotation.Import
+import org.springframework.security.oauth2.core.AuthorizationGrantType
+import org.springframework.security.oauth2.core.OAuth2AccessToken
+import org.springframework.security.oauth2.core.OAuth2RefreshToken
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient
+import org.springframework.test.annotation.DirtiesContext
+import org.springframework.test.context.TestPropertySource
+import spock.lang.Subject
+
+import java.time.Instant
+
+import static org.springframework.security.oauth2.core.OAuth2AccessToken.TokenType.BEARER
+
+@Import([AuthorizationService, RegisteredClientService, SigningKeyStore])
+@TestPropertySource(properties = "auth-server.authorization-repository=jdbc")
+class JdbcAuthorizationRepositorySpec extends TestSpec {
+
+    @Autowired
+    @Subject
+    private AuthorizationRepository authorizationRepository
+
+    @Autowired
+    @Qualifier("authorizationRepositoryImpl")
+    private AuthorizationRepository jpaAuthorizationRepository
+
+    @Autowired
+    private AuthorizationService service
+
+    @Autowired
+    private RegisteredClientService registeredClientService
+
+    @SpringBean
+    private RedisStore redisStore = Mock()
+
+    private RegisteredClient registeredClient
+
+    def setup() {
+        redisStore.get(_ as String) >> [:]
+        registeredClient = registeredClientService.saveRegisteredClient(AuthorizationServiceSpec.minimalRegisteredClient())
+                                                  .toOAuth2RegisteredClient()
+    }
+
+    @DirtiesContext
+    def "jdbc implementation is selected by property and hydrates the same authorization as JPA"() {
+        given:
+        def rawAccess = UUID.randomUUID().toString()
+        def rawRefresh = UUID.randomUUID().toString()
+        def now = Instant.now()
+        def auth = OAuth2Authorization.withRegisteredClient(registeredClient)
+                                      .principalName("jdbc-user")
+                                      .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                                      .authorizedScopes(Set.of("read", "write"))
+                                      .token(new OAuth2AccessToken(BEARER, rawAccess, now, now.plusSeconds(600), Set.of("read"))) { meta ->
+                                          meta.put("kid", "jdbc-kid")
+                                          meta.put(OAuth2Authorization.Token.CLAIMS_METADATA_NAME, [sub: "jdbc-user", scope: ["read"]])
+                                      }
+                                      .refreshToken(new OAuth2RefreshToken(rawRefresh, now, now.plusSeconds(3600)))
+                                      .build()
+        service.save(auth)
+
+        when:
+        Authorization viaJdbc = authorizationRepository.findByToken(rawAccess, OAuth2TokenType.ACCESS_TOKEN.getValue())
+        Authorization viaJpa = jpaAuthorizationRepository.findByToken(rawAccess, OAuth2TokenType.ACCESS_TOKEN.getValue())
+
+        then:
+        !authorizationRepository.is(jpaAuthorizationRepository)
+        viaJdbc.id == viaJpa.id
+        viaJdbc.principalName == viaJpa.principalName
+        viaJdbc.authorizationGrantTypeInternal == viaJpa.authorizationGrantTypeInternal
+        viaJdbc.authorizedScopes == viaJpa.authorizedScopes
+        viaJdbc.registeredClientModel.clientId == viaJpa.registeredClientModel.clientId
+        viaJdbc.tokens*.id as Set == viaJpa.tokens*.id as Set
+        viaJdbc.tokens*.hashedTokenValue as Set == viaJpa.tokens*.hashedTokenValue as Set
+        viaJdbc.tokens*.expiresAt as Set == viaJpa.tokens*.expiresAt as Set
+        viaJdbc.tokens*.metadata as Set == viaJpa.tokens*.metadata as Set
+
+        and:
+        authorizationRepository.findById(viaJpa.id).tokens.size() == 2
+        service.findByToken(rawRefresh, OAuth2TokenType.REFRESH_TOKEN).principalName == "jdbc-user"
+        authorizationRepository.findByToken(UUID.randomUUID().toString(), null) == null
+    }
+
+}
@@ -2,7 +2,11 @@ package io.github.blakedunaway.authserver.business.service
 
 import io.github.blakedunaway.authserver.TestSpec
 import io.github.blakedunaway.authserver.business.model.Authority
+import io.github.blakedunaway.authserver.business.model.ClientUserCursor
+import io.github.blakedunaway.authserver.business.model.ClientUserImportEvent
+import io.github.blakedunaway.authserver.business.model.PlatformUserUsage
 import io.github.blakedunaway.authserver.business.model.RegisteredClientModel
+import io.github.blakedunaway.authserver.business.model.enums.BulkDataFormat
 import io.github.blakedunaway.authserver.business.model.user.ClientUser
 import io.github.blakedunaway.authserver.business.model.user.PlatformRegisterDto
 import io.github.blakedunaway.authserver.business.model.user.PlatformUser
@@ -11,25 +15,34 @@ import io.github.blakedunaway.authserver.config.redis.RedisStore
 import io.github.blakedunaway.authserver.integration.TokenSettingsJson
 import io.github.blakedunaway.authserver.integration.entity.PlatformUserTierEntity
 import io.github.blakedunaway.authserver.integration.entity.RegisteredClientEntity
+import io.github.blakedunaway.authserver.integration.repository.gateway.UsageCounterRepository
 import io.github.blakedunaway.authserver.integration.repository.jpa.AuthorityJpaRepository
 import io.github.blakedunaway.authserver.integration.repository.jpa.PlatformUserTierJpaRepository
 import io.github.blakedunaway.authserver.integration.repository.jpa.RegisterClientJpaRepository
+import io.github.blakedunaway.authserver.security.hashing.ImportedHashLimits
+import io.github.blakedunaway.authserver.security.hashing.ImportedHashPasswordEncoder
+import io.github.blakedunaway.authserver.security.hashing.PasswordHashingExecutor
+import io.github.blakedunaway.authserver.util.RedisUtility
 import org.spockframework.spring.SpringBean
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.context.annotation.Import
+import org.springframework.jdbc.core.JdbcTemplate
 import org.springframework.security.core.userdetails.UserDetails
 import org.springframework.security.core.userdetails.UsernameNotFoundException
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder
 import org.springframework.security.crypto.password.PasswordEncoder
 import org.springframework.security.oauth2.core.AuthorizationGrantType
 import org.springframework.security.oauth2.core.ClientAuthenticationMethod
 import org.springframework.security.oauth2.server.authorization.settings.ClientSettings
 import org.springframework.security.oauth2.server.authorization.settings.TokenSettings
 import org.springframework.test.annotation.DirtiesContext
+import org.springframework.test.util.ReflectionTestUtils
 import jakarta.validation.ValidationException
 
+import java.nio.charset.StandardCharsets
 import java.time.LocalDateTime
 
-@Import([UserService, RegisteredClientService])
+@Import([UserService, RegisteredClientService, ClientUserImportService, PasswordHashingExecutor, ImportedHashLimits])
 class PlatformUserServiceSpec extends TestSpec {
 
     private static final String HASH = "\$argon2id\$v=19\$m=65536,t=2,p=1\$deadbeef\$deadbeef"
@@ -41,6 +54,9 @@ class PlatformUserServiceSpec extends TestSpec {
     @Autowired
     private RegisteredClientService registeredClientService
 
+    @Autowired
+    private ClientUserImportService clientUserImportService
+
     @Autowired
     private RegisterClientJpaRepository registerClientJpaRepository
 
@@ -53,6 +69,15 @@ class PlatformUserServiceSpec extends TestSpec {
     @Autowired
     private PasswordEncoder passwordEncoder
 
+    @Autowired
+    private UsageCounterRepository usageCounterRepository
+
+    @Autowired
+    private ImportedHashLimits importedHashLimits
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate
+
     @SpringBean
     private RedisStore redisStore = Mock()
 
@@ -359,6 +384,282 @@ class PlatformUserServiceSpec extends TestSpec {
         thrown(UsernameNotFoundException)
     }
 
+    @DirtiesContext
+    def "usage counters follow owned clients and new client users and reconciliation repairs drift"() {
+        given:
+        def firstClient = saveClient("usage-client-one")
+        def secondClient = saveClient("usage-client-two")
+        service.savePlatformUser(
+                PlatformUser.from("usage@example.com")
+                            .passwordHash(HASH)
+                            .verified(true)
+                            .createdAt(LocalDateTime.now())
+                            .updatedAt(LocalDateTime.now())
+                            .authorities { auths ->
+                                auths.clear()
+                                auths.add(Authority.from("ROLE_PLATFORM_USER"))
+                            }
+                            .registeredClientIds { it.clear() }
+                            .locked(false)
+                            .expired(false)
+                            .credentialsExpired(false)
+                            .build()
+        )
+        service.attachRegisteredClientToPlatformUser("usage@example.com", firstClient.getId())
+        service.attachRegisteredClientToPlatformUser("usage@example.com", secondClient.getId())
+        service.saveUser(clientUser("first@example.com", firstClient.getClientId()))
+        service.saveUser(clientUser("second@example.com", secondClient.getClientId()))
+        service.saveUser(clientUser("second@example.com", secondClient.getClientId()))
+
+        when:
+        def platformUserId = service.loadPlatformUserByEmail("usage@example.com").getId()
+
+        then: "the second save of the same client user is an update and not counted"
+        usageCounterRepository.findByPlatformUserId(platformUserId) == new PlatformUserUsage(2, 2, 0, 2)
+        service.getTotalUserCount("usage@example.com") == 2
+        service.getTotalClientCount("usage@example.com") == 2
+
+        when: "the counters drift"
+        jdbcTemplate.update("update auth.platform_user_usage set scopes = 0, client_users = 7 where platform_user_id = ?", platformUserId)
+        def repaired = usageCounterRepository.reconcile()
+
+        then:
+        repaired >= 1
+        usageCounterRepository.findByPlatformUserId(platformUserId) == new PlatformUserUsage(2, 2, 0, 2)
+        usageCounterRepository.reconcile() == 0
+    }
+
+    @DirtiesContext
+    def "platform user snapshots and ownership are cached by subject until the platform user is saved"() {
+        given:
+        def firstClient = saveClient("cached-client-one")
+        def secondClient = saveClient("cached-client-two")
+        service.savePlatformUser(
+                PlatformUser.from("cached@example.com")
+                            .passwordHash(HASH)
+                            .verified(true)
+                            .createdAt(LocalDateTime.now())
+                            .updatedAt(LocalDateTime.now())
+                            .authorities { auths ->
+                                auths.clear()
+                                auths.add(Authority.from("ROLE_PLATFORM_USER"))
+                            }
+                            .registeredClientIds { it.clear() }
+                            .locked(false)
+                            .expired(false)
+                            .credentialsExpired(false)
+                            .build()
+        )
+        service.attachRegisteredClientToPlatformUser("cached@example.com", firstClient.getId())
+
+        when:
+        def ownership = service.loadPlatformUserOwnershipBySubject("Cached@Example.com")
+        def snapshot = service.loadPlatformUserBySubject("cached@example.com")
+
+        then:
+        ownership.email() == "cached@example.com"
+        ownership.platformUserId() == snapshot.getId()
+        ownership.registeredClientIds() == [firstClient.getId()] as Set
+        ownership.filterOwned([firstClient.getId(), secondClient.getId()] as Set) == [firstClient.getId()] as Set
+        snapshot.getRegisteredClientIds() == [firstClient.getId()] as Set
+
+        when: "the ownership changes behind the application's back"
+        jdbcTemplate.update("delete from auth.user_clients where registered_client_id = ?", firstClient.getId())
+
+        then: "the cached copies are served"
+        service.loadPlatformUserOwnershipBySubject("cached@example.com").owns(firstClient.getId())
+        service.loadPlatformUserBySubject("cached@example.com").getRegisteredClientIds() == [firstClient.getId()] as Set
+
+        when:
+        service.attachRegisteredClientToPlatformUser("cached@example.com", secondClient.getId())
+
+        then: "a save evicts them and is broadcast to the other nodes"
+        1 * redisStore.publish(RedisUtility.PLATFORM_USER_INVALIDATION_CHANNEL, "cached@example.com")
+        service.loadPlatformUserOwnershipBySubject("cached@example.com").registeredClientIds() == [secondClient.getId()] as Set
+        service.loadPlatformUserBySubject("cached@example.com").getRegisteredClientIds() == [secondClient.getId()] as Set
+        service.loadPlatformUserOwnershipBySubject("missing@example.com") == null
+        service.loadPlatformUserBySubject("missing@example.com") == null
+    }
+
+    @DirtiesContext
+    def "removed client authorities and roles are deleted from its users in batches"() {
+        given:
+        def client = saveClient("authority-client", Set.of("PERM_READ", "PERM_WRITE"), Set.of("ROLE_SUPPORT"))
+        def otherClient = saveClient("authority-other-client", Set.of("PERM_READ"), Set.of())
+        service.saveUser(clientUser("reader@example.com", client.getClientId(), "PERM_READ", "ROLE_SUPPORT"))
+        service.saveUser(clientUser("writer@example.com", client.getClientId(), "PERM_READ", "PERM_WRITE"))
+        service.saveUser(clientUser("support@example.com", client.getClientId(), "ROLE_SUPPORT"))
+        service.saveUser(clientUser("untouched@example.com", client.getClientId(), "PERM_WRITE"))
+        service.saveUser(clientUser("other@example.com", otherClient.getClientId(), "PERM_READ"))
+        ReflectionTestUtils.setField(service, "authorityRemovalBatchSize", 2)
+        def updated = RegisteredClientModel.builder()
+                                           .id(client.getId())
+                                           .clientId(client.getClientId())
+                                           .authorities(Set.of("perm_write"))
+                                           .roles(Set.of())
+                                           .build()
+
+        when:
+        def affectedUsers = service.removeRemovedRegisteredClientAuthorities(client, updated)
+
+        then:
+        affectedUsers == 3
+        authorityNames("reader@example.com", client.getClientId()) == [] as Set
+        authorityNames("writer@example.com", client.getClientId()) == ["PERM_WRITE"] as Set
+        authorityNames("support@example.com", client.getClientId()) == [] as Set
+        authorityNames("untouched@example.com", client.getClientId()) == ["PERM_WRITE"] as Set
+        authorityNames("other@example.com", otherClient.getClientId()) == ["PERM_READ"] as Set
+
+        and: "nothing is left to remove on a repeated update"
+        service.removeRemovedRegisteredClientAuthorities(client, updated) == 0
+    }
+
+    @DirtiesContext
+    def "client user imports accept plain passwords and Argon2 or bcrypt hashes within the cost limits and stop at the tier allowance"() {
+        given:
+        def client = saveClient("import-client", Set.of("PERM_READ"), Set.of("ROLE_SUPPORT"))
+        service.savePlatformUser(
+                PlatformUser.from("importer@example.com")
+                            .passwordHash(HASH)
+                            .verified(true)
+                            .createdAt(LocalDateTime.now())
+                            .updatedAt(LocalDateTime.now())
+                            .authorities { auths ->
+                                auths.clear()
+                                auths.add(Authority.from("ROLE_PLATFORM_USER"))
+                            }
+                            .registeredClientIds { it.clear() }
+                            .locked(false)
+                            .expired(false)
+                            .credentialsExpired(false)
+                            .build()
+        )
+        service.attachRegisteredClientToPlatformUser("importer@example.com", client.getId())
+        service.saveUser(clientUser("existing@example.com", client.getClientId()))
+        jdbcTemplate.update("update auth.platform_user_tier set allowed_number_of_global_user = 5")
+        jdbcTemplate.update("delete from auth.platform_user_usage")
+        def platformUser = service.loadPlatformUserByEmail("importer@example.com")
+        ReflectionTestUtils.setField(clientUserImportService, "batchSize", 2)
+        def argon2Hash = passwordEncoder.encode("Argon2Password1!")
+        def bcryptHash = new BCryptPasswordEncoder(4).encode("BcryptPassword1!")
+        def ndjson = """{"email":"plain@example.com","password":"PlainPassword1!","authorities":["perm_read","role_support"],"attributes":{"plan":"gold"}}
+{"email":"argon@example.com","passwordHash":"${argon2Hash}","verified":true}
+not json
+{"email":"unknown@example.com","password":"Password1!","authorities":["PERM_DELETE"]}
+{"email":"Plain@Example.com","password":"Password1!"}
+{"email":"existing@example.com","password":"Password1!"}
+{"email":"md5@example.com","passwordHash":"5f4dcc3b5aa765d61d8327deb882cf99"}
+{"email":"bcrypt@example.com","passwordHash":"${bcryptHash}"}
+{"email":"argon-costly@example.com","passwordHash":"${argon2Hash.replace('m=65536', 'm=4194304')}"}
+{"email":"bcrypt-costly@example.com","passwordHash":"${bcryptHash.replace('$04$', '$31$')}"}
+"""
+        def events = []
+
+        when:
+        def summary = clientUserImportService.importClientUsers(platformUser, client, reader(ndjson, BulkDataFormat.NDJSON)) { events << it }
+
+        then:
+        summary.status() == ClientUserImportEvent.Status.COMPLETED
+        summary.processed() == 10
+        summary.imported() == 3
+        summary.failed() == 7
+        events.findAll { it.type() == ClientUserImportEvent.Type.ERROR }*.line() as Set == [3L, 4L, 5L, 6L, 7L, 9L, 10L] as Set
+        events.count { it.type() == ClientUserImportEvent.Type.PROGRESS } >= 2
+        events.last() == summary
+
+        and: "imported hashes are kept and still verify"
+        def encoder = new ImportedHashPasswordEncoder(passwordEncoder, importedHashLimits)
+        encoder.matches("PlainPassword1!", service.loadUserDetailsByEmailAndClientId(client.getClientId(), "plain@example.com").getPassword())
+        service.loadUserDetailsByEmailAndClientId(client.getClientId(), "argon@example.com").getPassword() == argon2Hash
+        service.loadUserDetailsByEmailAndClientId(client.getClientId(), "bcrypt@example.com").getPassword() == bcryptHash
+        encoder.matches("BcryptPassword1!", bcryptHash)
+        encoder.upgradeEncoding(bcryptHash)
+        !encoder.matches("BcryptPassword1!", bcryptHash.replace('$04$', '$31$'))
+        authorityNames("plain@example.com", client.getClientId()) == ["PERM_READ", "ROLE_SUPPORT"] as Set
+        usageCounterRepository.findByPlatformUserId(platformUser.getId()).clientUsers() == 4
+
+        when: "a CSV import runs past the allowance"
+        events.clear()
+        def csv = """email,password,verified,authorities
+csv-one@example.com,Password1!,true,PERM_READ
+"csv-two@example.com",Password1!,false,
+csv-three@example.com,Password1!,false,
+"""
+        summary = clientUserImportService.importClientUsers(platformUser, client, reader(csv, BulkDataFormat.CSV)) { events << it }
+
+        then:
+        summary.status() == ClientUserImportEvent.Status.TIER_LIMIT_REACHED
+        summary.imported() == 1
+        usageCounterRepository.findByPlatformUserId(platformUser.getId()).clientUsers() == 5
+        authorityNames("csv-one@example.com", client.getClientId()) == ["PERM_READ"] as Set
+
+        when: "the CSV header has no email column"
+        summary = clientUserImportService.importClientUsers(platformUser, client, reader("address,password\n", BulkDataFormat.CSV)) { }
+
+        then:
+        summary.status() == ClientUserImportEvent.Status.INVALID_INPUT
+        summary.imported() == 0
+    }
+
+    @DirtiesContext
+    def "client user export streams owned users in id order with their authorities and resumes after a cursor"() {
+        given:
+        def client = saveClient("export-client", Set.of("PERM_READ", "PERM_WRITE"), Set.of("ROLE_SUPPORT"))
+        def otherClient = saveClient("export-other-client")
+        service.saveUser(clientUser("first@example.com", client.getClientId(), "PERM_READ", "PERM_WRITE", "ROLE_SUPPORT"))
+        service.saveUser(clientUser("second@example.com", client.getClientId()))
+        service.saveUser(clientUser("third@example.com", client.getClientId(), "PERM_READ"))
+        service.saveUser(clientUser("other@example.com", otherClient.getClientId()))
+        def exported = []
+
+        when:
+        service.exportClientUsers(Set.of(client.getId()), null) { exported << it }
+
+        then:
+        exported*.email == ["first@example.com", "second@example.com", "third@example.com"]
+        exported*.id == exported*.id.toSorted()
+        exported[0].getAuthorities()*.getName() as Set == ["PERM_READ", "PERM_WRITE", "ROLE_SUPPORT"] as Set
+        exported[1].getAuthorities().isEmpty()
+
+        when:
+        def resumed = []
+        service.exportClientUsers(Set.of(client.getId()), ClientUserCursor.decode(new ClientUserCursor(exported[0].getId()).encode())) { resumed << it }
+
+        then:
+        resumed*.email == ["second@example.com", "third@example.com"]
+    }
+
+    private static ClientUserImportReader reader(final String text, final BulkDataFormat format) {
+        return new ClientUserImportReader(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), format)
+    }
+
+    private Set<String> authorityNames(final String email, final String clientId) {
+        return service.loadUserDetailsByEmailAndClientId(clientId, email)
+                      .getAuthorities()
+                      .collect { it.getAuthority() } as Set
+    }
+
+    private static ClientUser clientUser(final String email, final String clientId, final String... authorityNames) {
+        return ClientUser.from(email)
+                         .passwordHash(HASH)
+                         .clientId(clientId)
+                         .verified(true)
+                         .createdAt(LocalDateTime.now())
+                         .updatedAt(LocalDateTime.now())
+                         .userAttributes([:])
+                         .authorities { auths ->
+                             auths.clear()
+                             if (authorityNames.length == 0) {
+                                 auths.add(Authority.from("ROLE_USER"))
+                             }
+                             authorityNames.each { auths.add(Authority.from(it)) }
+                         }
+                         .locked(false)
+                         .expired(false)
+                         .credentialsExpired(false)
+                         .build()
+    }
+
     private void ensureFrontendClient() {
         if (registerClientJpaRepository.findByClientId(FRONTEND_CLIENT_ID).present) {
             return
@@ -387,6 +688,10 @@ class PlatformUserServiceSpec extends TestSpec {
     }
 
     private RegisteredClientModel saveClient(final String clientName) {
+        return saveClient(clientName, Set.of(), Set.of())
+    }
+
+    private RegisteredClientModel saveClient(final String clientName, final Set<String> authorities, final Set<String> roles) {
         return registeredClientService.saveRegisteredClient(
                 RegisteredClientModel.builder()
                                      .id(null)
@@ -402,8 +707,8 @@ class PlatformUserServiceSpec extends TestSpec {
                                      .postLogoutRedirectUris(Set.of("https://test.com/logout"))
                                      .scopes(Set.of("read"))
                                      .redirectUris(Set.of("https://test.com/callback"))
-                                     .authorities(Set.of())
-                                     .roles(Set.of())
+                                     .authorities(authorities)
+                                     .roles(roles)
                                      .build()
         )
     }
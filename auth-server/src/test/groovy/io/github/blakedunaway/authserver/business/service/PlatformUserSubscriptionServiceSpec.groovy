@@ -0,0 +1,124 @@
+package io.github.blakedunaway.authserver.business.service
+
+import io.github.blakedunaway.authserver.TestSpec
+import io.github.blakedunaway.authserver.business.model.PlatformUserSubscription
+import io.github.blakedunaway.authserver.config.redis.RedisStore
+import io.github.blakedunaway.authserver.integration.billing.SubscriptionBillingClient
+import org.spockframework.spring.SpringBean
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.context.annotation.Import
+import org.springframework.test.annotation.DirtiesContext
+
+import java.time.Instant
+
+@Import([PlatformUserSubscriptionService])
+class PlatformUserSubscriptionServiceSpec extends TestSpec {
+
+    @Autowired
+    private PlatformUserSubscriptionService service
+
+    @SpringBean
+    RedisStore redisStore = Mock()
+
+    @SpringBean
+    SubscriptionBillingClient billingClient = Mock()
+
+    private static final Instant REPORTED_AT = Instant.ofEpochSecond(1_700_000_000)
+
+    @DirtiesContext
+    def "an indexed subscription is resolved without calling Stripe"() {
+        given:
+        def platformUserId = UUID.randomUUID()
+        service.record(new PlatformUserSubscription(platformUserId, "sub_1", "si_1", "price_basic", "active", REPORTED_AT))
+
+        when:
+        def subscription = service.findChangeableSubscription(platformUserId)
+
+        then:
+        subscription.subscriptionItemId() == "si_1"
+        subscription.priceId() == "price_basic"
+        0 * billingClient._
+    }
+
+    @DirtiesContext
+    def "a report older than the recorded one is ignored and an itemless one keeps the known item"() {
+        given:
+        def platformUserId = UUID.randomUUID()
+        service.record(new PlatformUserSubscription(platformUserId, "sub_1", "si_1", "price_pro", "active", REPORTED_AT))
+
+        expect:
+        !service.record(new PlatformUserSubscription(platformUserId, "sub_1", "si_1", "price_basic", "canceled", REPORTED_AT.minusSeconds(60)))
+        service.record(new PlatformUserSubscription(platformUserId, "sub_1", null, null, "past_due", REPORTED_AT.plusSeconds(60)))
+
+        when:
+        def subscription = service.findChangeableSubscription(platformUserId)
+
+        then:
+        subscription == new PlatformUserSubscription(platformUserId, "sub_1", "si_1", "price_pro", "past_due", REPORTED_AT.plusSeconds(60))
+        0 * billingClient._
+    }
+
+    @DirtiesContext
+    def "a checkout report without an item is completed from Stripe once and then served locally"() {
+        given:
+        def platformUserId = UUID.randomUUID()
+        service.record(new PlatformUserSubscription(platformUserId, "sub_1", null, null, "active", REPORTED_AT))
+
+        when:
+        def first = service.findChangeableSubscription(platformUserId)
+        def second = service.findChangeableSubscription(platformUserId)
+
+        then:
+        1 * billingClient.retrieveSubscription(platformUserId, "sub_1") >>
+                new PlatformUserSubscription(platformUserId, "sub_1", "si_1", "price_basic", "active", REPORTED_AT.plusSeconds(1))
+        0 * billingClient._
+        first == second
+        first.subscriptionItemId() == "si_1"
+    }
+
+    @DirtiesContext
+    def "a subscription that predates the index is searched once and a canceled one cannot change"() {
+        given:
+        def indexed = UUID.randomUUID()
+        def canceled = UUID.randomUUID()
+        service.record(new PlatformUserSubscription(canceled, "sub_2", "si_2", "price_basic", "canceled", REPORTED_AT))
+
+        when:
+        def first = service.findChangeableSubscription(indexed)
+        def second = service.findChangeableSubscription(indexed)
+        def none = service.findChangeableSubscription(canceled)
+
+        then:
+        1 * billingClient.searchActiveSubscription(indexed) >>
+                new PlatformUserSubscription(indexed, "sub_1", "si_1", "price_basic", "active", REPORTED_AT)
+        0 * billingClient._
+        first == second
+        none == null
+    }
+
+    @DirtiesContext
+    def "the Stripe backfill records only platform users without a row"() {
+        given:
+        def indexed = UUID.randomUUID()
+        def missing = UUID.randomUUID()
+        service.record(new PlatformUserSubscription(indexed, "sub_1", "si_1", "price_pro", "active", REPORTED_AT))
+
+        when:
+        def recorded = service.backfillFromStripe()
+
+        then:
+        1 * billingClient.forEachSubscription(_) >> { args ->
+            args[0].accept(new PlatformUserSubscription(indexed, "sub_1", "si_1", "price_basic", "active", REPORTED_AT.plusSeconds(60)))
+            args[0].accept(new PlatformUserSubscription(missing, "sub_2", "si_2", "price_basic", "active", REPORTED_AT.plusSeconds(60)))
+        }
+        recorded == 1
+
+        when:
+        def subscriptions = [service.findChangeableSubscription(indexed), service.findChangeableSubscription(missing)]
+
+        then:
+        0 * billingClient._
+        subscriptions*.priceId() == ["price_pro", "price_basic"]
+    }
+
+}
@@ -0,0 +1,39 @@
+package io.github.blakedunaway.authserver.business.service
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import io.github.blakedunaway.authserver.business.model.enums.BulkDataFormat
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+
+class RecordExportWriterSpec extends Specification {
+
+    def "CSV cells that would be evaluated as formulas are quoted and read back unchanged by the import"() {
+        given:
+        def output = new ByteArrayOutputStream()
+        def writer = new RecordExportWriter(output, BulkDataFormat.CSV, new ObjectMapper(), ["email", "password_hash", "authorities", "cursor"])
+
+        when:
+        writer.write([email: "=HYPERLINK(\"x\")@example.com", password_hash: "+1", authorities: ["@SUM(A1)", "PERM_READ"]], "-1")
+        writer.write([email: "plain@example.com", password_hash: null, authorities: []], "2")
+        writer.finish()
+        def csv = output.toString(StandardCharsets.UTF_8)
+
+        then:
+        csv == """email,password_hash,authorities,cursor
+"'=HYPERLINK(""x"")@example.com",'+1,'@SUM(A1)|PERM_READ,'-1
+plain@example.com,,,2
+"""
+
+        when:
+        def reader = new ClientUserImportReader(new ByteArrayInputStream(output.toByteArray()), BulkDataFormat.CSV)
+        def row = reader.next()
+
+        then:
+        row.email() == "=HYPERLINK(\"x\")@example.com"
+        row.passwordHash() == "+1"
+        row.authorities() == ["@SUM(A1)", "PERM_READ"] as Set
+        reader.next().email() == "plain@example.com"
+    }
+
+}
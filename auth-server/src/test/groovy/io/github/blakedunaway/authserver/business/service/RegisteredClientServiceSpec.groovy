@@ -3,6 +3,9 @@ package io.github.blakedunaway.authserver.business.service
 import io.github.blakedunaway.authserver.TestSpec
 import io.github.blakedunaway.authserver.business.model.RegisteredClientModel
 import io.github.blakedunaway.authserver.config.redis.RedisStore
+import io.github.blakedunaway.authserver.security.token.ClientSecretVerificationCache
+import io.github.blakedunaway.authserver.util.RedisUtility
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository
 import org.spockframework.spring.SpringBean
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.context.annotation.Import
@@ -21,6 +24,12 @@ class RegisteredClientServiceSpec extends TestSpec {
     @Autowired
     private RegisteredClientService service
 
+    @Autowired
+    private ClientSecretVerificationCache clientSecretVerificationCache
+
+    @Autowired
+    private RegisteredClientRepository registeredClientRepository
+
     @SpringBean
     RedisStore redisStore = Mock()
 
@@ -74,6 +83,46 @@ class RegisteredClientServiceSpec extends TestSpec {
         saved.getRoles() == ["ROLE_SUPPORT"] as Set
     }
 
+    @DirtiesContext
+    def "verified client secrets are cached until the registered client is updated"() {
+        given:
+        def saved = service.saveRegisteredClient(minimalRegisteredClient("cached-secret-client"))
+        def stored = service.findRegisteredClientById(saved.getId())
+
+        expect:
+        !clientSecretVerificationCache.matches("wrong-secret", stored.getClientSecret())
+        clientSecretVerificationCache.size() == 0
+        clientSecretVerificationCache.matches(saved.getClientSecret(), stored.getClientSecret())
+        clientSecretVerificationCache.matches(saved.getClientSecret(), stored.getClientSecret())
+        clientSecretVerificationCache.size() == 1
+
+        when:
+        service.updateRegisteredClientAuthorities(saved.getId(), Set.of("perm_read"))
+
+        then:
+        clientSecretVerificationCache.size() == 0
+    }
+
+    @DirtiesContext
+    def "registered client lookups are cached until the client is updated"() {
+        given:
+        def saved = service.saveRegisteredClient(minimalRegisteredClient("cached-lookup-client"))
+        def first = registeredClientRepository.findByClientId(saved.getClientId())
+
+        expect:
+        registeredClientRepository.findByClientId(saved.getClientId()).is(first)
+        registeredClientRepository.findById(saved.getId().toString()).is(first)
+
+        when:
+        service.updateRegisteredClientAuthorities(saved.getId(), Set.of("perm_read"))
+        def reloaded = registeredClientRepository.findById(saved.getId().toString())
+
+        then:
+        1 * redisStore.publish(RedisUtility.REGISTERED_CLIENT_INVALIDATION_CHANNEL, saved.getClientId())
+        !reloaded.is(first)
+        reloaded.getClientId() == saved.getClientId()
+    }
+
     @DirtiesContext
     def "updateRegisteredClientAuthorities persists normalized authorities and roles"() {
         given:
@@ -11,6 +11,7 @@ import io.github.blakedunaway.authserver.business.model.enums.SigningKeyStatus
 import io.github.blakedunaway.authserver.config.TestConfig
 import io.github.blakedunaway.authserver.config.redis.RedisStore
 import io.github.blakedunaway.authserver.integration.repository.gateway.SigningKeyRepository
+import io.github.blakedunaway.authserver.util.RedisUtility
 import org.spockframework.spring.SpringBean
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.context.annotation.Import
@@ -87,6 +88,7 @@ class SigningStoreServiceSpec extends TestSpec {
         signingKeyStore.rotateSigningKeys()
 
         then:
+        1 * redisStore.tryLock(RedisUtility.SCHEDULED_JOB_LOCK + "signing-keys-rotation", _ as String, _) >> true
         List<SigningKey> actives = signingKeyRepository.findByStatus(SigningKeyStatus.ACTIVE)
         actives.size() == 1
         !before.any { it.kid == actives.first().kid }
@@ -97,6 +99,21 @@ class SigningStoreServiceSpec extends TestSpec {
         (retired*.kid as Set) == (before*.kid as Set)
     }
 
+    @DirtiesContext
+    def "rotateSigningKeys leaves the keys alone when another node holds the rotation lock"() {
+        given:
+        signingKeyStore.ensureActiveKey()
+        List<SigningKey> before = signingKeyRepository.findByStatus(SigningKeyStatus.ACTIVE)
+
+        when:
+        signingKeyStore.rotateSigningKeys()
+
+        then:
+        1 * redisStore.tryLock(RedisUtility.SCHEDULED_JOB_LOCK + "signing-keys-rotation", _ as String, _) >> false
+        (signingKeyRepository.findByStatus(SigningKeyStatus.ACTIVE)*.kid as Set) == (before*.kid as Set)
+        signingKeyRepository.findByStatus(SigningKeyStatus.INACTIVE).isEmpty()
+    }
+
     @DirtiesContext
     def "jwkSource ordering prefers newest ACTIVE first"() {
         given:
@@ -113,6 +130,22 @@ class SigningStoreServiceSpec extends TestSpec {
         kidsInOrder.indexOf(secondActive.getKid()) < kidsInOrder.indexOf(firstActive.getKid())
     }
 
+    @DirtiesContext
+    def "jwkSource snapshot is refreshed and versioned when signing keys change"() {
+        given:
+        JWKSelector selector = new JWKSelector(new JWKMatcher.Builder().build())
+        List<String> before = signingKeyStore.jwkSource().get(selector, null)*.keyID
+
+        when:
+        SigningKey added = signingKeyRepository.save(signingKeyStore.createSigningKey())
+        List<String> after = signingKeyStore.jwkSource().get(selector, null)*.keyID
+
+        then:
+        !before.contains(added.getKid())
+        after.contains(added.getKid())
+        (1.._) * redisStore.put(RedisUtility.SIGNING_KEYS_VERSION, _ as String, _)
+    }
+
     @DirtiesContext
     def "INACTIVE keys expose only public parameters in jwkSource material"() {
         given:
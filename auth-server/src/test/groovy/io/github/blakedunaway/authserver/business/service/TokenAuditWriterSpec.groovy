@@ -0,0 +1,190 @@
+package io.github.blakedunaway.authserver.business.service
+
+import io.github.blakedunaway.authserver.TestSpec
+import io.github.blakedunaway.authserver.business.model.enums.TokenType
+import io.github.blakedunaway.authserver.config.redis.RedisStore
+import io.github.blakedunaway.authserver.integration.entity.AuthTokenEntity
+import io.github.blakedunaway.authserver.integration.repository.audit.TokenAuditWriter
+import io.github.blakedunaway.authserver.integration.repository.cache.DashboardVersions
+import io.github.blakedunaway.authserver.integration.repository.gateway.TokenAuditRepository
+import io.github.blakedunaway.authserver.security.token.TokenHasher
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.spockframework.spring.SpringBean
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.context.annotation.Import
+import org.springframework.dao.DataAccessResourceFailureException
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.security.oauth2.core.AuthorizationGrantType
+import org.springframework.security.oauth2.core.OAuth2AccessToken
+import org.springframework.security.oauth2.core.OAuth2RefreshToken
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient
+import org.springframework.test.annotation.DirtiesContext
+import org.springframework.test.context.TestPropertySource
+import spock.lang.TempDir
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.Instant
+
+import static org.springframework.security.oauth2.core.OAuth2AccessToken.TokenType.BEARER
+
+@Import([AuthorizationService, RegisteredClientService, SigningKeyStore])
+@TestPropertySource(properties = ["auth-server.token-audit.enabled=true",
+                                  "auth-server.token-audit.spill-directory=target/token-audit"])
+class TokenAuditWriterSpec extends TestSpec {
+
+    @Autowired
+    private AuthorizationService service
+
+    @Autowired
+    private RegisteredClientService registeredClientService
+
+    @Autowired
+    private TokenAuditWriter tokenAuditWriter
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate
+
+    @SpringBean
+    private RedisStore redisStore = Mock()
+
+    @TempDir
+    private Path spillDirectory
+
+    private RegisteredClient registeredClient
+
+    def setup() {
+        registeredClient = registeredClientService.saveRegisteredClient(AuthorizationServiceSpec.minimalRegisteredClient())
+                                                  .toOAuth2RegisteredClient()
+    }
+
+    @DirtiesContext
+    def "self-contained access tokens are inserted behind the save and can be looked up until then"() {
+        given:
+        def rawAccess = UUID.randomUUID().toString()
+        def now = Instant.now()
+        def auth = OAuth2Authorization.withRegisteredClient(registeredClient)
+                                      .principalName("audit-user")
+                                      .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                                      .authorizedScopes(Set.of("read"))
+                                      .token(new OAuth2AccessToken(BEARER, rawAccess, now, now.plusSeconds(600), Set.of("read"))) { meta ->
+                                          meta.put(OAuth2Authorization.Token.CLAIMS_METADATA_NAME, [sub: "audit-user", scope: ["read"]])
+                                      }
+                                      .refreshToken(new OAuth2RefreshToken(UUID.randomUUID().toString(), now, now.plusSeconds(3600)))
+                                      .build()
+
+        when:
+        service.save(auth)
+
+        then: "only the refresh token was written inline"
+        tokenTypes() == ["REFRESH"]
+        with(service.findByToken(rawAccess, OAuth2TokenType.ACCESS_TOKEN)) {
+            principalName == "audit-user"
+            accessToken.token.expiresAt.epochSecond == now.plusSeconds(600).epochSecond
+            accessToken.active
+        }
+
+        when:
+        tokenAuditWriter.flush()
+
+        then:
+        tokenTypes() == ["ACCESS", "REFRESH"]
+        tokenAuditWriter.findUnwritten(TokenHasher.hmacCurrent(rawAccess)) == null
+        jdbcTemplate.queryForObject("select subject from auth.auth_token where token_type = 'ACCESS'", String) == "audit-user"
+        service.findByToken(rawAccess, OAuth2TokenType.ACCESS_TOKEN).accessToken.token.expiresAt.epochSecond == now.plusSeconds(600).epochSecond
+    }
+
+    def "batches that cannot be written are spilled to disk and replayed on a later flush"() {
+        given:
+        def tokenAuditRepository = Mock(TokenAuditRepository)
+        def dashboardVersions = Mock(DashboardVersions)
+        def writer = new TokenAuditWriter(tokenAuditRepository, new SimpleMeterRegistry(), dashboardVersions)
+        writer.enabled = true
+        writer.queueCapacity = 100
+        writer.batchSize = 10
+        writer.slowBatchMillis = 1_000
+        writer.spillDirectory = spillDirectory.toString()
+        writer.initialize()
+        def authorizationId = UUID.randomUUID()
+        def token = AuthTokenEntity.create(null, "kid", "hash-1", Instant.ofEpochSecond(1_700_000_000),
+                                           Instant.ofEpochSecond(1_700_000_600), null, TokenType.ACCESS, "user", [scope: ["read"]])
+        writer.submitAfterCommit(authorizationId, "client-a", [token])
+
+        when: "the database is unavailable"
+        writer.flush()
+
+        then:
+        1 * tokenAuditRepository.insertBatch(_) >> { throw new DataAccessResourceFailureException("down") }
+        0 * dashboardVersions.clientsTouched(_)
+        segmentCount() == 1
+        writer.findUnwritten("hash-1") != null
+
+        when: "a new writer starts against the same directory"
+        def restarted = new TokenAuditWriter(tokenAuditRepository, new SimpleMeterRegistry(), dashboardVersions)
+        restarted.enabled = true
+        restarted.queueCapacity = 100
+        restarted.batchSize = 10
+        restarted.slowBatchMillis = 1_000
+        restarted.spillDirectory = spillDirectory.toString()
+        restarted.initialize()
+
+        then: "the spilled token is still found before it is replayed"
+        restarted.findUnwritten("hash-1") != null
+
+        when:
+        restarted.flush()
+
+        then:
+        1 * tokenAuditRepository.insertBatch({ List records ->
+            records.size() == 1
+                    && records[0].authorizationId() == authorizationId
+                    && records[0].clientId() == "client-a"
+                    && records[0].tokenValueHash() == "hash-1"
+                    && records[0].issuedAt() == Instant.ofEpochSecond(1_700_000_000)
+                    && records[0].metadataJson() == '{"scope":["read"]}'
+        }) >> 1
+        1 * dashboardVersions.clientsTouched(["client-a"] as Set)
+        segmentCount() == 0
+        restarted.findUnwritten("hash-1") == null
+    }
+
+    @DirtiesContext
+    def "a token revoked before its row is written is stored revoked"() {
+        given:
+        def rawAccess = UUID.randomUUID().toString()
+        def now = Instant.now()
+        service.save(OAuth2Authorization.withRegisteredClient(registeredClient)
+                                        .principalName("audit-user")
+                                        .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                                        .authorizedScopes(Set.of("read"))
+                                        .token(new OAuth2AccessToken(BEARER, rawAccess, now, now.plusSeconds(600), Set.of("read")))
+                                        .build())
+        def queued = service.findByToken(rawAccess, OAuth2TokenType.ACCESS_TOKEN)
+
+        when: "the queued token is revoked"
+        service.save(OAuth2Authorization.from(queued)
+                                        .token(queued.accessToken.token) { meta -> meta.put(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME, true) }
+                                        .build())
+
+        then:
+        service.findByToken(rawAccess, OAuth2TokenType.ACCESS_TOKEN).accessToken.invalidated
+
+        when:
+        tokenAuditWriter.flush()
+
+        then:
+        tokenTypes() == ["ACCESS"]
+        service.findByToken(rawAccess, OAuth2TokenType.ACCESS_TOKEN).accessToken.invalidated
+    }
+
+    private List<String> tokenTypes() {
+        return jdbcTemplate.queryForList("select token_type from auth.auth_token order by token_type", String)
+    }
+
+    private long segmentCount() {
+        return Files.list(spillDirectory).withCloseable { files -> files.filter { it.fileName.toString().endsWith(".segment") }.count() }
+    }
+
+}
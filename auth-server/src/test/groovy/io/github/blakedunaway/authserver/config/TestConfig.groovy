@@ -3,8 +3,11 @@ package io.github.blakedunaway.authserver.config
 import com.fasterxml.jackson.databind.ObjectMapper
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule
 import io.github.blakedunaway.authserver.config.redis.RedisStore
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
 import jakarta.persistence.EntityManagerFactory
 import jakarta.validation.Validator
+import org.springframework.beans.factory.annotation.Qualifier
 import org.springframework.boot.autoconfigure.domain.EntityScan
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.ComponentScan
@@ -13,6 +16,7 @@ import org.springframework.boot.test.context.TestConfiguration
 import org.springframework.context.annotation.Primary
 import org.springframework.context.support.PropertySourcesPlaceholderConfigurer
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories
+import org.springframework.jdbc.core.JdbcTemplate
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType
 import org.springframework.orm.jpa.JpaTransactionManager
@@ -20,6 +24,8 @@ import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter
 import org.springframework.security.crypto.argon2.Argon2PasswordEncoder
 import org.springframework.security.crypto.password.PasswordEncoder
+import org.springframework.security.jackson2.SecurityJackson2Modules
+import org.springframework.security.oauth2.server.authorization.jackson2.OAuth2AuthorizationServerJackson2Module
 import org.springframework.transaction.annotation.EnableTransactionManagement
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean
 
@@ -75,6 +81,11 @@ class TestConfig {
         Properties jpaProps = new Properties();
 
         jpaProps.put("hibernate.hbm2ddl.auto", "create-drop");
+        jpaProps.put("hibernate.hbm2ddl.create_namespaces", "true");
+        jpaProps.put("hibernate.default_schema", "auth");
+        jpaProps.put("hibernate.jdbc.batch_size", "50");
+        jpaProps.put("hibernate.order_inserts", "true");
+        jpaProps.put("hibernate.order_updates", "true");
         factoryBean.setJpaProperties(jpaProps);
         return factoryBean;
     }
@@ -87,15 +98,36 @@ class TestConfig {
         return txManager;
     }
 
+    @Bean
+    JdbcTemplate jdbcTemplate(final DataSource dataSource) {
+        return new JdbcTemplate(dataSource)
+    }
+
+    @Bean
+    MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry()
+    }
+
     @Bean
     Validator validator() {
         new LocalValidatorFactoryBean()
     }
 
+    @Primary
     @Bean
     ObjectMapper objectMapper() {
         ObjectMapper om = new ObjectMapper();
         om.registerModule(new JavaTimeModule());
         return om;
     }
+
+    @Bean
+    @Qualifier("securityObjectMapper")
+    ObjectMapper securityObjectMapper() {
+        ObjectMapper om = new ObjectMapper()
+        om.registerModules(SecurityJackson2Modules.getModules(TestConfig.classLoader))
+        om.registerModule(new OAuth2AuthorizationServerJackson2Module())
+        om.registerModule(new JavaTimeModule())
+        return om
+    }
 }
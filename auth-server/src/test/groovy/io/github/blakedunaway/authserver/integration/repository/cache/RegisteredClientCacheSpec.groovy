@@ -0,0 +1,48 @@
+package io.github.blakedunaway.authserver.integration.repository.cache
+
+import io.github.blakedunaway.authserver.config.redis.RedisStore
+import org.springframework.security.oauth2.core.AuthorizationGrantType
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient
+import spock.lang.Specification
+import spock.lang.Subject
+
+class RegisteredClientCacheSpec extends Specification {
+
+    @Subject
+    private RegisteredClientCache cache = new RegisteredClientCache(Mock(RedisStore))
+
+    def setup() {
+        cache.ttlMillis = 300_000
+        cache.maxEntries = 2
+    }
+
+    private static RegisteredClient client(final String id) {
+        RegisteredClient.withId(id)
+                        .clientId("client-" + id)
+                        .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                        .build()
+    }
+
+    def "both indexes stay within max entries"() {
+        when:
+        (1..5).each { index -> cache.findById("id-" + index) { client("id-" + index) } }
+
+        then:
+        cache.byClientId.size() <= 2
+        cache.clientIdsById.size() == cache.byClientId.size()
+        cache.clientIdsById.every { id, clientId -> cache.byClientId.get(clientId)?.registeredClient()?.id == id }
+    }
+
+    def "evicting a client drops its id mapping"() {
+        given:
+        cache.findById("id-1") { client("id-1") }
+
+        when:
+        cache.evict("client-id-1")
+
+        then:
+        cache.byClientId.isEmpty()
+        cache.clientIdsById.isEmpty()
+    }
+
+}
@@ -0,0 +1,173 @@
+package io.github.blakedunaway.authserver.mapper
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule
+import io.github.blakedunaway.authserver.business.model.user.ClientRegisterDto
+import io.github.blakedunaway.authserver.util.BinaryEncodingUtility
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken
+import org.springframework.security.core.authority.SimpleGrantedAuthority
+import org.springframework.security.jackson2.SecurityJackson2Modules
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest
+import org.springframework.security.oauth2.server.authorization.jackson2.OAuth2AuthorizationServerJackson2Module
+import org.springframework.security.web.authentication.WebAuthenticationDetails
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.security.Principal
+import java.time.Instant
+
+class AuthorizationAttributeCodecSpec extends Specification {
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+
+    @Subject
+    private AuthorizationAttributeCodec codec = new AuthorizationAttributeCodec(meterRegistry, securityObjectMapper())
+
+    def setup() {
+        codec.initialize()
+    }
+
+    def "principal and authorization request round trip field by field"() {
+        given:
+        def principal = ClientRegisterDto.UsernamePasswordWithClientAuthenticationToken.authenticated(
+                "user@example.com", "client-a", [new SimpleGrantedAuthority("ROLE_USER")])
+        principal.setDetails(new WebAuthenticationDetails("10.0.0.1", "session-1"))
+        def request = authorizationRequest()
+        def attributes = [(Principal.name)                        : principal,
+                          (OAuth2AuthorizationRequest.name)       : request,
+                          "authorized_at"                         : Instant.ofEpochSecond(1_700_000_000),
+                          "state"                                 : "xyz"] as Map<String, Object>
+
+        when:
+        def decoded = codec.decode(codec.encode(attributes))
+
+        then:
+        decoded.keySet() == attributes.keySet()
+        with((ClientRegisterDto.UsernamePasswordWithClientAuthenticationToken) decoded[Principal.name]) {
+            email == "user@example.com"
+            clientId == "client-a"
+            authenticated
+            authorities*.authority == ["ROLE_USER"]
+            details == new WebAuthenticationDetails("10.0.0.1", "session-1")
+        }
+        with((OAuth2AuthorizationRequest) decoded[OAuth2AuthorizationRequest.name]) {
+            clientId == request.clientId
+            redirectUri == request.redirectUri
+            scopes == request.scopes
+            state == request.state
+            authorizationRequestUri == request.authorizationRequestUri
+            additionalParameters == request.additionalParameters
+            it.attributes == request.attributes
+        }
+        decoded["authorized_at"] == Instant.ofEpochSecond(1_700_000_000)
+        decoded["state"] == "xyz"
+        meterRegistry.get("auth.authorization.attributes.size").summary().count() == 1
+        meterRegistry.get("auth.authorization.attributes.decode").timer().count() == 1
+    }
+
+    def "the authorization request is smaller than its type annotated json"() {
+        given:
+        def objectMapper = securityObjectMapper()
+        def attributes = [(OAuth2AuthorizationRequest.name): authorizationRequest()] as Map<String, Object>
+
+        expect:
+        codec.encode(attributes).length < new GenericJackson2JsonRedisSerializer(objectMapper).serialize(attributes).length
+    }
+
+    def "plain values and nested claims round trip without the object mapper"() {
+        given:
+        def claims = [sub: "user@example.com", aud: ["client-a"], iat: Instant.ofEpochSecond(1_700_000_000, 5),
+                      auth_time: 1_700_000_000L, nonce_count: 3] as Map<String, Object>
+        def attributes = ["metadata.token.invalidated": true, "metadata.token.claims": claims] as Map<String, Object>
+
+        expect:
+        codec.decode(codec.encode(attributes)) == attributes
+    }
+
+    def "other values go through the allowlisted object mapper"() {
+        given:
+        def token = new UsernamePasswordAuthenticationToken("user@example.com", null, [new SimpleGrantedAuthority("ROLE_USER")])
+
+        when:
+        def decoded = codec.decode(codec.encode(["token": token] as Map<String, Object>))
+
+        then:
+        with((UsernamePasswordAuthenticationToken) decoded["token"]) {
+            name == "user@example.com"
+            authorities*.authority == ["ROLE_USER"]
+        }
+    }
+
+    def "types outside the allowlist are rejected when read back"() {
+        given:
+        def payload = codec.encode(["untrusted": new Untrusted(name: "gadget")] as Map<String, Object>)
+
+        when:
+        codec.decode(payload)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "values written with java serialization by earlier versions are rejected"() {
+        when:
+        codec.decode(javaSerialized("value"))
+
+        then:
+        thrown(UncheckedIOException)
+    }
+
+    def "payloads from an unknown format version decode as empty"() {
+        given:
+        def payload = codec.encode(["state": "xyz"] as Map<String, Object>)
+        payload[0] = (byte) (AuthorizationAttributeCodec.FORMAT_VERSION + 1)
+
+        expect:
+        codec.decode(payload).isEmpty()
+    }
+
+    static class Untrusted {
+
+        String name
+
+    }
+
+    private static ObjectMapper securityObjectMapper() {
+        def objectMapper = new ObjectMapper()
+        objectMapper.registerModules(SecurityJackson2Modules.getModules(AuthorizationAttributeCodecSpec.classLoader))
+        objectMapper.registerModule(new OAuth2AuthorizationServerJackson2Module())
+        objectMapper.registerModule(new JavaTimeModule())
+        return objectMapper
+    }
+
+    // a single attribute written the way earlier versions fell back to Java serialization
+    private static byte[] javaSerialized(final Serializable value) {
+        def serialized = new ByteArrayOutputStream()
+        new ObjectOutputStream(serialized).withCloseable { it.writeObject(value) }
+        def bytes = new ByteArrayOutputStream()
+        new DataOutputStream(bytes).withCloseable { out ->
+            out.writeByte(AuthorizationAttributeCodec.FORMAT_VERSION)
+            out.writeInt(1)
+            BinaryEncodingUtility.writeString(out, "legacy")
+            out.writeByte(127)
+            out.writeInt(serialized.size())
+            out.write(serialized.toByteArray())
+        }
+        return bytes.toByteArray()
+    }
+
+    private static OAuth2AuthorizationRequest authorizationRequest() {
+        return OAuth2AuthorizationRequest.authorizationCode()
+                                         .authorizationUri("https://auth.example.com/oauth2/authorize")
+                                         .clientId("client-a")
+                                         .redirectUri("https://app.example.com/callback")
+                                         .scopes(["openid", "profile"] as Set)
+                                         .state("state-1")
+                                         .additionalParameters([code_challenge: "abc", code_challenge_method: "S256"])
+                                         .authorizationRequestUri("https://auth.example.com/oauth2/authorize?client_id=client-a")
+                                         .build()
+    }
+
+}
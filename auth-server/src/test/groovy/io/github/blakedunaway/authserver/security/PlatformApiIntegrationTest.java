@@ -35,6 +35,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
@@ -61,6 +62,7 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
@@ -73,6 +75,8 @@ import java.util.stream.Collectors;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.endsWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
@@ -140,6 +144,9 @@ public class PlatformApiIntegrationTest {
     @MockitoBean
     private ReactiveRedisConnectionFactory reactiveRedisConnectionFactory;
 
+    @MockitoBean
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
     @MockitoBean
     private StripeClient stripeClient;
 
@@ -154,6 +161,35 @@ public class PlatformApiIntegrationTest {
             return null;
         }).when(redisStore).put(anyString(), any(), any());
         doAnswer(invocation -> redisValues.remove(invocation.getArgument(0, String.class))).when(redisStore).consume(anyString());
+        when(redisStore.getBytes(anyString())).thenAnswer(invocation -> redisValues.get(invocation.getArgument(0, String.class)));
+        when(redisStore.consumeBytes(anyString())).thenAnswer(invocation -> redisValues.remove(invocation.getArgument(0, String.class)));
+        doAnswer(invocation -> {
+            if (invocation.getArgument(3, Boolean.class)) {
+                redisValues.putIfAbsent(invocation.getArgument(0, String.class), invocation.getArgument(1));
+            } else {
+                redisValues.put(invocation.getArgument(0, String.class), invocation.getArgument(1));
+            }
+            return null;
+        }).when(redisStore).putBytes(anyString(), any(), any(), anyBoolean());
+        doAnswer(invocation -> {
+            redisValues.putAll(invocation.getArgument(0));
+            return null;
+        }).when(redisStore).putBytes(anyMap(), any());
+        when(redisStore.delete(any())).thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).stream()
+                                                                                                           .filter(key -> redisValues.remove(key) != null)
+                                                                                                           .count());
+        when(redisStore.getStrings(any())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).stream()
+                                                                                                       .map(redisValues::get)
+                                                                                                       .toList());
+        doAnswer(invocation -> {
+            final Map<String, String> values = invocation.getArgument(0);
+            if (invocation.getArgument(2, Boolean.class)) {
+                values.forEach(redisValues::putIfAbsent);
+            } else {
+                redisValues.putAll(values);
+            }
+            return null;
+        }).when(redisStore).putStrings(anyMap(), any(), anyBoolean());
         ensureFrontendClientExists();
         ensureBasicTierExists();
     }
@@ -587,6 +623,58 @@ public class PlatformApiIntegrationTest {
                .andExpect(jsonPath("$.totalUsers").value(2));
     }
 
+    @Test
+    void compositeDashboardIsAnsweredConditionallyUntilOwnedDataChanges() throws Exception {
+        final String platformEmail = uniqueEmail("platform-composite");
+        savePlatformUser(platformEmail, "Password123!");
+        final RegisteredClientFixture ownedClient = savePublicAuthorizationCodeClient(
+                "http://localhost:9451/callback",
+                Set.of("read"),
+                true
+        );
+        userService.attachRegisteredClientToPlatformUser(platformEmail, ownedClient.registeredClient().getId());
+        saveClientUser(uniqueEmail("composite-user-1"), "Password123!", ownedClient.registeredClient().getClientId());
+
+        final String bearerToken = bearerToken(platformEmail,
+                                               PLATFORM_CLIENT_ID,
+                                               List.of("ROLE_PLATFORM_USER", "PLATFORM_TIER_PAID"));
+
+        mockMvc.perform(get("/platform/api/dashboard/composite")
+                                .header("Authorization", bearerToken))
+               .andExpect(status().isOk())
+               .andExpect(header().doesNotExist("ETag"))
+               .andExpect(jsonPath("$.details.totalRegisteredClients").value(1))
+               .andExpect(jsonPath("$.details.totalUsers").value(1))
+               .andExpect(jsonPath("$.users.length()").value(1))
+               .andExpect(jsonPath("$.tiers").isArray());
+
+        final String eTag = mockMvc.perform(get("/platform/api/dashboard/composite")
+                                                    .header("Authorization", bearerToken))
+                                   .andExpect(status().isOk())
+                                   .andExpect(header().exists("ETag"))
+                                   .andReturn()
+                                   .getResponse()
+                                   .getHeader("ETag");
+
+        mockMvc.perform(get("/platform/api/dashboard/composite")
+                                .header("Authorization", bearerToken)
+                                .header("If-None-Match", eTag))
+               .andExpect(status().isNotModified())
+               .andExpect(header().string("ETag", eTag));
+
+        saveClientUser(uniqueEmail("composite-user-2"), "Password123!", ownedClient.registeredClient().getClientId());
+
+        final String changedETag = mockMvc.perform(get("/platform/api/dashboard/composite")
+                                                           .header("Authorization", bearerToken)
+                                                           .header("If-None-Match", eTag))
+                                          .andExpect(status().isOk())
+                                          .andExpect(jsonPath("$.details.totalUsers").value(2))
+                                          .andReturn()
+                                          .getResponse()
+                                          .getHeader("ETag");
+        assertThat(changedETag).isNotNull().isNotEqualTo(eTag);
+    }
+
     @Test
     void platformUserCanFetchAndUpdateOnlyOwnedClientUsers() throws Exception {
         final String platformEmail = uniqueEmail("platform-users");
@@ -38,6 +38,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpSession;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -67,6 +68,7 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -80,6 +82,8 @@ import java.util.stream.Collectors;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.endsWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
@@ -144,6 +148,9 @@ public class SecurityFlowIntegrationTest {
     @MockitoBean
     private ReactiveRedisConnectionFactory reactiveRedisConnectionFactory;
 
+    @MockitoBean
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
     @MockitoBean
     private StripeClient stripeClient;
 
@@ -158,6 +165,23 @@ public class SecurityFlowIntegrationTest {
             return null;
         }).when(redisStore).put(anyString(), any(), any());
         doAnswer(invocation -> redisValues.remove(invocation.getArgument(0, String.class))).when(redisStore).consume(anyString());
+        when(redisStore.getBytes(anyString())).thenAnswer(invocation -> redisValues.get(invocation.getArgument(0, String.class)));
+        when(redisStore.consumeBytes(anyString())).thenAnswer(invocation -> redisValues.remove(invocation.getArgument(0, String.class)));
+        doAnswer(invocation -> {
+            if (invocation.getArgument(3, Boolean.class)) {
+                redisValues.putIfAbsent(invocation.getArgument(0, String.class), invocation.getArgument(1));
+            } else {
+                redisValues.put(invocation.getArgument(0, String.class), invocation.getArgument(1));
+            }
+            return null;
+        }).when(redisStore).putBytes(anyString(), any(), any(), anyBoolean());
+        doAnswer(invocation -> {
+            redisValues.putAll(invocation.getArgument(0));
+            return null;
+        }).when(redisStore).putBytes(anyMap(), any());
+        when(redisStore.delete(any())).thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).stream()
+                                                                                                           .filter(key -> redisValues.remove(key) != null)
+                                                                                                           .count());
         ensureFrontendClientExists();
         ensureBasicTierExists();
     }
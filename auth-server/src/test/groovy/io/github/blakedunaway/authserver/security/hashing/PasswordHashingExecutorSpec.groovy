@@ -0,0 +1,55 @@
+package io.github.blakedunaway.authserver.security.hashing
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class PasswordHashingExecutorSpec extends Specification {
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+
+    @Subject
+    private PasswordHashingExecutor executor = new PasswordHashingExecutor(meterRegistry)
+
+    def setup() {
+        executor.configuredMaxConcurrency = 1
+        executor.configuredMaxQueue = 1
+        executor.maxWaitMillis = 100
+        executor.initialize()
+    }
+
+    def "execute runs the hash and records its duration"() {
+        when:
+        def result = executor.execute("matches") { true }
+
+        then:
+        result
+        meterRegistry.get("auth.password.hashing.duration").tag("operation", "matches").timer().count() == 1
+    }
+
+    def "requests are shed with a retry hint once the wait exceeds the threshold"() {
+        given:
+        def release = new CountDownLatch(1)
+        def started = new CountDownLatch(1)
+        def pool = Executors.newSingleThreadExecutor()
+        pool.submit { executor.execute("encode") { started.countDown(); release.await(5, TimeUnit.SECONDS) } }
+        started.await(5, TimeUnit.SECONDS)
+
+        when:
+        executor.execute("matches") { true }
+
+        then:
+        def ex = thrown(PasswordHashingUnavailableException)
+        ex.retryAfterSeconds >= 1
+        meterRegistry.get("auth.password.hashing.rejected").counter().count() == 1
+
+        cleanup:
+        release.countDown()
+        pool.shutdown()
+    }
+
+}
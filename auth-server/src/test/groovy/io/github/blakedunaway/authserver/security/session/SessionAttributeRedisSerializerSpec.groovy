@@ -0,0 +1,170 @@
+package io.github.blakedunaway.authserver.security.session
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule
+import io.github.blakedunaway.authserver.business.model.user.ClientRegisterDto
+import io.github.blakedunaway.authserver.business.model.user.PlatformRegisterDto
+import jakarta.servlet.http.Cookie
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer
+import org.springframework.data.redis.serializer.SerializationException
+import org.springframework.mock.web.MockHttpServletRequest
+import org.springframework.security.core.authority.SimpleGrantedAuthority
+import org.springframework.security.core.context.SecurityContextImpl
+import org.springframework.security.jackson2.SecurityJackson2Modules
+import org.springframework.security.oauth2.server.authorization.jackson2.OAuth2AuthorizationServerJackson2Module
+import org.springframework.security.web.PortResolver
+import org.springframework.security.web.authentication.WebAuthenticationDetails
+import org.springframework.security.web.csrf.DefaultCsrfToken
+import org.springframework.security.web.savedrequest.DefaultSavedRequest
+import spock.lang.Specification
+import spock.lang.Subject
+
+class SessionAttributeRedisSerializerSpec extends Specification {
+
+    @Subject
+    private SessionAttributeRedisSerializer serializer = new SessionAttributeRedisSerializer(securityObjectMapper())
+
+    def "client login security context round trips in less space than java serialization"() {
+        given:
+        def authentication = ClientRegisterDto.UsernamePasswordWithClientAuthenticationToken.authenticated(
+                "user@example.com", "client-a", [new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("READ")])
+        authentication.setDetails(new WebAuthenticationDetails("10.0.0.1", "session-1"))
+        def context = new SecurityContextImpl(authentication)
+
+        when:
+        def bytes = serializer.serialize(context)
+        def restored = serializer.deserialize(bytes)
+
+        then:
+        bytes.length < new JdkSerializationRedisSerializer().serialize(context).length
+        restored instanceof SecurityContextImpl
+        with((ClientRegisterDto.UsernamePasswordWithClientAuthenticationToken) restored.authentication) {
+            email == "user@example.com"
+            clientId == "client-a"
+            authenticated
+            authorities*.authority as Set == ["ROLE_USER", "READ"] as Set
+            details == new WebAuthenticationDetails("10.0.0.1", "session-1")
+        }
+    }
+
+    def "platform login security context round trips"() {
+        given:
+        def context = new SecurityContextImpl(PlatformRegisterDto.UsernamePasswordWithPlatformAuthenticationToken.authenticated(
+                "owner@example.com", [new SimpleGrantedAuthority("ROLE_PLATFORM")]))
+
+        when:
+        def restored = serializer.deserialize(serializer.serialize(context))
+
+        then:
+        restored.authentication instanceof PlatformRegisterDto.UsernamePasswordWithPlatformAuthenticationToken
+        restored.authentication.name == "owner@example.com"
+        restored.authentication.authenticated
+        restored.authentication.authorities*.authority == ["ROLE_PLATFORM"]
+    }
+
+    def "saved authorize request round trips and still matches the original request"() {
+        given:
+        def request = new MockHttpServletRequest("GET", "/oauth2/authorize")
+        request.scheme = "https"
+        request.serverName = "auth.example.com"
+        request.serverPort = 443
+        request.queryString = "response_type=code&client_id=client-a&state=xyz"
+        request.setParameters([response_type: "code", client_id: "client-a", state: "xyz"])
+        request.addHeader("Accept", "text/html")
+        request.addHeader("Accept-Language", "en-US")
+        request.addPreferredLocale(Locale.US)
+        request.setCookies(new Cookie("theme", "dark"))
+        def saved = new DefaultSavedRequest(request, "continue")
+
+        when:
+        def restored = (DefaultSavedRequest) serializer.deserialize(serializer.serialize(saved))
+
+        then:
+        restored.redirectUrl == saved.redirectUrl
+        restored.method == "GET"
+        restored.getParameterValues("client_id") == ["client-a"] as String[]
+        restored.getHeaderValues("Accept") == ["text/html"]
+        restored.locales == saved.locales
+        restored.cookies*.name == ["theme"]
+        restored.doesRequestMatch(continueRequest(request), { it.serverPort } as PortResolver)
+        saved.doesRequestMatch(continueRequest(request), { it.serverPort } as PortResolver)
+    }
+
+    private static MockHttpServletRequest continueRequest(final MockHttpServletRequest original) {
+        def request = new MockHttpServletRequest(original.method, original.requestURI)
+        request.scheme = original.scheme
+        request.serverName = original.serverName
+        request.serverPort = original.serverPort
+        request.queryString = original.queryString + "&continue"
+        return request
+    }
+
+    def "session bookkeeping values and other attributes survive"() {
+        expect:
+        serializer.deserialize(serializer.serialize(value)) == value
+
+        where:
+        value << [1_700_000_000_000L, 1800, "csrf", [a: 1] as HashMap]
+    }
+
+    def "the csrf token round trips without the object mapper"() {
+        given:
+        def token = new DefaultCsrfToken("X-CSRF-TOKEN", "_csrf", "token-value")
+
+        when:
+        def restored = serializer.deserialize(serializer.serialize(token))
+
+        then:
+        restored instanceof DefaultCsrfToken
+        restored.headerName == "X-CSRF-TOKEN"
+        restored.parameterName == "_csrf"
+        restored.token == "token-value"
+    }
+
+    def "types outside the object mapper allowlist are not instantiated"() {
+        given:
+        def bytes = serializer.serialize(new Untrusted(name: "x"))
+
+        when:
+        serializer.deserialize(bytes)
+
+        then:
+        thrown(SerializationException)
+    }
+
+    def "values written by the java serialization fallback read back as absent"() {
+        given:
+        def bytes = new ByteArrayOutputStream()
+        bytes.write(SessionAttributeRedisSerializer.FORMAT_VERSION)
+        bytes.write(127)
+        bytes.write(new JdkSerializationRedisSerializer().serialize([a: 1] as HashMap))
+
+        expect:
+        serializer.deserialize(bytes.toByteArray()) == null
+    }
+
+    def "values written by an unknown format version read back as absent"() {
+        given:
+        def bytes = serializer.serialize("value")
+        bytes[0] = (byte) (SessionAttributeRedisSerializer.FORMAT_VERSION + 1)
+
+        expect:
+        serializer.deserialize(bytes) == null
+        serializer.deserialize(new byte[0]) == null
+    }
+
+    static class Untrusted {
+
+        String name
+
+    }
+
+    private static ObjectMapper securityObjectMapper() {
+        def objectMapper = new ObjectMapper()
+        objectMapper.registerModules(SecurityJackson2Modules.getModules(SessionAttributeRedisSerializerSpec.classLoader))
+        objectMapper.registerModule(new OAuth2AuthorizationServerJackson2Module())
+        objectMapper.registerModule(new JavaTimeModule())
+        return objectMapper
+    }
+
+}
@@ -0,0 +1,28 @@
+package io.github.blakedunaway.authserver.security.token
+
+import io.github.blakedunaway.authserver.security.hashing.ClientAuthenticationUnavailableException
+import io.github.blakedunaway.authserver.security.hashing.PasswordHashingUnavailableException
+import org.springframework.security.crypto.password.PasswordEncoder
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes
+import spock.lang.Specification
+import spock.lang.Subject
+
+class ClientSecretVerificationCacheSpec extends Specification {
+
+    private PasswordEncoder passwordEncoder = Mock()
+
+    @Subject
+    private ClientSecretVerificationCache cache = new ClientSecretVerificationCache(passwordEncoder)
+
+    def "shed client secret verification surfaces as temporarily unavailable with the retry hint"() {
+        when:
+        cache.asPasswordEncoder().matches(null, "stored-hash")
+
+        then:
+        1 * passwordEncoder.matches(null, "stored-hash") >> { throw new PasswordHashingUnavailableException("busy", 3) }
+        def ex = thrown(ClientAuthenticationUnavailableException)
+        ex.error.errorCode == OAuth2ErrorCodes.TEMPORARILY_UNAVAILABLE
+        ex.retryAfterSeconds == 3
+    }
+
+}
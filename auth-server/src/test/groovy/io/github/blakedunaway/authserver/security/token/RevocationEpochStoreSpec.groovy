@@ -0,0 +1,104 @@
+package io.github.blakedunaway.authserver.security.token
+
+import io.github.blakedunaway.authserver.business.model.event.TokensRevokedEvent
+import io.github.blakedunaway.authserver.config.redis.RedisStore
+import io.github.blakedunaway.authserver.util.RedisUtility
+import org.springframework.data.redis.connection.Message
+import org.springframework.security.oauth2.jwt.Jwt
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.Instant
+
+class RevocationEpochStoreSpec extends Specification {
+
+    private RedisStore redisStore = Mock()
+
+    @Subject
+    private RevocationEpochStore store = new RevocationEpochStore(redisStore)
+
+    private RevocationEpochValidator validator = new RevocationEpochValidator(store)
+
+    def setup() {
+        store.retentionMillis = 3_600_000
+    }
+
+    def "client revocation rejects tokens issued before it and is shared through redis"() {
+        given:
+        def revokedAt = Instant.now()
+        def epoch = revokedAt.epochSecond + 1
+
+        when:
+        store.onTokensRevoked(new TokensRevokedEvent("client-a", null, revokedAt))
+
+        then:
+        1 * redisStore.raiseHashEntry(RedisUtility.REVOCATION_EPOCHS, "client:client-a", epoch) >> epoch
+        1 * redisStore.publish(RedisUtility.REVOCATION_EPOCH_CHANNEL, ["client:client-a": epoch])
+        validator.validate(jwt("client-a", "user@example.com", revokedAt.minusSeconds(60))).hasErrors()
+        !validator.validate(jwt("client-a", "user@example.com", revokedAt.plusSeconds(2))).hasErrors()
+        !validator.validate(jwt("client-b", "user@example.com", revokedAt.minusSeconds(60))).hasErrors()
+    }
+
+    def "a revocation older than the shared epoch keeps and rebroadcasts the shared one"() {
+        given:
+        def revokedAt = Instant.now().minusSeconds(600)
+        def shared = Instant.now().epochSecond + 1
+
+        when:
+        store.onTokensRevoked(new TokensRevokedEvent("client-a", null, revokedAt))
+
+        then:
+        1 * redisStore.raiseHashEntry(RedisUtility.REVOCATION_EPOCHS, "client:client-a", revokedAt.epochSecond + 1) >> shared
+        1 * redisStore.publish(RedisUtility.REVOCATION_EPOCH_CHANNEL, ["client:client-a": shared])
+        store.isRevoked("client-a", null, Instant.ofEpochSecond(shared - 1))
+    }
+
+    def "subject revocation only affects that subject of the client"() {
+        given:
+        def revokedAt = Instant.now()
+
+        when:
+        store.onTokensRevoked(new TokensRevokedEvent("client-a", "user@example.com", revokedAt))
+
+        then:
+        store.isRevoked("client-a", "user@example.com", revokedAt.minusSeconds(1))
+        !store.isRevoked("client-a", "other@example.com", revokedAt.minusSeconds(1))
+    }
+
+    def "epochs broadcast by other nodes are applied and never move backwards"() {
+        given:
+        def now = Instant.now().epochSecond
+        redisStore.readMessage(_ as Message) >>> [["client:client-a": now], ["client:client-a": now - 600]]
+
+        when:
+        store.onMessage(Mock(Message), null)
+        store.onMessage(Mock(Message), null)
+
+        then:
+        store.isRevoked("client-a", null, Instant.ofEpochSecond(now - 300))
+    }
+
+    def "refresh loads missed epochs and prunes ones past retention"() {
+        given:
+        def now = Instant.now().epochSecond
+        redisStore.getStringHashEntries(RedisUtility.REVOCATION_EPOCHS) >> ["client:fresh": now as String, "client:stale": (now - 7_200) as String]
+
+        when:
+        store.refresh()
+
+        then:
+        1 * redisStore.deleteHashEntriesBelow(RedisUtility.REVOCATION_EPOCHS, ["client:stale"], { it > now - 7_200 })
+        store.isRevoked("fresh", null, Instant.ofEpochSecond(now - 1))
+        !store.isRevoked("stale", null, Instant.ofEpochSecond(now - 7_201))
+    }
+
+    private static Jwt jwt(final String clientId, final String subject, final Instant issuedAt) {
+        return Jwt.withTokenValue("token")
+                  .header("alg", "RS256")
+                  .claim("azp", clientId)
+                  .subject(subject)
+                  .issuedAt(issuedAt)
+                  .build()
+    }
+
+}
@@ -0,0 +1,29 @@
+package io.github.blakedunaway.authserver.util
+
+import spock.lang.Specification
+
+class UuidUtilitySpec extends Specification {
+
+    def "time ordered ids are version 7 and strictly increasing in byte order"() {
+        when:
+        def ids = (1..10_000).collect { UuidUtility.timeOrdered() }
+
+        then:
+        ids.every { it.version() == 7 && it.variant() == 2 }
+        ids.collect { it.toString() } == ids.collect { it.toString() }.sort(false)
+        ids.toSet().size() == ids.size()
+    }
+
+    def "the leading 48 bits carry the creation time in milliseconds"() {
+        given:
+        def before = System.currentTimeMillis()
+
+        when:
+        def id = UuidUtility.timeOrdered()
+
+        then:
+        (id.mostSignificantBits >>> 16) >= before
+        (id.mostSignificantBits >>> 16) <= System.currentTimeMillis() + 1
+    }
+
+}